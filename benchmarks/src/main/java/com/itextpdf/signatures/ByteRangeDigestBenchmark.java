@@ -0,0 +1,117 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.signatures;
+
+import com.itextpdf.commons.utils.FileUtil;
+import com.itextpdf.io.source.RASInputStream;
+import com.itextpdf.io.source.RandomAccessSourceFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.security.GeneralSecurityException;
+import java.security.Security;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares hashing of a signature byte range through {@link PdfSigner}'s {@link RASInputStream} based path
+ * with the memory mapped path of {@link DigestAlgorithms#digest(java.nio.channels.FileChannel, long[],
+ * java.security.MessageDigest)}.
+ * <p>
+ * The byte range imitates the one of a signed document: the whole file except a hole for /Contents.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ByteRangeDigestBenchmark {
+
+    private static final int CONTENTS_HOLE_SIZE = 16386;
+
+    @Param({"SHA-256", "GOST3411-2012-256", "GOST3411-2012-512"})
+    public String hashAlgorithm;
+
+    @Param({"10485760", "209715200"})
+    public long documentSize;
+
+    private File file;
+
+    private RandomAccessFile raf;
+
+    private long[] byteRange;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Security.addProvider(new BouncyCastleProvider());
+        file = FileUtil.createTempFile("range", ".pdf");
+        byte[] chunk = new byte[1 << 20];
+        new Random(42).nextBytes(chunk);
+        try (OutputStream os = FileUtil.getFileOutputStream(file)) {
+            for (long written = 0; written < documentSize; written += chunk.length) {
+                os.write(chunk, 0, (int) Math.min(chunk.length, documentSize - written));
+            }
+        }
+        raf = FileUtil.getRandomAccessFile(file);
+        long holeStart = documentSize / 2;
+        long holeEnd = holeStart + CONTENTS_HOLE_SIZE;
+        byteRange = new long[] {0, holeStart, holeEnd, documentSize - holeEnd};
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        raf.close();
+        file.delete();
+    }
+
+    @Benchmark
+    public byte[] rangeStream() throws IOException, GeneralSecurityException {
+        RandomAccessSourceFactory factory = new RandomAccessSourceFactory();
+        RASInputStream data = new RASInputStream(factory.createRanged(factory.createSource(raf), byteRange));
+        return DigestAlgorithms.digest(data,
+                DigestAlgorithms.getMessageDigest(hashAlgorithm, BouncyCastleProvider.PROVIDER_NAME));
+    }
+
+    @Benchmark
+    public byte[] mappedRange() throws IOException, GeneralSecurityException {
+        return DigestAlgorithms.digest(raf.getChannel(), byteRange,
+                DigestAlgorithms.getMessageDigest(hashAlgorithm, BouncyCastleProvider.PROVIDER_NAME));
+    }
+}
@@ -0,0 +1,92 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.signatures;
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.Security;
+import java.util.concurrent.TimeUnit;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost of obtaining a message digest from the {@link IExternalDigest} implementations,
+ * i.e. the per document overhead which comes on top of the hashing measured by
+ * {@link DigestThroughputBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@Threads(4)
+public class DigestAcquisitionBenchmark {
+
+    @Param({"GOST3411-2012-256", "GOST3411-2012-512", "GOST3411", "SHA256", "SHA512"})
+    public String hashAlgorithm;
+
+    @Param({"bouncycastle", "provider", "pooled"})
+    public String digest;
+
+    private IExternalDigest externalDigest;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Security.addProvider(new BouncyCastleProvider());
+        externalDigest = createExternalDigest(digest);
+    }
+
+    @Benchmark
+    public int acquire() throws GeneralSecurityException {
+        MessageDigest messageDigest = externalDigest.getMessageDigest(hashAlgorithm);
+        int length = messageDigest.getDigestLength();
+        PooledDigest.release(externalDigest, messageDigest);
+        return length;
+    }
+
+    static IExternalDigest createExternalDigest(String name) {
+        switch (name) {
+            case "bouncycastle":
+                return new BouncyCastleDigest();
+            case "provider":
+                return new ProviderDigest(BouncyCastleProvider.PROVIDER_NAME);
+            case "pooled":
+                return new PooledDigest();
+            default:
+                throw new IllegalArgumentException(name);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.signatures;
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.Security;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the hashing throughput through the {@link IExternalDigest} implementations for documents
+ * from 10 KB to 500 MB. The document is fed to the digest in 64 KB chunks of the same buffer, so
+ * the heap size doesn't depend on the document size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DigestThroughputBenchmark {
+
+    private static final int CHUNK_SIZE = 65536;
+
+    @Param({"GOST3411-2012-256", "GOST3411-2012-512", "GOST3411", "SHA256", "SHA512"})
+    public String hashAlgorithm;
+
+    @Param({"10240", "1048576", "104857600", "524288000"})
+    public long documentSize;
+
+    @Param({"bouncycastle", "provider", "pooled"})
+    public String digest;
+
+    private IExternalDigest externalDigest;
+
+    private byte[] chunk;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Security.addProvider(new BouncyCastleProvider());
+        externalDigest = DigestAcquisitionBenchmark.createExternalDigest(digest);
+        chunk = new byte[CHUNK_SIZE];
+        new Random(42).nextBytes(chunk);
+    }
+
+    @Benchmark
+    public byte[] hashDocument() throws GeneralSecurityException {
+        MessageDigest messageDigest = externalDigest.getMessageDigest(hashAlgorithm);
+        for (long hashed = 0; hashed < documentSize; hashed += chunk.length) {
+            messageDigest.update(chunk, 0, (int) Math.min(chunk.length, documentSize - hashed));
+        }
+        byte[] hash = messageDigest.digest();
+        PooledDigest.release(externalDigest, messageDigest);
+        return hash;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.signatures;
+
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.cert.X509Certificate;
+import java.util.Collections;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.oiw.OIWObjectIdentifiers;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+import org.bouncycastle.cert.jcajce.JcaCertStore;
+import org.bouncycastle.cms.jcajce.JcaSignerInfoGeneratorBuilder;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.operator.DigestCalculatorProvider;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.bouncycastle.operator.jcajce.JcaDigestCalculatorProviderBuilder;
+import org.bouncycastle.tsp.TSPAlgorithms;
+import org.bouncycastle.tsp.TSPException;
+import org.bouncycastle.tsp.TimeStampRequestGenerator;
+import org.bouncycastle.tsp.TimeStampTokenGenerator;
+
+/**
+ * A time stamp authority that issues the tokens in process, so that the timestamping benchmarks do not
+ * depend on the network.
+ */
+final class LocalTsaClient implements ITSAClient {
+
+    private static final String POLICY_OID = "1.3.6.1.4.1.45794.1.1";
+
+    private final TimeStampTokenGenerator tokenGenerator;
+
+    private final AtomicLong serialNumber = new AtomicLong();
+
+    /**
+     * Creates a time stamp authority signing the tokens with an RSA key.
+     *
+     * @param privateKey  the private key of the authority
+     * @param certificate the certificate of the authority, it must have the critical time stamping extended
+     *                    key usage
+     * @throws GeneralSecurityException  if the certificate cannot be encoded
+     * @throws OperatorCreationException if the token signer cannot be created
+     * @throws TSPException              if the certificate cannot be used for time stamping
+     */
+    LocalTsaClient(PrivateKey privateKey, X509Certificate certificate)
+            throws GeneralSecurityException, OperatorCreationException, TSPException {
+        DigestCalculatorProvider digestCalculatorProvider = new JcaDigestCalculatorProviderBuilder()
+                .setProvider(BouncyCastleProvider.PROVIDER_NAME).build();
+        tokenGenerator = new TimeStampTokenGenerator(
+                new JcaSignerInfoGeneratorBuilder(digestCalculatorProvider).build(
+                        new JcaContentSignerBuilder("SHA256withRSA")
+                                .setProvider(BouncyCastleProvider.PROVIDER_NAME).build(privateKey), certificate),
+                digestCalculatorProvider.get(new AlgorithmIdentifier(OIWObjectIdentifiers.idSHA1)),
+                new ASN1ObjectIdentifier(POLICY_OID));
+        tokenGenerator.addCertificates(new JcaCertStore(Collections.singletonList(certificate)));
+    }
+
+    @Override
+    public int getTokenSizeEstimate() {
+        return 4096;
+    }
+
+    @Override
+    public MessageDigest getMessageDigest() throws GeneralSecurityException {
+        return new BouncyCastleDigest().getMessageDigest(DigestAlgorithms.SHA256);
+    }
+
+    @Override
+    public byte[] getTimeStampToken(byte[] imprint) throws Exception {
+        TimeStampRequestGenerator requestGenerator = new TimeStampRequestGenerator();
+        requestGenerator.setCertReq(true);
+        BigInteger serial = BigInteger.valueOf(serialNumber.incrementAndGet());
+        synchronized (tokenGenerator) {
+            return tokenGenerator.generate(requestGenerator.generate(TSPAlgorithms.SHA256, imprint, serial),
+                    serial, new Date()).getEncoded();
+        }
+    }
+}
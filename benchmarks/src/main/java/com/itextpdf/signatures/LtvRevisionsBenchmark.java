@@ -0,0 +1,157 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.signatures;
+
+import com.itextpdf.io.source.ByteArrayOutputStream;
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.StampingProperties;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.signatures.PdfSigner.CryptoStandard;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Security;
+import java.security.cert.Certificate;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the verification of all the revisions of a document against the number of its revisions.
+ * <p>
+ * {@link #ltvVerifier()} walks the revisions with {@link LtvVerifier}, which reads them through a single
+ * {@link com.itextpdf.kernel.pdf.PdfRevisionView}. {@link #extractRevisions()} does the same checks the way
+ * the verifier used to: every revision is extracted and parsed as a separate document.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LtvRevisionsBenchmark {
+
+    private static final int PAGE_COUNT = 50;
+
+    @Param({"1", "8", "32"})
+    public int revisions;
+
+    private byte[] document;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, GeneralSecurityException, OperatorCreationException {
+        Security.addProvider(new BouncyCastleProvider());
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair keyPair = generator.generateKeyPair();
+        X500Name name = new X500Name("CN=iText benchmark");
+        long now = System.currentTimeMillis();
+        Certificate[] chain = new Certificate[] {new JcaX509CertificateConverter()
+                .setProvider(BouncyCastleProvider.PROVIDER_NAME)
+                .getCertificate(new JcaX509v3CertificateBuilder(name, BigInteger.ONE,
+                        new Date(now - TimeUnit.DAYS.toMillis(1)), new Date(now + TimeUnit.DAYS.toMillis(365)),
+                        name, keyPair.getPublic())
+                        .build(new JcaContentSignerBuilder("SHA256withRSA").build(keyPair.getPrivate())))};
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfWriter(baos))) {
+            for (int i = 0; i < PAGE_COUNT; ++i) {
+                PdfCanvas canvas = new PdfCanvas(pdfDocument.addNewPage(PageSize.A4));
+                for (int j = 0; j < 100; ++j) {
+                    canvas.rectangle(j, j, 100, 100).stroke();
+                }
+            }
+        }
+        document = baos.toByteArray();
+        for (int i = 0; i < revisions; ++i) {
+            baos = new ByteArrayOutputStream();
+            PdfSigner signer = new PdfSigner(new PdfReader(new ByteArrayInputStream(document)), baos,
+                    new StampingProperties().useAppendMode());
+            signer.setFieldName("Signature" + i);
+            signer.signDetached(new BouncyCastleDigest(), new PrivateKeySignature(keyPair.getPrivate(),
+                    DigestAlgorithms.SHA256, BouncyCastleProvider.PROVIDER_NAME), chain, null, null, null, 0,
+                    CryptoStandard.CMS);
+            document = baos.toByteArray();
+        }
+    }
+
+    @Benchmark
+    public List<VerificationOK> ltvVerifier() throws IOException, GeneralSecurityException {
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(document)))) {
+            LtvVerifier verifier = new LtvVerifier(pdfDocument);
+            verifier.setVerifyRootCertificate(false);
+            return verifier.verify(null);
+        }
+    }
+
+    @Benchmark
+    public int extractRevisions() throws IOException, GeneralSecurityException {
+        int verified = 0;
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(document)))) {
+            SignatureUtil signatureUtil = new SignatureUtil(pdfDocument);
+            List<String> names = signatureUtil.getSignatureNames();
+            for (int i = names.size() - 1; i >= 0; --i) {
+                String name = names.get(i);
+                if (i == names.size() - 1) {
+                    verified += verify(signatureUtil, name);
+                } else {
+                    try (PdfDocument revision = new PdfDocument(
+                            new PdfReader(signatureUtil.extractRevision(name)))) {
+                        verified += verify(new SignatureUtil(revision), name);
+                    }
+                }
+            }
+        }
+        return verified;
+    }
+
+    private static int verify(SignatureUtil signatureUtil, String name) throws GeneralSecurityException {
+        return signatureUtil.signatureCoversWholeDocument(name)
+                && signatureUtil.readSignatureData(name).verifySignatureIntegrityAndAuthenticity() ? 1 : 0;
+    }
+}
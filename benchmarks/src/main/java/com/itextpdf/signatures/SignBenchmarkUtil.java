@@ -0,0 +1,203 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.signatures;
+
+import com.itextpdf.io.source.ByteArrayOutputStream;
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.cert.X509Certificate;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.ExtendedKeyUsage;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.KeyPurposeId;
+import org.bouncycastle.cert.X509v3CertificateBuilder;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v2CRLBuilder;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.jce.spec.ECNamedCurveGenParameterSpec;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+
+/**
+ * Keys, certificates, revocation data and documents shared by the signing benchmarks.
+ */
+final class SignBenchmarkUtil {
+
+    static final String RSA = "RSA";
+    static final String GOST_256 = "ECGOST3410-2012-256";
+    static final String GOST_512 = "ECGOST3410-2012-512";
+
+    private SignBenchmarkUtil() {
+    }
+
+    /**
+     * Generates a key pair for one of {@link #RSA}, {@link #GOST_256} or {@link #GOST_512}.
+     *
+     * @param algorithm the signing algorithm
+     * @return the generated key pair
+     * @throws GeneralSecurityException if the algorithm is not supported by the BouncyCastle provider
+     */
+    static KeyPair generateKeyPair(String algorithm) throws GeneralSecurityException {
+        KeyPairGenerator generator;
+        switch (algorithm) {
+            case RSA:
+                generator = KeyPairGenerator.getInstance("RSA", BouncyCastleProvider.PROVIDER_NAME);
+                generator.initialize(2048);
+                break;
+            case GOST_256:
+                generator = KeyPairGenerator.getInstance("ECGOST3410-2012", BouncyCastleProvider.PROVIDER_NAME);
+                generator.initialize(new ECNamedCurveGenParameterSpec("Tc26-Gost-3410-12-256-paramSetA"));
+                break;
+            case GOST_512:
+                generator = KeyPairGenerator.getInstance("ECGOST3410-2012", BouncyCastleProvider.PROVIDER_NAME);
+                generator.initialize(new ECNamedCurveGenParameterSpec("Tc26-Gost-3410-12-512-paramSetA"));
+                break;
+            default:
+                throw new IllegalArgumentException(algorithm);
+        }
+        return generator.generateKeyPair();
+    }
+
+    /**
+     * Gets the digest algorithm that is paired with the signing algorithm.
+     *
+     * @param algorithm one of {@link #RSA}, {@link #GOST_256} or {@link #GOST_512}
+     * @return the digest algorithm name
+     */
+    static String getDigestAlgorithm(String algorithm) {
+        switch (algorithm) {
+            case GOST_256:
+                return "GOST3411-2012-256";
+            case GOST_512:
+                return "GOST3411-2012-512";
+            default:
+                return DigestAlgorithms.SHA256;
+        }
+    }
+
+    /**
+     * Creates a {@link PrivateKeySignature} that produces signatures of the given algorithm.
+     *
+     * @param algorithm one of {@link #RSA}, {@link #GOST_256} or {@link #GOST_512}
+     * @param keyPair   the key pair generated for the algorithm
+     * @return the signature
+     */
+    static PrivateKeySignature createSignature(String algorithm, KeyPair keyPair) {
+        PrivateKeySignature signature = new PrivateKeySignature(keyPair.getPrivate(), getDigestAlgorithm(algorithm),
+                BouncyCastleProvider.PROVIDER_NAME);
+        if (!RSA.equals(algorithm)) {
+            signature.setEncryptionAlgorithm(algorithm);
+        }
+        return signature;
+    }
+
+    /**
+     * Creates a self-signed certificate valid for a year.
+     *
+     * @param algorithm        one of {@link #RSA}, {@link #GOST_256} or {@link #GOST_512}
+     * @param keyPair          the key pair generated for the algorithm
+     * @param commonName       the common name of the subject
+     * @param extendedKeyUsage the critical extended key usage of the certificate or {@code null}
+     * @return the certificate
+     * @throws GeneralSecurityException if the certificate cannot be signed
+     * @throws IOException              if the extension cannot be encoded
+     * @throws OperatorCreationException if the certificate signer cannot be created
+     */
+    static X509Certificate createCertificate(String algorithm, KeyPair keyPair, String commonName,
+            KeyPurposeId extendedKeyUsage) throws GeneralSecurityException, IOException, OperatorCreationException {
+        X500Name name = new X500Name("CN=" + commonName);
+        long now = System.currentTimeMillis();
+        X509v3CertificateBuilder builder = new JcaX509v3CertificateBuilder(name, BigInteger.valueOf(now),
+                new Date(now - TimeUnit.DAYS.toMillis(1)), new Date(now + TimeUnit.DAYS.toMillis(365)), name,
+                keyPair.getPublic());
+        if (extendedKeyUsage != null) {
+            builder.addExtension(Extension.extendedKeyUsage, true, new ExtendedKeyUsage(extendedKeyUsage));
+        }
+        return new JcaX509CertificateConverter()
+                .setProvider(BouncyCastleProvider.PROVIDER_NAME)
+                .getCertificate(builder.build(new JcaContentSignerBuilder(getCertificateSignatureAlgorithm(algorithm))
+                        .setProvider(BouncyCastleProvider.PROVIDER_NAME)
+                        .build(keyPair.getPrivate())));
+    }
+
+    /**
+     * Creates an empty DER-encoded CRL issued by a self-signed certificate.
+     *
+     * @param algorithm   one of {@link #RSA}, {@link #GOST_256} or {@link #GOST_512}
+     * @param keyPair     the key pair of the issuer
+     * @param certificate the certificate of the issuer
+     * @return the encoded CRL
+     * @throws IOException               if the CRL cannot be encoded
+     * @throws OperatorCreationException if the CRL signer cannot be created
+     */
+    static byte[] createCrl(String algorithm, KeyPair keyPair, X509Certificate certificate)
+            throws IOException, OperatorCreationException {
+        long now = System.currentTimeMillis();
+        JcaX509v2CRLBuilder builder = new JcaX509v2CRLBuilder(certificate.getSubjectX500Principal(), new Date(now));
+        builder.setNextUpdate(new Date(now + TimeUnit.DAYS.toMillis(7)));
+        return builder.build(new JcaContentSignerBuilder(getCertificateSignatureAlgorithm(algorithm))
+                .setProvider(BouncyCastleProvider.PROVIDER_NAME)
+                .build(keyPair.getPrivate())).getEncoded();
+    }
+
+    /**
+     * Creates a document with the given number of pages, each of which has some content to compress and hash.
+     *
+     * @param pages the number of pages
+     * @return the document bytes
+     */
+    static byte[] createDocument(int pages) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfWriter(baos))) {
+            for (int i = 0; i < pages; ++i) {
+                PdfCanvas canvas = new PdfCanvas(pdfDocument.addNewPage(PageSize.A4));
+                for (int j = 0; j < 20; ++j) {
+                    canvas.rectangle(j, j, 100, 100).stroke();
+                }
+            }
+        }
+        return baos.toByteArray();
+    }
+
+    private static String getCertificateSignatureAlgorithm(String algorithm) {
+        switch (algorithm) {
+            case GOST_256:
+                return "GOST3411-2012-256WITHECGOST3410-2012-256";
+            case GOST_512:
+                return "GOST3411-2012-512WITHECGOST3410-2012-512";
+            default:
+                return "SHA256withRSA";
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.signatures;
+
+import com.itextpdf.io.source.ByteArrayOutputStream;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.StampingProperties;
+import com.itextpdf.signatures.PdfSigner.CryptoStandard;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.Security;
+import java.security.cert.Certificate;
+import java.util.concurrent.TimeUnit;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link PdfSigner#signDetached} of a whole document with an in-memory {@link PrivateKeySignature},
+ * from reading the document to writing the signed one, for RSA and GOST R 34.10-2012 keys and documents
+ * of different sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SignDetachedBenchmark {
+
+    @Param({"1", "100", "1000"})
+    public int pages;
+
+    @Param({SignBenchmarkUtil.RSA, SignBenchmarkUtil.GOST_256, SignBenchmarkUtil.GOST_512})
+    public String algorithm;
+
+    @Param({"CMS", "CADES"})
+    public CryptoStandard standard;
+
+    private byte[] document;
+
+    private PrivateKeySignature signature;
+
+    private Certificate[] chain;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, GeneralSecurityException, OperatorCreationException {
+        Security.addProvider(new BouncyCastleProvider());
+        KeyPair keyPair = SignBenchmarkUtil.generateKeyPair(algorithm);
+        signature = SignBenchmarkUtil.createSignature(algorithm, keyPair);
+        chain = new Certificate[] {SignBenchmarkUtil.createCertificate(algorithm, keyPair, "iText benchmark", null)};
+        document = SignBenchmarkUtil.createDocument(pages);
+    }
+
+    @Benchmark
+    public int signDetached() throws IOException, GeneralSecurityException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfSigner signer = new PdfSigner(new PdfReader(new ByteArrayInputStream(document)), baos,
+                new StampingProperties());
+        signer.signDetached(new BouncyCastleDigest(), signature, chain, null, null, null, 0, standard);
+        return baos.size();
+    }
+}
@@ -0,0 +1,191 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.signatures;
+
+import com.itextpdf.io.source.ByteArrayOutputStream;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.StampingProperties;
+import com.itextpdf.signatures.PdfSigner.CryptoStandard;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.Security;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.concurrent.TimeUnit;
+import org.bouncycastle.asn1.x509.KeyPurposeId;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.bouncycastle.tsp.TSPException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the rest of the signing workflow against the size of the document: signing with an external
+ * CAdES container, adding a document timestamp issued by a local {@link LocalTsaClient}, verifying the
+ * signature with {@link SignatureUtil} and adding its validation data with
+ * {@link LtvVerification#addVerification}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SignWorkflowBenchmark {
+
+    private static final String SIGNATURE_NAME = "Signature1";
+
+    @Param({"1", "100", "1000"})
+    public int pages;
+
+    private byte[] document;
+
+    private byte[] signedDocument;
+
+    private PrivateKeySignature signature;
+
+    private Certificate[] chain;
+
+    private ITSAClient tsaClient;
+
+    private ICrlClient crlClient;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, GeneralSecurityException, OperatorCreationException, TSPException {
+        Security.addProvider(new BouncyCastleProvider());
+        KeyPair keyPair = SignBenchmarkUtil.generateKeyPair(SignBenchmarkUtil.RSA);
+        X509Certificate certificate = SignBenchmarkUtil.createCertificate(SignBenchmarkUtil.RSA, keyPair,
+                "iText benchmark", null);
+        signature = SignBenchmarkUtil.createSignature(SignBenchmarkUtil.RSA, keyPair);
+        chain = new Certificate[] {certificate};
+        crlClient = new CrlClientOffline(SignBenchmarkUtil.createCrl(SignBenchmarkUtil.RSA, keyPair, certificate));
+
+        KeyPair tsaKeyPair = SignBenchmarkUtil.generateKeyPair(SignBenchmarkUtil.RSA);
+        tsaClient = new LocalTsaClient(tsaKeyPair.getPrivate(), SignBenchmarkUtil.createCertificate(
+                SignBenchmarkUtil.RSA, tsaKeyPair, "iText benchmark TSA", KeyPurposeId.id_kp_timeStamping));
+
+        document = SignBenchmarkUtil.createDocument(pages);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfSigner signer = new PdfSigner(new PdfReader(new ByteArrayInputStream(document)), baos,
+                new StampingProperties());
+        signer.setFieldName(SIGNATURE_NAME);
+        signer.signDetached(new BouncyCastleDigest(), signature, chain, null, null, null, 0, CryptoStandard.CADES);
+        signedDocument = baos.toByteArray();
+    }
+
+    @Benchmark
+    public int signExternalContainer() throws IOException, GeneralSecurityException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfSigner signer = new PdfSigner(new PdfReader(new ByteArrayInputStream(document)), baos,
+                new StampingProperties());
+        signer.signExternalContainer(new CadesSignatureContainer(signature, chain), 8192);
+        return baos.size();
+    }
+
+    @Benchmark
+    public int timestamp() throws IOException, GeneralSecurityException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfSigner signer = new PdfSigner(new PdfReader(new ByteArrayInputStream(signedDocument)), baos,
+                new StampingProperties().useAppendMode());
+        signer.timestamp(tsaClient, "Timestamp1");
+        return baos.size();
+    }
+
+    @Benchmark
+    public boolean verifySignature() throws IOException, GeneralSecurityException {
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(signedDocument)))) {
+            SignatureUtil signatureUtil = new SignatureUtil(pdfDocument);
+            return signatureUtil.signatureCoversWholeDocument(SIGNATURE_NAME)
+                    && signatureUtil.readSignatureData(SIGNATURE_NAME).verifySignatureIntegrityAndAuthenticity();
+        }
+    }
+
+    @Benchmark
+    public int addVerification() throws IOException, GeneralSecurityException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(signedDocument)),
+                new PdfWriter(baos), new StampingProperties().useAppendMode())) {
+            LtvVerification ltvVerification = new LtvVerification(pdfDocument);
+            ltvVerification.addVerification(SIGNATURE_NAME, null, crlClient,
+                    LtvVerification.CertificateOption.WHOLE_CHAIN, LtvVerification.Level.CRL,
+                    LtvVerification.CertificateInclusion.YES);
+            ltvVerification.merge();
+        }
+        return baos.size();
+    }
+
+    /**
+     * Builds a CAdES container the way an external signing service would, outside of {@link PdfSigner}.
+     */
+    private static final class CadesSignatureContainer implements IExternalSignatureContainer {
+
+        private final IExternalSignature signature;
+
+        private final Certificate[] chain;
+
+        CadesSignatureContainer(IExternalSignature signature, Certificate[] chain) {
+            this.signature = signature;
+            this.chain = chain;
+        }
+
+        @Override
+        public byte[] sign(InputStream data) throws GeneralSecurityException {
+            IExternalDigest externalDigest = new BouncyCastleDigest();
+            String hashAlgorithm = signature.getHashAlgorithm();
+            PdfPKCS7 sgn = new PdfPKCS7(null, chain, hashAlgorithm, null, externalDigest, false);
+            byte[] hash;
+            try {
+                hash = DigestAlgorithms.digest(data, externalDigest.getMessageDigest(hashAlgorithm));
+            } catch (IOException e) {
+                throw new GeneralSecurityException(e.getMessage(), e);
+            }
+            byte[] attributes = sgn.getAuthenticatedAttributeBytes(hash, CryptoStandard.CADES, null, null);
+            sgn.setExternalDigest(signature.sign(attributes), null, signature.getEncryptionAlgorithm());
+            return sgn.getEncodedPKCS7(hash, CryptoStandard.CADES, null, null, null);
+        }
+
+        @Override
+        public void modifySigningDictionary(PdfDictionary signDic) {
+            signDic.put(PdfName.Filter, PdfName.Adobe_PPKLite);
+            signDic.put(PdfName.SubFilter, PdfName.ETSI_CAdES_DETACHED);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.signatures;
+
+import com.itextpdf.io.image.ImageData;
+import com.itextpdf.io.image.ImageDataFactory;
+import com.itextpdf.io.source.ByteArrayOutputStream;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.signatures.PdfSignatureAppearance.RenderingMode;
+
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.GregorianCalendar;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.ImageIO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures rendering a visible signature appearance with a logo and a signature graphic into a new document.
+ * <p>
+ * {@link #appearance()} renders it from the settings of {@link PdfSignatureAppearance}, as every document of a batch
+ * did so far. {@link #template()} uses a {@link SignatureAppearanceTemplate} shared by all the documents.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SignatureAppearanceBenchmark {
+
+    private static final Rectangle FIELD = new Rectangle(36, 648, 300, 150);
+
+    private ImageData logo;
+
+    private ImageData signatureGraphic;
+
+    private SignatureAppearanceTemplate template;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        logo = createImage(600, 300, Color.LIGHT_GRAY, Color.WHITE);
+        signatureGraphic = createImage(400, 200, Color.BLUE, Color.WHITE);
+        template = new SignatureAppearanceTemplate()
+                .setRenderingMode(RenderingMode.GRAPHIC_AND_DESCRIPTION)
+                .setSignatureGraphic(signatureGraphic)
+                .setImage(logo)
+                .setImageScale(-1);
+    }
+
+    @Benchmark
+    public int appearance() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (PdfDocument document = new PdfDocument(new PdfWriter(baos))) {
+            document.addNewPage();
+            PdfSignatureAppearance appearance = createAppearance(document)
+                    .setRenderingMode(RenderingMode.GRAPHIC_AND_DESCRIPTION)
+                    .setSignatureGraphic(signatureGraphic)
+                    .setImage(logo)
+                    .setImageScale(-1);
+            appearance.getAppearance();
+        }
+        return baos.size();
+    }
+
+    @Benchmark
+    public int template() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (PdfDocument document = new PdfDocument(new PdfWriter(baos))) {
+            document.addNewPage();
+            createAppearance(document).setTemplate(template).getAppearance();
+        }
+        return baos.size();
+    }
+
+    private static PdfSignatureAppearance createAppearance(PdfDocument document) {
+        PdfSignatureAppearance appearance = new PdfSignatureAppearance(document, FIELD, 1)
+                .setReason("Approval")
+                .setLocation("Moscow")
+                .setLayer2Text("Digitally signed by iText benchmark\nDate: "
+                        + SignUtils.dateToString(new GregorianCalendar()));
+        appearance.setSignDate(new GregorianCalendar());
+        return appearance;
+    }
+
+    private static ImageData createImage(int width, int height, Color from, Color to) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setPaint(new GradientPaint(0, 0, from, width, height, to));
+        graphics.fillRect(0, 0, width, height);
+        graphics.dispose();
+        java.io.ByteArrayOutputStream png = new java.io.ByteArrayOutputStream();
+        ImageIO.write(image, "png", png);
+        return ImageDataFactory.create(png.toByteArray());
+    }
+}
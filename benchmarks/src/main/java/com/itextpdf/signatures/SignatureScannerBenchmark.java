@@ -0,0 +1,193 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.signatures;
+
+import com.itextpdf.io.source.ByteArrayOutputStream;
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.StampingProperties;
+import com.itextpdf.kernel.pdf.WriterProperties;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.signatures.PdfSigner.CryptoStandard;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Security;
+import java.security.cert.Certificate;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the listing of the signatures of a large signed document together with their byte ranges,
+ * signing certificates and coverage.
+ * <p>
+ * {@link #signatureScanner()} reads the signatures with {@link SignatureScanner}, {@link #signatureUtil()}
+ * opens a {@link PdfDocument} and reads them with {@link SignatureUtil}, which has no way to read the signature
+ * container without digesting the signed bytes. {@link #signatureScannerWithDigest()} reads the same data
+ * as {@link #signatureUtil()} does. {@link #signatureScannerIntegrity()} checks the integrity of all the signatures
+ * with {@link SignatureScanner#verifyIntegrity()}, hashing their common prefix once. Both uncompressed documents with a cross-reference table and documents
+ * with object and cross-reference streams are covered.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SignatureScannerBenchmark {
+
+    private static final int SIGNATURE_COUNT = 3;
+
+    @Param({"1000"})
+    public int pages;
+
+    @Param({"false", "true"})
+    public boolean fullCompression;
+
+    private byte[] document;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, GeneralSecurityException, OperatorCreationException {
+        Security.addProvider(new BouncyCastleProvider());
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair keyPair = generator.generateKeyPair();
+        X500Name name = new X500Name("CN=iText benchmark");
+        long now = System.currentTimeMillis();
+        Certificate[] chain = new Certificate[] {new JcaX509CertificateConverter()
+                .setProvider(BouncyCastleProvider.PROVIDER_NAME)
+                .getCertificate(new JcaX509v3CertificateBuilder(name, BigInteger.ONE,
+                        new Date(now - TimeUnit.DAYS.toMillis(1)), new Date(now + TimeUnit.DAYS.toMillis(365)),
+                        name, keyPair.getPublic())
+                        .build(new JcaContentSignerBuilder("SHA256withRSA").build(keyPair.getPrivate())))};
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        WriterProperties writerProperties = new WriterProperties();
+        if (fullCompression) {
+            writerProperties.setFullCompressionMode(true);
+        }
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfWriter(baos, writerProperties))) {
+            for (int i = 0; i < pages; ++i) {
+                PdfCanvas canvas = new PdfCanvas(pdfDocument.addNewPage(PageSize.A4));
+                for (int j = 0; j < 20; ++j) {
+                    canvas.rectangle(j, j, 100, 100).stroke();
+                }
+            }
+        }
+        document = baos.toByteArray();
+        for (int i = 0; i < SIGNATURE_COUNT; ++i) {
+            baos = new ByteArrayOutputStream();
+            PdfSigner signer = new PdfSigner(new PdfReader(new ByteArrayInputStream(document)), baos,
+                    new StampingProperties().useAppendMode());
+            signer.setFieldName("Signature" + i);
+            signer.signDetached(new BouncyCastleDigest(), new PrivateKeySignature(keyPair.getPrivate(),
+                    DigestAlgorithms.SHA256, BouncyCastleProvider.PROVIDER_NAME), chain, null, null, null, 0,
+                    CryptoStandard.CMS);
+            document = baos.toByteArray();
+        }
+    }
+
+    @Benchmark
+    public int signatureScanner() throws IOException {
+        int covered = 0;
+        try (SignatureScanner scanner = new SignatureScanner(document)) {
+            for (String name : scanner.getSignatureNames()) {
+                scanner.getByteRange(name);
+                scanner.readSignatureMetadata(name).getSigningCertificate();
+                if (scanner.signatureCoversWholeDocument(name)) {
+                    covered++;
+                }
+            }
+        }
+        return covered;
+    }
+
+    @Benchmark
+    public int signatureScannerWithDigest() throws IOException {
+        int covered = 0;
+        try (SignatureScanner scanner = new SignatureScanner(document)) {
+            for (String name : scanner.getSignatureNames()) {
+                scanner.getByteRange(name);
+                scanner.readSignatureData(name).getSigningCertificate();
+                if (scanner.signatureCoversWholeDocument(name)) {
+                    covered++;
+                }
+            }
+        }
+        return covered;
+    }
+
+    @Benchmark
+    public int signatureScannerIntegrity() throws IOException {
+        int valid = 0;
+        try (SignatureScanner scanner = new SignatureScanner(document)) {
+            for (SignatureScanner.IntegrityResult result : scanner.verifyIntegrity()) {
+                if (result.isIntegrityValid()) {
+                    valid++;
+                }
+            }
+        }
+        return valid;
+    }
+
+    @Benchmark
+    public int signatureUtil() throws IOException {
+        int covered = 0;
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(document)))) {
+            SignatureUtil signatureUtil = new SignatureUtil(pdfDocument);
+            for (String name : signatureUtil.getSignatureNames()) {
+                signatureUtil.getSignatureDictionary(name).getAsArray(PdfName.ByteRange);
+                signatureUtil.readSignatureData(name).getSigningCertificate();
+                if (signatureUtil.signatureCoversWholeDocument(name)) {
+                    covered++;
+                }
+            }
+        }
+        return covered;
+    }
+}
@@ -145,6 +145,17 @@ class ByteBufferRandomAccessSource implements IRandomAccessSource {
         return byteBuffer.limit();
     }
 
+    /**
+     * Gets a read-only view of the underlying buffer positioned at its first byte.
+     *
+     * @return the view of the underlying buffer
+     */
+    java.nio.ByteBuffer getByteBuffer() {
+        java.nio.ByteBuffer view = byteBuffer.asReadOnlyBuffer();
+        view.rewind();
+        return view;
+    }
+
     /**
      * @see java.io.RandomAccessFile#close()
      * Cleans the mapped bytebuffers and closes the channel if unmapping functionality is enabled
@@ -0,0 +1,114 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.io.source;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads regions of a {@link FileChannel} as memory mapped {@link ByteBuffer} windows.
+ * <p>
+ * The regions are described in the same way as a PDF <code>/ByteRange</code>: pairs of offset and length.
+ * Each region is mapped in windows of limited size, handed to a {@link IMappedRegionConsumer} and unmapped
+ * straight away, so no intermediate byte arrays are allocated and the mapped memory does not outlive the call.
+ */
+public final class MappedRangeReader {
+
+    /**
+     * The default maximal size of a single mapped window.
+     */
+    public static final int DEFAULT_WINDOW_SIZE = 1 << 26;
+
+    private MappedRangeReader() {
+        // Empty constructor
+    }
+
+    /**
+     * Maps the requested regions of the channel using {@link #DEFAULT_WINDOW_SIZE} windows
+     * and passes them to the consumer in order.
+     *
+     * @param channel  the channel to read from
+     * @param ranges   pairs of offset and length of the regions to read
+     * @param consumer the consumer of the mapped windows
+     * @throws IOException if the channel cannot be mapped or the consumer fails
+     */
+    public static void read(FileChannel channel, long[] ranges, IMappedRegionConsumer consumer) throws IOException {
+        read(channel, ranges, DEFAULT_WINDOW_SIZE, consumer);
+    }
+
+    /**
+     * Maps the requested regions of the channel and passes them to the consumer in order.
+     * Regions longer than <code>windowSize</code> are split into several consecutive windows.
+     *
+     * @param channel    the channel to read from
+     * @param ranges     pairs of offset and length of the regions to read
+     * @param windowSize the maximal size of a single mapped window
+     * @param consumer   the consumer of the mapped windows
+     * @throws IOException if the channel cannot be mapped or the consumer fails
+     */
+    public static void read(FileChannel channel, long[] ranges, int windowSize, IMappedRegionConsumer consumer)
+            throws IOException {
+        if (ranges.length % 2 != 0) {
+            throw new IllegalArgumentException("Ranges must consist of offset and length pairs");
+        }
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException(windowSize + " is zero or negative");
+        }
+        for (int k = 0; k < ranges.length; k += 2) {
+            long offset = ranges[k];
+            long remaining = ranges[k + 1];
+            if (offset < 0 || remaining < 0) {
+                throw new IllegalArgumentException("Range offset and length must not be negative");
+            }
+            while (remaining > 0) {
+                long windowLength = Math.min(remaining, windowSize);
+                // Wrapping the mapped buffer allows to reuse the unmapping logic on close
+                ByteBufferRandomAccessSource window = new ByteBufferRandomAccessSource(
+                        channel.map(FileChannel.MapMode.READ_ONLY, offset, windowLength));
+                try {
+                    consumer.accept(window.getByteBuffer());
+                } finally {
+                    window.close();
+                }
+                offset += windowLength;
+                remaining -= windowLength;
+            }
+        }
+    }
+
+    /**
+     * Receives the mapped windows produced by {@link MappedRangeReader}.
+     * The buffer is only valid during the call and must not be retained.
+     */
+    public interface IMappedRegionConsumer {
+
+        /**
+         * Processes a mapped window.
+         *
+         * @param buffer the mapped window, positioned at its first byte
+         * @throws IOException if the window cannot be processed
+         */
+        void accept(ByteBuffer buffer) throws IOException;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.io.source;
+
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.UnitTest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(UnitTest.class)
+public class MappedRangeReaderTest extends ExtendedITextTest {
+
+    private final static String SOURCE_FILE = "./src/test/resources/com/itextpdf/io/source/RAF.txt";
+
+    @Test
+    public void readRangesTest() throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(SOURCE_FILE, "r")) {
+            ByteArrayOutputStream read = new ByteArrayOutputStream();
+            MappedRangeReader.read(raf.getChannel(), new long[] {0, 5, 7, 6}, buffer -> appendTo(read, buffer));
+            Assert.assertEquals("Helloworld!", new String(read.toByteArray(), StandardCharsets.US_ASCII));
+        }
+    }
+
+    @Test
+    public void readRangesInSeveralWindowsTest() throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(SOURCE_FILE, "r")) {
+            ByteArrayOutputStream read = new ByteArrayOutputStream();
+            List<Integer> windowSizes = new ArrayList<>();
+            MappedRangeReader.read(raf.getChannel(), new long[] {0, 5, 7, 6}, 4, buffer -> {
+                windowSizes.add(buffer.remaining());
+                appendTo(read, buffer);
+            });
+            Assert.assertEquals("Helloworld!", new String(read.toByteArray(), StandardCharsets.US_ASCII));
+            Assert.assertArrayEquals(new Object[] {4, 1, 4, 2}, windowSizes.toArray());
+        }
+    }
+
+    @Test
+    public void emptyRangeIsSkippedTest() throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(SOURCE_FILE, "r")) {
+            List<ByteBuffer> windows = new ArrayList<>();
+            MappedRangeReader.read(raf.getChannel(), new long[] {3, 0}, windows::add);
+            Assert.assertTrue(windows.isEmpty());
+        }
+    }
+
+    @Test
+    public void oddRangesLengthTest() throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(SOURCE_FILE, "r")) {
+            FileChannel channel = raf.getChannel();
+            Assert.assertThrows(IllegalArgumentException.class,
+                    () -> MappedRangeReader.read(channel, new long[] {0, 5, 7}, buffer -> {}));
+        }
+    }
+
+    @Test
+    public void negativeRangeTest() throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(SOURCE_FILE, "r")) {
+            FileChannel channel = raf.getChannel();
+            Assert.assertThrows(IllegalArgumentException.class,
+                    () -> MappedRangeReader.read(channel, new long[] {-1, 5}, buffer -> {}));
+        }
+    }
+
+    private static void appendTo(ByteArrayOutputStream stream, ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        stream.write(bytes, 0, bytes.length);
+    }
+}
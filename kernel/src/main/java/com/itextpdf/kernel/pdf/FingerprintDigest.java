@@ -0,0 +1,110 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf;
+
+import com.itextpdf.kernel.exceptions.PdfException;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Computes the 128-bit fingerprint of the data passed to it piece by piece. The fingerprint is
+ * the first half of the SHA-256 digest of the data, so that the documents cannot be crafted to
+ * make different objects share a fingerprint.
+ */
+final class FingerprintDigest {
+    private final MessageDigest digest;
+    private final byte[] buffer = new byte[8];
+
+    FingerprintDigest() {
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new PdfException(e);
+        }
+    }
+
+    FingerprintDigest update(byte b) {
+        digest.update(b);
+        return this;
+    }
+
+    FingerprintDigest update(byte[] bytes) {
+        digest.update(bytes);
+        return this;
+    }
+
+    FingerprintDigest updateInt(int value) {
+        for (int i = 0; i < 4; ++i) {
+            buffer[i] = (byte) (value >>> (8 * i));
+        }
+        digest.update(buffer, 0, 4);
+        return this;
+    }
+
+    FingerprintDigest updateLong(long value) {
+        for (int i = 0; i < 8; ++i) {
+            buffer[i] = (byte) (value >>> (8 * i));
+        }
+        digest.update(buffer, 0, 8);
+        return this;
+    }
+
+    /**
+     * Finishes the computation. The instance must not be used after that.
+     *
+     * @return the fingerprint, the first 64 bits at index 0 and the last 64 bits at index 1
+     */
+    long[] digest() {
+        byte[] bytes = digest.digest();
+        return new long[] {getLong(bytes, 0), getLong(bytes, 8)};
+    }
+
+    private static long getLong(byte[] bytes, int off) {
+        long value = 0;
+        for (int i = 0; i < 8; ++i) {
+            value = (value << 8) | (bytes[off + i] & 0xff);
+        }
+        return value;
+    }
+}
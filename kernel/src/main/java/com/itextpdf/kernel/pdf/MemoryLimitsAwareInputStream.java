@@ -0,0 +1,168 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf;
+
+import com.itextpdf.kernel.exceptions.KernelExceptionMessageConstant;
+import com.itextpdf.kernel.exceptions.MemoryLimitsAwareException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * This class implements an input stream which can be used for memory limits aware decompression of pdf streams,
+ * which are decoded while they are being read. The decoded bytes are counted as they are read, instead of
+ * being accounted once the whole pdf stream is decoded.
+ */
+class MemoryLimitsAwareInputStream extends FilterInputStream {
+
+    private final MemoryLimitsAwareHandler memoryLimitsAwareHandler;
+    private final MemoryLimitsAwareInputStream previousFilterStream;
+    private boolean lastFilterStream;
+    private long count;
+    private boolean accounted;
+
+    /**
+     * Creates a stream counting the bytes decoded by one of the filters of a pdf stream.
+     *
+     * @param in                       the stream of the bytes decoded by the filter
+     * @param memoryLimitsAwareHandler the handler which limits the decompressed sizes
+     * @param previousFilterStream     the stream counting the bytes decoded by the previous filter of the
+     *                                 pdf stream, {@code null} for the first filter
+     */
+    MemoryLimitsAwareInputStream(InputStream in, MemoryLimitsAwareHandler memoryLimitsAwareHandler,
+            MemoryLimitsAwareInputStream previousFilterStream) {
+        super(in);
+        this.memoryLimitsAwareHandler = memoryLimitsAwareHandler;
+        this.previousFilterStream = previousFilterStream;
+    }
+
+    /**
+     * Marks the stream as the one of the last filter of the pdf stream. When such stream is read to the end
+     * or closed, the largest number of bytes decoded by the filters is considered as the memory occupied by
+     * the decompression of the pdf stream.
+     *
+     * @return this {@link MemoryLimitsAwareInputStream}
+     */
+    MemoryLimitsAwareInputStream setLastFilterStream() {
+        this.lastFilterStream = true;
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b < 0) {
+            onEnd();
+        } else {
+            consider(1);
+        }
+        return b;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if (n < 0) {
+            onEnd();
+        } else {
+            consider(n);
+        }
+        return n;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        consider(skipped);
+        return skipped;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        onEnd();
+        super.close();
+    }
+
+    private void consider(long numOfBytes) {
+        count += numOfBytes;
+        if (count > memoryLimitsAwareHandler.getMaxSizeOfSingleDecompressedPdfStream()) {
+            throw new MemoryLimitsAwareException(
+                    KernelExceptionMessageConstant.DURING_DECOMPRESSION_SINGLE_STREAM_OCCUPIED_MORE_MEMORY_THAN_ALLOWED);
+        }
+    }
+
+    private void onEnd() {
+        if (!lastFilterStream || accounted) {
+            return;
+        }
+        accounted = true;
+        long occupied = 0;
+        for (MemoryLimitsAwareInputStream stream = this; stream != null; stream = stream.previousFilterStream) {
+            occupied = Math.max(occupied, stream.count);
+        }
+        memoryLimitsAwareHandler.beginDecompressedPdfStreamProcessing();
+        memoryLimitsAwareHandler.considerBytesOccupiedByDecompressedPdfStream(occupied);
+        memoryLimitsAwareHandler.endDecompressedPdfStreamProcessing();
+    }
+}
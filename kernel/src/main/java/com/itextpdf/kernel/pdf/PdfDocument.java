@@ -172,7 +172,7 @@ public class PdfDocument implements IEventDispatcher, Closeable {
     /**
      * Cache of already serialized objects from this document for smart mode.
      */
-    Map<PdfIndirectReference, byte[]> serializedObjectsCache = new HashMap<>();
+    Map<PdfIndirectReference, SerializedObjectContent> serializedObjectsCache = new HashMap<>();
     /**
      * Handler which will be used for decompression of pdf streams.
      */
@@ -985,6 +985,9 @@ public class PdfDocument implements IEventDispatcher, Closeable {
                     }
                 }
 
+                // Streams still being deflated in parallel must be written with the document encryption
+                writer.flushPendingObjects();
+
                 // To avoid encryption of XrefStream and Encryption dictionary remove crypto.
                 // NOTE. No need in reverting, because it is the last operation with the document.
                 writer.crypto = null;
@@ -272,18 +272,124 @@ public class PdfOutputStream extends OutputStream<PdfOutputStream> {
                 (pdfStream.getAsName(PdfName.Type) != null && !pdfStream.getAsName(PdfName.Type).equals(PdfName.Metadata));
     }
 
-    private boolean isXRefStream(PdfStream pdfStream) {
+    boolean isXRefStream(PdfStream pdfStream) {
         return PdfName.XRef.equals(pdfStream.getAsName(PdfName.Type));
     }
 
+    /**
+     * Prepares a stream, which content is already in memory, to be deflated outside of the writing thread.
+     * The default compression level is applied to the stream and, if its content is to be deflated when
+     * it is written, the stream filters are updated accordingly.
+     *
+     * @param pdfStream the stream to prepare
+     *
+     * @return {@code true} if the content of the stream is to be deflated, {@code false} if it is to be
+     * written as is
+     */
+    boolean prepareDeflate(PdfStream pdfStream) {
+        boolean userDefinedCompression = pdfStream.getCompressionLevel() != CompressionConstants.UNDEFINED_COMPRESSION;
+        int compressionLevel = userDefinedCompression ? pdfStream.getCompressionLevel() : getDefaultCompressionLevel();
+        if (isToBeDeflated(pdfStream, compressionLevel, userDefinedCompression)) {
+            pdfStream.setCompressionLevel(compressionLevel);
+            updateCompressionFilter(pdfStream);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Writes a stream which content has been deflated with {@link #deflate(ByteArrayOutputStream[], int)}
+     * after {@link #prepareDeflate(PdfStream)} returned {@code true} for it.
+     *
+     * @param pdfStream the stream to write
+     * @param deflated  the deflated content of the stream
+     */
+    void writeDeflated(PdfStream pdfStream, ByteArrayOutputStream deflated) {
+        try {
+            writeStreamContent(pdfStream, deflated);
+        } catch (IOException e) {
+            throw new PdfException(KernelExceptionMessageConstant.CANNOT_WRITE_TO_PDF_STREAM, e, pdfStream);
+        }
+    }
+
+    /**
+     * Gets the buffers holding the content of a stream which has not been written yet, in order.
+     *
+     * @param pdfStream the stream, which content is in memory
+     *
+     * @return the buffers with the content of the stream
+     */
+    static ByteArrayOutputStream[] getContentBuffers(PdfStream pdfStream) {
+        if (pdfStream instanceof PdfObjectStream) {
+            PdfObjectStream objectStream = (PdfObjectStream) pdfStream;
+            return new ByteArrayOutputStream[] {
+                    (ByteArrayOutputStream) objectStream.getIndexStream().getOutputStream(),
+                    (ByteArrayOutputStream) objectStream.getOutputStream().getOutputStream()};
+        }
+        assert pdfStream.getOutputStream() != null : "Error in outputStream";
+        return new ByteArrayOutputStream[] {(ByteArrayOutputStream) pdfStream.getOutputStream().getOutputStream()};
+    }
+
+    /**
+     * Deflates the concatenated content of the buffers. The method does not access any PDF object,
+     * so it can be called on any thread as long as the buffers are not modified meanwhile.
+     *
+     * @param content          the buffers to deflate
+     * @param compressionLevel the compression level
+     *
+     * @return the deflated content
+     */
+    static ByteArrayOutputStream deflate(ByteArrayOutputStream[] content, int compressionLevel) {
+        ByteArrayOutputStream byteArrayStream = new ByteArrayOutputStream();
+        try {
+            DeflaterOutputStream zip = new DeflaterOutputStream(byteArrayStream, compressionLevel);
+            for (ByteArrayOutputStream buffer : content) {
+                buffer.writeTo(zip);
+            }
+            zip.finish();
+        } catch (IOException ioe) {
+            throw new PdfException(KernelExceptionMessageConstant.IO_EXCEPTION, ioe);
+        }
+        return byteArrayStream;
+    }
+
+    private int getDefaultCompressionLevel() {
+        return document != null ? document.getWriter().getCompressionLevel() : CompressionConstants.DEFAULT_COMPRESSION;
+    }
+
+    private boolean isToBeDeflated(PdfStream pdfStream, int compressionLevel, boolean userDefinedCompression) {
+        boolean toCompress = compressionLevel != CompressionConstants.NO_COMPRESSION;
+        boolean allowCompression = !pdfStream.containsKey(PdfName.Filter) && isNotMetadataPdfStream(pdfStream);
+        return toCompress && !containsFlateFilter(pdfStream) && decodeParamsArrayNotFlushed(pdfStream)
+                && (allowCompression || userDefinedCompression);
+    }
+
+    private void writeStreamContent(PdfStream pdfStream, ByteArrayOutputStream byteArrayStream) throws IOException {
+        if (checkEncryption(pdfStream)) {
+            try {
+                ByteArrayOutputStream encodedStream = new ByteArrayOutputStream();
+                OutputStreamEncryption ose = crypto.getEncryptionStream(encodedStream);
+                byteArrayStream.writeTo(ose);
+                ose.finish();
+                byteArrayStream = encodedStream;
+            } catch (IOException ioe) {
+                throw new PdfException(KernelExceptionMessageConstant.IO_EXCEPTION, ioe);
+            }
+        }
+        pdfStream.put(PdfName.Length, new PdfNumber(byteArrayStream.size()));
+        pdfStream.updateLength((int) byteArrayStream.size());
+        this.write((PdfDictionary) pdfStream);
+        writeBytes(PdfOutputStream.stream);
+        byteArrayStream.writeTo(this);
+        byteArrayStream.close();
+        writeBytes(PdfOutputStream.endstream);
+    }
+
     private void write(PdfStream pdfStream) {
         try {
             boolean userDefinedCompression = pdfStream.getCompressionLevel() != CompressionConstants.UNDEFINED_COMPRESSION;
             if (!userDefinedCompression) {
-                int defaultCompressionLevel = document != null ?
-                        document.getWriter().getCompressionLevel() :
-                        CompressionConstants.DEFAULT_COMPRESSION;
-                pdfStream.setCompressionLevel(defaultCompressionLevel);
+                pdfStream.setCompressionLevel(getDefaultCompressionLevel());
             }
             boolean toCompress = pdfStream.getCompressionLevel() != CompressionConstants.NO_COMPRESSION;
             boolean allowCompression = !pdfStream.containsKey(PdfName.Filter) && isNotMetadataPdfStream(pdfStream);
@@ -335,50 +441,23 @@ public class PdfOutputStream extends OutputStream<PdfOutputStream> {
                 }
                 assert pdfStream.getOutputStream() != null : "PdfStream lost OutputStream";
                 ByteArrayOutputStream byteArrayStream;
-                try {
-                    if (toCompress && !containsFlateFilter(pdfStream) && decodeParamsArrayNotFlushed(pdfStream)
-                            && (allowCompression || userDefinedCompression)) {
-                        // compress
-                        updateCompressionFilter(pdfStream);
-                        byteArrayStream = new ByteArrayOutputStream();
-                        DeflaterOutputStream zip = new DeflaterOutputStream(byteArrayStream, pdfStream.getCompressionLevel());
-                        if (pdfStream instanceof PdfObjectStream) {
-                            PdfObjectStream objectStream = (PdfObjectStream) pdfStream;
-                            ((ByteArrayOutputStream) objectStream.getIndexStream().getOutputStream()).writeTo(zip);
-                            ((ByteArrayOutputStream) objectStream.getOutputStream().getOutputStream()).writeTo(zip);
-                        } else {
-                            assert pdfStream.getOutputStream() != null : "Error in outputStream";
-                            ((ByteArrayOutputStream) pdfStream.getOutputStream().getOutputStream()).writeTo(zip);
-                        }
-                        zip.finish();
-                    } else {
-                        if (pdfStream instanceof PdfObjectStream) {
-                            PdfObjectStream objectStream = (PdfObjectStream) pdfStream;
-                            byteArrayStream = new ByteArrayOutputStream();
-                            ((ByteArrayOutputStream) objectStream.getIndexStream().getOutputStream()).writeTo(byteArrayStream);
-                            ((ByteArrayOutputStream) objectStream.getOutputStream().getOutputStream()).writeTo(byteArrayStream);
-                        } else {
-                            assert pdfStream.getOutputStream() != null : "Error in outputStream";
-                            byteArrayStream = (ByteArrayOutputStream) pdfStream.getOutputStream().getOutputStream();
+                if (isToBeDeflated(pdfStream, pdfStream.getCompressionLevel(), userDefinedCompression)) {
+                    // compress
+                    updateCompressionFilter(pdfStream);
+                    byteArrayStream = deflate(getContentBuffers(pdfStream), pdfStream.getCompressionLevel());
+                } else if (pdfStream instanceof PdfObjectStream) {
+                    byteArrayStream = new ByteArrayOutputStream();
+                    try {
+                        for (ByteArrayOutputStream buffer : getContentBuffers(pdfStream)) {
+                            buffer.writeTo(byteArrayStream);
                         }
+                    } catch (IOException ioe) {
+                        throw new PdfException(KernelExceptionMessageConstant.IO_EXCEPTION, ioe);
                     }
-                    if (checkEncryption(pdfStream)) {
-                        ByteArrayOutputStream encodedStream = new ByteArrayOutputStream();
-                        OutputStreamEncryption ose = crypto.getEncryptionStream(encodedStream);
-                        byteArrayStream.writeTo(ose);
-                        ose.finish();
-                        byteArrayStream = encodedStream;
-                    }
-                } catch (IOException ioe) {
-                    throw new PdfException(KernelExceptionMessageConstant.IO_EXCEPTION, ioe);
+                } else {
+                    byteArrayStream = getContentBuffers(pdfStream)[0];
                 }
-                pdfStream.put(PdfName.Length, new PdfNumber(byteArrayStream.size()));
-                pdfStream.updateLength((int) byteArrayStream.size());
-                this.write((PdfDictionary) pdfStream);
-                writeBytes(PdfOutputStream.stream);
-                byteArrayStream.writeTo(this);
-                byteArrayStream.close();
-                writeBytes(PdfOutputStream.endstream);
+                writeStreamContent(pdfStream, byteArrayStream);
             }
         } catch (IOException e) {
             throw new PdfException(KernelExceptionMessageConstant.CANNOT_WRITE_TO_PDF_STREAM, e, pdfStream);
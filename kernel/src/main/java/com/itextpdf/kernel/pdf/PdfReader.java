@@ -52,6 +52,7 @@ import com.itextpdf.io.source.RASInputStream;
 import com.itextpdf.io.source.RandomAccessFileOrArray;
 import com.itextpdf.io.source.RandomAccessSourceFactory;
 import com.itextpdf.io.source.WindowRandomAccessSource;
+import com.itextpdf.io.util.StreamUtil;
 import com.itextpdf.commons.utils.MessageFormatUtil;
 import com.itextpdf.kernel.exceptions.InvalidXRefPrevException;
 import com.itextpdf.kernel.exceptions.MemoryLimitsAwareException;
@@ -61,19 +62,32 @@ import com.itextpdf.kernel.exceptions.KernelExceptionMessageConstant;
 import com.itextpdf.kernel.exceptions.XrefCycledReferencesException;
 import com.itextpdf.kernel.pdf.filters.FilterHandlers;
 import com.itextpdf.kernel.pdf.filters.IFilterHandler;
+import com.itextpdf.kernel.pdf.filters.IStreamingFilterHandler;
 import com.itextpdf.kernel.xmp.XMPException;
 import com.itextpdf.kernel.xmp.XMPMeta;
 import com.itextpdf.kernel.xmp.XMPMetaFactory;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -87,6 +101,10 @@ public class PdfReader implements Closeable {
      */
     public static final StrictnessLevel DEFAULT_STRICTNESS_LEVEL = StrictnessLevel.LENIENT;
 
+    private static final int DEFAULT_XREF_REBUILDING_CHUNK_SIZE = 8 * 1024 * 1024;
+
+    private static final int OBJECT_STREAM_PREPARSING_BATCH_SIZE = 16;
+
     private static final String endstream1 = "endstream";
     private static final String endstream2 = "\nendstream";
     private static final String endstream3 = "\r\nendstream";
@@ -100,6 +118,26 @@ public class PdfReader implements Closeable {
 
     private boolean memorySavingMode;
 
+    private boolean lazyObjectStreamMode;
+
+    private Executor objectStreamPreparsingExecutor;
+
+    // Indexed object streams which elements are read one by one in lazy object stream mode
+    private final Map<Integer, ObjectStreamIndex> objectStreamIndexes = new HashMap<>();
+
+    // Object streams which are being decoded and indexed on the preparsing executor
+    private final Map<Integer, CompletableFuture<ObjectStreamIndex>> preparsedObjectStreams = new HashMap<>();
+
+    private Executor xrefRebuildingExecutor;
+
+    // The size of the parts of the file which are scanned in parallel while the xref is being rebuilt
+    int xrefRebuildingChunkSize = DEFAULT_XREF_REBUILDING_CHUNK_SIZE;
+
+    // The file or the bytes which the reader was created from, used to create independent sources of the document
+    private String sourceFileName;
+    private byte[] sourceBytes;
+    private long headerOffset;
+
     private StrictnessLevel strictnessLevel = DEFAULT_STRICTNESS_LEVEL;
 
     //indicate nearest first Indirect reference object which includes current reading the object, using for PdfString decrypt
@@ -148,7 +186,7 @@ public class PdfReader implements Closeable {
      * @throws IOException on error
      */
     public PdfReader(InputStream is, ReaderProperties properties) throws IOException {
-        this(new RandomAccessSourceFactory().extractOrCreateSource(is), properties, true);
+        this(is instanceof RASInputStream ? null : StreamUtil.inputStreamToArray(is), is, properties);
     }
 
     /**
@@ -190,6 +228,9 @@ public class PdfReader implements Closeable {
                 properties,
                 true
         );
+        if (new File(filename).canRead()) {
+            this.sourceFileName = filename;
+        }
     }
 
     /**
@@ -206,6 +247,13 @@ public class PdfReader implements Closeable {
     PdfReader(IRandomAccessSource byteSource, ReaderProperties properties, boolean closeStream) throws IOException {
         this.properties = properties;
         this.tokens = getOffsetTokeniser(byteSource, closeStream);
+        this.headerOffset = byteSource.length() - tokens.length();
+    }
+
+    private PdfReader(byte[] bytes, InputStream is, ReaderProperties properties) throws IOException {
+        this(bytes == null ? new RandomAccessSourceFactory().extractOrCreateSource(is)
+                : new RandomAccessSourceFactory().createSource(bytes), properties, true);
+        this.sourceBytes = bytes;
     }
 
     /**
@@ -214,6 +262,11 @@ public class PdfReader implements Closeable {
      * @throws IOException on error.
      */
     public void close() throws IOException {
+        for (CompletableFuture<ObjectStreamIndex> preparsed : preparsedObjectStreams.values()) {
+            preparsed.cancel(false);
+        }
+        preparsedObjectStreams.clear();
+        objectStreamIndexes.clear();
         tokens.close();
     }
 
@@ -245,6 +298,62 @@ public class PdfReader implements Closeable {
         return this;
     }
 
+    /**
+     * Defines if lazy object stream mode is enabled.
+     * <p>
+     * By default lazy object stream mode is disabled and all the objects of an object stream are read
+     * as soon as any of them is requested.
+     * <p>
+     * If lazy object stream mode is enabled, the offsets of the objects of an object stream are indexed when
+     * the object stream is accessed for the first time and only the requested object is read. The decoded bytes
+     * of the object stream are kept until all its objects are read, which speeds up opening of large documents
+     * when only a few objects are needed, e.g. for signature validation or page counting.
+     *
+     * @param lazyObjectStreamMode true to enable lazy object stream mode, false to disable it.
+     * @return this {@link PdfReader} instance.
+     * @see #setObjectStreamPreparsingExecutor(Executor)
+     */
+    public PdfReader setLazyObjectStreamMode(boolean lazyObjectStreamMode) {
+        this.lazyObjectStreamMode = lazyObjectStreamMode;
+        return this;
+    }
+
+    /**
+     * Sets the executor on which the object streams are decoded and indexed in the background
+     * once the cross-reference table is read.
+     * <p>
+     * The executor is only used in lazy object stream mode, see {@link #setLazyObjectStreamMode(boolean)},
+     * only for documents which are not encrypted and only if the reader was created from a file name
+     * or an input stream, see {@link #createIndependentSource()}. The objects themselves are still read on the thread
+     * which requests them. If the executor rejects a task, the remaining object streams are processed
+     * on demand. By default there is no executor and object streams are processed on demand.
+     *
+     * @param executor the executor for the object stream preparsing, or null to disable preparsing.
+     * @return this {@link PdfReader} instance.
+     */
+    public PdfReader setObjectStreamPreparsingExecutor(Executor executor) {
+        this.objectStreamPreparsingExecutor = executor;
+        return this;
+    }
+
+    /**
+     * Sets the executor on which the file is scanned in parallel when the cross-reference table is broken
+     * and has to be rebuilt.
+     * <p>
+     * The file is split into parts which are scanned for the indirect objects and trailers concurrently.
+     * The rebuilt cross-reference table is the same as the one which is rebuilt by scanning the file
+     * from the beginning to the end. The parts are only scanned in parallel if the reader was created from
+     * a file name or an input stream, see {@link #createIndependentSource()}. By default there is no executor
+     * and the file is scanned on the calling thread.
+     *
+     * @param executor the executor for the cross-reference table rebuilding, or null to scan the file sequentially.
+     * @return this {@link PdfReader} instance.
+     */
+    public PdfReader setXrefRebuildingExecutor(Executor executor) {
+        this.xrefRebuildingExecutor = executor;
+        return this;
+    }
+
     /**
      * Get the current {@link StrictnessLevel} of the reader.
      *
@@ -267,6 +376,30 @@ public class PdfReader implements Closeable {
         return this;
     }
 
+    /**
+     * Creates a new source of the document bytes which shares no state with the source of this reader,
+     * so that it can be read on another thread while this reader is in use. The positions in the created source
+     * are the same as the positions in {@link #getSafeFile()}.
+     * <p>
+     * Such a source can only be created if the reader was created from a file name, in which case the file
+     * is opened once again, or from an input stream, which bytes are shared. The caller is responsible
+     * for closing the created source.
+     *
+     * @return the independent source of the document, or null if it cannot be created
+     * @throws IOException if the file of the document cannot be opened
+     */
+    public IRandomAccessSource createIndependentSource() throws IOException {
+        IRandomAccessSource source;
+        if (sourceBytes != null) {
+            source = new RandomAccessSourceFactory().createSource(sourceBytes);
+        } else if (sourceFileName != null) {
+            source = new RandomAccessSourceFactory().setForceRead(false).createBestSource(sourceFileName);
+        } else {
+            return null;
+        }
+        return headerOffset == 0 ? source : new WindowRandomAccessSource(source, headerOffset);
+    }
+
     /**
      * Gets whether {@link #close()} method shall close input stream.
      *
@@ -442,7 +575,9 @@ public class PdfReader implements Closeable {
     }
 
     /**
-     * Reads, decrypts and optionally decodes stream bytes into {@link ByteArrayInputStream}.
+     * Reads, decrypts and optionally decodes stream bytes into {@link InputStream}.
+     * The stream is decoded while it is being read, see {@link #decodeStream(InputStream, PdfDictionary)},
+     * so the whole decoded data is not held in memory.
      * User is responsible for closing returned stream.
      *
      * @param stream a {@link PdfStream} stream instance to be read
@@ -451,8 +586,12 @@ public class PdfReader implements Closeable {
      * @throws IOException on error.
      */
     public InputStream readStream(PdfStream stream, boolean decode) throws IOException {
-        byte[] bytes = readStreamBytes(stream, decode);
-        return bytes != null ? new ByteArrayInputStream(bytes) : null;
+        byte[] bytes = readStreamBytesRaw(stream);
+        if (bytes == null) {
+            return null;
+        }
+        InputStream is = new ByteArrayInputStream(bytes);
+        return decode ? decodeStream(is, stream) : is;
     }
 
     /**
@@ -480,15 +619,7 @@ public class PdfReader implements Closeable {
         if (b == null) {
             return null;
         }
-        PdfObject filter = streamDictionary.get(PdfName.Filter);
-        PdfArray filters = new PdfArray();
-        if (filter != null) {
-            if (filter.getType() == PdfObject.NAME) {
-                filters.add(filter);
-            } else if (filter.getType() == PdfObject.ARRAY) {
-                filters = ((PdfArray) filter);
-            }
-        }
+        PdfArray filters = getFilters(streamDictionary);
 
         MemoryLimitsAwareHandler memoryLimitsAwareHandler = null;
         if (null != streamDictionary.getIndirectReference()) {
@@ -502,6 +633,109 @@ public class PdfReader implements Closeable {
             memoryLimitsAwareHandler.beginDecompressedPdfStreamProcessing();
         }
 
+        PdfArray dp = getDecodeParamsArray(streamDictionary);
+        for (int j = 0; j < filters.size(); ++j) {
+            PdfName filterName = (PdfName) filters.get(j);
+            IFilterHandler filterHandler = getFilterHandler(filterHandlers, filterName);
+            b = filterHandler.decode(b, filterName, getDecodeParams(dp, j), streamDictionary);
+            if (memoryLimitsAwarenessRequired) {
+                memoryLimitsAwareHandler.considerBytesOccupiedByDecompressedPdfStream(b.length);
+            }
+        }
+        if (memoryLimitsAwarenessRequired) {
+            memoryLimitsAwareHandler.endDecompressedPdfStreamProcessing();
+        }
+        return b;
+    }
+
+    /**
+     * Decode the stream applying the filters specified in the provided dictionary using default filter handlers.
+     *
+     * @param encoded          the stream of the bytes to decode
+     * @param streamDictionary the dictionary that contains filter information
+     * @return the stream of the decoded bytes
+     * @throws PdfException if there are any problems decoding the bytes
+     * @see #decodeStream(InputStream, PdfDictionary, Map)
+     */
+    public static InputStream decodeStream(InputStream encoded, PdfDictionary streamDictionary) {
+        return decodeStream(encoded, streamDictionary, FilterHandlers.getDefaultFilterHandlers());
+    }
+
+    /**
+     * Decode the stream applying the filters specified in the provided dictionary using the provided filter handlers.
+     * <br>
+     * The filters which handlers implement {@link IStreamingFilterHandler} decode the bytes while they are being read
+     * from the returned stream. For any other filter the bytes decoded so far are read and decoded at once.
+     * The decoded bytes are considered by the {@link MemoryLimitsAwareHandler} of the document while they are read.
+     * User is responsible for closing returned stream.
+     *
+     * @param encoded          the stream of the bytes to decode
+     * @param streamDictionary the dictionary that contains filter information
+     * @param filterHandlers   the map used to look up a handler for each type of filter
+     * @return the stream of the decoded bytes
+     * @throws PdfException if there are any problems decoding the bytes
+     */
+    public static InputStream decodeStream(InputStream encoded, PdfDictionary streamDictionary,
+            Map<PdfName, IFilterHandler> filterHandlers) {
+        if (encoded == null) {
+            return null;
+        }
+        PdfArray filters = getFilters(streamDictionary);
+
+        MemoryLimitsAwareHandler memoryLimitsAwareHandler = null;
+        if (null != streamDictionary.getIndirectReference()) {
+            memoryLimitsAwareHandler = streamDictionary.getIndirectReference().getDocument().memoryLimitsAwareHandler;
+        }
+        final boolean memoryLimitsAwarenessRequired = null != memoryLimitsAwareHandler &&
+                memoryLimitsAwareHandler.isMemoryLimitsAwarenessRequiredOnDecompression(filters);
+
+        PdfArray dp = getDecodeParamsArray(streamDictionary);
+        InputStream decoded = encoded;
+        MemoryLimitsAwareInputStream limitsAwareStream = null;
+        for (int j = 0; j < filters.size(); ++j) {
+            PdfName filterName = (PdfName) filters.get(j);
+            IFilterHandler filterHandler = getFilterHandler(filterHandlers, filterName);
+            PdfDictionary decodeParams = getDecodeParams(dp, j);
+            if (filterHandler instanceof IStreamingFilterHandler) {
+                decoded = ((IStreamingFilterHandler) filterHandler).decode(decoded, filterName, decodeParams,
+                        streamDictionary);
+            } else {
+                byte[] b;
+                try {
+                    b = StreamUtil.inputStreamToArray(decoded);
+                    decoded.close();
+                } catch (IOException e) {
+                    throw new PdfException(KernelExceptionMessageConstant.IO_EXCEPTION, e);
+                }
+                decoded = new ByteArrayInputStream(filterHandler.decode(b, filterName, decodeParams,
+                        streamDictionary));
+            }
+            if (memoryLimitsAwarenessRequired) {
+                limitsAwareStream = new MemoryLimitsAwareInputStream(decoded, memoryLimitsAwareHandler,
+                        limitsAwareStream);
+                decoded = limitsAwareStream;
+            }
+        }
+        if (limitsAwareStream != null) {
+            limitsAwareStream.setLastFilterStream();
+        }
+        return decoded;
+    }
+
+    private static PdfArray getFilters(PdfDictionary streamDictionary) {
+        PdfObject filter = streamDictionary.get(PdfName.Filter);
+        PdfArray filters = new PdfArray();
+        if (filter != null) {
+            if (filter.getType() == PdfObject.NAME) {
+                filters.add(filter);
+            } else if (filter.getType() == PdfObject.ARRAY) {
+                filters = ((PdfArray) filter);
+            }
+        }
+        return filters;
+    }
+
+    private static PdfArray getDecodeParamsArray(PdfDictionary streamDictionary) {
         PdfArray dp = new PdfArray();
         PdfObject dpo = streamDictionary.get(PdfName.DecodeParms);
         if (dpo == null || (dpo.getType() != PdfObject.DICTIONARY && dpo.getType() != PdfObject.ARRAY)) {
@@ -516,36 +750,30 @@ public class PdfReader implements Closeable {
             }
             dpo.release();
         }
-        for (int j = 0; j < filters.size(); ++j) {
-            PdfName filterName = (PdfName) filters.get(j);
-            IFilterHandler filterHandler = filterHandlers.get(filterName);
-            if (filterHandler == null)
-                throw new PdfException(KernelExceptionMessageConstant.THIS_FILTER_IS_NOT_SUPPORTED)
-                        .setMessageParams(filterName);
-
-            PdfDictionary decodeParams;
-            if (j < dp.size()) {
-                PdfObject dpEntry = dp.get(j, true);
-                if (dpEntry == null || dpEntry.getType() == PdfObject.NULL) {
-                    decodeParams = null;
-                } else if (dpEntry.getType() == PdfObject.DICTIONARY) {
-                    decodeParams = (PdfDictionary) dpEntry;
-                } else {
-                    throw new PdfException(KernelExceptionMessageConstant.THIS_DECODE_PARAMETER_TYPE_IS_NOT_SUPPORTED)
-                            .setMessageParams(dpEntry.getClass().toString());
-                }
-            } else {
-                decodeParams = null;
-            }
-            b = filterHandler.decode(b, filterName, decodeParams, streamDictionary);
-            if (memoryLimitsAwarenessRequired) {
-                memoryLimitsAwareHandler.considerBytesOccupiedByDecompressedPdfStream(b.length);
-            }
+        return dp;
+    }
+
+    private static PdfDictionary getDecodeParams(PdfArray dp, int index) {
+        if (index >= dp.size()) {
+            return null;
         }
-        if (memoryLimitsAwarenessRequired) {
-            memoryLimitsAwareHandler.endDecompressedPdfStreamProcessing();
+        PdfObject dpEntry = dp.get(index, true);
+        if (dpEntry == null || dpEntry.getType() == PdfObject.NULL) {
+            return null;
+        } else if (dpEntry.getType() == PdfObject.DICTIONARY) {
+            return (PdfDictionary) dpEntry;
+        } else {
+            throw new PdfException(KernelExceptionMessageConstant.THIS_DECODE_PARAMETER_TYPE_IS_NOT_SUPPORTED)
+                    .setMessageParams(dpEntry.getClass().toString());
         }
-        return b;
+    }
+
+    private static IFilterHandler getFilterHandler(Map<PdfName, IFilterHandler> filterHandlers, PdfName filterName) {
+        IFilterHandler filterHandler = filterHandlers.get(filterName);
+        if (filterHandler == null)
+            throw new PdfException(KernelExceptionMessageConstant.THIS_FILTER_IS_NOT_SUPPORTED)
+                    .setMessageParams(filterName);
+        return filterHandler;
     }
 
     /**
@@ -768,64 +996,21 @@ public class PdfReader implements Closeable {
         }
         pdfDocument.getXref().markReadingCompleted();
         readDecryptObj();
+        if (lazyObjectStreamMode && objectStreamPreparsingExecutor != null && !encrypted) {
+            preparseObjectStreams();
+        }
     }
 
     protected void readObjectStream(PdfStream objectStream) throws IOException {
         int objectStreamNumber = objectStream.getIndirectReference().getObjNumber();
         int first = objectStream.getAsNumber(PdfName.First).intValue();
         int n = objectStream.getAsNumber(PdfName.N).intValue();
-        byte[] bytes = readStreamBytes(objectStream, true);
+        ObjectStreamIndex index = indexObjectStream(readStreamBytes(objectStream, true), first, n);
         PdfTokenizer saveTokens = tokens;
         try {
-            tokens = new PdfTokenizer(new RandomAccessFileOrArray(new RandomAccessSourceFactory().createSource(bytes)));
-            int[] address = new int[n];
-            int[] objNumber = new int[n];
-            boolean ok = true;
-            for (int k = 0; k < n; ++k) {
-                ok = tokens.nextToken();
-                if (!ok)
-                    break;
-                if (tokens.getTokenType() != PdfTokenizer.TokenType.Number) {
-                    ok = false;
-                    break;
-                }
-                objNumber[k] = tokens.getIntValue();
-                ok = tokens.nextToken();
-                if (!ok)
-                    break;
-                if (tokens.getTokenType() != PdfTokenizer.TokenType.Number) {
-                    ok = false;
-                    break;
-                }
-                address[k] = tokens.getIntValue() + first;
-            }
-            if (!ok)
-                throw new PdfException(KernelExceptionMessageConstant.ERROR_WHILE_READING_OBJECT_STREAM);
+            tokens = index.createTokenizer();
             for (int k = 0; k < n; ++k) {
-                tokens.seek(address[k]);
-                tokens.nextToken();
-                PdfObject obj;
-                PdfIndirectReference reference = pdfDocument.getXref().get(objNumber[k]);
-                if (reference.refersTo != null || reference.getObjStreamNumber() != objectStreamNumber) {
-                    // We skip reading of objects stream's element k if either it is already available in xref
-                    // or if corresponding indirect object reference points to a different object stream.
-                    // The first check prevents from re-initializing objects which are already read. One of the cases
-                    // when this can happen is that some other object from this objects stream was released and requested
-                    // to be re-read.
-                    // Second check ensures that object has no incremental updates and is not freed in append mode.
-
-                    continue;
-                }
-                if (tokens.getTokenType() == PdfTokenizer.TokenType.Number) {
-                    // This ensure that we don't even try to read as indirect reference token (two numbers and "R")
-                    // which are forbidden in object streams.
-                    obj = new PdfNumber(tokens.getByteContent());
-                } else {
-                    tokens.seek(address[k]);
-                    obj = readObject(false, true);
-                }
-                reference.setRefersTo(obj);
-                obj.setIndirectReference(reference);
+                readObjectStreamElement(index, k, objectStreamNumber);
             }
             objectStream.getIndirectReference().setState(PdfObject.ORIGINAL_OBJECT_STREAM);
         } finally {
@@ -1321,39 +1506,21 @@ public class PdfReader implements Closeable {
                 new RandomAccessFileOrArray(new ReusableRandomAccessSource(buffer)))) {
             Long trailerIndex = null;
 
-            for (; ; ) {
-                long pos = tokens.getPosition();
-                buffer.reset();
+            if (xrefRebuildingExecutor != null && tokens.length() > xrefRebuildingChunkSize
+                    && (sourceBytes != null || sourceFileName != null)) {
+                trailerIndex = rebuildXrefInParallel(buffer, lineTokenizer);
+            } else {
+                for (; ; ) {
+                    long pos = tokens.getPosition();
+                    buffer.reset();
 
-                // added boolean because of mailing list issue (17 Feb. 2014)
-                if (!tokens.readLineSegment(buffer, true)) {
-                    break;
-                }
-                if (buffer.get(0) == 't') {
-                    if (!PdfTokenizer.checkTrailer(buffer)) {
-                        continue;
-                    }
-                    tokens.seek(pos);
-                    tokens.nextToken();
-                    pos = tokens.getPosition();
-                    if (isCurrentObjectATrailer()) {
-                        // if the pdf is linearized it is possible that the trailer has been read
-                        // before the actual objects it refers to this causes the trailer to have
-                        // objects in READING state that's why we keep track of the position  of the
-                        // trailer and then asign it when the whole pdf has been loaded
-                        trailerIndex = pos;
-                    } else {
-                        tokens.seek(pos);
-                    }
-                } else if (buffer.get(0) >= '0' && buffer.get(0) <= '9') {
-                    int[] obj = PdfTokenizer.checkObjectStart(lineTokenizer);
-                    if (obj == null) {
-                        continue;
+                    // added boolean because of mailing list issue (17 Feb. 2014)
+                    if (!tokens.readLineSegment(buffer, true)) {
+                        break;
                     }
-                    int num = obj[0];
-                    int gen = obj[1];
-                    if (xref.get(num) == null || xref.get(num).getGenNumber() <= gen) {
-                        xref.add(new PdfIndirectReference(pdfDocument, num, gen, pos));
+                    Long lineTrailerIndex = processRebuiltXrefLine(buffer, lineTokenizer, pos);
+                    if (lineTrailerIndex != null) {
+                        trailerIndex = lineTrailerIndex;
                     }
                 }
             }
@@ -1364,6 +1531,126 @@ public class PdfReader implements Closeable {
         }
     }
 
+    /**
+     * Registers the object which starts on the line read while rebuilding the xref, or checks the trailer
+     * which starts on it. {@link #tokens} shall be positioned right after the line.
+     *
+     * @return the position of the trailer dictionary if the line starts a valid trailer, null otherwise
+     */
+    private Long processRebuiltXrefLine(ByteBuffer buffer, PdfTokenizer lineTokenizer, long pos) throws IOException {
+        if (buffer.get(0) == 't') {
+            if (!PdfTokenizer.checkTrailer(buffer)) {
+                return null;
+            }
+            tokens.seek(pos);
+            tokens.nextToken();
+            pos = tokens.getPosition();
+            if (isCurrentObjectATrailer()) {
+                // if the pdf is linearized it is possible that the trailer has been read
+                // before the actual objects it refers to this causes the trailer to have
+                // objects in READING state that's why we keep track of the position  of the
+                // trailer and then asign it when the whole pdf has been loaded
+                return pos;
+            }
+            tokens.seek(pos);
+        } else if (buffer.get(0) >= '0' && buffer.get(0) <= '9') {
+            int[] obj = PdfTokenizer.checkObjectStart(lineTokenizer);
+            if (obj != null) {
+                addRebuiltReference(obj[0], obj[1], pos);
+            }
+        }
+        return null;
+    }
+
+    private void addRebuiltReference(int num, int gen, long pos) {
+        PdfXrefTable xref = pdfDocument.getXref();
+        if (xref.get(num) == null || xref.get(num).getGenNumber() <= gen) {
+            xref.add(new PdfIndirectReference(pdfDocument, num, gen, pos));
+        }
+    }
+
+    /**
+     * Rebuilds the xref scanning the parts of the file on the {@link #xrefRebuildingExecutor}.
+     * Each part is read from a source created by {@link #createIndependentSource()}.
+     * <p>
+     * The found objects are registered and the found trailers are checked in the order of their positions,
+     * so the result is the same as the one of the sequential scanning. A trailer check moves the reading
+     * position past the trailer dictionary, so the lines after it are read sequentially up to the first line
+     * which is not a trailer, from which the line splitting is the same as the one of the parallel scanning.
+     *
+     * @return the position of the last valid trailer dictionary, or null if there is none
+     */
+    private Long rebuildXrefInParallel(ByteBuffer buffer, PdfTokenizer lineTokenizer) throws IOException {
+        long length = tokens.length();
+        int chunkCount = (int) ((length + xrefRebuildingChunkSize - 1) / xrefRebuildingChunkSize);
+        List<CompletableFuture<List<XrefRebuildScanner.Marker>>> scans = new ArrayList<>(chunkCount);
+        for (int i = 0; i < chunkCount; i++) {
+            final long chunkStart = (long) i * xrefRebuildingChunkSize;
+            final long chunkEnd = i + 1 < chunkCount ? chunkStart + xrefRebuildingChunkSize : -1;
+            Supplier<List<XrefRebuildScanner.Marker>> scan = () -> {
+                // Each chunk is read from its own source, the sources of the reader are not safe to be shared
+                XrefRebuildScanner scanner = null;
+                try {
+                    scanner = new XrefRebuildScanner(createIndependentSource());
+                    return scanner.scan(scanner.findLineStart(chunkStart),
+                            chunkEnd < 0 ? length : scanner.findLineStart(chunkEnd));
+                } catch (IOException e) {
+                    throw new PdfException(KernelExceptionMessageConstant.IO_EXCEPTION, e);
+                } finally {
+                    if (scanner != null) {
+                        try {
+                            scanner.close();
+                        } catch (IOException ignored) {
+                        }
+                    }
+                }
+            };
+            try {
+                scans.add(CompletableFuture.supplyAsync(scan, xrefRebuildingExecutor));
+            } catch (RejectedExecutionException e) {
+                scans.add(CompletableFuture.completedFuture(scan.get()));
+            }
+        }
+
+        Long trailerIndex = null;
+        // The position up to which the file has been already read line by line
+        long position = 0;
+        for (CompletableFuture<List<XrefRebuildScanner.Marker>> scan : scans) {
+            List<XrefRebuildScanner.Marker> markers;
+            try {
+                markers = scan.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof PdfException) {
+                    throw (PdfException) e.getCause();
+                }
+                throw e;
+            }
+            for (XrefRebuildScanner.Marker marker : markers) {
+                if (marker.position < position) {
+                    continue;
+                }
+                if (!marker.isTrailer()) {
+                    addRebuiltReference(marker.objNumber, marker.genNumber, marker.position);
+                    continue;
+                }
+                tokens.seek(marker.position);
+                do {
+                    long pos = tokens.getPosition();
+                    buffer.reset();
+                    if (!tokens.readLineSegment(buffer, true)) {
+                        break;
+                    }
+                    Long lineTrailerIndex = processRebuiltXrefLine(buffer, lineTokenizer, pos);
+                    if (lineTrailerIndex != null) {
+                        trailerIndex = lineTrailerIndex;
+                    }
+                } while (buffer.get(0) == 't' && PdfTokenizer.checkTrailer(buffer));
+                position = tokens.getPosition();
+            }
+        }
+        return trailerIndex;
+    }
+
     private boolean isCurrentObjectATrailer() {
         try {
             final PdfDictionary dic = (PdfDictionary) readObject(false);
@@ -1411,6 +1698,84 @@ public class PdfReader implements Closeable {
         return memorySavingMode;
     }
 
+    /**
+     * Reads a direct object, e.g. a trailer dictionary, at the given offset without registering anything
+     * in the cross-reference table.
+     *
+     * @param offset the offset of the object
+     * @return the read object
+     * @throws IOException on error
+     */
+    PdfObject readObjectAt(long offset) throws IOException {
+        boolean encryptedSaved = encrypted;
+        // cross-reference sections are never encrypted
+        encrypted = false;
+        try {
+            tokens.seek(offset);
+            return readObject(false);
+        } finally {
+            encrypted = encryptedSaved;
+        }
+    }
+
+    /**
+     * Reads the object referred by a reference which is not registered in the cross-reference table,
+     * e.g. the version of an object from a previous revision of the document.
+     *
+     * @param reference the reference with the offset of the object
+     * @return the read object
+     */
+    PdfObject readObjectVersion(PdfIndirectReference reference) {
+        return readObject(reference, false);
+    }
+
+    /**
+     * Reads an object from an object stream without registering it in the cross-reference table,
+     * e.g. the version of an object from a previous revision of the document.
+     *
+     * @param objectStream the object stream
+     * @param reference    the reference of the object, not registered in the cross-reference table
+     * @param index        the index of the object in the object stream
+     * @return the read object
+     * @throws IOException on error
+     */
+    PdfObject readObjectVersion(PdfStream objectStream, PdfIndirectReference reference, int index)
+            throws IOException {
+        int first = objectStream.getAsNumber(PdfName.First).intValue();
+        int n = objectStream.getAsNumber(PdfName.N).intValue();
+        if (index >= n) {
+            throw new PdfException(KernelExceptionMessageConstant.ERROR_WHILE_READING_OBJECT_STREAM);
+        }
+        byte[] bytes = readStreamBytes(objectStream, true);
+        PdfTokenizer saveTokens = tokens;
+        try {
+            tokens = new PdfTokenizer(new RandomAccessFileOrArray(new RandomAccessSourceFactory().createSource(bytes)));
+            int address = -1;
+            for (int k = 0; k <= index; ++k) {
+                if (!tokens.nextToken() || tokens.getTokenType() != PdfTokenizer.TokenType.Number
+                        || (k == index && tokens.getIntValue() != reference.getObjNumber())) {
+                    throw new PdfException(KernelExceptionMessageConstant.ERROR_WHILE_READING_OBJECT_STREAM);
+                }
+                if (!tokens.nextToken() || tokens.getTokenType() != PdfTokenizer.TokenType.Number) {
+                    throw new PdfException(KernelExceptionMessageConstant.ERROR_WHILE_READING_OBJECT_STREAM);
+                }
+                address = tokens.getIntValue() + first;
+            }
+            tokens.seek(address);
+            tokens.nextToken();
+            PdfObject obj;
+            if (tokens.getTokenType() == PdfTokenizer.TokenType.Number) {
+                obj = new PdfNumber(tokens.getByteContent());
+            } else {
+                tokens.seek(address);
+                obj = readObject(false, true);
+            }
+            return obj.setIndirectReference(reference);
+        } finally {
+            tokens = saveTokens;
+        }
+    }
+
     private void processArrayReadError() {
         final String error = MessageFormatUtil.format(KernelExceptionMessageConstant.UNEXPECTED_TOKEN,
                 new String(tokens.getByteContent(), StandardCharsets.UTF_8));
@@ -1453,9 +1818,13 @@ public class PdfReader implements Closeable {
         try {
             currentIndirectReference = reference;
             if (reference.getObjStreamNumber() > 0) {
-                PdfStream objectStream = (PdfStream) pdfDocument.getXref().
-                        get(reference.getObjStreamNumber()).getRefersTo(false);
-                readObjectStream(objectStream);
+                if (lazyObjectStreamMode) {
+                    readObjectStreamElement(reference);
+                } else {
+                    PdfStream objectStream = (PdfStream) pdfDocument.getXref().
+                            get(reference.getObjStreamNumber()).getRefersTo(false);
+                    readObjectStream(objectStream);
+                }
                 return reference.refersTo;
             } else if (reference.getOffset() > 0) {
                 PdfObject object;
@@ -1486,6 +1855,263 @@ public class PdfReader implements Closeable {
         }
     }
 
+    /**
+     * Reads the element k of the indexed object stream, {@link #tokens} shall be positioned over
+     * the decoded bytes of the object stream.
+     */
+    private void readObjectStreamElement(ObjectStreamIndex index, int k, int objectStreamNumber) throws IOException {
+        PdfIndirectReference reference = pdfDocument.getXref().get(index.objNumbers[k]);
+        if (reference == null || reference.refersTo != null || reference.getObjStreamNumber() != objectStreamNumber) {
+            // We skip reading of objects stream's element k if either it is already available in xref
+            // or if corresponding indirect object reference points to a different object stream.
+            // The first check prevents from re-initializing objects which are already read. One of the cases
+            // when this can happen is that some other object from this objects stream was released and requested
+            // to be re-read.
+            // Second check ensures that object has no incremental updates and is not freed in append mode.
+            return;
+        }
+        tokens.seek(index.addresses[k]);
+        tokens.nextToken();
+        PdfObject obj;
+        if (tokens.getTokenType() == PdfTokenizer.TokenType.Number) {
+            // This ensure that we don't even try to read as indirect reference token (two numbers and "R")
+            // which are forbidden in object streams.
+            obj = new PdfNumber(tokens.getByteContent());
+        } else {
+            tokens.seek(index.addresses[k]);
+            obj = readObject(false, true);
+        }
+        reference.setRefersTo(obj);
+        obj.setIndirectReference(reference);
+    }
+
+    /**
+     * Reads the single object which is stored in an object stream, indexing the object stream if needed.
+     * The index is dropped once every element of the object stream was read.
+     */
+    private void readObjectStreamElement(PdfIndirectReference reference) throws IOException {
+        int objectStreamNumber = reference.getObjStreamNumber();
+        ObjectStreamIndex index = getObjectStreamIndex(objectStreamNumber);
+        int k = index.indexOf(reference.getObjNumber());
+        if (k < 0) {
+            return;
+        }
+        PdfTokenizer saveTokens = tokens;
+        try {
+            tokens = index.createTokenizer();
+            readObjectStreamElement(index, k, objectStreamNumber);
+        } finally {
+            tokens = saveTokens;
+        }
+        if (index.markRead(k)) {
+            objectStreamIndexes.remove(objectStreamNumber);
+        }
+    }
+
+    private ObjectStreamIndex getObjectStreamIndex(int objectStreamNumber) throws IOException {
+        ObjectStreamIndex index = objectStreamIndexes.get(objectStreamNumber);
+        if (index != null) {
+            return index;
+        }
+        CompletableFuture<ObjectStreamIndex> preparsed = preparsedObjectStreams.remove(objectStreamNumber);
+        if (preparsed != null) {
+            try {
+                index = preparsed.join();
+            } catch (CompletionException | CancellationException ignored) {
+                // The object stream is read once again on this thread, so that any error is reported
+                // in the same way as when there is no preparsing.
+            }
+        }
+        PdfStream objectStream = (PdfStream) pdfDocument.getXref().get(objectStreamNumber).getRefersTo(false);
+        if (index == null) {
+            int first = objectStream.getAsNumber(PdfName.First).intValue();
+            int n = objectStream.getAsNumber(PdfName.N).intValue();
+            index = indexObjectStream(readStreamBytes(objectStream, true), first, n);
+        }
+        objectStream.getIndirectReference().setState(PdfObject.ORIGINAL_OBJECT_STREAM);
+        objectStreamIndexes.put(objectStreamNumber, index);
+        return index;
+    }
+
+    /**
+     * Submits decoding and indexing of every object stream of the document to the preparsing executor.
+     * Object stream dictionaries and everything what depends on the state of the reader are read on this thread,
+     * while the stream bytes are read in the background from sources which are independent of this reader,
+     * one source per batch of object streams.
+     */
+    private void preparseObjectStreams() throws IOException {
+        PdfXrefTable xref = pdfDocument.getXref();
+        MemoryLimitsAwareHandler memoryLimitsAwareHandler = pdfDocument.memoryLimitsAwareHandler;
+        Set<Integer> objectStreamNumbers = new LinkedHashSet<>();
+        for (int i = 1; i < xref.size(); i++) {
+            PdfIndirectReference reference = xref.get(i);
+            if (reference != null && reference.getObjStreamNumber() > 0) {
+                objectStreamNumbers.add(reference.getObjStreamNumber());
+            }
+        }
+        List<PreparsedObjectStream> batch = new ArrayList<>(OBJECT_STREAM_PREPARSING_BATCH_SIZE);
+        for (int objectStreamNumber : objectStreamNumbers) {
+            if (preparsedObjectStreams.containsKey(objectStreamNumber)
+                    || objectStreamIndexes.containsKey(objectStreamNumber)) {
+                continue;
+            }
+            PreparsedObjectStream preparsed = new PreparsedObjectStream(objectStreamNumber);
+            try {
+                PdfIndirectReference streamReference = xref.get(objectStreamNumber);
+                PdfObject object = streamReference == null ? null : streamReference.getRefersTo(false);
+                if (!(object instanceof PdfStream) || ((PdfStream) object).getOffset() <= 0) {
+                    continue;
+                }
+                PdfStream objectStream = (PdfStream) object;
+                preparsed.offset = objectStream.getOffset();
+                preparsed.length = objectStream.getLength();
+                preparsed.first = objectStream.getAsNumber(PdfName.First).intValue();
+                preparsed.n = objectStream.getAsNumber(PdfName.N).intValue();
+                // Filters and decode parameters are resolved on this thread, the background task
+                // shall not read any object of the document.
+                boolean detached = true;
+                for (PdfName key : new PdfName[] {PdfName.Filter, PdfName.DecodeParms, PdfName.DP}) {
+                    PdfObject value = objectStream.get(key, true);
+                    if (value != null) {
+                        value = value.clone();
+                        detached = detached && !containsIndirectReference(value);
+                        preparsed.decodeDictionary.put(key, value);
+                    }
+                }
+                // The streams which decompression is tracked by the memory limits aware handler of the document
+                // are decoded on this thread, as the handler accumulates the memory used by all such streams.
+                if (!detached || memoryLimitsAwareHandler != null && memoryLimitsAwareHandler
+                        .isMemoryLimitsAwarenessRequiredOnDecompression(getFilters(preparsed.decodeDictionary))) {
+                    continue;
+                }
+            } catch (RuntimeException ignored) {
+                // Damaged object streams are read on demand so that the errors are reported as usual
+                continue;
+            }
+            preparsed.maxDecodedSize = memoryLimitsAwareHandler == null
+                    ? Integer.MAX_VALUE : memoryLimitsAwareHandler.getMaxSizeOfSingleDecompressedPdfStream();
+            batch.add(preparsed);
+            if (batch.size() == OBJECT_STREAM_PREPARSING_BATCH_SIZE) {
+                if (!submitObjectStreamPreparsing(batch)) {
+                    return;
+                }
+                batch = new ArrayList<>(OBJECT_STREAM_PREPARSING_BATCH_SIZE);
+            }
+        }
+        if (!batch.isEmpty()) {
+            submitObjectStreamPreparsing(batch);
+        }
+    }
+
+    /**
+     * Submits the batch of object streams to the preparsing executor.
+     *
+     * @return false if the executor rejected the batch or there is no independent source of the document
+     */
+    private boolean submitObjectStreamPreparsing(final List<PreparsedObjectStream> batch) throws IOException {
+        final IRandomAccessSource source = createIndependentSource();
+        if (source == null) {
+            return false;
+        }
+        try {
+            objectStreamPreparsingExecutor.execute(() -> {
+                try {
+                    for (PreparsedObjectStream preparsed : batch) {
+                        try {
+                            preparsed.index.complete(preparseObjectStream(source, preparsed));
+                        } catch (RuntimeException e) {
+                            preparsed.index.completeExceptionally(e);
+                        }
+                    }
+                } finally {
+                    try {
+                        source.close();
+                    } catch (IOException ignored) {
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            source.close();
+            return false;
+        }
+        for (PreparsedObjectStream preparsed : batch) {
+            preparsedObjectStreams.put(preparsed.objectStreamNumber, preparsed.index);
+        }
+        return true;
+    }
+
+    /**
+     * Reads, decodes and indexes the object stream. The decoded bytes are limited by the size allowed
+     * for a single stream by the memory limits aware handler of the document, the object stream which exceeds
+     * the limit is left to be decoded on demand, where the limits of the handler apply as usual.
+     */
+    private static ObjectStreamIndex preparseObjectStream(IRandomAccessSource source, PreparsedObjectStream preparsed) {
+        try {
+            byte[] bytes = new byte[Math.max(preparsed.length, 0)];
+            int read = 0;
+            while (read < bytes.length) {
+                int count = source.get(preparsed.offset + read, bytes, read, bytes.length - read);
+                if (count <= 0) {
+                    throw new PdfException(KernelExceptionMessageConstant.CANNOT_READ_PDF_OBJECT);
+                }
+                read += count;
+            }
+            ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+            try (InputStream decodedStream = decodeStream(new ByteArrayInputStream(bytes),
+                    preparsed.decodeDictionary)) {
+                byte[] buffer = new byte[8192];
+                int count;
+                while ((count = decodedStream.read(buffer)) > 0) {
+                    if (decoded.size() + (long) count > preparsed.maxDecodedSize) {
+                        throw new MemoryLimitsAwareException(KernelExceptionMessageConstant
+                                .DURING_DECOMPRESSION_SINGLE_STREAM_OCCUPIED_MORE_MEMORY_THAN_ALLOWED);
+                    }
+                    decoded.write(buffer, 0, count);
+                }
+            }
+            return indexObjectStream(decoded.toByteArray(), preparsed.first, preparsed.n);
+        } catch (IOException e) {
+            throw new PdfException(KernelExceptionMessageConstant.CANNOT_READ_PDF_OBJECT, e);
+        }
+    }
+
+    private static ObjectStreamIndex indexObjectStream(byte[] bytes, int first, int n) throws IOException {
+        ObjectStreamIndex index = new ObjectStreamIndex(bytes, n);
+        PdfTokenizer tokenizer = index.createTokenizer();
+        for (int k = 0; k < n; ++k) {
+            if (!tokenizer.nextToken() || tokenizer.getTokenType() != PdfTokenizer.TokenType.Number) {
+                throw new PdfException(KernelExceptionMessageConstant.ERROR_WHILE_READING_OBJECT_STREAM);
+            }
+            index.objNumbers[k] = tokenizer.getIntValue();
+            if (!tokenizer.nextToken() || tokenizer.getTokenType() != PdfTokenizer.TokenType.Number) {
+                throw new PdfException(KernelExceptionMessageConstant.ERROR_WHILE_READING_OBJECT_STREAM);
+            }
+            index.addresses[k] = tokenizer.getIntValue() + first;
+        }
+        return index;
+    }
+
+    private static boolean containsIndirectReference(PdfObject object) {
+        if (object.isIndirectReference()) {
+            return true;
+        }
+        if (object.isArray()) {
+            PdfArray array = (PdfArray) object;
+            for (int i = 0; i < array.size(); i++) {
+                if (containsIndirectReference(array.get(i, false))) {
+                    return true;
+                }
+            }
+        } else if (object.isDictionary()) {
+            for (PdfObject value : ((PdfDictionary) object).values(false)) {
+                if (containsIndirectReference(value)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     private void checkPdfStreamLength(PdfStream pdfStream) throws IOException {
         if (!correctStreamLength)
             return;
@@ -1586,6 +2212,75 @@ public class PdfReader implements Closeable {
         return tok;
     }
 
+    /**
+     * An object stream which is decoded and indexed on the preparsing executor.
+     */
+    private static final class PreparsedObjectStream {
+        final int objectStreamNumber;
+        final PdfDictionary decodeDictionary = new PdfDictionary();
+        final CompletableFuture<ObjectStreamIndex> index = new CompletableFuture<>();
+        long offset;
+        int length;
+        int first;
+        int n;
+        long maxDecodedSize;
+
+        PreparsedObjectStream(int objectStreamNumber) {
+            this.objectStreamNumber = objectStreamNumber;
+        }
+    }
+
+    /**
+     * Decoded bytes of an object stream along with the numbers and offsets of its objects.
+     */
+    private static final class ObjectStreamIndex {
+        final byte[] bytes;
+        final int[] objNumbers;
+        final int[] addresses;
+        private final boolean[] read;
+        private int readCount;
+
+        ObjectStreamIndex(byte[] bytes, int n) {
+            this.bytes = bytes;
+            this.objNumbers = new int[n];
+            this.addresses = new int[n];
+            this.read = new boolean[n];
+        }
+
+        PdfTokenizer createTokenizer() {
+            return new PdfTokenizer(new RandomAccessFileOrArray(new RandomAccessSourceFactory().createSource(bytes)));
+        }
+
+        int indexOf(int objNumber) {
+            // Objects of an object stream are usually numbered consecutively
+            if (objNumbers.length > 0) {
+                int k = objNumber - objNumbers[0];
+                if (k >= 0 && k < objNumbers.length && objNumbers[k] == objNumber) {
+                    return k;
+                }
+            }
+            for (int k = 0; k < objNumbers.length; k++) {
+                if (objNumbers[k] == objNumber) {
+                    return k;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Marks the element k as read.
+         *
+         * @return true if every element of the object stream was read
+         */
+        boolean markRead(int k) {
+            if (!read[k]) {
+                read[k] = true;
+                readCount++;
+            }
+            return readCount == read.length;
+        }
+    }
+
     protected static class ReusableRandomAccessSource implements IRandomAccessSource {
         private ByteBuffer buffer;
 
@@ -0,0 +1,429 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.kernel.pdf;
+
+import com.itextpdf.io.source.PdfTokenizer;
+import com.itextpdf.io.source.RandomAccessFileOrArray;
+import com.itextpdf.kernel.exceptions.KernelExceptionMessageConstant;
+import com.itextpdf.kernel.exceptions.PdfException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A view over the incremental revisions of a read document.
+ * <p>
+ * Every incremental update appends a cross-reference section and a trailer to the file, redefining the
+ * objects which have been changed. The view reads the chain of the cross-reference sections once and
+ * resolves objects as they were in any revision: an object which hasn't been redefined since is the object
+ * of the document itself, only superseded versions are read, on demand, from the same source. Unlike
+ * extracting a revision and opening it as a new document, nothing is copied or parsed twice.
+ * <p>
+ * Revisions are numbered from 0, the original document, to {@link #getRevisionCount()} - 1, the latest
+ * incremental update. The view reads through the {@link PdfReader} of the document, so it must not be used
+ * concurrently with the document.
+ */
+public class PdfRevisionView {
+
+    private final PdfDocument document;
+    private final PdfReader reader;
+    // the oldest revision first
+    private final List<Revision> revisions;
+    private final Map<XrefEntry, PdfObject> versions = new HashMap<>();
+
+    /**
+     * Reads the revisions of a document.
+     *
+     * @param document the document opened for reading
+     * @throws IOException on error
+     */
+    public PdfRevisionView(PdfDocument document) throws IOException {
+        this.document = document;
+        this.reader = document.getReader();
+        if (reader == null || reader.hasRebuiltXref() || reader.hasFixedXref()) {
+            throw new PdfException(KernelExceptionMessageConstant.REVISIONS_CANNOT_BE_READ);
+        }
+        this.revisions = readRevisions();
+    }
+
+    /**
+     * Gets the number of the revisions of the document.
+     *
+     * @return the number of the revisions
+     */
+    public int getRevisionCount() {
+        return revisions.size();
+    }
+
+    /**
+     * Gets the offset of the cross-reference section of a revision.
+     *
+     * @param revision the revision, 0 for the original document
+     * @return the offset of the cross-reference section
+     */
+    public long getXrefOffset(int revision) {
+        return getRevision(revision).xrefOffset;
+    }
+
+    /**
+     * Gets the trailer of a revision. For a cross-reference stream it is the dictionary of the stream.
+     *
+     * @param revision the revision, 0 for the original document
+     * @return the trailer dictionary
+     */
+    public PdfDictionary getTrailer(int revision) {
+        return getRevision(revision).trailer;
+    }
+
+    /**
+     * Gets the numbers of the objects defined or freed by the cross-reference section of a revision.
+     *
+     * @param revision the revision, 0 for the original document
+     * @return the unmodifiable set of the object numbers
+     */
+    public Set<Integer> getModifiedObjectNumbers(int revision) {
+        return Collections.unmodifiableSet(getRevision(revision).entries.keySet());
+    }
+
+    /**
+     * Gets the latest revision which is complete within the given number of leading bytes of the file, e.g.
+     * the revision signed by a signature whose byte range ends at this length.
+     *
+     * @param length the number of the leading bytes of the file
+     * @return the revision, or -1 if no revision is complete within the length
+     */
+    public int getRevisionByLength(long length) {
+        for (int k = revisions.size() - 1; k >= 0; --k) {
+            if (revisions.get(k).xrefOffset < length) {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Checks whether an object has been redefined or freed by a revision following the given one.
+     *
+     * @param revision  the revision, 0 for the original document
+     * @param objNumber the object number
+     * @return true if the object has been changed after the revision
+     */
+    public boolean isModifiedAfter(int revision, int objNumber) {
+        getRevision(revision);
+        for (int k = revision + 1; k < revisions.size(); ++k) {
+            if (revisions.get(k).entries.containsKey(objNumber)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets an object as it was in a revision. The indirect references inside the object refer to the
+     * objects of the document, use {@link #resolve(int, PdfObject)} to follow them within the revision.
+     *
+     * @param revision  the revision, 0 for the original document
+     * @param objNumber the object number
+     * @return the object, or null if the object didn't exist in the revision
+     */
+    public PdfObject getObject(int revision, int objNumber) {
+        getRevision(revision);
+        for (int k = revision; k >= 0; --k) {
+            XrefEntry entry = revisions.get(k).entries.get(objNumber);
+            if (entry == null) {
+                continue;
+            }
+            if (entry.free) {
+                return null;
+            }
+            if (!isModifiedAfter(k, objNumber)) {
+                return document.getPdfObject(objNumber);
+            }
+            return readVersion(k, entry);
+        }
+        return null;
+    }
+
+    /**
+     * Resolves an indirect reference to the object as it was in a revision.
+     *
+     * @param revision the revision, 0 for the original document
+     * @param object   the object to resolve
+     * @return the referred object for an indirect reference, otherwise the object itself
+     */
+    public PdfObject resolve(int revision, PdfObject object) {
+        if (object != null && object.isIndirectReference()) {
+            return getObject(revision, ((PdfIndirectReference) object).getObjNumber());
+        }
+        return object;
+    }
+
+    /**
+     * Gets the catalog dictionary of a revision.
+     *
+     * @param revision the revision, 0 for the original document
+     * @return the catalog dictionary, or null if the trailer doesn't refer to a dictionary
+     */
+    public PdfDictionary getCatalog(int revision) {
+        PdfObject catalog = resolve(revision, getTrailer(revision).get(PdfName.Root, false));
+        return catalog instanceof PdfDictionary ? (PdfDictionary) catalog : null;
+    }
+
+    private Revision getRevision(int revision) {
+        if (revision < 0 || revision >= revisions.size()) {
+            throw new IndexOutOfBoundsException(String.valueOf(revision));
+        }
+        return revisions.get(revision);
+    }
+
+    private PdfObject readVersion(int revision, XrefEntry entry) {
+        PdfObject version = versions.get(entry);
+        if (version != null) {
+            return version;
+        }
+        PdfIndirectReference reference;
+        if (entry.objStreamNumber > 0) {
+            PdfObject objectStream = getObject(revision, entry.objStreamNumber);
+            if (!(objectStream instanceof PdfStream)) {
+                throw new PdfException(KernelExceptionMessageConstant.ERROR_WHILE_READING_OBJECT_STREAM);
+            }
+            reference = new PdfIndirectReference(document, entry.objNumber, 0);
+            try {
+                version = reader.readObjectVersion((PdfStream) objectStream, reference, (int) entry.offset);
+            } catch (IOException e) {
+                throw new PdfException(KernelExceptionMessageConstant.CANNOT_READ_PDF_OBJECT, e);
+            }
+        } else {
+            reference = new PdfIndirectReference(document, entry.objNumber, entry.genNumber, entry.offset);
+            version = reader.readObjectVersion(reference);
+        }
+        // the reference doesn't belong to the cross-reference table, so the object must never be reread through it
+        reference.setRefersTo(version);
+        versions.put(entry, version);
+        return version;
+    }
+
+    private List<Revision> readRevisions() throws IOException {
+        List<Revision> newestFirst = new ArrayList<>();
+        Set<Long> visited = new HashSet<>();
+        PdfTokenizer tokens = new PdfTokenizer(reader.getSafeFile());
+        try {
+            long xrefOffset = reader.getLastXref();
+            while (xrefOffset >= 0) {
+                if (!visited.add(xrefOffset)) {
+                    throw new PdfException(KernelExceptionMessageConstant.REVISIONS_CANNOT_BE_READ);
+                }
+                Revision revision = new Revision(xrefOffset);
+                readSection(tokens, revision);
+                Revision newer = newestFirst.isEmpty() ? null : newestFirst.get(newestFirst.size() - 1);
+                if (newer != null && xrefOffset > newer.xrefOffset) {
+                    // the main section of a linearized document follows its first page section,
+                    // both of them describe the same revision
+                    for (Map.Entry<Integer, XrefEntry> entry : revision.entries.entrySet()) {
+                        if (!newer.entries.containsKey(entry.getKey())) {
+                            newer.entries.put(entry.getKey(), entry.getValue());
+                        }
+                    }
+                    newer.xrefOffset = xrefOffset;
+                } else {
+                    newestFirst.add(revision);
+                }
+                PdfNumber prev = revision.trailer.getAsNumber(PdfName.Prev);
+                xrefOffset = prev == null ? -1 : prev.longValue();
+            }
+        } finally {
+            tokens.close();
+        }
+        Collections.reverse(newestFirst);
+        return newestFirst;
+    }
+
+    private void readSection(PdfTokenizer tokens, Revision revision) throws IOException {
+        tokens.seek(revision.xrefOffset);
+        tokens.nextValidToken();
+        if (tokens.tokenValueEqualsTo(PdfTokenizer.Xref)) {
+            readXrefTable(tokens, revision);
+            PdfNumber xrefStm = revision.trailer.getAsNumber(PdfName.XRefStm);
+            if (xrefStm != null) {
+                // the table of a hybrid-reference file takes precedence over its stream
+                readXrefStream(tokens, xrefStm.longValue(), revision);
+            }
+        } else {
+            revision.trailer = readXrefStream(tokens, revision.xrefOffset, revision);
+        }
+    }
+
+    private void readXrefTable(PdfTokenizer tokens, Revision revision) throws IOException {
+        while (true) {
+            tokens.nextValidToken();
+            if (tokens.tokenValueEqualsTo(PdfTokenizer.Trailer)) {
+                break;
+            }
+            if (tokens.getTokenType() != PdfTokenizer.TokenType.Number) {
+                tokens.throwError(
+                        KernelExceptionMessageConstant.OBJECT_NUMBER_OF_THE_FIRST_OBJECT_IN_THIS_XREF_SUBSECTION_NOT_FOUND);
+            }
+            int start = tokens.getIntValue();
+            tokens.nextValidToken();
+            if (tokens.getTokenType() != PdfTokenizer.TokenType.Number) {
+                tokens.throwError(KernelExceptionMessageConstant.NUMBER_OF_ENTRIES_IN_THIS_XREF_SUBSECTION_NOT_FOUND);
+            }
+            int end = tokens.getIntValue() + start;
+            for (int num = start; num < end; num++) {
+                tokens.nextValidToken();
+                long pos = tokens.getLongValue();
+                tokens.nextValidToken();
+                int gen = tokens.getIntValue();
+                tokens.nextValidToken();
+                boolean free;
+                if (tokens.tokenValueEqualsTo(PdfTokenizer.N)) {
+                    free = false;
+                } else if (tokens.tokenValueEqualsTo(PdfTokenizer.F)) {
+                    free = true;
+                } else {
+                    tokens.throwError(
+                            KernelExceptionMessageConstant.INVALID_CROSS_REFERENCE_ENTRY_IN_THIS_XREF_SUBSECTION);
+                    return;
+                }
+                // the head of the free list is not an object
+                if (num != 0) {
+                    revision.entries.put(num, new XrefEntry(num, gen, pos, 0, free));
+                }
+            }
+        }
+        PdfObject trailer = reader.readObjectAt(tokens.getPosition());
+        if (!(trailer instanceof PdfDictionary)) {
+            throw new PdfException(KernelExceptionMessageConstant.INVALID_XREF_TABLE);
+        }
+        revision.trailer = (PdfDictionary) trailer;
+    }
+
+    private PdfDictionary readXrefStream(PdfTokenizer tokens, long offset, Revision revision) throws IOException {
+        tokens.seek(offset);
+        if (!tokens.nextToken() || tokens.getTokenType() != PdfTokenizer.TokenType.Number
+                || !tokens.nextToken() || tokens.getTokenType() != PdfTokenizer.TokenType.Number
+                || !tokens.nextToken() || !tokens.tokenValueEqualsTo(PdfTokenizer.Obj)) {
+            throw new PdfException(KernelExceptionMessageConstant.INVALID_XREF_STREAM);
+        }
+        PdfObject object = reader.readObjectAt(tokens.getPosition());
+        if (!(object instanceof PdfStream) || !PdfName.XRef.equals(((PdfStream) object).getAsName(PdfName.Type))) {
+            throw new PdfException(KernelExceptionMessageConstant.INVALID_XREF_STREAM);
+        }
+        PdfStream xrefStream = (PdfStream) object;
+        // cross-reference streams are never encrypted
+        byte[] b = new byte[Math.max(0, xrefStream.getLength())];
+        RandomAccessFileOrArray file = reader.getSafeFile();
+        try {
+            file.seek(xrefStream.getOffset());
+            file.readFully(b);
+        } finally {
+            file.close();
+        }
+        b = PdfReader.decodeBytes(b, xrefStream);
+
+        PdfArray index = xrefStream.getAsArray(PdfName.Index);
+        if (index == null) {
+            index = new PdfArray();
+            index.add(new PdfNumber(0));
+            index.add(xrefStream.getAsNumber(PdfName.Size));
+        }
+        PdfArray w = xrefStream.getAsArray(PdfName.W);
+        int[] wc = new int[3];
+        for (int k = 0; k < 3; ++k) {
+            wc[k] = w.getAsNumber(k).intValue();
+        }
+        int bptr = 0;
+        for (int idx = 0; idx < index.size(); idx += 2) {
+            int num = index.getAsNumber(idx).intValue();
+            int length = index.getAsNumber(idx + 1).intValue();
+            for (; length-- > 0; ++num) {
+                int type = 1;
+                if (wc[0] > 0) {
+                    type = 0;
+                    for (int k = 0; k < wc[0]; ++k) {
+                        type = (type << 8) + (b[bptr++] & 0xff);
+                    }
+                }
+                long field2 = 0;
+                for (int k = 0; k < wc[1]; ++k) {
+                    field2 = (field2 << 8) + (b[bptr++] & 0xff);
+                }
+                int field3 = 0;
+                for (int k = 0; k < wc[2]; ++k) {
+                    field3 = (field3 << 8) + (b[bptr++] & 0xff);
+                }
+                XrefEntry entry;
+                switch (type) {
+                    case 0:
+                        entry = new XrefEntry(num, field3, field2, 0, true);
+                        break;
+                    case 1:
+                        entry = new XrefEntry(num, field3, field2, 0, false);
+                        break;
+                    case 2:
+                        entry = new XrefEntry(num, 0, field3, (int) field2, false);
+                        break;
+                    default:
+                        throw new PdfException(KernelExceptionMessageConstant.INVALID_XREF_STREAM);
+                }
+                if (num != 0 && !revision.entries.containsKey(num)) {
+                    revision.entries.put(num, entry);
+                }
+            }
+        }
+        return xrefStream;
+    }
+
+    private static final class Revision {
+        private long xrefOffset;
+        private PdfDictionary trailer;
+        private final Map<Integer, XrefEntry> entries = new HashMap<>();
+
+        Revision(long xrefOffset) {
+            this.xrefOffset = xrefOffset;
+        }
+    }
+
+    private static final class XrefEntry {
+        private final int objNumber;
+        private final int genNumber;
+        // the index in the object stream for compressed objects
+        private final long offset;
+        private final int objStreamNumber;
+        private final boolean free;
+
+        XrefEntry(int objNumber, int genNumber, long offset, int objStreamNumber, boolean free) {
+            this.objNumber = objNumber;
+            this.genNumber = genNumber;
+            this.offset = offset;
+            this.objStreamNumber = objStreamNumber;
+            this.free = free;
+        }
+    }
+}
@@ -45,16 +45,24 @@ package com.itextpdf.kernel.pdf;
 
 import com.itextpdf.commons.utils.FileUtil;
 import com.itextpdf.io.logs.IoLogMessageConstant;
+import com.itextpdf.io.source.ByteArrayOutputStream;
 import com.itextpdf.io.source.ByteUtils;
+import com.itextpdf.kernel.exceptions.KernelExceptionMessageConstant;
+import com.itextpdf.kernel.exceptions.PdfException;
 import com.itextpdf.kernel.utils.ICopyFilter;
 import com.itextpdf.kernel.utils.NullCopyFilter;
 
 import java.io.FileNotFoundException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -62,6 +70,12 @@ public class PdfWriter extends PdfOutputStream {
     private static final byte[] obj = ByteUtils.getIsoBytes(" obj\n");
     private static final byte[] endobj = ByteUtils.getIsoBytes("\nendobj\n");
 
+    /**
+     * Streams smaller than that are deflated on the writing thread even if the compression executor is set,
+     * handing them over to another thread costs more than deflating them.
+     */
+    private static final int MIN_PARALLEL_DEFLATE_SIZE = 4096;
+
     protected WriterProperties properties;
     //forewarned is forearmed
     protected boolean isUserWarnedAboutAcroFormCopying;
@@ -81,6 +95,18 @@ public class PdfWriter extends PdfOutputStream {
      */
     private SmartModePdfObjectsSerializer smartModeSerializer = new SmartModePdfObjectsSerializer();
 
+    /**
+     * Objects which have been flushed, but not written yet, in flushing order. Objects are deferred only when
+     * {@link WriterProperties#setCompressionExecutor} is used, once a stream is being deflated on the executor
+     * all the objects flushed after it wait for it to be written.
+     */
+    private final Deque<PendingObject> pendingObjects = new ArrayDeque<>();
+
+    /**
+     * Total size of the uncompressed content of the pending streams which are being deflated on the executor.
+     */
+    private long pendingDeflateSize;
+
     /**
      * Create a PdfWriter writing to the passed File and with default writer properties.
      *
@@ -206,36 +232,35 @@ public class PdfWriter extends PdfOutputStream {
      */
     protected void flushObject(PdfObject pdfObject, boolean canBeInObjStm) {
         PdfIndirectReference indirectReference = pdfObject.getIndirectReference();
+        // With the compression executor the object is written after its content is marked to flush,
+        // because writing it may release the content right away
+        boolean isDeferrable = false;
         if (isFullCompression() && canBeInObjStm) {
             PdfObjectStream objectStream = getObjectStream();
             objectStream.addObject(pdfObject);
+        } else if (properties.compressionExecutor != null) {
+            isDeferrable = true;
         } else {
             indirectReference.setOffset(getCurrentPos());
             writeToBody(pdfObject);
         }
         indirectReference.setState(PdfObject.FLUSHED).clearState(PdfObject.MUST_BE_FLUSHED);
         switch (pdfObject.getType()) {
-            case PdfObject.BOOLEAN:
-            case PdfObject.NAME:
-            case PdfObject.NULL:
-            case PdfObject.NUMBER:
-            case PdfObject.STRING:
-                ((PdfPrimitiveObject) pdfObject).content = null;
-                break;
             case PdfObject.ARRAY:
-                PdfArray array = ((PdfArray) pdfObject);
-                markArrayContentToFlush(array);
-                array.releaseContent();
+                markArrayContentToFlush((PdfArray) pdfObject);
                 break;
             case PdfObject.STREAM:
             case PdfObject.DICTIONARY:
-                PdfDictionary dictionary = ((PdfDictionary) pdfObject);
-                markDictionaryContentToFlush(dictionary);
-                dictionary.releaseContent();
+                markDictionaryContentToFlush((PdfDictionary) pdfObject);
                 break;
             case PdfObject.INDIRECT_REFERENCE:
                 markObjectToFlush(((PdfIndirectReference) pdfObject).getRefersTo(false));
         }
+        if (isDeferrable) {
+            writeOrDefer(pdfObject);
+        } else {
+            releaseObjectContent(pdfObject);
+        }
     }
 
     /**
@@ -288,7 +313,8 @@ public class PdfWriter extends PdfOutputStream {
         if (properties.smartMode && tryToFindDuplicate && !checkTypeOfPdfDictionary(obj, PdfName.Page) &&
                 !checkTypeOfPdfDictionary(obj, PdfName.OCG) && !checkTypeOfPdfDictionary(obj, PdfName.OCMD)) {
             serializedContent = smartModeSerializer.serializeObject(obj);
-            PdfIndirectReference objectRef = smartModeSerializer.getSavedSerializedObject(serializedContent);
+            PdfIndirectReference objectRef = smartModeSerializer.getSavedSerializedObject(serializedContent,
+                    properties.smartModeCollisionCheck ? indirectReference : null);
             if (objectRef != null) {
                 copiedObjects.put(indirectReference, objectRef);
                 return objectRef.refersTo;
@@ -299,7 +325,8 @@ public class PdfWriter extends PdfOutputStream {
         if (indirectReference != null) {
             PdfIndirectReference indRef = newObject.makeIndirect(documentTo).getIndirectReference();
             if (serializedContent != null) {
-                smartModeSerializer.saveSerializedObject(serializedContent, indRef);
+                smartModeSerializer.saveSerializedObject(serializedContent,
+                        properties.smartModeCollisionCheck ? indirectReference : null, indRef);
             }
             copiedObjects.put(indirectReference, indRef);
         }
@@ -314,13 +341,7 @@ public class PdfWriter extends PdfOutputStream {
      * @param pdfObj object to write.
      */
     protected void writeToBody(PdfObject pdfObj) {
-        if (crypto != null) {
-            crypto.setHashKeyForNextObject(pdfObj.getIndirectReference().getObjNumber(),
-                    pdfObj.getIndirectReference().getGenNumber());
-        }
-        writeInteger(pdfObj.getIndirectReference().getObjNumber()).
-                writeSpace().
-                writeInteger(pdfObj.getIndirectReference().getGenNumber()).writeBytes(obj);
+        writeIndirectObjectStart(pdfObj.getIndirectReference());
         write(pdfObj);
         writeBytes(endobj);
     }
@@ -406,11 +427,22 @@ public class PdfWriter extends PdfOutputStream {
             objectStream = new PdfObjectStream(document);
         } else if (objectStream.getSize() == PdfObjectStream.MAX_OBJ_STREAM_SIZE) {
             objectStream.flush();
-            objectStream = new PdfObjectStream(objectStream);
+            // The buffers of a pending object stream are still to be written, so they cannot be reused
+            objectStream = pendingObjects.isEmpty() ? new PdfObjectStream(objectStream) : new PdfObjectStream(document);
         }
         return objectStream;
     }
 
+    /**
+     * Writes all the objects which have been flushed, but are still waiting for the streams
+     * flushed before them to be deflated on the compression executor.
+     */
+    void flushPendingObjects() {
+        while (!pendingObjects.isEmpty()) {
+            writePendingObject(pendingObjects.poll());
+        }
+    }
+
     /**
      * Flush all copied objects.
      *
@@ -432,6 +464,106 @@ public class PdfWriter extends PdfOutputStream {
         }
     }
 
+    private void writeIndirectObjectStart(PdfIndirectReference indirectReference) {
+        if (crypto != null) {
+            crypto.setHashKeyForNextObject(indirectReference.getObjNumber(), indirectReference.getGenNumber());
+        }
+        writeInteger(indirectReference.getObjNumber()).
+                writeSpace().
+                writeInteger(indirectReference.getGenNumber()).writeBytes(obj);
+    }
+
+    /**
+     * Writes the object right away if nothing is pending and the object is not a stream to be deflated
+     * on the compression executor, otherwise appends it to the pending objects. The content of the object
+     * is released once it is written.
+     *
+     * @param pdfObject the object to write
+     */
+    private void writeOrDefer(PdfObject pdfObject) {
+        CompletableFuture<ByteArrayOutputStream> deflated = null;
+        long size = 0;
+        if (pdfObject.getType() == PdfObject.STREAM) {
+            PdfStream pdfStream = (PdfStream) pdfObject;
+            if (pdfStream.getInputStream() == null && pdfStream.getOutputStream() != null
+                    && !isXRefStream(pdfStream)) {
+                final ByteArrayOutputStream[] content = getContentBuffers(pdfStream);
+                for (ByteArrayOutputStream buffer : content) {
+                    size += buffer.size();
+                }
+                if (size >= MIN_PARALLEL_DEFLATE_SIZE && prepareDeflate(pdfStream)) {
+                    final int compressionLevel = pdfStream.getCompressionLevel();
+                    while (!pendingObjects.isEmpty() && pendingDeflateSize + size > properties.maxCompressionBufferSize) {
+                        writePendingObject(pendingObjects.poll());
+                    }
+                    try {
+                        deflated = CompletableFuture.supplyAsync(() -> deflate(content, compressionLevel),
+                                properties.compressionExecutor);
+                    } catch (RejectedExecutionException e) {
+                        deflated = CompletableFuture.completedFuture(deflate(content, compressionLevel));
+                    }
+                }
+            }
+        }
+        if (deflated == null && pendingObjects.isEmpty()) {
+            pdfObject.getIndirectReference().setOffset(getCurrentPos());
+            writeToBody(pdfObject);
+            releaseObjectContent(pdfObject);
+            return;
+        }
+        if (deflated != null) {
+            pendingDeflateSize += size;
+        }
+        pendingObjects.add(new PendingObject(pdfObject, deflated, size));
+        // Write everything which is ready, so that the output does not lag behind more than necessary
+        while (!pendingObjects.isEmpty() && pendingObjects.peek().isReady()) {
+            writePendingObject(pendingObjects.poll());
+        }
+    }
+
+    private void writePendingObject(PendingObject pending) {
+        PdfObject pdfObject = pending.object;
+        pdfObject.getIndirectReference().setOffset(getCurrentPos());
+        if (pending.deflated == null) {
+            writeToBody(pdfObject);
+        } else {
+            pendingDeflateSize -= pending.size;
+            ByteArrayOutputStream deflated;
+            try {
+                deflated = pending.deflated.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof PdfException) {
+                    throw (PdfException) e.getCause();
+                }
+                throw new PdfException(KernelExceptionMessageConstant.CANNOT_WRITE_TO_PDF_STREAM, e.getCause(),
+                        pdfObject);
+            }
+            writeIndirectObjectStart(pdfObject.getIndirectReference());
+            writeDeflated((PdfStream) pdfObject, deflated);
+            writeBytes(endobj);
+        }
+        releaseObjectContent(pdfObject);
+    }
+
+    private static void releaseObjectContent(PdfObject pdfObject) {
+        switch (pdfObject.getType()) {
+            case PdfObject.BOOLEAN:
+            case PdfObject.NAME:
+            case PdfObject.NULL:
+            case PdfObject.NUMBER:
+            case PdfObject.STRING:
+                ((PdfPrimitiveObject) pdfObject).content = null;
+                break;
+            case PdfObject.ARRAY:
+                ((PdfArray) pdfObject).releaseContent();
+                break;
+            case PdfObject.STREAM:
+            case PdfObject.DICTIONARY:
+                ((PdfDictionary) pdfObject).releaseContent();
+                break;
+        }
+    }
+
     private void markArrayContentToFlush(PdfArray array) {
         for (int i = 0; i < array.size(); i++) {
             markObjectToFlush(array.get(i, false));
@@ -468,4 +600,20 @@ public class PdfWriter extends PdfOutputStream {
     private static boolean checkTypeOfPdfDictionary(PdfObject dictionary, PdfName expectedType) {
         return dictionary.isDictionary() && expectedType.equals(((PdfDictionary) dictionary).getAsName(PdfName.Type));
     }
+
+    private static final class PendingObject {
+        final PdfObject object;
+        final CompletableFuture<ByteArrayOutputStream> deflated;
+        final long size;
+
+        PendingObject(PdfObject object, CompletableFuture<ByteArrayOutputStream> deflated, long size) {
+            this.object = object;
+            this.deflated = deflated;
+            this.size = size;
+        }
+
+        boolean isReady() {
+            return deflated == null || deflated.isDone();
+        }
+    }
 }
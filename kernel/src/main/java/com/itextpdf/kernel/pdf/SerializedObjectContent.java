@@ -42,35 +42,35 @@
  */
 package com.itextpdf.kernel.pdf;
 
-import java.util.Arrays;
-
+/**
+ * The 128-bit structural fingerprint of an object, used in smart mode to find its duplicates.
+ */
 class SerializedObjectContent {
-    private final byte[] serializedContent;
-    private final int hash;
+    private final long high;
+    private final long low;
+
+    SerializedObjectContent(long high, long low) {
+        this.high = high;
+        this.low = low;
+    }
 
-    SerializedObjectContent(byte[] serializedContent) {
-        this.serializedContent = serializedContent;
-        this.hash = calculateHash(serializedContent);
+    SerializedObjectContent(long[] hash) {
+        this(hash[0], hash[1]);
+    }
+
+    void writeTo(FingerprintDigest hash) {
+        hash.updateLong(high).updateLong(low);
     }
 
     @Override
     public boolean equals(Object obj) {
         return obj instanceof SerializedObjectContent
-                && hashCode() == obj.hashCode()
-                && Arrays.equals(serializedContent, ((SerializedObjectContent) obj).serializedContent);
+                && high == ((SerializedObjectContent) obj).high
+                && low == ((SerializedObjectContent) obj).low;
     }
 
     @Override
     public int hashCode() {
-        return hash;
-    }
-
-    private static int calculateHash(byte[] b) {
-        int hash = 0;
-        int len = b.length;
-        for (int k = 0; k < len; ++k) {
-            hash = hash * 31 + (b[k] & 0xff);
-        }
-        return hash;
+        return (int) (low ^ (low >>> 32));
     }
 }
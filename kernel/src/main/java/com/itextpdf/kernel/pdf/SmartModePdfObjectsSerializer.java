@@ -42,35 +42,77 @@
  */
 package com.itextpdf.kernel.pdf;
 
-import com.itextpdf.io.source.ByteBuffer;
-import com.itextpdf.kernel.exceptions.PdfException;
-
-import java.security.MessageDigest;
-
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Map;
 
+/**
+ * Finds duplicates of the copied objects in smart mode.
+ * <br>
+ * The objects are compared by their 128-bit structural fingerprint, a SHA-256 based digest computed
+ * in one pass over the object and the objects it refers to. The fingerprint of each indirect object
+ * is computed once per document and reused by all the objects which refer to it.
+ */
 class SmartModePdfObjectsSerializer {
-    private MessageDigest md5;
-    private HashMap<SerializedObjectContent, PdfIndirectReference> serializedContentToObj = new HashMap<>();
+    private static final int MAX_LEVEL = 100;
 
-    SmartModePdfObjectsSerializer() {
-        try {
-            md5 = MessageDigest.getInstance("MD5");
-        } catch (Exception e) {
-            throw new PdfException(e);
-        }
-    }
+    private static final byte DICTIONARY = 'D';
+    private static final byte DICTIONARY_END = 'd';
+    private static final byte ARRAY = 'A';
+    private static final byte ARRAY_END = 'a';
+    private static final byte STREAM = 'B';
+    private static final byte STRING = 'S';
+    private static final byte NAME = 'N';
+    private static final byte NUMBER = 'R';
+    private static final byte BOOLEAN = 'T';
+    private static final byte LITERAL = 'L';
+    private static final byte NULL = 'Z';
+
+    private HashMap<SerializedObjectContent, SavedObject> serializedContentToObj = new HashMap<>();
 
     public void saveSerializedObject(SerializedObjectContent serializedContent, PdfIndirectReference objectReference) {
-        serializedContentToObj.put(serializedContent, objectReference);
+        saveSerializedObject(serializedContent, null, objectReference);
+    }
+
+    /**
+     * Saves the copy of an object to be reused for the objects with the same content.
+     *
+     * @param serializedContent the fingerprint of the original object
+     * @param originalReference the reference to the original object, if the duplicates are to be confirmed
+     *                          by comparing them with it, otherwise {@code null}
+     * @param objectReference   the reference to the copy of the object
+     */
+    public void saveSerializedObject(SerializedObjectContent serializedContent, PdfIndirectReference originalReference,
+            PdfIndirectReference objectReference) {
+        serializedContentToObj.put(serializedContent, new SavedObject(originalReference, objectReference));
     }
 
     public PdfIndirectReference getSavedSerializedObject(SerializedObjectContent serializedContent) {
-        if (serializedContent != null) {
-            return serializedContentToObj.get(serializedContent);
+        return getSavedSerializedObject(serializedContent, null);
+    }
+
+    /**
+     * Gets the saved copy of an object with the same fingerprint.
+     *
+     * @param serializedContent the fingerprint of the object
+     * @param reference         the reference to the object to confirm that it has the same content as the
+     *                          original of the saved copy, {@code null} to rely on the fingerprint only
+     * @return the reference to the saved copy, or {@code null} if there is none
+     */
+    public PdfIndirectReference getSavedSerializedObject(SerializedObjectContent serializedContent,
+            PdfIndirectReference reference) {
+        if (serializedContent == null) {
+            return null;
         }
-        return null;
+        SavedObject saved = serializedContentToObj.get(serializedContent);
+        if (saved == null) {
+            return null;
+        }
+        if (reference != null && !isConfirmedDuplicate(saved.originalReference, reference)) {
+            return null;
+        }
+        return saved.objectReference;
     }
 
     public SerializedObjectContent serializeObject(PdfObject obj) {
@@ -79,104 +121,111 @@ class SmartModePdfObjectsSerializer {
         }
         PdfIndirectReference indRef = obj.getIndirectReference();
         assert indRef != null;
-        Map<PdfIndirectReference, byte[]> serializedCache = indRef.getDocument().serializedObjectsCache;
+        Map<PdfIndirectReference, SerializedObjectContent> serializedCache = indRef.getDocument().serializedObjectsCache;
 
-        byte[] content = serializedCache.get(indRef);
+        SerializedObjectContent content = serializedCache.get(indRef);
         if (content == null) {
-            ByteBuffer bb = new ByteBuffer();
-            int level = 100;
+            FingerprintDigest hash = new FingerprintDigest();
             try {
-                serObject(obj, bb, level, serializedCache);
+                serObject(obj, hash, MAX_LEVEL, serializedCache);
             } catch (SelfReferenceException e) {
                 return null;
             }
-            content = bb.toByteArray();
+            content = new SerializedObjectContent(hash.digest());
         }
-        return new SerializedObjectContent(content);
+        return content;
     }
 
-    private void serObject(PdfObject obj, ByteBuffer bb, int level, Map<PdfIndirectReference, byte[]> serializedCache) throws SelfReferenceException {
+    private void serObject(PdfObject obj, FingerprintDigest hash, int level,
+            Map<PdfIndirectReference, SerializedObjectContent> serializedCache) throws SelfReferenceException {
         if (level <= 0) {
             return;
         }
         if (obj == null) {
-            bb.append("$Lnull");
+            hash.update(NULL);
             return;
         }
         PdfIndirectReference reference = null;
-        ByteBuffer savedBb = null;
+        FingerprintDigest savedHash = null;
 
         if (obj.isIndirectReference()) {
             reference = (PdfIndirectReference) obj;
-            byte[] cached = serializedCache.get(reference);
+            SerializedObjectContent cached = serializedCache.get(reference);
             if (cached != null) {
-                bb.append(cached);
+                cached.writeTo(hash);
                 return;
             } else {
 
-                if (serializedCache.keySet().contains(reference)) {
+                if (serializedCache.containsKey(reference)) {
                     //referencing itself
                     throw new SelfReferenceException();
                 }
                 serializedCache.put(reference, null);
 
-                savedBb = bb;
-                bb = new ByteBuffer();
+                savedHash = hash;
+                hash = new FingerprintDigest();
                 obj = reference.getRefersTo();
             }
         }
 
         if (obj.isStream()) {
-            serDic((PdfDictionary) obj, bb, level - 1, serializedCache);
-            bb.append("$B");
-            if (level > 0) {
-                bb.append(md5.digest(((PdfStream) obj).getBytes(false)));
-            }
+            serDic((PdfDictionary) obj, hash, level - 1, serializedCache);
+            byte[] bytes = ((PdfStream) obj).getBytes(false);
+            hash.update(STREAM).updateInt(bytes.length).update(bytes);
         } else if (obj.isDictionary()) {
-            serDic((PdfDictionary) obj, bb, level - 1, serializedCache);
+            serDic((PdfDictionary) obj, hash, level - 1, serializedCache);
         } else if (obj.isArray()) {
-            serArray((PdfArray) obj, bb, level - 1, serializedCache);
+            serArray((PdfArray) obj, hash, level - 1, serializedCache);
         } else if (obj.isString()) {
-            // TODO specify length for strings, streams, may be names?
-            bb.append("$S").append(obj.toString());
+            byte[] bytes = ((PdfString) obj).getValueBytes();
+            hash.update(STRING).updateInt(bytes.length).update(bytes);
         } else if (obj.isName()) {
-            bb.append("$N").append(obj.toString());
+            byte[] bytes = ((PdfName) obj).getInternalContent();
+            hash.update(NAME).updateInt(bytes.length).update(bytes);
+        } else if (obj.isNumber()) {
+            hash.update(NUMBER).updateLong(Double.doubleToLongBits(((PdfNumber) obj).getValue()));
+        } else if (obj.isBoolean()) {
+            hash.update(BOOLEAN).update((byte) (((PdfBoolean) obj).getValue() ? 1 : 0));
+        } else if (obj.isLiteral()) {
+            byte[] bytes = ((PdfLiteral) obj).getInternalContent();
+            hash.update(LITERAL).updateInt(bytes.length).update(bytes);
         } else {
             // PdfNull case is also here
-            bb.append("$L").append(obj.toString());
+            hash.update(NULL);
         }
 
-        if (savedBb != null) {
-            serializedCache.put(reference, bb.toByteArray());
-            savedBb.append(bb.getInternalBuffer(), 0, bb.size());
+        if (savedHash != null) {
+            SerializedObjectContent content = new SerializedObjectContent(hash.digest());
+            serializedCache.put(reference, content);
+            content.writeTo(savedHash);
         }
     }
 
-    private void serDic(PdfDictionary dic, ByteBuffer bb, int level,
-                        Map<PdfIndirectReference, byte[]> serializedCache) throws SelfReferenceException {
-        bb.append("$D");
+    private void serDic(PdfDictionary dic, FingerprintDigest hash, int level,
+            Map<PdfIndirectReference, SerializedObjectContent> serializedCache) throws SelfReferenceException {
+        hash.update(DICTIONARY);
         if (level <= 0)
             return;
         for (PdfName key : dic.keySet()) {
             if (isKeyRefersBack(dic, key)) {
                 continue;
             }
-            serObject(key, bb, level, serializedCache);
-            serObject(dic.get(key, false), bb, level, serializedCache);
+            serObject(key, hash, level, serializedCache);
+            serObject(dic.get(key, false), hash, level, serializedCache);
 
         }
-        bb.append("$\\D");
+        hash.update(DICTIONARY_END);
     }
 
-    private void serArray(PdfArray array, ByteBuffer bb, int level,
-                          Map<PdfIndirectReference, byte[]> serializedCache) throws SelfReferenceException {
-        bb.append("$A");
+    private void serArray(PdfArray array, FingerprintDigest hash, int level,
+            Map<PdfIndirectReference, SerializedObjectContent> serializedCache) throws SelfReferenceException {
+        hash.update(ARRAY);
         if (level <= 0)
             return;
         for (int k = 0; k < array.size(); ++k) {
-            serObject(array.get(k, false), bb, level, serializedCache);
+            serObject(array.get(k, false), hash, level, serializedCache);
         }
-        bb.append("$\\A");
+        hash.update(ARRAY_END);
     }
 
     private boolean isKeyRefersBack(PdfDictionary dic, PdfName key) {
@@ -186,6 +235,108 @@ class SmartModePdfObjectsSerializer {
                 || key.equals(PdfName.Parent);
     }
 
+    /**
+     * Checks that an object has the same content as the original of a saved copy, to rule out
+     * a collision of their fingerprints. A duplicate cannot be confirmed if the document of the
+     * original object is closed.
+     */
+    private boolean isConfirmedDuplicate(PdfIndirectReference originalReference, PdfIndirectReference reference) {
+        if (originalReference == null || originalReference.getDocument() == null
+                || originalReference.getDocument().isClosed()) {
+            return false;
+        }
+        return isEqual(originalReference, reference, MAX_LEVEL,
+                new IdentityHashMap<PdfIndirectReference, PdfIndirectReference>());
+    }
+
+    private boolean isEqual(PdfObject first, PdfObject second, int level,
+            Map<PdfIndirectReference, PdfIndirectReference> compared) {
+        if (level <= 0 || first == second) {
+            return true;
+        }
+        if (first == null || second == null) {
+            return false;
+        }
+        if (first.isIndirectReference() && second.isIndirectReference()) {
+            PdfIndirectReference firstReference = (PdfIndirectReference) first;
+            PdfIndirectReference secondReference = (PdfIndirectReference) second;
+            if (compared.get(firstReference) == secondReference) {
+                // Already being compared or found equal
+                return true;
+            }
+            compared.put(firstReference, secondReference);
+            first = firstReference.getRefersTo();
+            second = secondReference.getRefersTo();
+        } else if (first.isIndirectReference() || second.isIndirectReference()) {
+            return false;
+        }
+        if (first == null || second == null || first.getType() != second.getType()) {
+            return first == second;
+        }
+        switch (first.getType()) {
+            case PdfObject.STREAM:
+                return isEqual((PdfDictionary) first, (PdfDictionary) second, level - 1, compared)
+                        && Arrays.equals(((PdfStream) first).getBytes(false), ((PdfStream) second).getBytes(false));
+            case PdfObject.DICTIONARY:
+                return isEqual((PdfDictionary) first, (PdfDictionary) second, level - 1, compared);
+            case PdfObject.ARRAY:
+                PdfArray firstArray = (PdfArray) first;
+                PdfArray secondArray = (PdfArray) second;
+                if (firstArray.size() != secondArray.size()) {
+                    return false;
+                }
+                for (int k = 0; k < firstArray.size(); ++k) {
+                    if (!isEqual(firstArray.get(k, false), secondArray.get(k, false), level - 1, compared)) {
+                        return false;
+                    }
+                }
+                return true;
+            case PdfObject.STRING:
+                return Arrays.equals(((PdfString) first).getValueBytes(), ((PdfString) second).getValueBytes());
+            case PdfObject.NUMBER:
+                return ((PdfNumber) first).getValue() == ((PdfNumber) second).getValue();
+            case PdfObject.BOOLEAN:
+                return ((PdfBoolean) first).getValue() == ((PdfBoolean) second).getValue();
+            case PdfObject.NAME:
+            case PdfObject.LITERAL:
+                return Arrays.equals(((PdfPrimitiveObject) first).getInternalContent(),
+                        ((PdfPrimitiveObject) second).getInternalContent());
+            default:
+                return true;
+        }
+    }
+
+    private boolean isEqual(PdfDictionary first, PdfDictionary second, int level,
+            Map<PdfIndirectReference, PdfIndirectReference> compared) {
+        int size = 0;
+        for (PdfName key : first.keySet()) {
+            if (isKeyRefersBack(first, key)) {
+                continue;
+            }
+            if (!second.containsKey(key) || isKeyRefersBack(second, key)
+                    || !isEqual(first.get(key, false), second.get(key, false), level, compared)) {
+                return false;
+            }
+            ++size;
+        }
+        for (PdfName key : second.keySet()) {
+            if (!isKeyRefersBack(second, key)) {
+                --size;
+            }
+        }
+        return size == 0;
+    }
+
+    private static final class SavedObject {
+        final PdfIndirectReference originalReference;
+        final PdfIndirectReference objectReference;
+
+        SavedObject(PdfIndirectReference originalReference, PdfIndirectReference objectReference) {
+            this.originalReference = originalReference;
+            this.objectReference = objectReference;
+        }
+    }
+
     private static class SelfReferenceException extends Exception {
     }
 }
@@ -44,9 +44,14 @@
 package com.itextpdf.kernel.pdf;
 
 import java.security.cert.Certificate;
+import java.util.concurrent.Executor;
 
 public class WriterProperties {
 
+    /**
+     * The default value of the maximum total size of the streams being deflated in parallel, 64 MB.
+     */
+    public static final long DEFAULT_MAX_COMPRESSION_BUFFER_SIZE = 64L * 1024 * 1024;
 
     protected int compressionLevel;
 
@@ -60,6 +65,11 @@ public class WriterProperties {
      * and reused if there's an object with the same content later.
      */
     protected boolean smartMode;
+
+    /**
+     * Whether in smart mode the objects with the same fingerprint are compared before one is reused for the other.
+     */
+    protected boolean smartModeCollisionCheck;
     protected boolean addXmpMetadata;
     protected boolean addUAXmpMetadata;
     protected PdfVersion pdfVersion;
@@ -74,11 +84,24 @@ public class WriterProperties {
      */
     protected PdfString modifiedDocumentId;
 
+    /**
+     * The executor on which the content of the flushed streams is deflated, {@code null} if the streams
+     * are deflated on the writing thread.
+     */
+    protected Executor compressionExecutor;
+
+    /**
+     * The maximum total size of the uncompressed content of the streams which are being deflated
+     * on the {@link #compressionExecutor} and have not been written yet.
+     */
+    protected long maxCompressionBufferSize;
+
     public WriterProperties() {
         smartMode = false;
         addUAXmpMetadata = false;
         compressionLevel = CompressionConstants.DEFAULT_COMPRESSION;
         isFullCompression = null;
+        maxCompressionBufferSize = DEFAULT_MAX_COMPRESSION_BUFFER_SIZE;
         encryptionProperties = new EncryptionProperties();
     }
 
@@ -109,6 +132,23 @@ public class WriterProperties {
         return this;
     }
 
+    /**
+     * Enables the check of the duplicates found in smart mode.
+     * <br>
+     * In smart mode the objects are considered duplicates when their 128-bit structural fingerprints are equal.
+     * The fingerprints are based on SHA-256, so their collisions are not expected in practice, even for crafted
+     * documents. With the check enabled, such objects are also compared, and the resource is reused only if they
+     * are equal.
+     * To keep the original objects available for the comparison, the documents the resources are copied from
+     * have to stay open, the resources of a closed document are not reused.
+     *
+     * @return this {@link WriterProperties} instance
+     */
+    public WriterProperties useSmartModeCollisionCheck() {
+        this.smartModeCollisionCheck = true;
+        return this;
+    }
+
     /**
      * If true, default XMPMetadata based on {@link PdfDocumentInfo} will be added.
      * For PDF 2.0 documents, metadata will be added in any case.
@@ -144,6 +184,42 @@ public class WriterProperties {
         return this;
     }
 
+    /**
+     * Defines a worker pool on which the content of the flushed streams is deflated in parallel.
+     * <br>
+     * The streams are still written in the order in which they are flushed, as soon as their content
+     * is deflated, so the resultant document is byte-for-byte the same as without the worker pool.
+     * Indirect objects flushed after a stream which is still being deflated are written after it,
+     * so {@link PdfWriter#getCurrentPos()} may lag behind the flushed objects until the document is closed.
+     * <br>
+     * The executor is not shut down by iText.
+     *
+     * @param executor the executor to deflate the streams on, {@code null} to deflate them on the writing thread
+     * @return this {@link WriterProperties} instance
+     */
+    public WriterProperties setCompressionExecutor(Executor executor) {
+        this.compressionExecutor = executor;
+        return this;
+    }
+
+    /**
+     * Defines the maximum total size of the uncompressed content of the streams which are being deflated
+     * on the executor set with {@link #setCompressionExecutor(Executor)} and have not been written yet.
+     * When the limit is reached, flushing waits until the earliest of these streams is written.
+     * The default value is {@link #DEFAULT_MAX_COMPRESSION_BUFFER_SIZE}.
+     *
+     * @param maxCompressionBufferSize the maximum size in bytes, a single stream larger than that
+     *                                 is still deflated in parallel, but alone
+     * @return this {@link WriterProperties} instance
+     */
+    public WriterProperties setMaxCompressionBufferSize(long maxCompressionBufferSize) {
+        if (maxCompressionBufferSize <= 0) {
+            throw new IllegalArgumentException("The maximum compression buffer size must be positive.");
+        }
+        this.maxCompressionBufferSize = maxCompressionBufferSize;
+        return this;
+    }
+
     /**
      * Sets the encryption options for the document.
      *
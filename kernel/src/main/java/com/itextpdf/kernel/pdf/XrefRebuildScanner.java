@@ -0,0 +1,243 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf;
+
+import com.itextpdf.io.source.ByteBuffer;
+import com.itextpdf.io.source.IRandomAccessSource;
+import com.itextpdf.io.source.PdfTokenizer;
+import com.itextpdf.io.source.RandomAccessFileOrArray;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds the lines which start indirect objects or trailers in a part of a PDF file
+ * while the cross-reference table is being rebuilt.
+ * <p>
+ * The lines are split in exactly the same way as {@link PdfTokenizer#readLineSegment(ByteBuffer, boolean)} does
+ * when the whole file is read line by line from the beginning. Any part of the file can be scanned independently,
+ * because the line which follows the first line break after a non-whitespace byte starts at the same position
+ * wherever the reading has started. Instances are not thread-safe, each thread shall use its own scanner.
+ */
+final class XrefRebuildScanner {
+
+    private static final int BLOCK_SIZE = 64 * 1024;
+
+    // The same capacity as the line buffer of PdfReader#rebuildXref has
+    private static final int LINE_SIZE = 24;
+
+    private final IRandomAccessSource source;
+    private final long length;
+    private final byte[] block = new byte[BLOCK_SIZE];
+    private long blockStart;
+    private int blockLength;
+    private final ByteBuffer line = new ByteBuffer(LINE_SIZE);
+    private final PdfTokenizer lineTokenizer = new PdfTokenizer(
+            new RandomAccessFileOrArray(new PdfReader.ReusableRandomAccessSource(line)));
+
+    /**
+     * Creates a scanner for the specified source.
+     *
+     * @param source the source to scan, which shall not be shared with other threads,
+     *               it is closed by {@link #close()}
+     */
+    XrefRebuildScanner(IRandomAccessSource source) {
+        this.source = source;
+        this.length = source.length();
+    }
+
+    /**
+     * Finds the position of the first line which starts at or after the specified position,
+     * the line splitting being the same as when the source is read line by line from the beginning.
+     *
+     * @param position the position to start the search from
+     * @return the position of the line start or the length of the source if there is none
+     * @throws IOException if an I/O error occurs
+     */
+    long findLineStart(long position) throws IOException {
+        if (position == 0) {
+            return 0;
+        }
+        int c;
+        while (PdfTokenizer.isWhitespace(c = get(position))) {
+            position++;
+        }
+        return c == -1 ? length : skipLine(position);
+    }
+
+    /**
+     * Scans the lines which start in the specified range. The position of a line is the position at which
+     * the reading of the line starts, i.e. the position right after the previous line break.
+     *
+     * @param start the position of a line start, see {@link #findLineStart(long)}
+     * @param end   the position at which the scanning stops, it shall be a line start as well
+     * @return the lines which start objects or trailers, in the order of their positions
+     * @throws IOException if an I/O error occurs
+     */
+    List<Marker> scan(long start, long end) throws IOException {
+        List<Marker> markers = new ArrayList<>();
+        long position = start;
+        while (position < end) {
+            long contentStart = position;
+            int c;
+            while (PdfTokenizer.isWhitespace(c = get(contentStart))) {
+                contentStart++;
+            }
+            if (c == -1) {
+                break;
+            }
+            long next;
+            if (c == 't' || c >= '0' && c <= '9') {
+                next = readLine(contentStart);
+                if (c == 't') {
+                    if (PdfTokenizer.checkTrailer(line)) {
+                        markers.add(new Marker(position, -1, -1));
+                    }
+                } else {
+                    int[] obj = PdfTokenizer.checkObjectStart(lineTokenizer);
+                    if (obj != null) {
+                        markers.add(new Marker(position, obj[0], obj[1]));
+                    }
+                }
+            } else {
+                next = skipLine(contentStart);
+            }
+            position = next;
+        }
+        return markers;
+    }
+
+    void close() throws IOException {
+        source.close();
+    }
+
+    /**
+     * Reads the line content into the line buffer collapsing the whitespaces
+     * as {@link PdfTokenizer#readLineSegment(ByteBuffer, boolean)} does.
+     *
+     * @return the position right after the line break
+     */
+    private long readLine(long position) throws IOException {
+        line.reset();
+        boolean prevWasWhitespace = false;
+        for (int c = get(position); ; c = get(++position)) {
+            if (c == -1 || c == '\n' || c == '\r') {
+                return skipLine(position);
+            }
+            if (c == 9 || c == 12 || c == 32) {
+                if (!prevWasWhitespace) {
+                    prevWasWhitespace = true;
+                    line.append((byte) c);
+                }
+            } else {
+                prevWasWhitespace = false;
+                line.append((byte) c);
+            }
+            if (line.size() == line.capacity()) {
+                // The rest of the line is skipped
+                return skipLine(position + 1);
+            }
+        }
+    }
+
+    /**
+     * Finds the first line break at or after the specified position.
+     *
+     * @return the position right after the line break, CRLF being a single line break
+     */
+    private long skipLine(long position) throws IOException {
+        for (int c = get(position); c != -1; c = get(++position)) {
+            if (c == '\n') {
+                return position + 1;
+            }
+            if (c == '\r') {
+                return get(position + 1) == '\n' ? position + 2 : position + 1;
+            }
+        }
+        return length;
+    }
+
+    private int get(long position) throws IOException {
+        long index = position - blockStart;
+        if (index < 0 || index >= blockLength) {
+            if (position >= length) {
+                return -1;
+            }
+            blockStart = position;
+            blockLength = 0;
+            int toRead = (int) Math.min(BLOCK_SIZE, length - position);
+            while (blockLength < toRead) {
+                int read = source.get(position + blockLength, block, blockLength, toRead - blockLength);
+                if (read <= 0) {
+                    break;
+                }
+                blockLength += read;
+            }
+            if (blockLength == 0) {
+                return -1;
+            }
+            index = 0;
+        }
+        return block[(int) index] & 0xff;
+    }
+
+    /**
+     * A line which starts an indirect object or a trailer.
+     */
+    static final class Marker {
+        final long position;
+        final int objNumber;
+        final int genNumber;
+
+        Marker(long position, int objNumber, int genNumber) {
+            this.position = position;
+            this.objNumber = objNumber;
+            this.genNumber = genNumber;
+        }
+
+        boolean isTrailer() {
+            return objNumber < 0;
+        }
+    }
+}
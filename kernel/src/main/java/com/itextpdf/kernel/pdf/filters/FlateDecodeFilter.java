@@ -56,12 +56,13 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.zip.InflaterInputStream;
 
 /**
  * Handles FlateDecode filter.
  */
-public class FlateDecodeFilter extends MemoryLimitsAwareFilter {
+public class FlateDecodeFilter extends MemoryLimitsAwareFilter implements IStreamingFilterHandler {
 
     /**
      * A helper to flateDecode.
@@ -80,18 +81,11 @@ public class FlateDecodeFilter extends MemoryLimitsAwareFilter {
      * @return a byte array
      */
     public static byte[] decodePredictor(byte[] in, PdfObject decodeParams) {
-        if (decodeParams == null || decodeParams.getType() != PdfObject.DICTIONARY) {
+        int predictor = getPredictor(decodeParams);
+        if (predictor < 0) {
             return in;
         }
         PdfDictionary dic = (PdfDictionary) decodeParams;
-        PdfObject obj = dic.get(PdfName.Predictor);
-        if (obj == null || obj.getType() != PdfObject.NUMBER) {
-            return in;
-        }
-        int predictor = ((PdfNumber) obj).intValue();
-        if (predictor < 10 && predictor != 2) {
-            return in;
-        }
         final int width = getNumberOrDefault(dic, PdfName.Columns, 1);
         final int colors = getNumberOrDefault(dic, PdfName.Colors, 1);
         final int bpc = getNumberOrDefault(dic, PdfName.BitsPerComponent, 8);
@@ -127,58 +121,7 @@ public class FlateDecodeFilter extends MemoryLimitsAwareFilter {
                 return fout.toByteArray();
             }
 
-            switch (filter) {
-                case 0: //PNG_FILTER_NONE
-                    break;
-                case 1: //PNG_FILTER_SUB
-                    for (int i = bytesPerPixel; i < bytesPerRow; i++) {
-                        curr[i] += curr[i - bytesPerPixel];
-                    }
-                    break;
-                case 2: //PNG_FILTER_UP
-                    for (int i = 0; i < bytesPerRow; i++) {
-                        curr[i] += prior[i];
-                    }
-                    break;
-                case 3: //PNG_FILTER_AVERAGE
-                    for (int i = 0; i < bytesPerPixel; i++) {
-                        curr[i] += (byte) (prior[i] / 2);
-                    }
-                    for (int i = bytesPerPixel; i < bytesPerRow; i++) {
-                        curr[i] += (byte) (((curr[i - bytesPerPixel] & 0xff) + (prior[i] & 0xff)) / 2);
-                    }
-                    break;
-                case 4: //PNG_FILTER_PAETH
-                    for (int i = 0; i < bytesPerPixel; i++) {
-                        curr[i] += prior[i];
-                    }
-
-                    for (int i = bytesPerPixel; i < bytesPerRow; i++) {
-                        int a = curr[i - bytesPerPixel] & 0xff;
-                        int b = prior[i] & 0xff;
-                        int c = prior[i - bytesPerPixel] & 0xff;
-
-                        int p = a + b - c;
-                        int pa = Math.abs(p - a);
-                        int pb = Math.abs(p - b);
-                        int pc = Math.abs(p - c);
-
-                        int ret;
-
-                        if (pa <= pb && pa <= pc) {
-                            ret = a;
-                        } else if (pb <= pc) {
-                            ret = b;
-                        } else {
-                            ret = c;
-                        }
-                        curr[i] += (byte) ret;
-                    }
-                    break;
-                default:
-                    // Error -- unknown filter type
-                    throw new PdfException(KernelExceptionMessageConstant.PNG_FILTER_UNKNOWN);
-            }
+            decodePngRow(filter, curr, prior, bytesPerPixel);
             try {
                 fout.write(curr);
             } catch (IOException ioe) {
@@ -193,6 +136,46 @@ public class FlateDecodeFilter extends MemoryLimitsAwareFilter {
         }
     }
 
+    /**
+     * A helper to flateDecode, which inflates the data while it is being read.
+     *
+     * @param in     the stream of the input data
+     * @param strict {@code true} to read a correct stream. {@code false} to try to read a corrupted stream,
+     *               in which case the data is considered to end where it turns out to be corrupted.
+     * @return the stream of the decoded data
+     */
+    public static InputStream flateDecode(InputStream in, boolean strict) {
+        return strict ? new InflaterInputStream(in) : new LenientInflaterInputStream(in);
+    }
+
+    /**
+     * Wraps the stream of the data into a stream which reverts the predictor specified in decodeParams
+     * while the data is being read. Does the same as {@link #decodePredictor(byte[], PdfObject)} without
+     * holding the whole data in memory.
+     *
+     * @param in           the stream of the input data
+     * @param decodeParams PdfDictionary of decodeParams.
+     * @return the stream of the decoded data, or the passed stream if no predictor is to be reverted
+     */
+    public static InputStream decodePredictor(InputStream in, PdfObject decodeParams) {
+        int predictor = getPredictor(decodeParams);
+        if (predictor < 0) {
+            return in;
+        }
+        PdfDictionary dic = (PdfDictionary) decodeParams;
+        return new PredictorDecodeInputStream(in, predictor, getNumberOrDefault(dic, PdfName.Colors, 1),
+                getNumberOrDefault(dic, PdfName.BitsPerComponent, 8), getNumberOrDefault(dic, PdfName.Columns, 1));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public InputStream decode(InputStream encoded, PdfName filterName, PdfDictionary decodeParams,
+            PdfDictionary streamDictionary) {
+        return decodePredictor(flateDecode(encoded, false), decodeParams);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -238,6 +221,85 @@ public class FlateDecodeFilter extends MemoryLimitsAwareFilter {
         }
     }
 
+    /**
+     * Reverts the PNG predictor of one row in place.
+     *
+     * @param filter        the PNG filter type of the row
+     * @param curr          the row to decode
+     * @param prior         the previous decoded row, all zeros for the first row
+     * @param bytesPerPixel the number of bytes per complete sample
+     */
+    static void decodePngRow(int filter, byte[] curr, byte[] prior, int bytesPerPixel) {
+        int bytesPerRow = curr.length;
+        switch (filter) {
+            case 0: //PNG_FILTER_NONE
+                break;
+            case 1: //PNG_FILTER_SUB
+                for (int i = bytesPerPixel; i < bytesPerRow; i++) {
+                    curr[i] += curr[i - bytesPerPixel];
+                }
+                break;
+            case 2: //PNG_FILTER_UP
+                for (int i = 0; i < bytesPerRow; i++) {
+                    curr[i] += prior[i];
+                }
+                break;
+            case 3: //PNG_FILTER_AVERAGE
+                for (int i = 0; i < bytesPerPixel; i++) {
+                    curr[i] += (byte) (prior[i] / 2);
+                }
+                for (int i = bytesPerPixel; i < bytesPerRow; i++) {
+                    curr[i] += (byte) (((curr[i - bytesPerPixel] & 0xff) + (prior[i] & 0xff)) / 2);
+                }
+                break;
+            case 4: //PNG_FILTER_PAETH
+                for (int i = 0; i < bytesPerPixel; i++) {
+                    curr[i] += prior[i];
+                }
+
+                for (int i = bytesPerPixel; i < bytesPerRow; i++) {
+                    int a = curr[i - bytesPerPixel] & 0xff;
+                    int b = prior[i] & 0xff;
+                    int c = prior[i - bytesPerPixel] & 0xff;
+
+                    int p = a + b - c;
+                    int pa = Math.abs(p - a);
+                    int pb = Math.abs(p - b);
+                    int pc = Math.abs(p - c);
+
+                    int ret;
+
+                    if (pa <= pb && pa <= pc) {
+                        ret = a;
+                    } else if (pb <= pc) {
+                        ret = b;
+                    } else {
+                        ret = c;
+                    }
+                    curr[i] += (byte) ret;
+                }
+                break;
+            default:
+                // Error -- unknown filter type
+                throw new PdfException(KernelExceptionMessageConstant.PNG_FILTER_UNKNOWN);
+        }
+    }
+
+    private static int getPredictor(PdfObject decodeParams) {
+        if (decodeParams == null || decodeParams.getType() != PdfObject.DICTIONARY) {
+            return -1;
+        }
+        PdfObject obj = ((PdfDictionary) decodeParams).get(PdfName.Predictor);
+        if (obj == null || obj.getType() != PdfObject.NUMBER) {
+            return -1;
+        }
+        int predictor = ((PdfNumber) obj).intValue();
+        if (predictor < 10 && predictor != 2) {
+            return -1;
+        }
+        return predictor;
+    }
+
     private static int getNumberOrDefault(PdfDictionary dict, PdfName key, int defaultInt) {
         int result = defaultInt;
         final PdfObject obj = dict.get(key);
@@ -247,4 +309,33 @@ public class FlateDecodeFilter extends MemoryLimitsAwareFilter {
         }
         return result;
     }
+
+    /**
+     * An inflater stream which ends where the compressed data turns out to be corrupted.
+     */
+    private static final class LenientInflaterInputStream extends InflaterInputStream {
+        private boolean corrupted;
+
+        LenientInflaterInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (corrupted) {
+                return -1;
+            }
+            try {
+                return super.read(b, off, len);
+            } catch (IOException e) {
+                corrupted = true;
+                return -1;
+            }
+        }
+
+        @Override
+        public int available() throws IOException {
+            return corrupted ? 0 : super.available();
+        }
+    }
 }
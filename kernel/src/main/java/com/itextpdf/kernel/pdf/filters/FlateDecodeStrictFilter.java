@@ -47,6 +47,7 @@ import com.itextpdf.kernel.pdf.PdfName;
 import com.itextpdf.kernel.pdf.PdfObject;
 
 import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
 
 /**
  * Handles strict FlateDecode filter.
@@ -64,6 +65,15 @@ public class FlateDecodeStrictFilter extends FlateDecodeFilter {
         return b;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public InputStream decode(InputStream encoded, PdfName filterName, PdfDictionary decodeParams,
+            PdfDictionary streamDictionary) {
+        return decodePredictor(flateDecode(encoded, true), decodeParams);
+    }
+
     /**
      * A helper to flateDecode.
      *
@@ -0,0 +1,218 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf.filters;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * An input stream which reverts the TIFF or PNG predictor of the FlateDecode and LZWDecode filters
+ * while the data is being read, one row at a time. The decoded data is the same as
+ * {@link FlateDecodeFilter#decodePredictor(byte[], com.itextpdf.kernel.pdf.PdfObject)} returns.
+ */
+public class PredictorDecodeInputStream extends FilterInputStream {
+
+    private final boolean tiffPredictor;
+    private final boolean tiffPredictorApplicable;
+    private final int bytesPerPixel;
+    private final int bytesPerRow;
+
+    private byte[] curr;
+    private byte[] prior;
+    private int rowLength;
+    private int position;
+    private boolean rowDecoded;
+    private boolean finished;
+
+    /**
+     * Creates a stream which reverts the predictor of the data read from the passed stream.
+     *
+     * @param in               the stream of the data with the predictor applied
+     * @param predictor        the predictor, either 2 for the TIFF predictor or 10 and greater for the PNG ones
+     * @param colors           the number of interleaved color components per sample
+     * @param bitsPerComponent the number of bits used to represent each color component in a sample
+     * @param columns          the number of samples in each row
+     */
+    public PredictorDecodeInputStream(InputStream in, int predictor, int colors, int bitsPerComponent, int columns) {
+        super(in);
+        this.tiffPredictor = predictor == 2;
+        this.tiffPredictorApplicable = bitsPerComponent == 8;
+        this.bytesPerPixel = colors * bitsPerComponent / 8;
+        this.bytesPerRow = (colors * columns * bitsPerComponent + 7) / 8;
+        this.curr = new byte[bytesPerRow];
+        this.prior = new byte[bytesPerRow];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int read() throws IOException {
+        if (!ensureRowAvailable()) {
+            return -1;
+        }
+        return curr[position++] & 0xff;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        int total = 0;
+        while (total < len && ensureRowAvailable()) {
+            int n = Math.min(len - total, rowLength - position);
+            System.arraycopy(curr, position, b, off + total, n);
+            position += n;
+            total += n;
+        }
+        return total == 0 ? -1 : total;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = 0;
+        while (skipped < n && ensureRowAvailable()) {
+            int step = (int) Math.min(n - skipped, rowLength - position);
+            position += step;
+            skipped += step;
+        }
+        return skipped;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int available() throws IOException {
+        return rowLength - position;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void mark(int readlimit) {
+        // Not supported
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void reset() throws IOException {
+        throw new IOException("mark/reset not supported");
+    }
+
+    private boolean ensureRowAvailable() throws IOException {
+        while (position >= rowLength) {
+            if (finished || !readRow()) {
+                finished = true;
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean readRow() throws IOException {
+        position = 0;
+        rowLength = 0;
+        if (tiffPredictor) {
+            int n = readFully(curr);
+            if (n < bytesPerRow || n == 0) {
+                // The incomplete last row is left as is
+                finished = true;
+                rowLength = n;
+                return n > 0;
+            }
+            if (tiffPredictorApplicable) {
+                for (int col = bytesPerPixel; col < bytesPerRow; col++) {
+                    curr[col] = (byte) (curr[col] + curr[col - bytesPerPixel]);
+                }
+            }
+        } else {
+            if (rowDecoded) {
+                byte[] tmp = prior;
+                prior = curr;
+                curr = tmp;
+            }
+            int filter = in.read();
+            if (filter < 0 || readFully(curr) < bytesPerRow) {
+                // The incomplete last row is dropped
+                return false;
+            }
+            FlateDecodeFilter.decodePngRow(filter, curr, prior, bytesPerPixel);
+            rowDecoded = true;
+        }
+        rowLength = bytesPerRow;
+        return true;
+    }
+
+    private int readFully(byte[] row) throws IOException {
+        int total = 0;
+        while (total < row.length) {
+            int n = in.read(row, total, row.length - total);
+            if (n < 0) {
+                break;
+            }
+            total += n;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,253 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.kernel.pdf;
+
+import com.itextpdf.io.source.ByteArrayOutputStream;
+import com.itextpdf.kernel.exceptions.KernelExceptionMessageConstant;
+import com.itextpdf.kernel.exceptions.MemoryLimitsAwareException;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.UnitTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.DeflaterOutputStream;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(UnitTest.class)
+public class LazyObjectStreamTest extends ExtendedITextTest {
+
+    private static final String DESTINATION_FOLDER = "./target/test/com/itextpdf/kernel/pdf/LazyObjectStreamTest/";
+
+    private static final PdfName ITEMS = new PdfName("Items");
+
+    private static final int ITEM_COUNT = 500;
+
+    private static ExecutorService executor;
+
+    @BeforeClass
+    public static void beforeClass() {
+        executor = Executors.newFixedThreadPool(4);
+        createDestinationFolder(DESTINATION_FOLDER);
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void onlyRequestedObjectIsReadTest() throws IOException {
+        byte[] pdf = createDocument(new WriterProperties().setFullCompressionMode(true));
+        try (PdfDocument document = new PdfDocument(
+                new PdfReader(new ByteArrayInputStream(pdf)).setLazyObjectStreamMode(true))) {
+            PdfArray items = document.getCatalog().getPdfObject().getAsArray(ITEMS);
+            PdfIndirectReference requested = (PdfIndirectReference) items.get(10, false);
+            PdfIndirectReference next = (PdfIndirectReference) items.get(11, false);
+            Assert.assertTrue(requested.getObjStreamNumber() > 0);
+            Assert.assertEquals(requested.getObjStreamNumber(), next.getObjStreamNumber());
+
+            Assert.assertEquals(10, items.getAsDictionary(10).getAsNumber(PdfName.V).intValue());
+            Assert.assertNotNull(requested.refersTo);
+            Assert.assertNull(next.refersTo);
+            checkItems(document);
+        }
+    }
+
+    @Test
+    public void lazyReadingTest() throws IOException {
+        checkItems(createDocument(new WriterProperties().setFullCompressionMode(true)), false);
+    }
+
+    @Test
+    public void preparsingTest() throws IOException {
+        checkItems(createDocument(new WriterProperties().setFullCompressionMode(true)), true);
+    }
+
+    @Test
+    public void preparsingEncryptedDocumentTest() throws IOException {
+        checkItems(createDocument(new WriterProperties().setFullCompressionMode(true).setStandardEncryption(null,
+                "owner".getBytes(StandardCharsets.US_ASCII), EncryptionConstants.ALLOW_PRINTING,
+                EncryptionConstants.ENCRYPTION_AES_128)), true);
+    }
+
+    @Test
+    public void documentWithoutObjectStreamsTest() throws IOException {
+        checkItems(createDocument(new WriterProperties()), true);
+    }
+
+    @Test
+    public void preparsingFromFileTest() throws IOException {
+        String filename = DESTINATION_FOLDER + "preparsingFromFile.pdf";
+        try (FileOutputStream fos = new FileOutputStream(filename)) {
+            fos.write(createDocument(new WriterProperties().setFullCompressionMode(true)));
+        }
+        PdfReader reader = new PdfReader(filename).setLazyObjectStreamMode(true)
+                .setObjectStreamPreparsingExecutor(executor);
+        try (PdfDocument document = new PdfDocument(reader)) {
+            checkItems(document);
+        }
+    }
+
+    @Test
+    public void preparsingExceedsSingleStreamLimitTest() throws IOException {
+        // A single filter is not tracked by the handler, the object stream is decoded on demand
+        MemoryLimitsAwareHandler handler = new MemoryLimitsAwareHandler().setMaxSizeOfSingleDecompressedPdfStream(100);
+        PdfReader reader = new PdfReader(new ByteArrayInputStream(createDocument(
+                new WriterProperties().setFullCompressionMode(true))),
+                new ReaderProperties().setMemoryLimitsAwareHandler(handler))
+                .setLazyObjectStreamMode(true)
+                .setObjectStreamPreparsingExecutor(executor);
+        try (PdfDocument document = new PdfDocument(reader)) {
+            checkItems(document);
+        }
+    }
+
+    @Test
+    public void suspiciousObjectStreamTest() throws IOException {
+        byte[] pdf = createDocumentWithDoubleFlateObjectStream();
+        for (int i = 0; i < 3; i++) {
+            MemoryLimitsAwareHandler handler = new MemoryLimitsAwareHandler()
+                    .setMaxSizeOfSingleDecompressedPdfStream(1000);
+            PdfReader reader = new PdfReader(new ByteArrayInputStream(pdf),
+                    new ReaderProperties().setMemoryLimitsAwareHandler(handler));
+            if (i > 0) {
+                reader.setLazyObjectStreamMode(true);
+            }
+            if (i > 1) {
+                reader.setObjectStreamPreparsingExecutor(executor);
+            }
+            try (PdfDocument document = new PdfDocument(reader)) {
+                Exception e = Assert.assertThrows(MemoryLimitsAwareException.class,
+                        () -> document.getPdfObject(4));
+                Assert.assertEquals(KernelExceptionMessageConstant
+                        .DURING_DECOMPRESSION_SINGLE_STREAM_OCCUPIED_MORE_MEMORY_THAN_ALLOWED, e.getMessage());
+            }
+        }
+    }
+
+    private static void checkItems(byte[] pdf, boolean preparse) throws IOException {
+        PdfReader reader = new PdfReader(new ByteArrayInputStream(pdf)).setLazyObjectStreamMode(true);
+        if (preparse) {
+            reader.setObjectStreamPreparsingExecutor(executor);
+        }
+        try (PdfDocument document = new PdfDocument(reader)) {
+            checkItems(document);
+        }
+    }
+
+    private static void checkItems(PdfDocument document) {
+        PdfArray items = document.getCatalog().getPdfObject().getAsArray(ITEMS);
+        Assert.assertEquals(ITEM_COUNT, items.size());
+        // Read the objects out of order, so that object streams are entered in the middle
+        for (int i = ITEM_COUNT - 1; i >= 0; i -= 2) {
+            checkItem(items, i);
+        }
+        for (int i = 0; i < ITEM_COUNT; i += 2) {
+            checkItem(items, i);
+        }
+        Assert.assertEquals(1, document.getNumberOfPages());
+    }
+
+    private static void checkItem(PdfArray items, int i) {
+        PdfDictionary item = items.getAsDictionary(i);
+        Assert.assertEquals(i, item.getAsNumber(PdfName.V).intValue());
+        Assert.assertEquals(new PdfString("item " + i), item.getAsString(PdfName.Name));
+    }
+
+    /**
+     * Creates a document which object 4 is stored in an object stream compressed by two Flate filters.
+     */
+    private static byte[] createDocumentWithDoubleFlateObjectStream() throws IOException {
+        StringBuilder object = new StringBuilder("<</Data (");
+        for (int i = 0; i < 10000; i++) {
+            object.append('a');
+        }
+        object.append(")>>");
+        byte[] objectStreamContent = deflate(deflate(("4 0 " + object).getBytes(StandardCharsets.ISO_8859_1)));
+
+        ByteArrayOutputStream pdf = new ByteArrayOutputStream();
+        long[] offsets = new long[6];
+        writeString(pdf, "%PDF-1.5\n");
+        offsets[1] = pdf.size();
+        writeString(pdf, "1 0 obj\n<</Type/Catalog/Pages 2 0 R>>\nendobj\n");
+        offsets[2] = pdf.size();
+        writeString(pdf, "2 0 obj\n<</Type/Pages/Kids[]/Count 0>>\nendobj\n");
+        offsets[3] = pdf.size();
+        writeString(pdf, "3 0 obj\n<</Type/ObjStm/N 1/First 4/Filter[/FlateDecode/FlateDecode]/Length "
+                + objectStreamContent.length + ">>\nstream\n");
+        pdf.write(objectStreamContent);
+        writeString(pdf, "\nendstream\nendobj\n");
+        offsets[5] = pdf.size();
+
+        ByteArrayOutputStream xref = new ByteArrayOutputStream();
+        for (int i = 0; i < offsets.length; i++) {
+            long field2 = i == 4 ? 3 : offsets[i];
+            xref.write(i == 0 ? 0 : i == 4 ? 2 : 1);
+            for (int shift = 24; shift >= 0; shift -= 8) {
+                xref.write((int) (field2 >> shift));
+            }
+            xref.write(0);
+            xref.write(i == 0 ? 255 : 0);
+        }
+        writeString(pdf, "5 0 obj\n<</Type/XRef/Size 6/W[1 4 2]/Root 1 0 R/Length " + xref.size() + ">>\nstream\n");
+        pdf.write(xref.toByteArray());
+        writeString(pdf, "\nendstream\nendobj\nstartxref\n" + offsets[5] + "\n%%EOF\n");
+        return pdf.toByteArray();
+    }
+
+    private static byte[] deflate(byte[] bytes) throws IOException {
+        ByteArrayOutputStream deflated = new ByteArrayOutputStream();
+        try (DeflaterOutputStream zip = new DeflaterOutputStream(deflated)) {
+            zip.write(bytes);
+        }
+        return deflated.toByteArray();
+    }
+
+    private static void writeString(ByteArrayOutputStream stream, String string) throws IOException {
+        stream.write(string.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private static byte[] createDocument(WriterProperties properties) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (PdfDocument document = new PdfDocument(new PdfWriter(baos, properties))) {
+            document.addNewPage();
+            PdfArray items = new PdfArray();
+            for (int i = 0; i < ITEM_COUNT; ++i) {
+                PdfDictionary item = new PdfDictionary();
+                item.put(PdfName.V, new PdfNumber(i));
+                item.put(PdfName.Name, new PdfString("item " + i));
+                items.add(item.makeIndirect(document));
+            }
+            document.getCatalog().put(ITEMS, items);
+        }
+        return baos.toByteArray();
+    }
+}
@@ -0,0 +1,123 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.kernel.pdf;
+
+import com.itextpdf.io.source.ByteArrayOutputStream;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.UnitTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(UnitTest.class)
+public class ParallelCompressionTest extends ExtendedITextTest {
+
+    private static final int PAGE_COUNT = 20;
+
+    private static ExecutorService executor;
+
+    @BeforeClass
+    public static void beforeClass() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void xrefTableTest() throws IOException {
+        checkParallelCompression(new WriterProperties(), true);
+    }
+
+    @Test
+    public void fullCompressionTest() throws IOException {
+        checkParallelCompression(new WriterProperties().setFullCompressionMode(true), true);
+    }
+
+    @Test
+    public void encryptionTest() throws IOException {
+        checkParallelCompression(new WriterProperties().setStandardEncryption(null, "owner".getBytes(
+                StandardCharsets.US_ASCII), EncryptionConstants.ALLOW_PRINTING, EncryptionConstants.ENCRYPTION_AES_128), false);
+    }
+
+    @Test
+    public void smallBufferTest() throws IOException {
+        checkParallelCompression(new WriterProperties().setMaxCompressionBufferSize(1), true);
+    }
+
+    @Test
+    public void nonPositiveBufferSizeTest() {
+        Assert.assertThrows(IllegalArgumentException.class,
+                () -> new WriterProperties().setMaxCompressionBufferSize(0));
+    }
+
+    private static void checkParallelCompression(WriterProperties properties, boolean compareLength)
+            throws IOException {
+        byte[] sequential = createDocument(properties);
+        byte[] parallel = createDocument(properties.setCompressionExecutor(executor));
+        if (compareLength) {
+            // Only the document ids and the dates may differ, they have the same length
+            Assert.assertEquals(sequential.length, parallel.length);
+        }
+
+        try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(parallel)))) {
+            Assert.assertFalse(document.getReader().hasRebuiltXref());
+            Assert.assertEquals(PAGE_COUNT, document.getNumberOfPages());
+            for (int i = 1; i <= PAGE_COUNT; ++i) {
+                Assert.assertArrayEquals(createContent(i), document.getPage(i).getContentBytes());
+            }
+        }
+    }
+
+    private static byte[] createDocument(WriterProperties properties) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (PdfDocument document = new PdfDocument(new PdfWriter(baos, properties))) {
+            for (int i = 1; i <= PAGE_COUNT; ++i) {
+                PdfPage page = document.addNewPage();
+                page.getFirstContentStream().getOutputStream().writeBytes(createContent(i));
+                page.flush();
+            }
+        }
+        return baos.toByteArray();
+    }
+
+    private static byte[] createContent(int pageNumber) {
+        StringBuilder content = new StringBuilder();
+        // Alternate streams below and above the size threshold of parallel deflating
+        int lineCount = pageNumber % 2 == 0 ? 10 : 1000;
+        for (int i = 0; i < lineCount; ++i) {
+            content.append(pageNumber).append(' ').append(i).append(" m ").append(i * pageNumber % 97).append(" l\n");
+        }
+        return content.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,253 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.kernel.pdf;
+
+import com.itextpdf.io.logs.IoLogMessageConstant;
+import com.itextpdf.io.source.ByteArrayOutputStream;
+import com.itextpdf.io.source.RandomAccessSourceFactory;
+import com.itextpdf.kernel.exceptions.PdfException;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.LogMessage;
+import com.itextpdf.test.annotations.LogMessages;
+import com.itextpdf.test.annotations.type.UnitTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(UnitTest.class)
+public class ParallelXrefRebuildTest extends ExtendedITextTest {
+
+    private static final String DESTINATION_FOLDER = "./target/test/com/itextpdf/kernel/pdf/ParallelXrefRebuildTest/";
+
+    private static final int[] CHUNK_SIZES = {1, 7, 64, 1000, 100000};
+
+    private static ExecutorService executor;
+
+    @BeforeClass
+    public static void beforeClass() {
+        executor = Executors.newFixedThreadPool(4);
+        createDestinationFolder(DESTINATION_FOLDER);
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        executor.shutdown();
+    }
+
+    @Test
+    @LogMessages(messages = @LogMessage(messageTemplate =
+            IoLogMessageConstant.XREF_ERROR_WHILE_READING_TABLE_WILL_BE_REBUILT, count = 6))
+    public void brokenXrefTableTest() throws IOException {
+        checkRebuiltXref(breakXref(createDocument(new WriterProperties(), false)));
+    }
+
+    @Test
+    @LogMessages(messages = @LogMessage(messageTemplate =
+            IoLogMessageConstant.XREF_ERROR_WHILE_READING_TABLE_WILL_BE_REBUILT, count = 6))
+    public void brokenXrefTableFromFileTest() throws IOException {
+        checkRebuiltXrefFromFile("brokenXrefTableFromFile.pdf",
+                breakXref(createDocument(new WriterProperties(), true)));
+    }
+
+    @Test
+    @LogMessages(messages = @LogMessage(messageTemplate =
+            IoLogMessageConstant.XREF_ERROR_WHILE_READING_TABLE_WILL_BE_REBUILT, count = 6))
+    public void headerOffsetFromFileTest() throws IOException {
+        byte[] pdf = breakXref(createDocument(new WriterProperties(), false));
+        byte[] prefixed = new byte[pdf.length + 10];
+        System.arraycopy("garbage\r\n".getBytes(StandardCharsets.ISO_8859_1), 0, prefixed, 0, 9);
+        prefixed[9] = ' ';
+        System.arraycopy(pdf, 0, prefixed, 10, pdf.length);
+        checkRebuiltXrefFromFile("headerOffsetFromFile.pdf", prefixed);
+    }
+
+    @Test
+    @LogMessages(messages = @LogMessage(messageTemplate =
+            IoLogMessageConstant.XREF_ERROR_WHILE_READING_TABLE_WILL_BE_REBUILT, count = 2))
+    public void customSourceIsScannedSequentiallyTest() throws IOException {
+        byte[] pdf = breakXref(createDocument(new WriterProperties(), false));
+        try (PdfDocument expected = rebuildXref(pdf, Integer.MAX_VALUE, false)) {
+            PdfReader reader = new PdfReader(new RandomAccessSourceFactory().createSource(pdf), new ReaderProperties());
+            Assert.assertNull(reader.createIndependentSource());
+            reader.xrefRebuildingChunkSize = 64;
+            reader.setXrefRebuildingExecutor(executor);
+            try (PdfDocument actual = new PdfDocument(reader)) {
+                assertXrefEquals(expected, actual);
+            }
+        }
+    }
+
+    @Test
+    @LogMessages(messages = @LogMessage(messageTemplate =
+            IoLogMessageConstant.XREF_ERROR_WHILE_READING_TABLE_WILL_BE_REBUILT, count = 6))
+    public void incrementalUpdateTest() throws IOException {
+        checkRebuiltXref(breakXref(createDocument(new WriterProperties(), true)));
+    }
+
+    @Test
+    @LogMessages(messages = @LogMessage(messageTemplate =
+            IoLogMessageConstant.XREF_ERROR_WHILE_READING_TABLE_WILL_BE_REBUILT, count = 18))
+    public void carriageReturnLineBreaksTest() throws IOException {
+        byte[] pdf = breakXref(createDocument(new WriterProperties(), true));
+        String content = new String(pdf, StandardCharsets.ISO_8859_1);
+        checkRebuiltXref(content.replace("\n", "\r\n").getBytes(StandardCharsets.ISO_8859_1));
+        checkRebuiltXref(content.replace("\n", "\r").getBytes(StandardCharsets.ISO_8859_1));
+        checkRebuiltXref(content.replace("\n", "\r\r\n \u0000").getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    @Test
+    @LogMessages(messages = @LogMessage(messageTemplate =
+            IoLogMessageConstant.XREF_ERROR_WHILE_READING_TABLE_WILL_BE_REBUILT, count = 6))
+    public void objectsOnSameLineTest() throws IOException {
+        String pdf = "%PDF-1.7\n"
+                + "1 0 obj <</Type/Catalog/Pages 2 0 R>> endobj 3 0 obj <<>> endobj\n"
+                + "2 0 obj\n<</Type/Pages/Kids[]/Count 0>>\nendobj\n"
+                + "4 0 obj <<>> endobj                             5 0 obj\n<<>>\nendobj\n"
+                + "   \t\t  8 1 obj\n<</Type/Pages/Kids[]/Count 0>>\nendobj\n"
+                + "trailer\n<</Root 1 0 R>> 6 0 obj\n<<>>\nendobj\n"
+                + "trailer 7 0 obj\n<<>>\nendobj\n"
+                + "startxref\n12345\n%%EOF\n";
+        checkRebuiltXref(pdf.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    @Test
+    @LogMessages(messages = @LogMessage(messageTemplate =
+            IoLogMessageConstant.XREF_ERROR_WHILE_READING_TABLE_WILL_BE_REBUILT, count = 6))
+    public void longLinesTest() throws IOException {
+        StringBuilder pdf = new StringBuilder("%PDF-1.7\n");
+        pdf.append("1 0 obj\n<</Type/Catalog/Pages 2 0 R>>\nendobj\n");
+        pdf.append("2 0 obj\n<</Type/Pages/Kids[]/Count 0>>\nendobj\n");
+        for (int i = 3; i < 100; i++) {
+            // Objects which start after the first 24 characters of a line are not found
+            for (int j = 0; j < i % 7; j++) {
+                pdf.append("% some long comment ").append(i);
+            }
+            pdf.append(i % 3 == 0 ? "\n" : " ").append(i).append(" 0 obj <</N ").append(i).append(">> endobj\n");
+        }
+        pdf.append("trailer\n<</Root 1 0 R/Size 100>>\nstartxref\n1\n%%EOF\n");
+        checkRebuiltXref(pdf.toString().getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    @Test
+    @LogMessages(messages = @LogMessage(messageTemplate =
+            IoLogMessageConstant.XREF_ERROR_WHILE_READING_TABLE_WILL_BE_REBUILT, count = 5))
+    public void trailerNotFoundTest() {
+        byte[] pdf = "%PDF-1.7\n1 0 obj\n<<>>\nendobj\ntrailer\n<<>>\n%%EOF\n".getBytes(StandardCharsets.ISO_8859_1);
+        for (int chunkSize : CHUNK_SIZES) {
+            Assert.assertThrows(PdfException.class, () -> rebuildXref(pdf, chunkSize, true));
+        }
+    }
+
+    private static void checkRebuiltXref(byte[] pdf) throws IOException {
+        try (PdfDocument expected = rebuildXref(pdf, Integer.MAX_VALUE, false)) {
+            Assert.assertTrue(expected.getReader().hasRebuiltXref());
+            for (int chunkSize : CHUNK_SIZES) {
+                try (PdfDocument actual = rebuildXref(pdf, chunkSize, true)) {
+                    Assert.assertTrue(actual.getReader().hasRebuiltXref());
+                    assertXrefEquals(expected, actual);
+                }
+            }
+        }
+    }
+
+    private static void checkRebuiltXrefFromFile(String name, byte[] pdf) throws IOException {
+        String filename = DESTINATION_FOLDER + name;
+        try (FileOutputStream fos = new FileOutputStream(filename)) {
+            fos.write(pdf);
+        }
+        try (PdfDocument expected = rebuildXref(pdf, Integer.MAX_VALUE, false)) {
+            for (int chunkSize : CHUNK_SIZES) {
+                PdfReader reader = new PdfReader(filename);
+                reader.xrefRebuildingChunkSize = chunkSize;
+                reader.setXrefRebuildingExecutor(executor);
+                try (PdfDocument actual = new PdfDocument(reader)) {
+                    Assert.assertTrue(actual.getReader().hasRebuiltXref());
+                    assertXrefEquals(expected, actual);
+                }
+            }
+        }
+    }
+
+    private static PdfDocument rebuildXref(byte[] pdf, int chunkSize, boolean parallel) throws IOException {
+        PdfReader reader = new PdfReader(new ByteArrayInputStream(pdf));
+        reader.xrefRebuildingChunkSize = chunkSize;
+        if (parallel) {
+            reader.setXrefRebuildingExecutor(executor);
+        }
+        return new PdfDocument(reader);
+    }
+
+    private static void assertXrefEquals(PdfDocument expected, PdfDocument actual) {
+        PdfXrefTable expectedXref = expected.getXref();
+        PdfXrefTable actualXref = actual.getXref();
+        Assert.assertEquals(expectedXref.size(), actualXref.size());
+        for (int i = 0; i < expectedXref.size(); i++) {
+            PdfIndirectReference expectedReference = expectedXref.get(i);
+            PdfIndirectReference actualReference = actualXref.get(i);
+            if (expectedReference == null) {
+                Assert.assertNull(actualReference);
+                continue;
+            }
+            Assert.assertEquals(expectedReference.getGenNumber(), actualReference.getGenNumber());
+            Assert.assertEquals(expectedReference.getOffset(), actualReference.getOffset());
+            Assert.assertEquals(expectedReference.isFree(), actualReference.isFree());
+        }
+        Assert.assertEquals(expected.getTrailer().toString(), actual.getTrailer().toString());
+    }
+
+    private static byte[] createDocument(WriterProperties properties, boolean update) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (PdfDocument document = new PdfDocument(new PdfWriter(baos, properties))) {
+            for (int i = 0; i < 20; ++i) {
+                PdfPage page = document.addNewPage();
+                page.getFirstContentStream().getOutputStream().writeString("0 0 m 100 100 l S\n");
+            }
+        }
+        if (!update) {
+            return baos.toByteArray();
+        }
+        ByteArrayOutputStream updated = new ByteArrayOutputStream();
+        try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(baos.toByteArray())),
+                new PdfWriter(updated), new StampingProperties().useAppendMode())) {
+            document.getPage(3).getPdfObject().put(PdfName.Rotate, new PdfNumber(90));
+            document.getPage(3).setModified();
+            document.addNewPage();
+        }
+        return updated.toByteArray();
+    }
+
+    private static byte[] breakXref(byte[] pdf) {
+        String content = new String(pdf, StandardCharsets.ISO_8859_1);
+        // Point every startxref to the beginning of the file
+        return content.replaceAll("startxref\n\\d+", "startxref\n1").getBytes(StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,142 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.kernel.pdf;
+
+import com.itextpdf.io.source.ByteArrayOutputStream;
+import com.itextpdf.kernel.exceptions.KernelExceptionMessageConstant;
+import com.itextpdf.kernel.exceptions.PdfException;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.UnitTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(UnitTest.class)
+public class PdfRevisionViewTest extends ExtendedITextTest {
+
+    private static final PdfName CUSTOM = new PdfName("Custom");
+    private static final PdfName DATA = new PdfName("Data");
+
+    @Test
+    public void revisionsOfXrefTablesTest() throws IOException {
+        checkRevisions(new WriterProperties());
+    }
+
+    @Test
+    public void revisionsOfXrefStreamsTest() throws IOException {
+        checkRevisions(new WriterProperties().setFullCompressionMode(true));
+    }
+
+    @Test
+    public void singleRevisionTest() throws IOException {
+        byte[][] revisions = createRevisions(new WriterProperties());
+        try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(revisions[0])))) {
+            PdfRevisionView view = new PdfRevisionView(document);
+            Assert.assertEquals(1, view.getRevisionCount());
+            Assert.assertSame(document.getCatalog().getPdfObject(), view.getCatalog(0));
+            Assert.assertFalse(view.isModifiedAfter(0, document.getCatalog().getPdfObject().getIndirectReference()
+                    .getObjNumber()));
+        }
+    }
+
+    @Test
+    public void documentWithoutReaderTest() {
+        PdfDocument document = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        Exception e = Assert.assertThrows(PdfException.class, () -> new PdfRevisionView(document));
+        Assert.assertEquals(KernelExceptionMessageConstant.REVISIONS_CANNOT_BE_READ, e.getMessage());
+    }
+
+    private static void checkRevisions(WriterProperties properties) throws IOException {
+        byte[][] revisions = createRevisions(properties);
+        byte[] latest = revisions[revisions.length - 1];
+        try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(latest)))) {
+            PdfRevisionView view = new PdfRevisionView(document);
+            Assert.assertEquals(3, view.getRevisionCount());
+
+            PdfDictionary catalog = document.getCatalog().getPdfObject();
+            int customNumber = catalog.getAsDictionary(CUSTOM).getIndirectReference().getObjNumber();
+            int dataNumber = catalog.getAsStream(DATA).getIndirectReference().getObjNumber();
+            Assert.assertTrue(view.getModifiedObjectNumbers(1).contains(customNumber));
+            Assert.assertTrue(view.isModifiedAfter(0, customNumber));
+            Assert.assertTrue(view.isModifiedAfter(1, dataNumber));
+            Assert.assertFalse(view.isModifiedAfter(2, dataNumber));
+
+            for (int revision = 0; revision < 3; ++revision) {
+                PdfDictionary revisionCatalog = view.getCatalog(revision);
+                PdfDictionary custom = (PdfDictionary) view.resolve(revision, revisionCatalog.get(CUSTOM, false));
+                Assert.assertEquals(revision + 1, custom.getAsNumber(PdfName.V).intValue());
+                PdfStream data = (PdfStream) view.resolve(revision, revisionCatalog.get(DATA, false));
+                if (revision == 0) {
+                    Assert.assertNull(data);
+                } else {
+                    Assert.assertEquals("rev" + revision, new String(data.getBytes(), StandardCharsets.US_ASCII));
+                }
+                Assert.assertEquals(revision, view.getRevisionByLength(revisions[revision].length));
+            }
+            Assert.assertSame(catalog, view.getCatalog(2));
+            Assert.assertSame(catalog.getAsDictionary(CUSTOM), view.getObject(2, customNumber));
+            Assert.assertSame(view.getObject(0, customNumber), view.getObject(0, customNumber));
+            Assert.assertEquals(-1, view.getRevisionByLength(10));
+            Assert.assertEquals(view.getXrefOffset(1), view.getTrailer(2).getAsNumber(PdfName.Prev).longValue());
+            Assert.assertNull(view.getTrailer(0).get(PdfName.Prev));
+        }
+    }
+
+    private static byte[][] createRevisions(WriterProperties properties) throws IOException {
+        byte[][] revisions = new byte[3][];
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (PdfDocument document = new PdfDocument(new PdfWriter(baos, properties))) {
+            document.addNewPage();
+            PdfDictionary custom = new PdfDictionary();
+            custom.put(PdfName.V, new PdfNumber(1));
+            custom.makeIndirect(document);
+            document.getCatalog().put(CUSTOM, custom);
+        }
+        revisions[0] = baos.toByteArray();
+        for (int revision = 1; revision < 3; ++revision) {
+            baos = new ByteArrayOutputStream();
+            try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(revisions[revision - 1])),
+                    new PdfWriter(baos, properties), new StampingProperties().useAppendMode())) {
+                PdfDictionary catalog = document.getCatalog().getPdfObject();
+                PdfDictionary custom = catalog.getAsDictionary(CUSTOM);
+                custom.put(PdfName.V, new PdfNumber(revision + 1));
+                custom.setModified();
+                byte[] bytes = ("rev" + revision).getBytes(StandardCharsets.US_ASCII);
+                PdfStream data = catalog.getAsStream(DATA);
+                if (data == null) {
+                    catalog.put(DATA, new PdfStream(bytes).makeIndirect(document));
+                    catalog.setModified();
+                } else {
+                    data.setData(bytes);
+                    data.setModified();
+                }
+            }
+            revisions[revision] = baos.toByteArray();
+        }
+        return revisions;
+    }
+}
@@ -26,7 +26,6 @@ import com.itextpdf.test.ExtendedITextTest;
 import com.itextpdf.test.annotations.type.UnitTest;
 
 import java.io.ByteArrayOutputStream;
-import java.nio.charset.StandardCharsets;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
@@ -37,7 +36,65 @@ public class SmartModePdfObjectsSerializerTest extends ExtendedITextTest {
     @Test
     public void smartModeObjectSelfReferencingTest() {
         PdfDocument document = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        SmartModePdfObjectsSerializer serializer = new SmartModePdfObjectsSerializer();
+
+        SerializedObjectContent serializedObject = serializer.serializeObject(createSelfReferencingObject(document,
+                new byte[10000]));
+        SerializedObjectContent sameObject = serializer.serializeObject(createSelfReferencingObject(document,
+                new byte[10000]));
+        byte[] otherBytes = new byte[10000];
+        otherBytes[5000] = 1;
+        SerializedObjectContent otherObject = serializer.serializeObject(createSelfReferencingObject(document,
+                otherBytes));
+
+        Assert.assertNotNull(serializedObject);
+        Assert.assertEquals(serializedObject, sameObject);
+        Assert.assertNotEquals(serializedObject, otherObject);
+    }
+
+    @Test
+    public void fingerprintIsCachedPerReferenceTest() {
+        PdfDocument document = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        PdfDictionary shared = new PdfDictionary();
+        shared.put(PdfName.Type, PdfName.Font);
+        shared.makeIndirect(document);
+        PdfDictionary dict = new PdfDictionary();
+        dict.put(PdfName.Font, shared.getIndirectReference());
+        dict.makeIndirect(document);
+
+        SmartModePdfObjectsSerializer serializer = new SmartModePdfObjectsSerializer();
+        serializer.serializeObject(dict);
+
+        Assert.assertNotNull(document.serializedObjectsCache.get(shared.getIndirectReference()));
+        Assert.assertEquals(serializer.serializeObject(shared),
+                document.serializedObjectsCache.get(shared.getIndirectReference()));
+    }
+
+    @Test
+    public void collisionCheckTest() {
+        PdfDocument document = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        PdfDictionary original = new PdfDictionary();
+        original.put(PdfName.Type, PdfName.Font);
+        original.makeIndirect(document);
+        PdfDictionary equal = new PdfDictionary();
+        equal.put(PdfName.Type, PdfName.Font);
+        equal.makeIndirect(document);
+        PdfDictionary different = new PdfDictionary();
+        different.put(PdfName.Type, PdfName.XObject);
+        different.makeIndirect(document);
+        PdfIndirectReference copy = new PdfDictionary().makeIndirect(document).getIndirectReference();
+
+        SmartModePdfObjectsSerializer serializer = new SmartModePdfObjectsSerializer();
+        SerializedObjectContent fingerprint = serializer.serializeObject(original);
+        serializer.saveSerializedObject(fingerprint, original.getIndirectReference(), copy);
+
+        Assert.assertSame(copy, serializer.getSavedSerializedObject(fingerprint));
+        Assert.assertSame(copy, serializer.getSavedSerializedObject(fingerprint, equal.getIndirectReference()));
+        // Simulates a collision of the fingerprints
+        Assert.assertNull(serializer.getSavedSerializedObject(fingerprint, different.getIndirectReference()));
+    }
 
+    private static PdfDictionary createSelfReferencingObject(PdfDocument document, byte[] stringBytes) {
         PdfDictionary dict1 = new PdfDictionary();
         dict1.makeIndirect(document);
 
@@ -46,26 +103,11 @@ public class SmartModePdfObjectsSerializerTest extends ExtendedITextTest {
 
         PdfArray array = new PdfArray();
         array.makeIndirect(document);
-        array.add(new PdfString(new byte[10000]));
+        array.add(new PdfString(stringBytes));
         array.add(new PdfDictionary(dict2));
 
         dict1.put(new PdfName("FirstDict"), array.getIndirectReference());
         dict2.put(new PdfName("SecondDict"), dict1.getIndirectReference());
-
-        SmartModePdfObjectsSerializer serializer = new SmartModePdfObjectsSerializer();
-        SerializedObjectContent serializedObject = serializer.serializeObject(dict1);
-
-        //It is essential to serialize object with huge amount of memory
-        StringBuilder stringBytes = new StringBuilder().append("$D$N/FirstDict$A$S");
-        String end = "$D$\\D$\\A$\\D";
-        for (int i = 0; i < 10000; i++) {
-            stringBytes.append("\0");
-        }
-        stringBytes.append(end);
-
-        SerializedObjectContent expected = new SerializedObjectContent(
-                stringBytes.toString().getBytes(StandardCharsets.UTF_8));
-
-        Assert.assertEquals(expected, serializedObject);
+        return dict1;
     }
 }
@@ -0,0 +1,142 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.kernel.pdf.filters;
+
+import com.itextpdf.io.util.StreamUtil;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfNumber;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.UnitTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.DeflaterOutputStream;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(UnitTest.class)
+public class FlateDecodeFilterTest extends ExtendedITextTest {
+
+    private static final int COLORS = 3;
+    private static final int COLUMNS = 37;
+    private static final int ROWS = 50;
+
+    @Test
+    public void streamingTiffPredictorTest() throws IOException {
+        checkStreamingDecoding(2, 8);
+    }
+
+    @Test
+    public void streamingTiffPredictorNotApplicableTest() throws IOException {
+        checkStreamingDecoding(2, 4);
+    }
+
+    @Test
+    public void streamingPngPredictorTest() throws IOException {
+        checkStreamingDecoding(15, 8);
+    }
+
+    @Test
+    public void streamingPngPredictorLowBitsPerComponentTest() throws IOException {
+        checkStreamingDecoding(10, 4);
+    }
+
+    @Test
+    public void streamingCorruptedStreamTest() throws IOException {
+        byte[] data = createPredictedData(-1, 8);
+        byte[] encoded = deflate(data);
+        byte[] truncated = Arrays.copyOf(encoded, encoded.length / 2);
+
+        byte[] decoded = StreamUtil.inputStreamToArray(FlateDecodeFilter.flateDecode(
+                new ByteArrayInputStream(truncated), false));
+        Assert.assertTrue(decoded.length > 0);
+        Assert.assertArrayEquals(Arrays.copyOf(data, decoded.length), decoded);
+
+        InputStream strict = FlateDecodeFilter.flateDecode(new ByteArrayInputStream(truncated), true);
+        Assert.assertThrows(IOException.class, () -> StreamUtil.inputStreamToArray(strict));
+    }
+
+    @Test
+    public void streamingWithoutPredictorTest() {
+        InputStream in = new ByteArrayInputStream(new byte[] {1, 2, 3});
+        Assert.assertSame(in, FlateDecodeFilter.decodePredictor(in, new PdfDictionary()));
+        Assert.assertSame(in, FlateDecodeFilter.decodePredictor(in, null));
+    }
+
+    private static void checkStreamingDecoding(int predictor, int bitsPerComponent) throws IOException {
+        byte[] encoded = deflate(createPredictedData(predictor, bitsPerComponent));
+        PdfDictionary decodeParams = new PdfDictionary();
+        decodeParams.put(PdfName.Predictor, new PdfNumber(predictor));
+        decodeParams.put(PdfName.Colors, new PdfNumber(COLORS));
+        decodeParams.put(PdfName.BitsPerComponent, new PdfNumber(bitsPerComponent));
+        decodeParams.put(PdfName.Columns, new PdfNumber(COLUMNS));
+        PdfDictionary streamDictionary = new PdfDictionary();
+        streamDictionary.put(PdfName.Filter, PdfName.FlateDecode);
+        streamDictionary.put(PdfName.DecodeParms, decodeParams);
+
+        byte[] expected = PdfReader.decodeBytes(encoded, streamDictionary);
+        InputStream decoded = PdfReader.decodeStream(new ByteArrayInputStream(encoded), streamDictionary);
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        // Read in chunks which do not match the rows
+        byte[] buffer = new byte[7];
+        int n;
+        while ((n = decoded.read(buffer)) >= 0) {
+            actual.write(buffer, 0, n);
+        }
+        Assert.assertArrayEquals(expected, actual.toByteArray());
+    }
+
+    private static byte[] createPredictedData(int predictor, int bitsPerComponent) {
+        Random random = new Random(predictor * 31 + bitsPerComponent);
+        int bytesPerRow = (COLORS * COLUMNS * bitsPerComponent + 7) / 8;
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        for (int row = 0; row < ROWS; ++row) {
+            if (predictor >= 10) {
+                // PNG filter type of the row
+                data.write(random.nextInt(5));
+            }
+            for (int i = 0; i < bytesPerRow; ++i) {
+                data.write(random.nextInt(256));
+            }
+        }
+        // Incomplete last row
+        data.write(1);
+        data.write(2);
+        return data.toByteArray();
+    }
+
+    private static byte[] deflate(byte[] data) throws IOException {
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        DeflaterOutputStream zip = new DeflaterOutputStream(encoded);
+        zip.write(data);
+        zip.close();
+        return encoded.toByteArray();
+    }
+}
@@ -0,0 +1,738 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.signatures;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.StampingProperties;
+import com.itextpdf.signatures.statistics.SigningInstrumentation;
+import com.itextpdf.signatures.statistics.SigningStage;
+import com.itextpdf.signatures.statistics.SigningStageStatisticsEvent;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Maintains the long-term validity of archived PDF documents (PAdES-LTA): every document gets the validation
+ * data of its signatures and a new document timestamp in a single incremental update.
+ * <p>
+ * Every document goes through three stages: preparation (opening the document in append mode, adding
+ * the validation data with {@link LtvVerification}, pre-closing it and hashing the byte ranges), the request
+ * to the time stamp authority and finalization (writing the time stamp token into the document).
+ * The documents are read from the iterator as they are processed, and at most
+ * {@link #setMaxDocumentsInFlight(int)} of them are held at the same time. While a document waits for the
+ * time stamp authority, the executor prepares and finalizes other documents.
+ * <p>
+ * With an {@link IArchiveCheckpoint} the processed documents are recorded, and the documents recorded by
+ * a previous run are skipped, so that an interrupted run can be resumed.
+ * <p>
+ * The validation data of the new document timestamp itself is added by the next run, before the next
+ * document timestamp.
+ */
+public class ArchiveTimestamper {
+
+    /**
+     * The default number of documents which are processed at the same time.
+     */
+    public static final int DEFAULT_MAX_DOCUMENTS_IN_FLIGHT = 16;
+
+    private static final String PDF_FILES = "*.{pdf,PDF}";
+
+    private final ITSAClient tsaClient;
+
+    private IOcspClient ocspClient;
+
+    private ICrlClient crlClient;
+
+    private LtvVerification.Level level = LtvVerification.Level.OCSP_OPTIONAL_CRL;
+
+    private LtvVerification.CertificateOption certificateOption = LtvVerification.CertificateOption.WHOLE_CHAIN;
+
+    private LtvVerification.CertificateInclusion certificateInclusion = LtvVerification.CertificateInclusion.YES;
+
+    private String temporaryDirectory;
+
+    private ExecutorService executorService;
+
+    private ExecutorService tsaExecutorService;
+
+    private int maxDocumentsInFlight = DEFAULT_MAX_DOCUMENTS_IN_FLIGHT;
+
+    private IArchiveCheckpoint checkpoint;
+
+    private boolean stageStatisticsEnabled;
+
+    /**
+     * Creates an {@link ArchiveTimestamper} instance.
+     *
+     * @param tsaClient the Timestamp client, it is used concurrently if an executor is set
+     */
+    public ArchiveTimestamper(ITSAClient tsaClient) {
+        this.tsaClient = tsaClient;
+    }
+
+    /**
+     * Sets the OCSP client used to collect the validation data of the signatures.
+     *
+     * @param ocspClient the OCSP client
+     * @return this {@link ArchiveTimestamper} instance
+     */
+    public ArchiveTimestamper setOcspClient(IOcspClient ocspClient) {
+        this.ocspClient = ocspClient;
+        return this;
+    }
+
+    /**
+     * Sets the CRL client used to collect the validation data of the signatures.
+     *
+     * @param crlClient the CRL client
+     * @return this {@link ArchiveTimestamper} instance
+     */
+    public ArchiveTimestamper setCrlClient(ICrlClient crlClient) {
+        this.crlClient = crlClient;
+        return this;
+    }
+
+    /**
+     * Sets the options of the validation data added for every signature of the documents.
+     * By default the OCSP responses of the whole chain are added, with the CRLs of the certificates
+     * which have no OCSP response, and the certificates are included.
+     *
+     * @param certificateOption    the certificates of a signature to be validated
+     * @param level                the kind of the validation data
+     * @param certificateInclusion whether the certificates are included
+     * @return this {@link ArchiveTimestamper} instance
+     */
+    public ArchiveTimestamper setVerificationOptions(LtvVerification.CertificateOption certificateOption,
+            LtvVerification.Level level, LtvVerification.CertificateInclusion certificateInclusion) {
+        this.certificateOption = certificateOption;
+        this.level = level;
+        this.certificateInclusion = certificateInclusion;
+        return this;
+    }
+
+    /**
+     * Sets the directory for the temporary files holding the pre-closed documents.
+     * If it is not set, the pre-closed documents are held in memory.
+     *
+     * @param temporaryDirectory the path of the directory
+     * @return this {@link ArchiveTimestamper} instance
+     */
+    public ArchiveTimestamper setTemporaryDirectory(String temporaryDirectory) {
+        this.temporaryDirectory = temporaryDirectory;
+        return this;
+    }
+
+    /**
+     * Sets the executor that runs the preparation and finalization stages and, unless
+     * {@link #setTsaExecutorService(ExecutorService)} is used, the requests to the time stamp authority.
+     * If it is not set, all the stages are executed on the calling thread.
+     *
+     * @param executorService the executor service, it is not shut down by this class
+     * @return this {@link ArchiveTimestamper} instance
+     */
+    public ArchiveTimestamper setExecutorService(ExecutorService executorService) {
+        this.executorService = executorService;
+        return this;
+    }
+
+    /**
+     * Sets the executor that runs the requests to the time stamp authority, so that the waiting for the
+     * responses doesn't occupy the threads doing the I/O. Its size limits the concurrent requests.
+     *
+     * @param tsaExecutorService the executor service, it is not shut down by this class
+     * @return this {@link ArchiveTimestamper} instance
+     */
+    public ArchiveTimestamper setTsaExecutorService(ExecutorService tsaExecutorService) {
+        this.tsaExecutorService = tsaExecutorService;
+        return this;
+    }
+
+    /**
+     * Sets the number of documents which are processed at the same time.
+     * It also limits the number of documents held in memory at the same time.
+     *
+     * @param maxDocumentsInFlight the number of documents, must be positive
+     * @return this {@link ArchiveTimestamper} instance
+     */
+    public ArchiveTimestamper setMaxDocumentsInFlight(int maxDocumentsInFlight) {
+        if (maxDocumentsInFlight < 1) {
+            throw new IllegalArgumentException("Number of documents in flight shall be positive.");
+        }
+        this.maxDocumentsInFlight = maxDocumentsInFlight;
+        return this;
+    }
+
+    /**
+     * Sets the checkpoint recording the processed documents.
+     *
+     * @param checkpoint the checkpoint, e.g. {@link FileArchiveCheckpoint}
+     * @return this {@link ArchiveTimestamper} instance
+     */
+    public ArchiveTimestamper setCheckpoint(IArchiveCheckpoint checkpoint) {
+        this.checkpoint = checkpoint;
+        return this;
+    }
+
+    /**
+     * Enables or disables the reporting of the time stamps and of the stages of every {@link PdfSigner}
+     * as {@link SigningStageStatisticsEvent}s. The reporting is disabled by default. The TSA, OCSP and CRL
+     * clients report their requests only if their own stage statistics are enabled.
+     *
+     * @param stageStatisticsEnabled true to send the {@link SigningStageStatisticsEvent}s
+     * @return this {@link ArchiveTimestamper} instance
+     */
+    public ArchiveTimestamper setStageStatisticsEnabled(boolean stageStatisticsEnabled) {
+        this.stageStatisticsEnabled = stageStatisticsEnabled;
+        return this;
+    }
+
+    /**
+     * Processes all the documents provided by the iterator. A failure of a single document doesn't
+     * stop the run, it is reported in the corresponding {@link ArchiveResult}.
+     *
+     * @param documents the documents to be timestamped
+     * @return the report containing a result per document and the throughput of the run
+     * @throws InterruptedException if the calling thread was interrupted while waiting for the documents
+     *                              in flight, these documents are still completed by the executor
+     */
+    public ArchiveReport timestampAll(Iterator<ArchiveDocument> documents) throws InterruptedException {
+        long start = System.nanoTime();
+        final List<ArchiveResult> results = Collections.synchronizedList(new ArrayList<ArchiveResult>());
+        final Semaphore permits = new Semaphore(maxDocumentsInFlight);
+        int index = 0;
+        while (documents.hasNext()) {
+            final ArchiveDocument document = documents.next();
+            final int documentIndex = index++;
+            if (checkpoint != null && checkpoint.isCompleted(document.getId())) {
+                results.add(new ArchiveResult(documentIndex, document.getId(), ArchiveResult.Status.SKIPPED,
+                        null, 0));
+                continue;
+            }
+            permits.acquire();
+            final long documentStart = System.nanoTime();
+            process(document).whenComplete((ignored, failure) -> {
+                long duration = System.nanoTime() - documentStart;
+                results.add(failure == null
+                        ? new ArchiveResult(documentIndex, document.getId(), ArchiveResult.Status.TIMESTAMPED, null,
+                                duration)
+                        : new ArchiveResult(documentIndex, document.getId(), ArchiveResult.Status.FAILED,
+                                unwrap(failure), duration));
+                permits.release();
+            });
+        }
+        // all the permits are available once the last document in flight is completed
+        permits.acquire(maxDocumentsInFlight);
+        permits.release(maxDocumentsInFlight);
+        List<ArchiveResult> sorted = new ArrayList<>(results);
+        Collections.sort(sorted, new Comparator<ArchiveResult>() {
+            @Override
+            public int compare(ArchiveResult o1, ArchiveResult o2) {
+                return Integer.compare(o1.getIndex(), o2.getIndex());
+            }
+        });
+        return new ArchiveReport(sorted, System.nanoTime() - start);
+    }
+
+    /**
+     * Processes all the documents of the collection.
+     *
+     * @param documents the documents to be timestamped
+     * @return the report containing a result per document and the throughput of the run
+     * @throws InterruptedException if the calling thread was interrupted while waiting for the documents in flight
+     * @see #timestampAll(Iterator)
+     */
+    public ArchiveReport timestampAll(Iterable<ArchiveDocument> documents) throws InterruptedException {
+        return timestampAll(documents.iterator());
+    }
+
+    /**
+     * Processes all the PDF files of a directory, its subdirectories are not processed. The directory is
+     * listed as the files are processed. Every timestamped document is written to the target directory
+     * under the same file name, the file name is the identifier of the document. The target directory may
+     * be the source directory, then the files are replaced once they are timestamped.
+     *
+     * @param sourceDirectory the directory of the documents to be timestamped
+     * @param targetDirectory the directory of the timestamped documents, it is created if needed
+     * @return the report containing a result per document and the throughput of the run
+     * @throws IOException          if a directory cannot be listed or created
+     * @throws InterruptedException if the calling thread was interrupted while waiting for the documents in flight
+     */
+    public ArchiveReport timestampDirectory(String sourceDirectory, String targetDirectory)
+            throws IOException, InterruptedException {
+        final Path target = Paths.get(targetDirectory);
+        Files.createDirectories(target);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(Paths.get(sourceDirectory), PDF_FILES)) {
+            final Iterator<Path> iterator = files.iterator();
+            return timestampAll(new Iterator<ArchiveDocument>() {
+                // a file replaced in place may be listed once again
+                private final Set<String> listed = new HashSet<>();
+                private Path next;
+
+                @Override
+                public boolean hasNext() {
+                    while (next == null && iterator.hasNext()) {
+                        Path candidate = iterator.next();
+                        if (listed.add(candidate.getFileName().toString())) {
+                            next = candidate;
+                        }
+                    }
+                    return next != null;
+                }
+
+                @Override
+                public ArchiveDocument next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    Path source = next;
+                    next = null;
+                    String fileName = source.getFileName().toString();
+                    return ArchiveDocument.forFile(fileName, source, target.resolve(fileName));
+                }
+            });
+        }
+    }
+
+    /**
+     * Creates the {@link PdfSigner} for a document. The document must be opened in append mode.
+     * Override it to use a custom {@link PdfSigner} subclass.
+     *
+     * @param reader       the reader of the document
+     * @param outputStream the stream for the timestamped document
+     * @return the {@link PdfSigner} instance
+     * @throws IOException if some I/O problem occurs
+     */
+    protected PdfSigner createSigner(PdfReader reader, OutputStream outputStream) throws IOException {
+        return new PdfSigner(reader, outputStream, temporaryDirectory, new StampingProperties().useAppendMode());
+    }
+
+    private CompletableFuture<Void> process(final ArchiveDocument document) {
+        final ExecutorService tsaExecutor = tsaExecutorService != null ? tsaExecutorService : executorService;
+        return submit(() -> prepare(document), executorService)
+                .thenCompose(prepared -> submit(() -> requestToken(prepared), tsaExecutor))
+                .thenCompose(prepared -> submit(() -> {
+                    finalizeDocument(prepared);
+                    return null;
+                }, executorService));
+    }
+
+    private PreparedDocument prepare(ArchiveDocument document) throws IOException, GeneralSecurityException {
+        PreparedDocument prepared = new PreparedDocument();
+        prepared.document = document;
+        try {
+            PdfReader reader = document.openReader();
+            OutputStream outputStream = null;
+            try {
+                outputStream = document.openOutput();
+                prepared.signer = createSigner(reader, outputStream);
+                prepared.signer.setStageStatisticsEnabled(stageStatisticsEnabled);
+            } catch (IOException | RuntimeException e) {
+                reader.close();
+                if (outputStream != null) {
+                    outputStream.close();
+                }
+                throw e;
+            }
+            addValidationData(prepared.signer.getDocument());
+            prepared.estimatedSize = tsaClient.getTokenSizeEstimate();
+            prepared.signer.prepareTimestamp(prepared.estimatedSize, null);
+            prepared.imprint = prepared.signer.digestRange(tsaClient.getMessageDigest());
+            return prepared;
+        } catch (IOException | GeneralSecurityException | RuntimeException e) {
+            prepared.abort();
+            throw e;
+        }
+    }
+
+    private void addValidationData(PdfDocument pdfDocument) throws IOException, GeneralSecurityException {
+        if (ocspClient == null && crlClient == null) {
+            return;
+        }
+        LtvVerification ltvVerification = new LtvVerification(pdfDocument);
+        for (String name : new SignatureUtil(pdfDocument).getSignatureNames()) {
+            ltvVerification.addVerification(name, ocspClient, crlClient, certificateOption, level,
+                    certificateInclusion);
+        }
+        ltvVerification.merge();
+    }
+
+    private PreparedDocument requestToken(PreparedDocument prepared) throws GeneralSecurityException {
+        try {
+            long timestampStart = SigningInstrumentation.start(stageStatisticsEnabled);
+            prepared.token = tsaClient.getTimeStampToken(prepared.imprint);
+            SigningInstrumentation.stageCompleted(SigningStage.TIMESTAMP, timestampStart, prepared.token.length, 0);
+            return prepared;
+        } catch (Exception e) {
+            prepared.abort();
+            throw new GeneralSecurityException(e.getMessage(), e);
+        }
+    }
+
+    private void finalizeDocument(PreparedDocument prepared) throws IOException {
+        try {
+            prepared.signer.closeWithSignature(prepared.token, prepared.estimatedSize);
+            prepared.document.commit();
+        } catch (IOException | RuntimeException e) {
+            prepared.abort();
+            throw e;
+        }
+        if (checkpoint != null) {
+            checkpoint.markCompleted(prepared.document.getId());
+        }
+    }
+
+    private static <T> CompletableFuture<T> submit(final Callable<T> callable, ExecutorService executor) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        Runnable task = () -> {
+            try {
+                future.complete(callable.call());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        };
+        if (executor == null) {
+            task.run();
+        } else {
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                future.completeExceptionally(e);
+            }
+        }
+        return future;
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+    }
+
+    /**
+     * A document to be timestamped. The document is opened only when it is processed.
+     */
+    public abstract static class ArchiveDocument {
+        private final String id;
+
+        /**
+         * Creates an {@link ArchiveDocument} instance.
+         *
+         * @param id the identifier of the document, which is recorded by the checkpoint
+         */
+        protected ArchiveDocument(String id) {
+            this.id = id;
+        }
+
+        /**
+         * Creates a document read from a file and written to another file, which may be the same.
+         * The timestamped document is written to a temporary file next to the target file, which then
+         * replaces the target file, so that an interrupted run never leaves a partially written document.
+         *
+         * @param id     the identifier of the document
+         * @param source the path of the document
+         * @param target the path of the timestamped document
+         * @return the {@link ArchiveDocument} instance
+         */
+        public static ArchiveDocument forFile(String id, Path source, Path target) {
+            return new FileArchiveDocument(id, source, target);
+        }
+
+        /**
+         * Gets the identifier of the document.
+         *
+         * @return the identifier of the document
+         */
+        public String getId() {
+            return id;
+        }
+
+        /**
+         * Opens the reader of the document.
+         *
+         * @return the {@link PdfReader}
+         * @throws IOException if the document cannot be opened
+         */
+        protected abstract PdfReader openReader() throws IOException;
+
+        /**
+         * Opens the stream for the timestamped document. The stream is closed once the document is written.
+         *
+         * @return the {@link OutputStream}
+         * @throws IOException if the stream cannot be opened
+         */
+        protected abstract OutputStream openOutput() throws IOException;
+
+        /**
+         * Called once the timestamped document is completely written, before it is recorded by the checkpoint.
+         *
+         * @throws IOException if the timestamped document cannot be published
+         */
+        protected void commit() throws IOException {
+        }
+
+        /**
+         * Called if the processing of the document failed, after the output stream is closed.
+         */
+        protected void discard() {
+        }
+    }
+
+    /**
+     * The outcome of processing a single document.
+     */
+    public static class ArchiveResult {
+
+        /**
+         * The outcome of processing a document.
+         */
+        public enum Status {
+            /**
+             * The validation data and the document timestamp were added.
+             */
+            TIMESTAMPED,
+            /**
+             * The document was processed by a previous run, according to the checkpoint.
+             */
+            SKIPPED,
+            /**
+             * The document could not be processed.
+             */
+            FAILED
+        }
+
+        private final int index;
+        private final String documentId;
+        private final Status status;
+        private final Throwable error;
+        private final long durationNanos;
+
+        ArchiveResult(int index, String documentId, Status status, Throwable error, long durationNanos) {
+            this.index = index;
+            this.documentId = documentId;
+            this.status = status;
+            this.error = error;
+            this.durationNanos = durationNanos;
+        }
+
+        /**
+         * Gets the index of the document in the run.
+         *
+         * @return the index of the document
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * Gets the identifier of the document.
+         *
+         * @return the identifier of the document
+         */
+        public String getDocumentId() {
+            return documentId;
+        }
+
+        /**
+         * Gets the outcome of processing the document.
+         *
+         * @return the {@link Status}
+         */
+        public Status getStatus() {
+            return status;
+        }
+
+        /**
+         * Gets the reason of the failure.
+         *
+         * @return the error which prevented the document from being timestamped, or null if there was none
+         */
+        public Throwable getError() {
+            return error;
+        }
+
+        /**
+         * Gets the time elapsed from the start of the preparation till the end of the processing of the document.
+         *
+         * @return the duration in nanoseconds, 0 for a skipped document
+         */
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+    }
+
+    /**
+     * The outcome of a {@link ArchiveTimestamper#timestampAll(Iterator)} run.
+     */
+    public static class ArchiveReport {
+        private final List<ArchiveResult> results;
+        private final long durationNanos;
+
+        ArchiveReport(List<ArchiveResult> results, long durationNanos) {
+            this.results = Collections.unmodifiableList(results);
+            this.durationNanos = durationNanos;
+        }
+
+        /**
+         * Gets the results of all the documents, in the order they were provided.
+         *
+         * @return the list of {@link ArchiveResult}
+         */
+        public List<ArchiveResult> getResults() {
+            return results;
+        }
+
+        /**
+         * Gets the number of documents which got a new document timestamp.
+         *
+         * @return the number of timestamped documents
+         */
+        public int getTimestampedCount() {
+            return count(ArchiveResult.Status.TIMESTAMPED);
+        }
+
+        /**
+         * Gets the number of documents skipped because they were processed by a previous run.
+         *
+         * @return the number of skipped documents
+         */
+        public int getSkippedCount() {
+            return count(ArchiveResult.Status.SKIPPED);
+        }
+
+        /**
+         * Gets the number of documents which could not be processed.
+         *
+         * @return the number of failed documents
+         */
+        public int getFailedCount() {
+            return count(ArchiveResult.Status.FAILED);
+        }
+
+        /**
+         * Gets the wall-clock duration of the whole run.
+         *
+         * @return the duration in nanoseconds
+         */
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+
+        /**
+         * Gets the number of timestamped documents per second of the run.
+         *
+         * @return the throughput of the run
+         */
+        public double getThroughput() {
+            return durationNanos == 0 ? 0 : getTimestampedCount() * 1e9 / durationNanos;
+        }
+
+        private int count(ArchiveResult.Status status) {
+            int count = 0;
+            for (ArchiveResult result : results) {
+                if (result.getStatus() == status) {
+                    ++count;
+                }
+            }
+            return count;
+        }
+    }
+
+    private static class FileArchiveDocument extends ArchiveDocument {
+        private final Path source;
+        private final Path target;
+        private Path temporaryTarget;
+
+        FileArchiveDocument(String id, Path source, Path target) {
+            super(id);
+            this.source = source;
+            this.target = target;
+        }
+
+        @Override
+        protected PdfReader openReader() throws IOException {
+            return new PdfReader(source.toString());
+        }
+
+        @Override
+        protected OutputStream openOutput() throws IOException {
+            Path directory = target.toAbsolutePath().getParent();
+            temporaryTarget = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+            return Files.newOutputStream(temporaryTarget);
+        }
+
+        @Override
+        protected void commit() throws IOException {
+            try {
+                Files.move(temporaryTarget, target, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporaryTarget, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+
+        @Override
+        protected void discard() {
+            if (temporaryTarget != null) {
+                try {
+                    Files.deleteIfExists(temporaryTarget);
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    private static class PreparedDocument {
+        ArchiveDocument document;
+        PdfSigner signer;
+        int estimatedSize;
+        byte[] imprint;
+        byte[] token;
+
+        void abort() {
+            if (signer != null) {
+                signer.closeWithoutSignature();
+            }
+            document.discard();
+        }
+    }
+}
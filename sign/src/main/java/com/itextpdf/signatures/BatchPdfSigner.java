@@ -0,0 +1,699 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.signatures;
+
+import com.itextpdf.kernel.exceptions.PdfException;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.StampingProperties;
+import com.itextpdf.signatures.PdfSigner.CryptoStandard;
+import com.itextpdf.signatures.exceptions.SignExceptionMessageConstant;
+import com.itextpdf.signatures.statistics.SigningInstrumentation;
+import com.itextpdf.signatures.statistics.SigningStage;
+import com.itextpdf.signatures.statistics.SigningStageStatisticsEvent;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.GeneralSecurityException;
+import java.security.PrivateKey;
+import java.security.cert.Certificate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Signs a sequence of PDF documents with a single {@link IExternalSignature} and certificate chain.
+ * <p>
+ * Every document goes through three stages: preparation (pre-closing the document and hashing the byte ranges),
+ * signing of the authenticated attributes and finalization (CMS encoding, optional time stamping and writing
+ * the signature into the document). Preparation and finalization are executed on the configured
+ * {@link ExecutorService}, while the authenticated attributes of a whole batch are handed to the external
+ * signature one after another on the calling thread, so that a key session is never used concurrently.
+ * If the external signature is an {@link IExternalBatchSignature}, the authenticated attributes of the batch
+ * are signed in a single call instead, otherwise there is one signing call per document.
+ * <p>
+ * The encoded certificate chain, the CRL and OCSP responses and the reserved signature size are computed once
+ * and shared by all the documents of the run.
+ */
+public class BatchPdfSigner {
+
+    /**
+     * The default number of documents which are prepared before their hashes are sent to the signer.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 16;
+
+    private final IExternalSignature externalSignature;
+
+    private final Certificate[] chain;
+
+    private IExternalDigest externalDigest = new BouncyCastleDigest();
+
+    private Collection<ICrlClient> crlList;
+
+    private IOcspClient ocspClient;
+
+    private ITSAClient tsaClient;
+
+    private CryptoStandard sigtype = CryptoStandard.CADES;
+
+    private int estimatedSize;
+
+    private SignatureSizeEstimator signatureSizeEstimator = SignatureSizeEstimator.getDefaultInstance();
+
+    private StampingProperties stampingProperties = new StampingProperties();
+
+    private ExecutorService executorService;
+
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    private ISignerConfigurator signerConfigurator;
+
+    private SignatureAppearanceTemplate appearanceTemplate;
+
+    private boolean stageStatisticsEnabled;
+
+    /**
+     * Creates a {@link BatchPdfSigner} instance.
+     *
+     * @param externalSignature the interface providing the actual signing
+     * @param chain             the certificate chain
+     */
+    public BatchPdfSigner(IExternalSignature externalSignature, Certificate[] chain) {
+        this.externalSignature = externalSignature;
+        this.chain = chain.clone();
+    }
+
+    /**
+     * Sets the implementation that provides the digests. {@link BouncyCastleDigest} is used by default.
+     *
+     * @param externalDigest an implementation that provides the digest
+     * @return this {@link BatchPdfSigner} instance
+     */
+    public BatchPdfSigner setExternalDigest(IExternalDigest externalDigest) {
+        this.externalDigest = externalDigest;
+        return this;
+    }
+
+    /**
+     * Sets the CRL clients. The CRLs are requested once and embedded in every signature.
+     *
+     * @param crlList the CRL list
+     * @return this {@link BatchPdfSigner} instance
+     */
+    public BatchPdfSigner setCrlClients(Collection<ICrlClient> crlList) {
+        this.crlList = crlList;
+        return this;
+    }
+
+    /**
+     * Sets the OCSP client. The OCSP responses are requested once and embedded in every signature.
+     *
+     * @param ocspClient the OCSP client
+     * @return this {@link BatchPdfSigner} instance
+     */
+    public BatchPdfSigner setOcspClient(IOcspClient ocspClient) {
+        this.ocspClient = ocspClient;
+        return this;
+    }
+
+    /**
+     * Sets the Timestamp client. A time stamp is requested for every signature.
+     *
+     * @param tsaClient the Timestamp client
+     * @return this {@link BatchPdfSigner} instance
+     */
+    public BatchPdfSigner setTsaClient(ITSAClient tsaClient) {
+        this.tsaClient = tsaClient;
+        return this;
+    }
+
+    /**
+     * Sets the cryptographic standard of the signatures. {@link CryptoStandard#CADES} is used by default.
+     *
+     * @param sigtype either {@link CryptoStandard#CMS} or {@link CryptoStandard#CADES}
+     * @return this {@link BatchPdfSigner} instance
+     */
+    public BatchPdfSigner setCryptoStandard(CryptoStandard sigtype) {
+        this.sigtype = sigtype;
+        return this;
+    }
+
+    /**
+     * Sets the reserved size for the signatures. It will be estimated if 0, which is the default.
+     *
+     * @param estimatedSize the reserved size for the signature
+     * @return this {@link BatchPdfSigner} instance
+     */
+    public BatchPdfSigner setEstimatedSize(int estimatedSize) {
+        this.estimatedSize = estimatedSize;
+        return this;
+    }
+
+    /**
+     * Sets the estimator used to calculate the reserved size when no explicit size is set.
+     * By default the estimator shared by all signers is used, see {@link SignatureSizeEstimator#getDefaultInstance()}.
+     *
+     * @param signatureSizeEstimator the {@link SignatureSizeEstimator} instance
+     * @return this {@link BatchPdfSigner} instance
+     */
+    public BatchPdfSigner setSignatureSizeEstimator(SignatureSizeEstimator signatureSizeEstimator) {
+        this.signatureSizeEstimator = signatureSizeEstimator;
+        return this;
+    }
+
+    /**
+     * Sets the {@link StampingProperties} used to open every document.
+     *
+     * @param stampingProperties the stamping properties
+     * @return this {@link BatchPdfSigner} instance
+     */
+    public BatchPdfSigner setStampingProperties(StampingProperties stampingProperties) {
+        this.stampingProperties = stampingProperties;
+        return this;
+    }
+
+    /**
+     * Sets the executor that runs the preparation and finalization stages. If it is not set,
+     * all the stages are executed on the calling thread.
+     *
+     * @param executorService the executor service, it is not shut down by this class
+     * @return this {@link BatchPdfSigner} instance
+     */
+    public BatchPdfSigner setExecutorService(ExecutorService executorService) {
+        this.executorService = executorService;
+        return this;
+    }
+
+    /**
+     * Sets the number of documents which are prepared before their hashes are sent to the signer.
+     * It also limits the number of documents held in memory at the same time.
+     *
+     * @param batchSize the batch size, must be positive
+     * @return this {@link BatchPdfSigner} instance
+     */
+    public BatchPdfSigner setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size shall be positive.");
+        }
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * Sets the callback which customizes every {@link PdfSigner}, e.g. its field name or appearance,
+     * before the document is prepared.
+     *
+     * @param signerConfigurator the signer configurator
+     * @return this {@link BatchPdfSigner} instance
+     */
+    public BatchPdfSigner setSignerConfigurator(ISignerConfigurator signerConfigurator) {
+        this.signerConfigurator = signerConfigurator;
+        return this;
+    }
+
+    /**
+     * Sets the template rendering the visible signatures. It is set to the appearance of every {@link PdfSigner}
+     * before the signer configurator is called, so that the images and the font are prepared once for the run.
+     *
+     * @param appearanceTemplate the appearance template
+     * @return this {@link BatchPdfSigner} instance
+     */
+    public BatchPdfSigner setAppearanceTemplate(SignatureAppearanceTemplate appearanceTemplate) {
+        this.appearanceTemplate = appearanceTemplate;
+        return this;
+    }
+
+    /**
+     * Enables or disables the reporting of the signing stages of the run and of every {@link PdfSigner}
+     * as {@link SigningStageStatisticsEvent}s, see {@link PdfSigner#setStageStatisticsEnabled(boolean)}.
+     * The reporting is disabled by default.
+     *
+     * @param stageStatisticsEnabled true to send the {@link SigningStageStatisticsEvent}s
+     * @return this {@link BatchPdfSigner} instance
+     */
+    public BatchPdfSigner setStageStatisticsEnabled(boolean stageStatisticsEnabled) {
+        this.stageStatisticsEnabled = stageStatisticsEnabled;
+        return this;
+    }
+
+    /**
+     * Signs all the documents provided by the iterator. A failure of a single document doesn't
+     * stop the run, it is reported in the corresponding {@link DocumentResult}.
+     * The output streams are closed once the documents are signed, the output streams of the documents
+     * which failed are left open.
+     *
+     * @param tasks the documents to be signed
+     * @return the report containing a result per document and the throughput of the run
+     * @throws GeneralSecurityException if the revocation data cannot be retrieved
+     * @throws InterruptedException     if the calling thread was interrupted while waiting for the executor
+     */
+    public BatchSigningReport signAll(Iterator<SigningTask> tasks)
+            throws GeneralSecurityException, InterruptedException {
+        long start = System.nanoTime();
+        SharedSigningData shared = createSharedSigningData();
+        List<DocumentResult> results = new ArrayList<>();
+        int index = 0;
+        while (tasks.hasNext()) {
+            List<SigningTask> batch = new ArrayList<>(batchSize);
+            while (batch.size() < batchSize && tasks.hasNext()) {
+                batch.add(tasks.next());
+            }
+            results.addAll(signBatch(batch, index, shared));
+            index += batch.size();
+        }
+        return new BatchSigningReport(results, System.nanoTime() - start);
+    }
+
+    /**
+     * Signs all the documents of the collection.
+     *
+     * @param tasks the documents to be signed
+     * @return the report containing a result per document and the throughput of the run
+     * @throws GeneralSecurityException if the revocation data cannot be retrieved
+     * @throws InterruptedException     if the calling thread was interrupted while waiting for the executor
+     * @see #signAll(Iterator)
+     */
+    public BatchSigningReport signAll(Iterable<SigningTask> tasks)
+            throws GeneralSecurityException, InterruptedException {
+        return signAll(tasks.iterator());
+    }
+
+    /**
+     * Creates the {@link PdfSigner} for a document. Override it to use a custom {@link PdfSigner} subclass.
+     *
+     * @param task the document to be signed
+     * @return the {@link PdfSigner} instance
+     * @throws IOException if some I/O problem occurs
+     */
+    protected PdfSigner createSigner(SigningTask task) throws IOException {
+        return new PdfSigner(task.getReader(), task.getOutputStream(), stampingProperties);
+    }
+
+    private SharedSigningData createSharedSigningData() throws GeneralSecurityException {
+        SharedSigningData shared = new SharedSigningData();
+        shared.hashAlgorithm = externalSignature.getHashAlgorithm();
+        shared.encryptionAlgorithm = externalSignature.getEncryptionAlgorithm();
+        // fail fast on an unknown hash algorithm instead of failing every document
+        SignUtils.getMessageDigest(shared.hashAlgorithm, externalDigest);
+        shared.crlBytes = PdfSigner.collectCrlBytes(chain, cert -> PdfSigner.fetchCrlBytes(cert, crlList),
+                stageStatisticsEnabled);
+        shared.ocspList = PdfSigner.collectOcspBytes(chain, ocspClient, stageStatisticsEnabled);
+        shared.pkcs7Template = new PdfPKCS7((PrivateKey) null, chain, shared.hashAlgorithm, null, externalDigest,
+                false);
+        shared.estimatedSize = estimatedSize == 0
+                ? signatureSizeEstimator.estimate(chain, shared.hashAlgorithm, shared.encryptionAlgorithm,
+                        externalDigest, sigtype, null, shared.crlBytes, shared.ocspList, tsaClient)
+                : estimatedSize;
+        return shared;
+    }
+
+    private List<DocumentResult> signBatch(List<SigningTask> batch, int firstIndex, final SharedSigningData shared)
+            throws InterruptedException {
+        DocumentResult[] results = new DocumentResult[batch.size()];
+        PreparedDocument[] prepared = new PreparedDocument[batch.size()];
+        long[] starts = new long[batch.size()];
+
+        List<Future<PreparedDocument>> preparations = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); ++i) {
+            final SigningTask task = batch.get(i);
+            final int index = firstIndex + i;
+            starts[i] = System.nanoTime();
+            preparations.add(submit(new Callable<PreparedDocument>() {
+                @Override
+                public PreparedDocument call() throws Exception {
+                    return prepare(task, index, shared);
+                }
+            }));
+        }
+        for (int i = 0; i < batch.size(); ++i) {
+            try {
+                prepared[i] = preparations.get(i).get();
+            } catch (ExecutionException e) {
+                results[i] = DocumentResult.failed(firstIndex + i, e.getCause(), System.nanoTime() - starts[i]);
+            }
+        }
+
+        // the whole batch is sent to the signer in a row, within a single thread
+        if (externalSignature instanceof IExternalBatchSignature) {
+            signInOneCall(prepared, results, starts, firstIndex, shared);
+        } else {
+            for (int i = 0; i < batch.size(); ++i) {
+                if (prepared[i] == null) {
+                    continue;
+                }
+                try {
+                    long signStart = SigningInstrumentation.start(stageStatisticsEnabled);
+                    byte[] extSignature = externalSignature.sign(prepared[i].authenticatedAttributes);
+                    SigningInstrumentation.stageCompleted(SigningStage.EXTERNAL_SIGNATURE, signStart,
+                            extSignature == null ? 0 : extSignature.length, 0);
+                    prepared[i].pkcs7.setExternalDigest(extSignature, null, shared.encryptionAlgorithm);
+                } catch (Exception e) {
+                    fail(prepared, results, starts, firstIndex, i, e);
+                }
+            }
+        }
+
+        List<Future<Void>> finalizations = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); ++i) {
+            final PreparedDocument document = prepared[i];
+            finalizations.add(document == null ? null : submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    finalizeDocument(document, shared);
+                    return null;
+                }
+            }));
+        }
+        for (int i = 0; i < batch.size(); ++i) {
+            if (finalizations.get(i) == null) {
+                continue;
+            }
+            try {
+                finalizations.get(i).get();
+                results[i] = DocumentResult.succeeded(firstIndex + i, System.nanoTime() - starts[i]);
+            } catch (ExecutionException e) {
+                results[i] = DocumentResult.failed(firstIndex + i, e.getCause(), System.nanoTime() - starts[i]);
+            }
+        }
+        List<DocumentResult> resultList = new ArrayList<>(batch.size());
+        Collections.addAll(resultList, results);
+        return resultList;
+    }
+
+    private void signInOneCall(PreparedDocument[] prepared, DocumentResult[] results, long[] starts, int firstIndex,
+            SharedSigningData shared) {
+        List<Integer> indexes = new ArrayList<>(prepared.length);
+        for (int i = 0; i < prepared.length; ++i) {
+            if (prepared[i] != null) {
+                indexes.add(i);
+            }
+        }
+        if (indexes.isEmpty()) {
+            return;
+        }
+        byte[][] messages = new byte[indexes.size()][];
+        for (int k = 0; k < messages.length; ++k) {
+            messages[k] = prepared[indexes.get(k)].authenticatedAttributes;
+        }
+        byte[][] extSignatures;
+        try {
+            long signStart = SigningInstrumentation.start(stageStatisticsEnabled);
+            extSignatures = ((IExternalBatchSignature) externalSignature).sign(messages);
+            int length = extSignatures == null ? 0 : extSignatures.length;
+            if (length != messages.length) {
+                throw new PdfException(SignExceptionMessageConstant.BATCH_SIGNATURE_COUNT_DOES_NOT_MATCH)
+                        .setMessageParams(length, messages.length);
+            }
+            long amountOfBytes = 0;
+            for (byte[] extSignature : extSignatures) {
+                amountOfBytes += extSignature == null ? 0 : extSignature.length;
+            }
+            SigningInstrumentation.stageCompleted(SigningStage.EXTERNAL_SIGNATURE, signStart, amountOfBytes, 0);
+        } catch (Exception e) {
+            for (int i : indexes) {
+                fail(prepared, results, starts, firstIndex, i, e);
+            }
+            return;
+        }
+        for (int k = 0; k < messages.length; ++k) {
+            int i = indexes.get(k);
+            try {
+                prepared[i].pkcs7.setExternalDigest(extSignatures[k], null, shared.encryptionAlgorithm);
+            } catch (Exception e) {
+                fail(prepared, results, starts, firstIndex, i, e);
+            }
+        }
+    }
+
+    private static void fail(PreparedDocument[] prepared, DocumentResult[] results, long[] starts, int firstIndex,
+            int i, Exception e) {
+        prepared[i].signer.closeWithoutSignature();
+        prepared[i] = null;
+        results[i] = DocumentResult.failed(firstIndex + i, e, System.nanoTime() - starts[i]);
+    }
+
+    private PreparedDocument prepare(SigningTask task, int index, SharedSigningData shared)
+            throws IOException, GeneralSecurityException {
+        PdfSigner signer = createSigner(task);
+        try {
+            signer.setStageStatisticsEnabled(stageStatisticsEnabled);
+            if (appearanceTemplate != null) {
+                signer.getSignatureAppearance().setTemplate(appearanceTemplate);
+            }
+            if (signerConfigurator != null) {
+                signerConfigurator.configure(signer, index);
+            }
+            signer.prepareDetachedSignature(chain[0], sigtype, shared.estimatedSize);
+            PdfPKCS7 pkcs7 = new PdfPKCS7(shared.pkcs7Template);
+            pkcs7.setStageStatisticsEnabled(stageStatisticsEnabled);
+            byte[] hash = signer.digestRange(shared.hashAlgorithm, externalDigest);
+            PreparedDocument prepared = new PreparedDocument();
+            prepared.signer = signer;
+            prepared.pkcs7 = pkcs7;
+            prepared.hash = hash;
+            prepared.authenticatedAttributes = pkcs7.getAuthenticatedAttributeBytes(hash, sigtype, shared.ocspList,
+                    shared.crlBytes);
+            return prepared;
+        } catch (IOException | GeneralSecurityException | RuntimeException e) {
+            signer.closeWithoutSignature();
+            throw e;
+        }
+    }
+
+    private void finalizeDocument(PreparedDocument document, SharedSigningData shared) throws IOException {
+        try {
+            byte[] encodedSig = document.pkcs7.getEncodedPKCS7(document.hash, sigtype, tsaClient, shared.ocspList,
+                    shared.crlBytes);
+            document.signer.closeWithSignature(encodedSig, shared.estimatedSize);
+        } catch (IOException | RuntimeException e) {
+            document.signer.closeWithoutSignature();
+            throw e;
+        }
+    }
+
+    private <T> Future<T> submit(Callable<T> callable) {
+        if (executorService != null) {
+            return executorService.submit(callable);
+        }
+        FutureTask<T> task = new FutureTask<>(callable);
+        task.run();
+        return task;
+    }
+
+    /**
+     * Callback which allows to customize every {@link PdfSigner} of the batch.
+     */
+    public interface ISignerConfigurator {
+
+        /**
+         * Customizes the signer of a document before the document is prepared.
+         *
+         * @param signer the signer of the document
+         * @param index  the index of the document in the run
+         * @throws IOException if some I/O problem occurs
+         */
+        void configure(PdfSigner signer, int index) throws IOException;
+    }
+
+    /**
+     * A document to be signed: the reader of the source document and the stream for the signed one.
+     */
+    public static class SigningTask {
+        private final PdfReader reader;
+        private final OutputStream outputStream;
+
+        /**
+         * Creates a {@link SigningTask} instance.
+         *
+         * @param reader       PdfReader that reads the PDF file
+         * @param outputStream OutputStream to write the signed PDF file
+         */
+        public SigningTask(PdfReader reader, OutputStream outputStream) {
+            this.reader = reader;
+            this.outputStream = outputStream;
+        }
+
+        /**
+         * Gets the reader of the source document.
+         *
+         * @return the {@link PdfReader}
+         */
+        public PdfReader getReader() {
+            return reader;
+        }
+
+        /**
+         * Gets the stream for the signed document.
+         *
+         * @return the {@link OutputStream}
+         */
+        public OutputStream getOutputStream() {
+            return outputStream;
+        }
+    }
+
+    /**
+     * The outcome of signing a single document.
+     */
+    public static class DocumentResult {
+        private final int index;
+        private final Throwable error;
+        private final long durationNanos;
+
+        private DocumentResult(int index, Throwable error, long durationNanos) {
+            this.index = index;
+            this.error = error;
+            this.durationNanos = durationNanos;
+        }
+
+        /**
+         * Gets the index of the document in the run.
+         *
+         * @return the index of the document
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * Checks if the document was signed.
+         *
+         * @return true if the document was signed, false otherwise
+         */
+        public boolean isSigned() {
+            return error == null;
+        }
+
+        /**
+         * Gets the reason of the failure.
+         *
+         * @return the error which prevented the document from being signed, or null if it was signed
+         */
+        public Throwable getError() {
+            return error;
+        }
+
+        /**
+         * Gets the time elapsed from the start of the preparation till the end of the processing of the document.
+         *
+         * @return the duration in nanoseconds
+         */
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+
+        static DocumentResult succeeded(int index, long durationNanos) {
+            return new DocumentResult(index, null, durationNanos);
+        }
+
+        static DocumentResult failed(int index, Throwable error, long durationNanos) {
+            return new DocumentResult(index, error, durationNanos);
+        }
+    }
+
+    /**
+     * The outcome of a {@link BatchPdfSigner#signAll(Iterator)} run.
+     */
+    public static class BatchSigningReport {
+        private final List<DocumentResult> results;
+        private final long durationNanos;
+
+        BatchSigningReport(List<DocumentResult> results, long durationNanos) {
+            this.results = Collections.unmodifiableList(results);
+            this.durationNanos = durationNanos;
+        }
+
+        /**
+         * Gets the results of all the documents, in the order they were provided.
+         *
+         * @return the list of {@link DocumentResult}
+         */
+        public List<DocumentResult> getResults() {
+            return results;
+        }
+
+        /**
+         * Gets the number of signed documents.
+         *
+         * @return the number of signed documents
+         */
+        public int getSignedCount() {
+            int count = 0;
+            for (DocumentResult result : results) {
+                if (result.isSigned()) {
+                    ++count;
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Gets the number of documents which failed to be signed.
+         *
+         * @return the number of failed documents
+         */
+        public int getFailedCount() {
+            return results.size() - getSignedCount();
+        }
+
+        /**
+         * Gets the wall-clock duration of the whole run.
+         *
+         * @return the duration in nanoseconds
+         */
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+
+        /**
+         * Gets the number of signed documents per second of the run.
+         *
+         * @return the throughput of the run
+         */
+        public double getThroughput() {
+            return durationNanos == 0 ? 0 : getSignedCount() * 1e9 / durationNanos;
+        }
+    }
+
+    private static class SharedSigningData {
+        String hashAlgorithm;
+        String encryptionAlgorithm;
+        Collection<byte[]> crlBytes;
+        List<byte[]> ocspList;
+        int estimatedSize;
+        PdfPKCS7 pkcs7Template;
+    }
+
+    private static class PreparedDocument {
+        PdfSigner signer;
+        PdfPKCS7 pkcs7;
+        byte[] hash;
+        byte[] authenticatedAttributes;
+    }
+}
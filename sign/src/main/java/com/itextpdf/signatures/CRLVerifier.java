@@ -139,7 +139,7 @@ public class CRLVerifier extends RootStoreVerifier {
         if (crl.getIssuerX500Principal().equals(signCert.getIssuerX500Principal())
                  && signDate.before(crl.getNextUpdate())) {
             // the signing certificate may not be revoked
-            if (isSignatureValid(crl, issuerCert) && crl.isRevoked(signCert)) {
+            if (isSignatureValid(crl, issuerCert) && VerificationCache.isRevoked(verificationCache, crl, signCert)) {
                 throw new VerificationException(signCert, "The certificate has been revoked.");
             }
             return true;
@@ -180,7 +180,7 @@ public class CRLVerifier extends RootStoreVerifier {
         // check if the CRL was issued by the issuer
         if (crlIssuer != null) {
             try {
-                crl.verify(crlIssuer.getPublicKey());
+                VerificationCache.verify(verificationCache, crl, crlIssuer.getPublicKey());
                 return true;
             } catch (GeneralSecurityException e) {
                 LOGGER.warn("CRL not issued by the same authority as the certificate that is being checked");
@@ -194,7 +194,7 @@ public class CRLVerifier extends RootStoreVerifier {
             for (X509Certificate anchor : SignUtils.getCertificates(rootStore)) {
                 try {
                     // check if the crl was signed by a trusted party (indirect CRLs)
-                    crl.verify(anchor.getPublicKey());
+                    VerificationCache.verify(verificationCache, crl, anchor.getPublicKey());
                     return true;
                 } catch (GeneralSecurityException e) {
                     // do nothing and continue
@@ -64,6 +64,9 @@ public class CertificateVerifier {
     /** Indicates if going online to verify a certificate is allowed. */
     protected boolean onlineCheckingAllowed = true;
 
+    /** The cache of the signature checks shared with the other verifiers, or null to check every signature. */
+    protected VerificationCache verificationCache;
+
     /**
      * Creates the final CertificateVerifier in a chain of verifiers.
      *
@@ -82,6 +85,25 @@ public class CertificateVerifier {
         this.onlineCheckingAllowed = onlineCheckingAllowed;
     }
 
+    /**
+     * Gets the cache used to avoid repeating certificate and CRL signature checks.
+     *
+     * @return the {@link VerificationCache} used by this verifier, or null if the signatures aren't cached
+     */
+    public VerificationCache getVerificationCache() {
+        return verificationCache;
+    }
+
+    /**
+     * Sets the cache used to avoid repeating certificate and CRL signature checks.
+     * By default no cache is used and every signature is checked.
+     *
+     * @param verificationCache the {@link VerificationCache} to use, or null to disable caching
+     */
+    public void setVerificationCache(VerificationCache verificationCache) {
+        this.verificationCache = verificationCache;
+    }
+
     /**
      * Checks the validity of the certificate, and calls the next
      * verifier in the chain, if any.
@@ -99,11 +121,11 @@ public class CertificateVerifier {
         }
         // Check if the signature is valid
         if (issuerCert != null) {
-            signCert.verify(issuerCert.getPublicKey());
+            VerificationCache.verify(verificationCache, signCert, issuerCert.getPublicKey());
         }
         // Also in case, the certificate is self-signed
         else {
-            signCert.verify(signCert.getPublicKey());
+            VerificationCache.verify(verificationCache, signCert, signCert.getPublicKey());
         }
         List<VerificationOK> result = new ArrayList<>();
         if (verifier != null)
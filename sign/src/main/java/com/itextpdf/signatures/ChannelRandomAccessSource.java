@@ -0,0 +1,96 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.signatures;
+
+import com.itextpdf.io.source.IRandomAccessSource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A RandomAccessSource which reads a {@link FileChannel} with positional reads.
+ * Unlike the sources created by {@link com.itextpdf.io.source.RandomAccessSourceFactory}, it neither maps
+ * the file nor owns the channel: closing it leaves the channel open and there is nothing else to release.
+ */
+final class ChannelRandomAccessSource implements IRandomAccessSource {
+    /**
+     * The source
+     */
+    private final FileChannel channel;
+
+    /**
+     * The length of the channel, cached at construction time.
+     */
+    private final long length;
+
+    /**
+     * Creates this object
+     * @param channel the source for this RandomAccessSource
+     * @throws IOException if the size of the channel can't be read
+     */
+    ChannelRandomAccessSource(FileChannel channel) throws IOException {
+        this.channel = channel;
+        length = channel.size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int get(long position) throws IOException {
+        byte[] oneByte = new byte[1];
+        return get(position, oneByte, 0, 1) == 1 ? oneByte[0] & 0xff : -1;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int get(long position, byte[] bytes, int off, int len) throws IOException {
+        if (position >= length) {
+            return -1;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, off, (int) Math.min(len, length - position));
+        int read = 0;
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, position + read);
+            if (n < 0) {
+                break;
+            }
+            read += n;
+        }
+        return read == 0 ? -1 : read;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public long length() {
+        return length;
+    }
+
+    /**
+     * Does nothing, the channel belongs to the owner of this source.
+     */
+    public void close() {
+    }
+}
@@ -45,8 +45,12 @@ package com.itextpdf.signatures;
 
 import com.itextpdf.io.logs.IoLogMessageConstant;
 import com.itextpdf.commons.utils.MessageFormatUtil;
+import com.itextpdf.signatures.statistics.SigningInstrumentation;
+import com.itextpdf.signatures.statistics.SigningStage;
+import com.itextpdf.signatures.statistics.SigningStageStatisticsEvent;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
@@ -76,6 +80,10 @@ public class CrlClientOnline implements ICrlClient {
      */
     protected List<URL> urls = new ArrayList<>();
 
+    private RevocationDataCache revocationDataCache;
+
+    private boolean stageStatisticsEnabled;
+
     /**
      * Creates a CrlClientOnline instance that will try to find
      * a single CRL by walking through the certificate chain.
@@ -156,18 +164,12 @@ public class CrlClientOnline implements ICrlClient {
         for (URL urlt : urlList) {
             try {
                 LOGGER.info("Checking CRL: " + urlt);
-                InputStream inp = SignUtils.getHttpResponse(urlt);
-                byte[] buf = new byte[1024];
-                ByteArrayOutputStream bout = new ByteArrayOutputStream();
-                while (true) {
-                    int n = inp.read(buf, 0, buf.length);
-                    if (n <= 0) {
-                        break;
-                    }
-                    bout.write(buf, 0, n);
+                if (revocationDataCache == null) {
+                    ar.add(fetchCrl(urlt));
+                } else {
+                    ar.add(revocationDataCache.get(RevocationDataCache.getCrlKey(urlt),
+                            () -> RevocationDataCache.Entry.fromCrl(fetchCrl(urlt))).getEncoded());
                 }
-                inp.close();
-                ar.add(bout.toByteArray());
                 LOGGER.info("Added CRL found at: " + urlt);
             } catch (Exception e) {
                 LOGGER.info(MessageFormatUtil.format(IoLogMessageConstant.INVALID_DISTRIBUTION_POINT,
@@ -177,6 +179,35 @@ public class CrlClientOnline implements ICrlClient {
         return ar;
     }
 
+    /**
+     * Gets the cache of the fetched CRLs.
+     *
+     * @return the cache, or null if every CRL is downloaded
+     */
+    public RevocationDataCache getRevocationDataCache() {
+        return revocationDataCache;
+    }
+
+    /**
+     * Sets the cache of the fetched CRLs. A CRL is then downloaded once per distribution point
+     * and reused until its nextUpdate.
+     *
+     * @param revocationDataCache the cache, or null to download every CRL
+     */
+    public void setRevocationDataCache(RevocationDataCache revocationDataCache) {
+        this.revocationDataCache = revocationDataCache;
+    }
+
+    /**
+     * Enables or disables the reporting of the CRL downloads as {@link SigningStageStatisticsEvent}s.
+     * The reporting is disabled by default.
+     *
+     * @param stageStatisticsEnabled true to send the {@link SigningStageStatisticsEvent}s
+     */
+    public void setStageStatisticsEnabled(boolean stageStatisticsEnabled) {
+        this.stageStatisticsEnabled = stageStatisticsEnabled;
+    }
+
     /**
      * Adds an URL to the list of CRL URLs
      *
@@ -207,4 +238,22 @@ public class CrlClientOnline implements ICrlClient {
     public int getUrlsSize() {
         return urls.size();
     }
+
+    private byte[] fetchCrl(URL urlt) throws IOException {
+        long start = SigningInstrumentation.start(stageStatisticsEnabled);
+        InputStream inp = SignUtils.getHttpResponse(urlt);
+        byte[] buf = new byte[1024];
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        while (true) {
+            int n = inp.read(buf, 0, buf.length);
+            if (n <= 0) {
+                break;
+            }
+            bout.write(buf, 0, n);
+        }
+        inp.close();
+        byte[] crl = bout.toByteArray();
+        SigningInstrumentation.stageCompleted(SigningStage.CRL_REQUEST, start, crl.length, 0);
+        return crl;
+    }
 }
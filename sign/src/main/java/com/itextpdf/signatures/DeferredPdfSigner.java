@@ -0,0 +1,188 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.signatures;
+
+import com.itextpdf.io.source.ByteBuffer;
+import com.itextpdf.kernel.exceptions.PdfException;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.StampingProperties;
+import com.itextpdf.signatures.exceptions.SignExceptionMessageConstant;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+
+/**
+ * Signs documents in two phases, for signatures which are created by a remote service.
+ * <p>
+ * {@link #prepare(PdfReader, String, StampingProperties, int)} writes the document with a blank signature
+ * to a file and returns a {@link PendingSignature} with the hash to be signed. No {@link PdfSigner} or
+ * {@link com.itextpdf.kernel.pdf.PdfDocument} has to be kept open while the signature is created.
+ * {@link #complete(PendingSignature, byte[])} then writes the signature container into the /Contents
+ * placeholder of the prepared file in place, without parsing the document again.
+ */
+public class DeferredPdfSigner {
+
+    private final String hashAlgorithm;
+
+    private final IExternalDigest externalDigest;
+
+    private PdfName filter = PdfName.Adobe_PPKLite;
+
+    private PdfName subFilter = PdfName.Adbe_pkcs7_detached;
+
+    /**
+     * Creates a {@link DeferredPdfSigner} instance.
+     *
+     * @param hashAlgorithm  the name of the hash algorithm of the signature
+     * @param externalDigest an implementation that provides the digest
+     */
+    public DeferredPdfSigner(String hashAlgorithm, IExternalDigest externalDigest) {
+        this.hashAlgorithm = hashAlgorithm;
+        this.externalDigest = externalDigest;
+    }
+
+    /**
+     * Writes the signature container into the /Contents placeholder of the prepared document.
+     * Only the placeholder bounds are checked, the document itself is not parsed again.
+     *
+     * @param pendingSignature   the pending signature returned by the first phase
+     * @param signatureContainer the encoded signature container, usually a PKCS#7
+     * @throws IOException if some I/O problem occurs
+     */
+    public static void complete(PendingSignature pendingSignature, byte[] signatureContainer) throws IOException {
+        if (pendingSignature.getAvailableSpace() < signatureContainer.length) {
+            throw new PdfException(SignExceptionMessageConstant.AVAILABLE_SPACE_IS_NOT_ENOUGH_FOR_SIGNATURE);
+        }
+        try (FileChannel channel = FileChannel.open(Paths.get(pendingSignature.getPreparedDocumentPath()),
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            checkPlaceholder(channel, pendingSignature);
+            ByteBuffer bb = new ByteBuffer(pendingSignature.getAvailableSpace() * 2);
+            for (byte bi : signatureContainer) {
+                bb.appendHex(bi);
+            }
+            int remain = (pendingSignature.getAvailableSpace() - signatureContainer.length) * 2;
+            for (int k = 0; k < remain; ++k) {
+                bb.append((byte) 48);
+            }
+            java.nio.ByteBuffer contents = java.nio.ByteBuffer.wrap(bb.getInternalBuffer(), 0, bb.size());
+            long position = pendingSignature.getContentsOffset();
+            while (contents.hasRemaining()) {
+                position += channel.write(contents, position);
+            }
+        }
+    }
+
+    /**
+     * Sets the /Filter and /SubFilter of the signature dictionary. By default the signature is
+     * Adobe.PPKLite with the adbe.pkcs7.detached encoding.
+     *
+     * @param filter    PdfName of the signature handler to use when validating this signature
+     * @param subFilter PdfName that describes the encoding of the signature
+     * @return this {@link DeferredPdfSigner} instance
+     */
+    public DeferredPdfSigner setSignatureFormat(PdfName filter, PdfName subFilter) {
+        this.filter = filter;
+        this.subFilter = subFilter;
+        return this;
+    }
+
+    /**
+     * Prepares the document for signing. The document with a blank signature is written to the given
+     * path in a single pass, see {@link PdfSigner#PdfSigner(PdfReader, FileChannel, StampingProperties)}.
+     *
+     * @param reader               PdfReader that reads the PDF file
+     * @param preparedDocumentPath the path the prepared document is written to
+     * @param properties           {@link StampingProperties} for the signing document
+     * @param estimatedSize        the reserved size for the signature container
+     * @return the {@link PendingSignature} to be completed with {@link #complete(PendingSignature, byte[])}
+     * @throws IOException              if some I/O problem occurs
+     * @throws GeneralSecurityException if the hash cannot be calculated
+     */
+    public PendingSignature prepare(PdfReader reader, String preparedDocumentPath, StampingProperties properties,
+            int estimatedSize) throws IOException, GeneralSecurityException {
+        FileChannel channel = FileChannel.open(Paths.get(preparedDocumentPath), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        PdfSigner signer;
+        try {
+            signer = new PdfSigner(reader, channel, properties);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return prepare(signer, preparedDocumentPath, estimatedSize);
+    }
+
+    /**
+     * Prepares the document for signing with a configured {@link PdfSigner}, e.g. with a custom
+     * field name or appearance. The signer must write its output to the given path.
+     *
+     * @param signer               the signer writing the prepared document
+     * @param preparedDocumentPath the path the signer writes the prepared document to
+     * @param estimatedSize        the reserved size for the signature container
+     * @return the {@link PendingSignature} to be completed with {@link #complete(PendingSignature, byte[])}
+     * @throws IOException              if some I/O problem occurs
+     * @throws GeneralSecurityException if the hash cannot be calculated
+     */
+    public PendingSignature prepare(PdfSigner signer, String preparedDocumentPath, int estimatedSize)
+            throws IOException, GeneralSecurityException {
+        HashingBlankSignatureContainer container = new HashingBlankSignatureContainer(filter, subFilter);
+        signer.signExternalContainer(container, estimatedSize);
+        return new PendingSignature(signer.getFieldName(), hashAlgorithm, container.hash, signer.range,
+                preparedDocumentPath);
+    }
+
+    private static void checkPlaceholder(FileChannel channel, PendingSignature pendingSignature) throws IOException {
+        long[] byteRange = pendingSignature.getByteRange();
+        java.nio.ByteBuffer start = java.nio.ByteBuffer.allocate(1);
+        java.nio.ByteBuffer end = java.nio.ByteBuffer.allocate(1);
+        if (channel.size() != pendingSignature.getDocumentLength()
+                || channel.read(start, byteRange[1]) != 1 || start.get(0) != '<'
+                || channel.read(end, byteRange[2] - 1) != 1 || end.get(0) != '>') {
+            throw new PdfException(SignExceptionMessageConstant.PREPARED_DOCUMENT_DOES_NOT_MATCH_PENDING_SIGNATURE)
+                    .setMessageParams(pendingSignature.getPreparedDocumentPath());
+        }
+    }
+
+    private final class HashingBlankSignatureContainer extends ExternalBlankSignatureContainer {
+        private byte[] hash;
+
+        HashingBlankSignatureContainer(PdfName filter, PdfName subFilter) {
+            super(filter, subFilter);
+        }
+
+        @Override
+        public byte[] sign(InputStream data) throws GeneralSecurityException {
+            try {
+                hash = DigestAlgorithms.digest(data, SignUtils.getMessageDigest(hashAlgorithm, externalDigest));
+            } catch (IOException e) {
+                throw new GeneralSecurityException(e.getMessage(), e);
+            }
+            return super.sign(data);
+        }
+    }
+}
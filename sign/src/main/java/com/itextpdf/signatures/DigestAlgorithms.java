@@ -43,10 +43,13 @@
  */
 package com.itextpdf.signatures;
 
+import com.itextpdf.io.source.MappedRangeReader;
 import com.itextpdf.signatures.exceptions.SignExceptionMessageConstant;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.security.GeneralSecurityException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -227,6 +230,42 @@ public class DigestAlgorithms {
         return messageDigest.digest();
     }
 
+    /**
+     * Create a digest of the regions of a byte array. The regions are described by
+     * pairs of offset and length, as in a PDF <code>/ByteRange</code>, and are fed to the digest in place.
+     *
+     * @param data          the array holding the data to be digested
+     * @param byteRange     pairs of offset and length of the regions to be digested
+     * @param messageDigest algorithm to be used
+     * @return digest of the data
+     */
+    public static byte[] digest(byte[] data, long[] byteRange, MessageDigest messageDigest) {
+        if (byteRange.length % 2 != 0) {
+            throw new IllegalArgumentException("Byte range must consist of offset and length pairs");
+        }
+        for (int k = 0; k < byteRange.length; k += 2) {
+            messageDigest.update(data, (int) byteRange[k], (int) byteRange[k + 1]);
+        }
+        return messageDigest.digest();
+    }
+
+    /**
+     * Create a digest of the regions of a file channel. The regions are described by
+     * pairs of offset and length, as in a PDF <code>/ByteRange</code>. They are memory mapped
+     * and fed to {@link MessageDigest#update(ByteBuffer)} without being copied to the heap.
+     *
+     * @param channel       the channel holding the data to be digested
+     * @param byteRange     pairs of offset and length of the regions to be digested
+     * @param messageDigest algorithm to be used
+     * @return digest of the data
+     * @throws IOException signals that an I/O exception has occurred
+     */
+    public static byte[] digest(FileChannel channel, long[] byteRange, MessageDigest messageDigest)
+            throws IOException {
+        MappedRangeReader.read(channel, byteRange, messageDigest::update);
+        return messageDigest.digest();
+    }
+
     /**
      * Gets the digest name for a certain id
      *
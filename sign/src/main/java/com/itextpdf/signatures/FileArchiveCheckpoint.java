@@ -0,0 +1,126 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.signatures;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link IArchiveCheckpoint} keeping the identifiers of the processed documents in a journal file,
+ * one identifier per line.
+ * <p>
+ * Every identifier is flushed to the file as soon as it is recorded. A line left incomplete by an interrupted
+ * run is dropped when the journal is opened, so that document is processed again.
+ */
+public class FileArchiveCheckpoint implements IArchiveCheckpoint, Closeable {
+
+    private static final byte LINE_SEPARATOR = '\n';
+
+    private final Set<String> completed = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    private final OutputStream journal;
+
+    /**
+     * Opens the journal file, creating it if needed, and reads the identifiers recorded by the previous runs.
+     *
+     * @param journalFile the path of the journal file
+     * @throws IOException if the journal file cannot be read or opened for writing
+     */
+    public FileArchiveCheckpoint(String journalFile) throws IOException {
+        Path path = Paths.get(journalFile);
+        if (Files.exists(path)) {
+            byte[] content = Files.readAllBytes(path);
+            int lineStart = 0;
+            for (int i = 0; i < content.length; ++i) {
+                if (content[i] == LINE_SEPARATOR) {
+                    if (i > lineStart) {
+                        completed.add(new String(content, lineStart, i - lineStart, StandardCharsets.UTF_8));
+                    }
+                    lineStart = i + 1;
+                }
+            }
+            if (lineStart < content.length) {
+                // the incomplete line of an interrupted run is neither an identifier nor a prefix of the next one
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                    channel.truncate(lineStart);
+                }
+            }
+        }
+        journal = Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isCompleted(String documentId) {
+        return completed.contains(documentId);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void markCompleted(String documentId) throws IOException {
+        if (documentId.indexOf(LINE_SEPARATOR) >= 0) {
+            throw new IllegalArgumentException("Document identifier shall not contain line breaks.");
+        }
+        byte[] line = (documentId + (char) LINE_SEPARATOR).getBytes(StandardCharsets.UTF_8);
+        synchronized (journal) {
+            journal.write(line);
+            journal.flush();
+        }
+        completed.add(documentId);
+    }
+
+    /**
+     * Gets the number of documents recorded as processed, including the ones of the previous runs.
+     *
+     * @return the number of processed documents
+     */
+    public int getCompletedCount() {
+        return completed.size();
+    }
+
+    /**
+     * Closes the journal file.
+     *
+     * @throws IOException if the journal file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (journal) {
+            journal.close();
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.signatures;
+
+import com.itextpdf.commons.utils.MessageFormatUtil;
+import com.itextpdf.kernel.exceptions.PdfException;
+import com.itextpdf.signatures.RevocationDataCache.Entry;
+import com.itextpdf.signatures.logs.SignLogMessageConstant;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link IRevocationDataStore} keeping the revocation data in files of a directory, so that it survives
+ * the restarts of the application and can be shared by several processes.
+ * <p>
+ * Each entry is written to a temporary file which then replaces the file of the entry, so a reader never
+ * sees a partially written entry. Unreadable files are treated as missing entries.
+ */
+public class FileRevocationDataStore implements IRevocationDataStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FileRevocationDataStore.class);
+
+    private static final String FILE_EXTENSION = ".rev";
+
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    private final Path directory;
+
+    /**
+     * Creates a store in the given directory, creating the directory if needed.
+     *
+     * @param directory the directory of the entry files
+     * @throws IOException if the directory cannot be created
+     */
+    public FileRevocationDataStore(String directory) throws IOException {
+        this.directory = Paths.get(directory);
+        Files.createDirectories(this.directory);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Entry get(String key) {
+        try (InputStream is = Files.newInputStream(getPath(key));
+                DataInputStream in = new DataInputStream(is)) {
+            if (!key.equals(in.readUTF())) {
+                return null;
+            }
+            Date thisUpdate = readDate(in);
+            Date nextUpdate = readDate(in);
+            byte[] encoded = new byte[in.readInt()];
+            in.readFully(encoded);
+            return new Entry(encoded, thisUpdate, nextUpdate);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn(MessageFormatUtil.format(SignLogMessageConstant.UNREADABLE_REVOCATION_DATA_FILE, key,
+                    e.getMessage()));
+            return null;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void put(String key, Entry entry) {
+        Path path = getPath(key);
+        Path tempPath = null;
+        try {
+            tempPath = Files.createTempFile(directory, "rev", ".tmp");
+            try (OutputStream os = Files.newOutputStream(tempPath);
+                    DataOutputStream out = new DataOutputStream(os)) {
+                out.writeUTF(key);
+                writeDate(out, entry.getThisUpdate());
+                writeDate(out, entry.getNextUpdate());
+                out.writeInt(entry.getEncoded().length);
+                out.write(entry.getEncoded());
+            }
+            try {
+                Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            LOGGER.warn(MessageFormatUtil.format(SignLogMessageConstant.REVOCATION_DATA_CANNOT_BE_STORED, key,
+                    e.getMessage()));
+            if (tempPath != null) {
+                try {
+                    Files.deleteIfExists(tempPath);
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void remove(String key) {
+        try {
+            Files.deleteIfExists(getPath(key));
+        } catch (IOException e) {
+            LOGGER.warn(MessageFormatUtil.format(SignLogMessageConstant.REVOCATION_DATA_CANNOT_BE_REMOVED, key,
+                    e.getMessage()));
+        }
+    }
+
+    private Path getPath(String key) {
+        byte[] hash;
+        try {
+            hash = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is available on every Java platform
+            throw new PdfException(e);
+        }
+        StringBuilder name = new StringBuilder(hash.length * 2 + FILE_EXTENSION.length());
+        for (byte b : hash) {
+            name.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return directory.resolve(name.append(FILE_EXTENSION).toString());
+    }
+
+    private static Date readDate(DataInputStream in) throws IOException {
+        long time = in.readLong();
+        return time == NO_DATE ? null : new Date(time);
+    }
+
+    private static void writeDate(DataOutputStream out, Date date) throws IOException {
+        out.writeLong(date == null ? NO_DATE : date.getTime());
+    }
+}
@@ -0,0 +1,50 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.signatures;
+
+import java.io.IOException;
+
+/**
+ * Records the documents already processed by {@link ArchiveTimestamper}, so that an interrupted run
+ * can be resumed without timestamping the same documents twice.
+ * <p>
+ * Implementations must be thread-safe.
+ */
+public interface IArchiveCheckpoint {
+
+    /**
+     * Checks if the document was processed by a previous run.
+     *
+     * @param documentId the identifier of the document
+     * @return true if the document is already processed, false otherwise
+     */
+    boolean isCompleted(String documentId);
+
+    /**
+     * Records that the document was processed. It is called once the output of the document is complete.
+     *
+     * @param documentId the identifier of the document
+     * @throws IOException if the record cannot be persisted
+     */
+    void markCompleted(String documentId) throws IOException;
+}
@@ -0,0 +1,43 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.signatures;
+
+import java.security.GeneralSecurityException;
+
+/**
+ * Interface that needs to be implemented to sign several documents in a single call, e.g. if a remote
+ * signing service accepts a list of hashes in one request. It is used by {@link BatchPdfSigner},
+ * which hands the authenticated attributes of a whole batch to it at once.
+ */
+public interface IExternalBatchSignature extends IExternalSignature {
+
+    /**
+     * Signs the given messages using the encryption algorithm in combination with the hash algorithm.
+     *
+     * @param messages The messages you want to be hashed and signed.
+     * @return The signed message digests, in the order of the messages.
+     * @throws GeneralSecurityException when requested cryptographic algorithm or security provider
+     * is not available
+     */
+    byte[][] sign(byte[][] messages) throws GeneralSecurityException;
+}
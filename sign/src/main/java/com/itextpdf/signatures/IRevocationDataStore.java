@@ -0,0 +1,57 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.signatures;
+
+import com.itextpdf.signatures.RevocationDataCache.Entry;
+
+/**
+ * Storage of the revocation data cached by {@link RevocationDataCache}.
+ * <p>
+ * Implementations must be thread-safe. The freshness of the entries is checked by the cache,
+ * a store only needs to keep what it is given.
+ */
+public interface IRevocationDataStore {
+
+    /**
+     * Gets the stored entry.
+     *
+     * @param key the key of the revocation data
+     * @return the entry, or null if there is none
+     */
+    Entry get(String key);
+
+    /**
+     * Stores an entry, replacing the previous one with the same key.
+     *
+     * @param key   the key of the revocation data
+     * @param entry the entry to be stored
+     */
+    void put(String key, Entry entry);
+
+    /**
+     * Removes the entry with the given key, if there is one.
+     *
+     * @param key the key of the revocation data
+     */
+    void remove(String key);
+}
@@ -46,6 +46,7 @@ package com.itextpdf.signatures;
 import com.itextpdf.forms.PdfAcroForm;
 import com.itextpdf.io.font.PdfEncodings;
 import com.itextpdf.io.source.ByteBuffer;
+import com.itextpdf.kernel.exceptions.PdfException;
 import com.itextpdf.kernel.pdf.CompressionConstants;
 import com.itextpdf.kernel.pdf.PdfArray;
 import com.itextpdf.kernel.pdf.PdfCatalog;
@@ -71,9 +72,10 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
+import java.util.Set;
 import org.bouncycastle.asn1.ASN1InputStream;
 import org.bouncycastle.asn1.ASN1Primitive;
 import org.bouncycastle.asn1.DEROctetString;
@@ -101,6 +103,7 @@ public class LtvVerification {
     private Map<PdfName, ValidationData> validated = new HashMap<>();
     private boolean used = false;
     private String securityProviderCode = null;
+    private VerificationCache verificationCache;
     /**
      * What type of verification to include.
      */
@@ -177,6 +180,16 @@ public class LtvVerification {
         this.securityProviderCode = securityProviderCode;
     }
 
+    /**
+     * Sets the cache used to avoid repeating the signature checks while looking for the issuers of certificates.
+     * By default no cache is used.
+     *
+     * @param verificationCache the {@link VerificationCache} to use, or null to disable caching
+     */
+    public void setVerificationCache(VerificationCache verificationCache) {
+        this.verificationCache = verificationCache;
+    }
+
     /**
      * Add verification for a particular signature.
      *
@@ -262,7 +275,7 @@ public class LtvVerification {
                 continue;
             }
             try {
-                cert.verify(parent.getPublicKey());
+                VerificationCache.verify(verificationCache, cert, parent.getPublicKey());
                 return parent;
             } catch (Exception e) {
                 // do nothing
@@ -354,34 +367,30 @@ public class LtvVerification {
         PdfDictionary catalog = document.getCatalog().getPdfObject();
         catalog.setModified();
         PdfDictionary dss = catalog.getAsDictionary(PdfName.DSS);
-        PdfArray ocsps = dss.getAsArray(PdfName.OCSPs);
-        PdfArray crls = dss.getAsArray(PdfName.CRLs);
-        PdfArray certs = dss.getAsArray(PdfName.Certs);
+        DssArray ocsps = new DssArray(dss.getAsArray(PdfName.OCSPs));
+        DssArray crls = new DssArray(dss.getAsArray(PdfName.CRLs));
+        DssArray certs = new DssArray(dss.getAsArray(PdfName.Certs));
         dss.remove(PdfName.OCSPs);
         dss.remove(PdfName.CRLs);
         dss.remove(PdfName.Certs);
         PdfDictionary vrim = dss.getAsDictionary(PdfName.VRI);
-        // delete old validations
+        // delete old validations, keeping the entries still referenced by the other signatures
         if (vrim != null) {
+            Set<PdfIndirectReference> toDelete = new HashSet<>();
+            Set<PdfIndirectReference> stillUsed = new HashSet<>();
             for (PdfName n : vrim.keySet()) {
-                if (validated.containsKey(n)) {
-                    PdfDictionary vri = vrim.getAsDictionary(n);
-                    if (vri != null) {
-                        deleteOldReferences(ocsps, vri.getAsArray(PdfName.OCSP));
-                        deleteOldReferences(crls, vri.getAsArray(PdfName.CRL));
-                        deleteOldReferences(certs, vri.getAsArray(PdfName.Cert));
-                    }
+                PdfDictionary vri = vrim.getAsDictionary(n);
+                if (vri != null) {
+                    Set<PdfIndirectReference> references = validated.containsKey(n) ? toDelete : stillUsed;
+                    collectReferences(references, vri.getAsArray(PdfName.OCSP));
+                    collectReferences(references, vri.getAsArray(PdfName.CRL));
+                    collectReferences(references, vri.getAsArray(PdfName.Cert));
                 }
             }
-        }
-        if (ocsps == null) {
-            ocsps = new PdfArray();
-        }
-        if (crls == null) {
-            crls = new PdfArray();
-        }
-        if (certs == null) {
-            certs = new PdfArray();
+            toDelete.removeAll(stillUsed);
+            ocsps.removeAll(toDelete);
+            crls.removeAll(toDelete);
+            certs.removeAll(toDelete);
         }
         if (vrim == null) {
             vrim = new PdfDictionary();
@@ -389,30 +398,40 @@ public class LtvVerification {
         outputDss(dss, vrim, ocsps, crls, certs);
     }
 
-    private static void deleteOldReferences(PdfArray all, PdfArray toDelete) {
-        if (all == null || toDelete == null) {
+    private static void collectReferences(Set<PdfIndirectReference> references, PdfArray array) {
+        if (array == null) {
             return;
         }
+        for (int i = 0; i < array.size(); i++) {
+            PdfIndirectReference reference = getReference(array.get(i, false));
+            if (reference != null) {
+                references.add(reference);
+            }
+        }
+    }
 
-        for (PdfObject pi : toDelete) {
-            final PdfIndirectReference pir = pi.getIndirectReference();
-
-            for (int i = 0; i < all.size(); i++) {
-                final PdfIndirectReference pod = all.get(i).getIndirectReference();
+    private static PdfIndirectReference getReference(PdfObject object) {
+        if (object == null) {
+            return null;
+        }
+        return object.isIndirectReference() ? (PdfIndirectReference) object : object.getIndirectReference();
+    }
 
-                if (Objects.equals(pir, pod)) {
-                    all.remove(i);
-                    i--;
-                }
-            }
+    private static byte[] readBytes(PdfStream stream) {
+        try {
+            return stream.getBytes();
+        } catch (PdfException e) {
+            // a stream that can't be decoded is never reused
+            return null;
         }
     }
 
     private void createDss() {
-        outputDss(new PdfDictionary(), new PdfDictionary(), new PdfArray(), new PdfArray(), new PdfArray());
+        outputDss(new PdfDictionary(), new PdfDictionary(), new DssArray(null), new DssArray(null),
+                new DssArray(null));
     }
 
-    private void outputDss(PdfDictionary dss, PdfDictionary vrim, PdfArray ocsps, PdfArray crls, PdfArray certs) {
+    private void outputDss(PdfDictionary dss, PdfDictionary vrim, DssArray ocsps, DssArray crls, DssArray certs) {
         PdfCatalog catalog = document.getCatalog();
         if (document.getPdfVersion().compareTo(PdfVersion.PDF_2_0) < 0) {
             catalog.addDeveloperExtension(PdfDeveloperExtension.ESIC_1_7_EXTENSIONLEVEL5);
@@ -423,27 +442,13 @@ public class LtvVerification {
             PdfArray cert = new PdfArray();
             PdfDictionary vri = new PdfDictionary();
             for (byte[] b : validated.get(vkey).crls) {
-                PdfStream ps = new PdfStream(b);
-                ps.setCompressionLevel(CompressionConstants.DEFAULT_COMPRESSION);
-                ps.makeIndirect(document);
-                crl.add(ps);
-                crls.add(ps);
-                crls.setModified();
+                crl.add(crls.add(b));
             }
             for (byte[] b : validated.get(vkey).ocsps) {
-                PdfStream ps = new PdfStream(b);
-                ps.setCompressionLevel(CompressionConstants.DEFAULT_COMPRESSION);
-                ocsp.add(ps);
-                ocsps.add(ps);
-                ocsps.setModified();
+                ocsp.add(ocsps.add(b));
             }
             for (byte[] b : validated.get(vkey).certs) {
-                PdfStream ps = new PdfStream(b);
-                ps.setCompressionLevel(CompressionConstants.DEFAULT_COMPRESSION);
-                ps.makeIndirect(document);
-                cert.add(ps);
-                certs.add(ps);
-                certs.setModified();
+                cert.add(certs.add(b));
             }
             if (ocsp.size() > 0) {
                 ocsp.makeIndirect(document);
@@ -463,17 +468,17 @@ public class LtvVerification {
         vrim.makeIndirect(document);
         vrim.setModified();
         dss.put(PdfName.VRI, vrim);
-        if (ocsps.size() > 0) {
-            ocsps.makeIndirect(document);
-            dss.put(PdfName.OCSPs, ocsps);
+        if (ocsps.array.size() > 0) {
+            ocsps.array.makeIndirect(document);
+            dss.put(PdfName.OCSPs, ocsps.array);
         }
-        if (crls.size() > 0) {
-            crls.makeIndirect(document);
-            dss.put(PdfName.CRLs, crls);
+        if (crls.array.size() > 0) {
+            crls.array.makeIndirect(document);
+            dss.put(PdfName.CRLs, crls.array);
         }
-        if (certs.size() > 0) {
-            certs.makeIndirect(document);
-            dss.put(PdfName.Certs, certs);
+        if (certs.array.size() > 0) {
+            certs.array.makeIndirect(document);
+            dss.put(PdfName.Certs, certs.array);
         }
 
         dss.makeIndirect(document);
@@ -487,6 +492,117 @@ public class LtvVerification {
         public List<byte[]> certs = new ArrayList<>();
     }
 
+    /**
+     * One of the /OCSPs, /CRLs and /Certs arrays of the DSS, indexed by the content of its streams,
+     * so that an identical blob is stored once no matter how many signatures refer to it.
+     */
+    private final class DssArray {
+        private final PdfArray array;
+        // streams removed with the old validations, they may be listed again if their content is needed
+        private final List<PdfObject> removed = new ArrayList<>();
+        // streams by the hash of their decoded content, built on first use
+        private Map<Integer, List<DssBlob>> index;
+
+        DssArray(PdfArray array) {
+            this.array = array == null ? new PdfArray() : array;
+        }
+
+        void removeAll(Set<PdfIndirectReference> references) {
+            if (references.isEmpty() || array.isEmpty()) {
+                return;
+            }
+            List<PdfObject> kept = new ArrayList<>(array.size());
+            for (int i = 0; i < array.size(); i++) {
+                PdfObject entry = array.get(i, false);
+                PdfIndirectReference reference = getReference(entry);
+                if (reference != null && references.contains(reference)) {
+                    removed.add(entry);
+                } else {
+                    kept.add(entry);
+                }
+            }
+            if (!removed.isEmpty()) {
+                array.clear();
+                array.addAll(kept);
+                array.setModified();
+            }
+        }
+
+        PdfStream add(byte[] bytes) {
+            int hash = Arrays.hashCode(bytes);
+            List<DssBlob> candidates = getIndex().get(hash);
+            if (candidates == null) {
+                candidates = new ArrayList<>(1);
+                index.put(hash, candidates);
+            }
+            for (DssBlob candidate : candidates) {
+                if (candidate.hasContent(bytes)) {
+                    if (!candidate.listed) {
+                        array.add(candidate.stream);
+                        array.setModified();
+                        candidate.listed = true;
+                    }
+                    return candidate.stream;
+                }
+            }
+            PdfStream ps = new PdfStream(bytes);
+            ps.setCompressionLevel(CompressionConstants.DEFAULT_COMPRESSION);
+            ps.makeIndirect(document);
+            array.add(ps);
+            array.setModified();
+            candidates.add(new DssBlob(ps, bytes, true));
+            return ps;
+        }
+
+        private Map<Integer, List<DssBlob>> getIndex() {
+            if (index == null) {
+                index = new HashMap<>();
+                for (int i = 0; i < array.size(); i++) {
+                    addToIndex(array.get(i), true);
+                }
+                for (PdfObject entry : removed) {
+                    addToIndex(entry.isIndirectReference() ? ((PdfIndirectReference) entry).getRefersTo() : entry,
+                            false);
+                }
+            }
+            return index;
+        }
+
+        private void addToIndex(PdfObject entry, boolean listed) {
+            if (entry == null || !entry.isStream()) {
+                return;
+            }
+            byte[] bytes = readBytes((PdfStream) entry);
+            if (bytes == null) {
+                return;
+            }
+            int hash = Arrays.hashCode(bytes);
+            List<DssBlob> candidates = index.get(hash);
+            if (candidates == null) {
+                candidates = new ArrayList<>(1);
+                index.put(hash, candidates);
+            }
+            // only the hash is kept for the existing streams, the content is read again on a hash match
+            candidates.add(new DssBlob((PdfStream) entry, null, listed));
+        }
+    }
+
+    private static final class DssBlob {
+        private final PdfStream stream;
+        private final byte[] bytes;
+        private boolean listed;
+
+        DssBlob(PdfStream stream, byte[] bytes, boolean listed) {
+            this.stream = stream;
+            this.bytes = bytes;
+            this.listed = listed;
+        }
+
+        boolean hasContent(byte[] content) {
+            return Arrays.equals(bytes != null ? bytes : readBytes(stream), content);
+        }
+    }
+
     // TODO: Refactor. Copied from itext5 Utilities
     /**
      * Converts an array of bytes to a String of hexadecimal values
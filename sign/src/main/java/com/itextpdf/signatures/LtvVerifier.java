@@ -51,8 +51,11 @@ import com.itextpdf.kernel.pdf.DocumentProperties;
 import com.itextpdf.kernel.pdf.PdfArray;
 import com.itextpdf.kernel.pdf.PdfDictionary;
 import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfIndirectReference;
 import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfObject;
 import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfRevisionView;
 import com.itextpdf.kernel.pdf.PdfStream;
 import com.itextpdf.signatures.LtvVerification.CertificateOption;
 
@@ -105,6 +108,14 @@ public class LtvVerifier extends RootStoreVerifier {
 
     private SignatureUtil sgnUtil;
 
+    private PdfRevisionView revisionView;
+    // set once a revision had to be extracted as a separate document
+    private boolean extractRevisions;
+    // the revision signed by the signature being verified, -1 for the whole document
+    private int signedRevision = -1;
+    private PdfRevisionView dssView;
+    private int dssRevision = -1;
+
     /**
      * Creates a VerificationData object for a PdfReader
      * @param document The document we want to verify.
@@ -207,7 +218,7 @@ public class LtvVerifier extends RootStoreVerifier {
             List<VerificationOK> list = verify(signCert, issuerCert, signDate);
             if (list.size() == 0) {
                 try {
-                    signCert.verify(signCert.getPublicKey());
+                    VerificationCache.verify(verificationCache, signCert, signCert.getPublicKey());
                     if (latestRevision && chain.length > 1) {
                         list.add(new VerificationOK(signCert, this.getClass(), "Root certificate in final revision"));
                     }
@@ -245,7 +256,7 @@ public class LtvVerifier extends RootStoreVerifier {
             cert.checkValidity(signDate);
             // check if the previous certificate was issued by this certificate
             if (i > 0) {
-                chain[i - 1].verify(chain[i].getPublicKey());
+                VerificationCache.verify(verificationCache, (X509Certificate) chain[i - 1], cert.getPublicKey());
             }
         }
         LOGGER.info("All certificates are valid on " + signDate.toString());
@@ -266,13 +277,16 @@ public class LtvVerifier extends RootStoreVerifier {
         // we'll verify against the rootstore (if present)
         RootStoreVerifier rootStoreVerifier = new RootStoreVerifier(verifier);
         rootStoreVerifier.setRootStore(rootStore);
+        rootStoreVerifier.setVerificationCache(verificationCache);
         // We'll verify against a list of CRLs
         CRLVerifier crlVerifier = new CRLVerifier(rootStoreVerifier, getCRLsFromDSS());
         crlVerifier.setRootStore(rootStore);
+        crlVerifier.setVerificationCache(verificationCache);
         crlVerifier.setOnlineCheckingAllowed(latestRevision || onlineCheckingAllowed);
         // We'll verify against a list of OCSPs
         OCSPVerifier ocspVerifier = new OCSPVerifier(crlVerifier, getOCSPResponsesFromDSS());
         ocspVerifier.setRootStore(rootStore);
+        ocspVerifier.setVerificationCache(verificationCache);
         ocspVerifier.setOnlineCheckingAllowed(latestRevision || onlineCheckingAllowed);
         // We verify the chain
         return ocspVerifier.verify(signCert, issuerCert, signDate);
@@ -280,13 +294,18 @@ public class LtvVerifier extends RootStoreVerifier {
 
     /**
      * Switches to the previous revision.
+     * <p>
+     * The previous revisions are read through a {@link PdfRevisionView} over the verified document, so the
+     * {@link #document} and the {@link #acroForm} stay the ones of the whole document. Only if the dictionary of
+     * the previous signature was changed by a later revision, the revision is extracted and opened as a separate
+     * document, as are all the revisions before it.
      * @throws IOException signals that an I/O exception has occurred
      * @throws GeneralSecurityException if some problems with signature or security occurred
      */
     public void switchToPreviousRevision() throws IOException, GeneralSecurityException {
         LOGGER.info("Switching to previous revision.");
         latestRevision = false;
-        dss = document.getCatalog().getPdfObject().getAsDictionary(PdfName.DSS);
+        readRevisionDss();
         Calendar cal = pkcs7.getTimeStampDate();
         if (cal == TimestampConstants.UNDEFINED_TIMESTAMP_DATE) {
             cal = pkcs7.getSignDate();
@@ -294,20 +313,26 @@ public class LtvVerifier extends RootStoreVerifier {
         // TODO: get date from signature
         signDate = cal.getTime();
         List<String> names = sgnUtil.getSignatureNames();
-        if (names.size() > 1) {
-            signatureName = names.get(names.size() - 2);
-            try (PdfReader readerTmp = new PdfReader(sgnUtil.extractRevision(signatureName))) {
-                document = new PdfDocument(readerTmp, new DocumentProperties().setEventCountingMetaInfo(metaInfo));
-                this.acroForm = PdfAcroForm.getAcroForm(document, true);
-                this.sgnUtil = new SignatureUtil(document);
-                names = sgnUtil.getSignatureNames();
-                signatureName = names.get(names.size() - 1);
-                pkcs7 = coversWholeDocument();
-                LOGGER.info(
-                        MessageFormatUtil.format("Checking {0}signature {1}", pkcs7.isTsp()
-                                ? "document-level timestamp "
-                                : "", signatureName));
+        int index = names.indexOf(signatureName);
+        if (index > 0) {
+            signatureName = names.get(index - 1);
+            if (!switchRevisionView()) {
+                extractRevisions = true;
+                revisionView = null;
+                signedRevision = -1;
+                try (PdfReader readerTmp = new PdfReader(sgnUtil.extractRevision(signatureName))) {
+                    document = new PdfDocument(readerTmp, new DocumentProperties().setEventCountingMetaInfo(metaInfo));
+                    this.acroForm = PdfAcroForm.getAcroForm(document, true);
+                    this.sgnUtil = new SignatureUtil(document);
+                    names = sgnUtil.getSignatureNames();
+                    signatureName = names.get(names.size() - 1);
+                    pkcs7 = coversWholeDocument();
+                }
             }
+            LOGGER.info(
+                    MessageFormatUtil.format("Checking {0}signature {1}", pkcs7.isTsp()
+                            ? "document-level timestamp "
+                            : "", signatureName));
         }
         else {
             LOGGER.info("No signatures in revision");
@@ -326,12 +351,12 @@ public class LtvVerifier extends RootStoreVerifier {
         if (dss == null) {
             return crls;
         }
-        PdfArray crlarray = dss.getAsArray(PdfName.CRLs);
+        PdfArray crlarray = getDssArray(PdfName.CRLs);
         if (crlarray == null) {
             return crls;
         }
         for (int i = 0; i < crlarray.size(); i++) {
-            PdfStream stream = crlarray.getAsStream(i);
+            PdfStream stream = getDssStream(crlarray, i);
             crls.add((X509CRL) SignUtils.parseCrlFromStream(new ByteArrayInputStream(stream.getBytes())));
         }
         return crls;
@@ -347,12 +372,12 @@ public class LtvVerifier extends RootStoreVerifier {
         if (dss == null) {
             return ocsps;
         }
-        PdfArray ocsparray = dss.getAsArray(PdfName.OCSPs);
+        PdfArray ocsparray = getDssArray(PdfName.OCSPs);
         if (ocsparray == null) {
             return ocsps;
         }
         for (int i = 0; i < ocsparray.size(); i++) {
-            PdfStream stream = ocsparray.getAsStream(i);
+            PdfStream stream = getDssStream(ocsparray, i);
             OCSPResp ocspResponse;
             try {
                 ocspResponse = new OCSPResp(stream.getBytes());
@@ -376,6 +401,9 @@ public class LtvVerifier extends RootStoreVerifier {
         List<String> names = sgnUtil.getSignatureNames();
         signatureName = names.get(names.size() - 1);
         this.signDate = DateTimeUtil.getCurrentTimeDate();
+        this.revisionView = null;
+        this.extractRevisions = false;
+        this.signedRevision = -1;
         pkcs7 = coversWholeDocument();
         LOGGER.info(
                 MessageFormatUtil.format(
@@ -393,7 +421,10 @@ public class LtvVerifier extends RootStoreVerifier {
      */
     protected PdfPKCS7 coversWholeDocument() throws GeneralSecurityException {
         PdfPKCS7 pkcs7 = sgnUtil.readSignatureData(signatureName, securityProviderCode);
-        if (sgnUtil.signatureCoversWholeDocument(signatureName)) {
+        boolean coversWholeDocument = signedRevision < 0
+                ? sgnUtil.signatureCoversWholeDocument(signatureName)
+                : sgnUtil.signatureCoversRevision(signatureName);
+        if (coversWholeDocument) {
             LOGGER.info("The timestamp covers whole document.");
         } else {
             throw new VerificationException((Certificate) null, "Signature doesn't cover whole document.");
@@ -405,4 +436,62 @@ public class LtvVerifier extends RootStoreVerifier {
             throw new VerificationException((Certificate) null, "The document was altered after the final signature was applied.");
         }
     }
+
+    private boolean switchRevisionView() throws GeneralSecurityException {
+        if (revisionView == null && !extractRevisions) {
+            try {
+                revisionView = new PdfRevisionView(document);
+            } catch (IOException | RuntimeException e) {
+                LOGGER.info(MessageFormatUtil.format("Revisions will be extracted: {0}", e.getMessage()));
+                extractRevisions = true;
+            }
+        }
+        if (revisionView == null) {
+            return false;
+        }
+        int revision = revisionView.getRevisionByLength(sgnUtil.getSignedRevisionLength(signatureName));
+        if (revision < 0 || isSignatureModifiedAfter(revision)) {
+            return false;
+        }
+        signedRevision = revision;
+        pkcs7 = coversWholeDocument();
+        return true;
+    }
+
+    private boolean isSignatureModifiedAfter(int revision) {
+        PdfDictionary field = acroForm.getField(signatureName).getPdfObject();
+        if (field.getIndirectReference() == null
+                || revisionView.isModifiedAfter(revision, field.getIndirectReference().getObjNumber())) {
+            return true;
+        }
+        PdfObject value = field.get(PdfName.V, false);
+        return value != null && value.isIndirectReference()
+                && revisionView.isModifiedAfter(revision, ((PdfIndirectReference) value).getObjNumber());
+    }
+
+    private void readRevisionDss() {
+        if (signedRevision < 0) {
+            dss = document.getCatalog().getPdfObject().getAsDictionary(PdfName.DSS);
+            dssView = null;
+            dssRevision = -1;
+            return;
+        }
+        PdfDictionary catalog = revisionView.getCatalog(signedRevision);
+        PdfObject dssObject = catalog == null
+                ? null
+                : revisionView.resolve(signedRevision, catalog.get(PdfName.DSS, false));
+        dss = dssObject instanceof PdfDictionary ? (PdfDictionary) dssObject : null;
+        dssView = revisionView;
+        dssRevision = signedRevision;
+    }
+
+    private PdfArray getDssArray(PdfName key) {
+        PdfObject array = dssView == null ? dss.get(key) : dssView.resolve(dssRevision, dss.get(key, false));
+        return array instanceof PdfArray ? (PdfArray) array : null;
+    }
+
+    private PdfStream getDssStream(PdfArray array, int index) {
+        PdfObject stream = dssView == null ? array.get(index) : dssView.resolve(dssRevision, array.get(index, false));
+        return stream instanceof PdfStream ? (PdfStream) stream : null;
+    }
 }
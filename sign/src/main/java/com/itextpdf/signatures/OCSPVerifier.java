@@ -249,7 +249,7 @@ public class OCSPVerifier extends RootStoreVerifier {
                 // certificate being checked for revocation were signed by the same key."
                 // and
                 // "This certificate MUST be issued directly by the CA that is identified in the request"
-                responderCert.verify(issuerCert.getPublicKey());
+                VerificationCache.verify(verificationCache, responderCert, issuerCert.getPublicKey());
 
                 // check if lifetime of certificate is ok
                 responderCert.checkValidity(signDate);
@@ -269,6 +269,7 @@ public class OCSPVerifier extends RootStoreVerifier {
                     if (crl != null && crl instanceof X509CRL) {
                         CRLVerifier crlVerifier = new CRLVerifier(null, null);
                         crlVerifier.setRootStore(rootStore);
+                        crlVerifier.setVerificationCache(verificationCache);
                         crlVerifier.setOnlineCheckingAllowed(onlineCheckingAllowed);
                         if (!crlVerifier.verify((X509CRL)crl, responderCert, issuerCert, signDate)) {
                             throw new VerificationException(issuerCert, "Authorized OCSP responder certificate was revoked.");
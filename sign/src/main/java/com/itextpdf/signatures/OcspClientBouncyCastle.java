@@ -46,6 +46,9 @@ package com.itextpdf.signatures;
 import com.itextpdf.io.logs.IoLogMessageConstant;
 import com.itextpdf.commons.utils.DateTimeUtil;
 import com.itextpdf.io.util.StreamUtil;
+import com.itextpdf.signatures.statistics.SigningInstrumentation;
+import com.itextpdf.signatures.statistics.SigningStage;
+import com.itextpdf.signatures.statistics.SigningStageStatisticsEvent;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -55,6 +58,7 @@ import java.security.GeneralSecurityException;
 import java.security.Security;
 import java.security.cert.CertificateEncodingException;
 import java.security.cert.X509Certificate;
+import org.bouncycastle.asn1.ocsp.BasicOCSPResponse;
 import org.bouncycastle.asn1.ocsp.OCSPResponseStatus;
 import org.bouncycastle.cert.ocsp.BasicOCSPResp;
 import org.bouncycastle.cert.ocsp.CertificateID;
@@ -82,6 +86,10 @@ public class OcspClientBouncyCastle implements IOcspClient {
 
     private final OCSPVerifier verifier;
 
+    private RevocationDataCache revocationDataCache;
+
+    private boolean stageStatisticsEnabled;
+
     /**
      * Creates {@code OcspClient}.
      *
@@ -104,18 +112,16 @@ public class OcspClientBouncyCastle implements IOcspClient {
      */
     public BasicOCSPResp getBasicOCSPResp(X509Certificate checkCert, X509Certificate rootCert, String url) {
         try {
-            OCSPResp ocspResponse = getOcspResponse(checkCert, rootCert, url);
-            if (ocspResponse == null) {
-                return null;
-            }
-            if (ocspResponse.getStatus() != OCSPResponseStatus.SUCCESSFUL) {
-                return null;
-            }
-            BasicOCSPResp basicResponse = (BasicOCSPResp) ocspResponse.getResponseObject();
-            if (verifier != null) {
-                verifier.isValidResponse(basicResponse, rootCert, DateTimeUtil.getCurrentTimeDate());
+            if (revocationDataCache == null || checkCert == null || rootCert == null) {
+                return fetchBasicOCSPResp(checkCert, rootCert, url);
             }
-            return basicResponse;
+            String ocspUrl = url == null ? CertificateUtil.getOCSPURL(checkCert) : url;
+            RevocationDataCache.Entry entry = revocationDataCache.get(
+                    RevocationDataCache.getOcspKey(rootCert, checkCert.getSerialNumber(), ocspUrl), () -> {
+                        BasicOCSPResp basicResponse = fetchBasicOCSPResp(checkCert, rootCert, ocspUrl);
+                        return basicResponse == null ? null : RevocationDataCache.Entry.fromOcsp(basicResponse);
+                    });
+            return entry == null ? null : new BasicOCSPResp(BasicOCSPResponse.getInstance(entry.getEncoded()));
         } catch (Exception ex) {
             LOGGER.error(ex.getMessage());
         }
@@ -149,6 +155,34 @@ public class OcspClientBouncyCastle implements IOcspClient {
         return null;
     }
 
+    /**
+     * Gets the cache of the OCSP responses.
+     *
+     * @return the cache, or null if every response is requested
+     */
+    public RevocationDataCache getRevocationDataCache() {
+        return revocationDataCache;
+    }
+
+    /**
+     * Sets the cache of the OCSP responses. A response is then requested once per issuer and serial number
+     * and reused until its nextUpdate. Only the responses accepted by the {@link OCSPVerifier} are cached.
+     *
+     * @param revocationDataCache the cache, or null to request every response
+     */
+    public void setRevocationDataCache(RevocationDataCache revocationDataCache) {
+        this.revocationDataCache = revocationDataCache;
+    }
+
+    /**
+     * Enables or disables the reporting of the OCSP requests as {@link SigningStageStatisticsEvent}s.
+     * The reporting is disabled by default.
+     *
+     * @param stageStatisticsEnabled true to send the {@link SigningStageStatisticsEvent}s
+     */
+    public void setStageStatisticsEnabled(boolean stageStatisticsEnabled) {
+        this.stageStatisticsEnabled = stageStatisticsEnabled;
+    }
 
     /**
      * Generates an OCSP request using BouncyCastle.
@@ -204,7 +238,26 @@ public class OcspClientBouncyCastle implements IOcspClient {
         OCSPReq request = generateOCSPRequest(rootCert, checkCert.getSerialNumber());
         byte[] array = request.getEncoded();
         URL urlt = new URL(url);
+        long start = SigningInstrumentation.start(stageStatisticsEnabled);
         InputStream in = SignUtils.getHttpResponseForOcspRequest(array, urlt);
-        return new OCSPResp(StreamUtil.inputStreamToArray(in));
+        byte[] response = StreamUtil.inputStreamToArray(in);
+        SigningInstrumentation.stageCompleted(SigningStage.OCSP_REQUEST, start, response.length, 0);
+        return new OCSPResp(response);
+    }
+
+    private BasicOCSPResp fetchBasicOCSPResp(X509Certificate checkCert, X509Certificate rootCert, String url)
+            throws GeneralSecurityException, OCSPException, IOException, OperatorException {
+        OCSPResp ocspResponse = getOcspResponse(checkCert, rootCert, url);
+        if (ocspResponse == null) {
+            return null;
+        }
+        if (ocspResponse.getStatus() != OCSPResponseStatus.SUCCESSFUL) {
+            return null;
+        }
+        BasicOCSPResp basicResponse = (BasicOCSPResp) ocspResponse.getResponseObject();
+        if (verifier != null) {
+            verifier.isValidResponse(basicResponse, rootCert, DateTimeUtil.getCurrentTimeDate());
+        }
+        return basicResponse;
     }
 }
@@ -46,6 +46,9 @@ package com.itextpdf.signatures;
 import com.itextpdf.kernel.exceptions.PdfException;
 import com.itextpdf.kernel.pdf.PdfName;
 import com.itextpdf.signatures.exceptions.SignExceptionMessageConstant;
+import com.itextpdf.signatures.statistics.SigningInstrumentation;
+import com.itextpdf.signatures.statistics.SigningStage;
+import org.bouncycastle.asn1.ASN1Encodable;
 import org.bouncycastle.asn1.ASN1EncodableVector;
 import org.bouncycastle.asn1.ASN1Encoding;
 import org.bouncycastle.asn1.ASN1Enumerated;
@@ -116,6 +119,9 @@ public class PdfPKCS7 {
 
     private SignaturePolicyIdentifier signaturePolicyIdentifier;
 
+    // Whether the time stamp request of getEncodedPKCS7 is reported as a signing stage
+    private boolean stageStatisticsEnabled;
+
     // Encryption provider
 
     /**
@@ -216,6 +222,33 @@ public class PdfPKCS7 {
         }
     }
 
+    /**
+     * Creates a copy of an instance created for signing with an external signature, i.e. without a private key.
+     * The copy shares the certificates of the template and their encodings, which are computed once for
+     * the template, so that the copies are cheap to create when many documents are signed with the same chain.
+     *
+     * @param template the instance created for signing without a private key
+     * @throws NoSuchAlgorithmException on error
+     * @throws NoSuchProviderException  on error
+     */
+    PdfPKCS7(PdfPKCS7 template) throws NoSuchAlgorithmException, NoSuchProviderException {
+        template.encodeCertificates();
+        this.provider = template.provider;
+        this.interfaceDigest = template.interfaceDigest;
+        this.digestAlgorithmOid = template.digestAlgorithmOid;
+        this.signCert = template.signCert;
+        this.certs = new ArrayList<>(template.certs);
+        this.digestalgos = new HashSet<>(template.digestalgos);
+        this.digestEncryptionAlgorithmOid = template.digestEncryptionAlgorithmOid;
+        this.encodedCertificates = template.encodedCertificates;
+        this.signerIdentifier = template.signerIdentifier;
+        this.signingCertificateDigest = template.signingCertificateDigest;
+        if (template.rsaData != null) {
+            rsaData = new byte[0];
+            messageDigest = DigestAlgorithms.getMessageDigest(getHashAlgorithm(), provider);
+        }
+    }
+
     // Constructors for validating existing signatures
 
     /**
@@ -255,8 +288,27 @@ public class PdfPKCS7 {
      * @param filterSubtype the filtersubtype
      * @param provider      the provider or <code>null</code> for the default provider
      */
-    @SuppressWarnings({"unchecked"})
     public PdfPKCS7(byte[] contentsKey, PdfName filterSubtype, String provider) {
+        this(contentsKey, filterSubtype, provider, false);
+    }
+
+    /**
+     * Use this constructor if you want to verify a signature.
+     * <p>
+     * In the lazy mode the constructor only decodes what the verification needs: the digest algorithms,
+     * the signer info and the signing certificate, which is looked up in the certificate set without decoding
+     * the other certificates. The certificate chain, the CRLs and the OCSP response of the revocation attribute
+     * and the time stamp token are decoded on the first call of the methods returning them, so the errors in these
+     * parts are reported by those methods instead of the constructor.
+     *
+     * @param contentsKey   the /Contents key
+     * @param filterSubtype the filtersubtype
+     * @param provider      the provider or <code>null</code> for the default provider
+     * @param lazy          <code>true</code> to decode the embedded certificates, revocation data and
+     *                      time stamp token on first access
+     */
+    @SuppressWarnings({"unchecked"})
+    public PdfPKCS7(byte[] contentsKey, PdfName filterSubtype, String provider, boolean lazy) {
         this.filterSubtype = filterSubtype;
         isTsp = PdfName.ETSI_RFC3161.equals(filterSubtype);
         isCades = PdfName.ETSI_CAdES_DETACHED.equals(filterSubtype);
@@ -313,7 +365,12 @@ public class PdfPKCS7 {
             }
 
             int next = 3;
+            ASN1TaggedObject certificateSet = null;
             while (content.getObjectAt(next) instanceof ASN1TaggedObject) {
+                ASN1TaggedObject tagged = (ASN1TaggedObject) content.getObjectAt(next);
+                if (tagged.getTagNo() == 0) {
+                    certificateSet = tagged;
+                }
                 ++next;
             }
 
@@ -322,7 +379,11 @@ public class PdfPKCS7 {
 /*
             This should work, but that's not always the case because of a bug in BouncyCastle:
 */
-            certs = SignUtils.readAllCerts(contentsKey);
+            if (lazy) {
+                lazyContentsKey = contentsKey;
+            } else {
+                certs = SignUtils.readAllCerts(contentsKey);
+            }
 /*
             The following workaround was provided by Alfonso Massa, but it doesn't always work either.
 
@@ -373,18 +434,28 @@ public class PdfPKCS7 {
             ASN1Sequence issuerAndSerialNumber = (ASN1Sequence) signerInfo.getObjectAt(1);
             X509Principal issuer = SignUtils.getIssuerX509Name(issuerAndSerialNumber);
             BigInteger serialNumber = ((ASN1Integer) issuerAndSerialNumber.getObjectAt(1)).getValue();
-            for (Object element : certs) {
-                X509Certificate cert = (X509Certificate) element;
-                if (cert.getIssuerDN().equals(issuer) && serialNumber.equals(cert.getSerialNumber())) {
-                    signCert = cert;
-                    break;
+            if (lazy) {
+                signCert = findCertificate(certificateSet, issuer, serialNumber);
+            }
+            if (signCert == null) {
+                if (certs == null) {
+                    certs = SignUtils.readAllCerts(contentsKey);
+                }
+                for (Object element : certs) {
+                    X509Certificate cert = (X509Certificate) element;
+                    if (cert.getIssuerDN().equals(issuer) && serialNumber.equals(cert.getSerialNumber())) {
+                        signCert = cert;
+                        break;
+                    }
                 }
             }
             if (signCert == null) {
                 throw new PdfException(SignExceptionMessageConstant.CANNOT_FIND_SIGNING_CERTIFICATE_WITH_THIS_SERIAL).
                         setMessageParams(issuer.getName() + " / " + serialNumber.toString(16));
             }
-            signCertificateChain();
+            if (!lazy) {
+                signCertificateChain();
+            }
             digestAlgorithmOid =
                     ((ASN1ObjectIdentifier) ((ASN1Sequence) signerInfo.getObjectAt(2)).getObjectAt(0)).getId();
             next = 3;
@@ -405,16 +476,10 @@ public class PdfPKCS7 {
                     } else if (idSeq2.equals(SecurityIDs.ID_ADBE_REVOCATION)) {
                         ASN1Set setout = (ASN1Set) seq2.getObjectAt(1);
                         ASN1Sequence seqout = (ASN1Sequence) setout.getObjectAt(0);
-                        for (int j = 0; j < seqout.size(); ++j) {
-                            ASN1TaggedObject tg = (ASN1TaggedObject) seqout.getObjectAt(j);
-                            if (tg.getTagNo() == 0) {
-                                ASN1Sequence seqin = (ASN1Sequence) tg.getObject();
-                                findCRL(seqin);
-                            }
-                            if (tg.getTagNo() == 1) {
-                                ASN1Sequence seqin = (ASN1Sequence) tg.getObject();
-                                findOcsp(seqin);
-                            }
+                        if (lazy) {
+                            lazyRevocationData = seqout;
+                        } else {
+                            readRevocationData(seqout);
                         }
                     } else if (isCades && idSeq2.equals(SecurityIDs.ID_AA_SIGNING_CERTIFICATE_V1)) {
                         ASN1Set setout = (ASN1Set) seq2.getObjectAt(1);
@@ -464,15 +529,20 @@ public class PdfPKCS7 {
                 if (ts != null && ts.getAttrValues().size() > 0) {
                     ASN1Set attributeValues = ts.getAttrValues();
                     ASN1Sequence tokenSequence = ASN1Sequence.getInstance(attributeValues.getObjectAt(0));
-                    org.bouncycastle.asn1.cms.ContentInfo contentInfo
-                            = org.bouncycastle.asn1.cms.ContentInfo.getInstance(tokenSequence);
-                    this.timeStampToken = new TimeStampToken(contentInfo);
+                    if (lazy) {
+                        lazyTimeStampToken = tokenSequence;
+                    } else {
+                        org.bouncycastle.asn1.cms.ContentInfo contentInfo
+                                = org.bouncycastle.asn1.cms.ContentInfo.getInstance(tokenSequence);
+                        this.timeStampToken = new TimeStampToken(contentInfo);
+                    }
                 }
             }
             if (isTsp) {
                 org.bouncycastle.asn1.cms.ContentInfo contentInfoTsp
                         = org.bouncycastle.asn1.cms.ContentInfo.getInstance(signedData);
                 this.timeStampToken = new TimeStampToken(contentInfoTsp);
+                lazyTimeStampToken = null;
                 TimeStampTokenInfo info = timeStampToken.getTimeStampInfo();
                 String algOID = info.getHashAlgorithm().getAlgorithm().getId();
                 messageDigest = DigestAlgorithms.getMessageDigestFromOid(algOID, null);
@@ -500,6 +570,10 @@ public class PdfPKCS7 {
         this.signaturePolicyIdentifier = signaturePolicy;
     }
 
+    void setStageStatisticsEnabled(boolean stageStatisticsEnabled) {
+        this.stageStatisticsEnabled = stageStatisticsEnabled;
+    }
+
     /**
      * Getter for property sigName.
      *
@@ -782,6 +856,25 @@ public class PdfPKCS7 {
         }
     }
 
+    /**
+     * Gets the digest which is fed by {@link #update(byte[], int, int)}.
+     *
+     * @return the message digest, or null if the signed data is passed directly to the signature
+     */
+    MessageDigest getUpdatableDigest() {
+        return rsaData != null || digestAttr != null || isTsp ? messageDigest : null;
+    }
+
+    /**
+     * Replaces the digest which is fed by {@link #update(byte[], int, int)} with the one which has
+     * already been updated with the signed data.
+     *
+     * @param messageDigest the message digest of the same algorithm
+     */
+    void setUpdatableDigest(MessageDigest messageDigest) {
+        this.messageDigest = messageDigest;
+    }
+
     // adbe.x509.rsa_sha1 (PKCS#1)
 
     /**
@@ -880,14 +973,8 @@ public class PdfPKCS7 {
 
             // Get all the certificates
             //
-            v = new ASN1EncodableVector();
-            for (Object element : certs) {
-                ASN1InputStream tempstream = new ASN1InputStream(
-                        new ByteArrayInputStream(((X509Certificate) element).getEncoded()));
-                v.add(tempstream.readObject());
-            }
-
-            DERSet dercertificates = new DERSet(v);
+            encodeCertificates();
+            DERSet dercertificates = encodedCertificates;
 
             // Create signerinfo structure.
             ASN1EncodableVector signerinfo = new ASN1EncodableVector();
@@ -895,10 +982,7 @@ public class PdfPKCS7 {
             // Add the signerInfo version
             signerinfo.add(new ASN1Integer(signerversion));
 
-            v = new ASN1EncodableVector();
-            v.add(CertificateInfo.getIssuer(signCert.getTBSCertificate()));
-            v.add(new ASN1Integer(signCert.getSerialNumber()));
-            signerinfo.add(new DERSequence(v));
+            signerinfo.add(signerIdentifier);
 
             // Add the digestAlgorithm
             v = new ASN1EncodableVector();
@@ -925,8 +1009,10 @@ public class PdfPKCS7 {
             // Sam found Adobe expects time-stamped SHA1-1 of the encrypted digest
             if (tsaClient != null) {
                 byte[] tsImprint = tsaClient.getMessageDigest().digest(digest);
+                long timestampStart = SigningInstrumentation.start(stageStatisticsEnabled);
                 byte[] tsToken = tsaClient.getTimeStampToken(tsImprint);
                 if (tsToken != null) {
+                    SigningInstrumentation.stageCompleted(SigningStage.TIMESTAMP, timestampStart, tsToken.length, 0);
                     ASN1EncodableVector unauthAttributes = buildUnauthenticatedAttributes(tsToken);
                     if (unauthAttributes != null) {
                         signerinfo.add(new DERTaggedObject(false, 1, new DERSet(unauthAttributes)));
@@ -1115,9 +1201,8 @@ public class PdfPKCS7 {
                 AlgorithmIdentifier algoId
                         = new AlgorithmIdentifier(new ASN1ObjectIdentifier(digestAlgorithmOid), null);
                 aaV2.add(algoId);
-                MessageDigest md = SignUtils.getMessageDigest(getHashAlgorithm(), interfaceDigest);
-                byte[] dig = md.digest(signCert.getEncoded());
-                aaV2.add(new DEROctetString(dig));
+                encodeCertificates();
+                aaV2.add(new DEROctetString(signingCertificateDigest));
 
                 v.add(new DERSet(new DERSequence(new DERSequence(new DERSequence(aaV2)))));
                 attribute.add(new DERSequence(v));
@@ -1229,6 +1314,7 @@ public class PdfPKCS7 {
      */
     public boolean verifyTimestampImprint() throws GeneralSecurityException {
         // TODO DEVSIX-6011 ensure this method works correctly
+        TimeStampToken timeStampToken = getTimeStampToken();
         if (timeStampToken == null) {
             return false;
         }
@@ -1257,6 +1343,55 @@ public class PdfPKCS7 {
      */
     private X509Certificate signCert;
 
+    /**
+     * The /Contents key the certificates are read from on first access in the lazy mode.
+     */
+    private byte[] lazyContentsKey;
+
+    /**
+     * The encoded certificates of the signed data, computed once and shared with the copies of this instance.
+     */
+    private DERSet encodedCertificates;
+
+    /**
+     * The issuer and serial number of the signing certificate, computed along with {@link #encodedCertificates}.
+     */
+    private DERSequence signerIdentifier;
+
+    /**
+     * The digest of the signing certificate for the signing certificate attribute,
+     * computed along with {@link #encodedCertificates}.
+     */
+    private byte[] signingCertificateDigest;
+
+    /**
+     * Encodes the certificates used in the signed data, once per instance and its copies.
+     */
+    private synchronized void encodeCertificates() {
+        if (encodedCertificates != null) {
+            return;
+        }
+        try {
+            ASN1EncodableVector v = new ASN1EncodableVector();
+            for (Object element : certs) {
+                ASN1InputStream tempstream = new ASN1InputStream(
+                        new ByteArrayInputStream(((X509Certificate) element).getEncoded()));
+                v.add(tempstream.readObject());
+            }
+
+            ASN1EncodableVector identifier = new ASN1EncodableVector();
+            identifier.add(CertificateInfo.getIssuer(signCert.getTBSCertificate()));
+            identifier.add(new ASN1Integer(signCert.getSerialNumber()));
+
+            MessageDigest md = SignUtils.getMessageDigest(getHashAlgorithm(), interfaceDigest);
+            signingCertificateDigest = md.digest(signCert.getEncoded());
+            signerIdentifier = new DERSequence(identifier);
+            encodedCertificates = new DERSet(v);
+        } catch (Exception e) {
+            throw new PdfException(e);
+        }
+    }
+
     /**
      * Get all the X.509 certificates associated with this PKCS#7 object in no particular order.
      * Other certificates, from OCSP for example, will also be included.
@@ -1264,6 +1399,7 @@ public class PdfPKCS7 {
      * @return the X.509 certificates associated with this PKCS#7 object
      */
     public Certificate[] getCertificates() {
+        decodeCertificates();
         return certs.toArray(new X509Certificate[certs.size()]);
     }
 
@@ -1275,6 +1411,7 @@ public class PdfPKCS7 {
      * @return the X.509 certificates associated with this PKCS#7 object
      */
     public Certificate[] getSignCertificateChain() {
+        decodeCertificates();
         return signCerts.toArray(new X509Certificate[signCerts.size()]);
     }
 
@@ -1287,6 +1424,64 @@ public class PdfPKCS7 {
         return signCert;
     }
 
+    /**
+     * Helper method that reads the certificates skipped by the lazy mode
+     * and builds the certificate chain of the main signature.
+     */
+    private void decodeCertificates() {
+        if (lazyContentsKey == null) {
+            return;
+        }
+        try {
+            if (certs == null) {
+                certs = SignUtils.readAllCerts(lazyContentsKey);
+            }
+        } catch (Exception e) {
+            throw new PdfException(e);
+        }
+        lazyContentsKey = null;
+        signCertificateChain();
+    }
+
+    /**
+     * Helper method that looks for a certificate in the certificate set of the SignedData structure
+     * comparing the issuer and the serial number of the encoded certificates, so that only the matching
+     * certificate is decoded.
+     *
+     * @return the certificate or null if it is not found or the set cannot be searched this way
+     */
+    private static X509Certificate findCertificate(ASN1TaggedObject certificateSet, X509Principal issuer,
+            BigInteger serialNumber) {
+        if (certificateSet == null) {
+            return null;
+        }
+        try {
+            Enumeration e = ASN1Set.getInstance(certificateSet, false).getObjects();
+            while (e.hasMoreElements()) {
+                ASN1Primitive element = ((ASN1Encodable) e.nextElement()).toASN1Primitive();
+                // attribute certificates and other certificate formats are tagged
+                if (!(element instanceof ASN1Sequence)) {
+                    continue;
+                }
+                // the positions that we care are:
+                //     0 - optional version, tagged
+                //     0 or 1 - serialNumber
+                //     2 or 3 - issuer
+                ASN1Sequence tbsCertificate = (ASN1Sequence) ((ASN1Sequence) element).getObjectAt(0);
+                int k = tbsCertificate.getObjectAt(0) instanceof ASN1TaggedObject ? 1 : 0;
+                if (serialNumber.equals(((ASN1Integer) tbsCertificate.getObjectAt(k)).getValue())
+                        && issuer.equals(new X509Principal(
+                                tbsCertificate.getObjectAt(k + 2).toASN1Primitive().getEncoded()))) {
+                    return (X509Certificate) SignUtils.getFirstElement(
+                            SignUtils.readAllCerts(element.getEncoded(ASN1Encoding.DER)));
+                }
+            }
+        } catch (Exception ignored) {
+            // the caller falls back to reading all the certificates
+        }
+        return null;
+    }
+
     /**
      * Helper method that creates the collection of certificates
      * used for the main signature based on the complete list
@@ -1323,15 +1518,54 @@ public class PdfPKCS7 {
 
     private Collection<CRL> crls;
 
+    /**
+     * The revocation attribute decoded on first access in the lazy mode.
+     */
+    private ASN1Sequence lazyRevocationData;
+
     /**
      * Get the X.509 certificate revocation lists associated with this PKCS#7 object
      *
      * @return the X.509 certificate revocation lists associated with this PKCS#7 object
      */
     public Collection<CRL> getCRLs() {
+        decodeRevocationData();
         return crls;
     }
 
+    /**
+     * Helper method that reads the CRLs and the OCSP response of the adbe-revocationInfoArchival attribute.
+     */
+    private void readRevocationData(ASN1Sequence revocationData) throws IOException {
+        for (int j = 0; j < revocationData.size(); ++j) {
+            ASN1TaggedObject tg = (ASN1TaggedObject) revocationData.getObjectAt(j);
+            if (tg.getTagNo() == 0) {
+                ASN1Sequence seqin = (ASN1Sequence) tg.getObject();
+                findCRL(seqin);
+            }
+            if (tg.getTagNo() == 1) {
+                ASN1Sequence seqin = (ASN1Sequence) tg.getObject();
+                findOcsp(seqin);
+            }
+        }
+    }
+
+    /**
+     * Helper method that reads the revocation attribute skipped by the lazy mode.
+     */
+    private void decodeRevocationData() {
+        if (lazyRevocationData == null) {
+            return;
+        }
+        ASN1Sequence revocationData = lazyRevocationData;
+        lazyRevocationData = null;
+        try {
+            readRevocationData(revocationData);
+        } catch (Exception e) {
+            throw new PdfException(e);
+        }
+    }
+
     /**
      * Helper method that tries to construct the CRLs.
      */
@@ -1362,6 +1596,7 @@ public class PdfPKCS7 {
      * @return the OCSP basic response or null
      */
     public BasicOCSPResp getOcsp() {
+        decodeRevocationData();
         return basicResp;
     }
 
@@ -1371,8 +1606,9 @@ public class PdfPKCS7 {
      * @return true if it checks, false otherwise
      */
     public boolean isRevocationValid() {
-        if (basicResp == null)
+        if (getOcsp() == null)
             return false;
+        decodeCertificates();
         if (signCerts.size() < 2)
             return false;
         try {
@@ -1448,6 +1684,11 @@ public class PdfPKCS7 {
      */
     private TimeStampToken timeStampToken;
 
+    /**
+     * The time stamp token decoded on first access in the lazy mode.
+     */
+    private ASN1Sequence lazyTimeStampToken;
+
     /**
      * Check if it's a PAdES-LTV time stamp.
      *
@@ -1463,6 +1704,15 @@ public class PdfPKCS7 {
      * @return the timestamp token or null
      */
     public TimeStampToken getTimeStampToken() {
+        if (lazyTimeStampToken != null) {
+            try {
+                timeStampToken = new TimeStampToken(
+                        org.bouncycastle.asn1.cms.ContentInfo.getInstance(lazyTimeStampToken));
+            } catch (Exception e) {
+                throw new PdfException(e);
+            }
+            lazyTimeStampToken = null;
+        }
         return timeStampToken;
     }
 
@@ -1475,6 +1725,7 @@ public class PdfPKCS7 {
      * @return the timestamp date
      */
     public Calendar getTimeStampDate() {
+        TimeStampToken timeStampToken = getTimeStampToken();
         if (timeStampToken == null) {
             return (Calendar) TimestampConstants.UNDEFINED_TIMESTAMP_DATE;
         }
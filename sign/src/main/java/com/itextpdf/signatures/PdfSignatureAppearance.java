@@ -209,6 +209,11 @@ public class PdfSignatureAppearance {
      */
     private boolean reuseAppearance = false;
 
+    /**
+     * The template which renders the layer 2, if any.
+     */
+    private SignatureAppearanceTemplate template;
+
     /**
      * Creates a PdfSignatureAppearance.
      *
@@ -496,6 +501,31 @@ public class PdfSignatureAppearance {
         return this;
     }
 
+    /**
+     * Gets the template which renders the layer 2 of this appearance.
+     *
+     * @return the {@link SignatureAppearanceTemplate} or null if the layer 2 is rendered from the settings of
+     * this appearance
+     */
+    public SignatureAppearanceTemplate getTemplate() {
+        return template;
+    }
+
+    /**
+     * Sets the template which renders the layer 2 of this appearance. The rendering mode, the images and the
+     * font are then taken from the template, which renders them once and shares them between the documents,
+     * while the text (the layer 2 text or the reason, location and date) still comes from this appearance.
+     * The template is not used if the layer 2 was obtained via {@link #getLayer2()}.
+     *
+     * @param template the {@link SignatureAppearanceTemplate} to use
+     *
+     * @return this instance to support fluent interface
+     */
+    public PdfSignatureAppearance setTemplate(SignatureAppearanceTemplate template) {
+        this.template = template;
+        return this;
+    }
+
     // layer 2
 
     /**
@@ -657,50 +687,26 @@ public class PdfSignatureAppearance {
             createBlankN0();
         }
 
+        if (n2 == null && template != null) {
+            n2 = template.createLayer2(this, document);
+        }
+
         if (n2 == null) {
             n2 = new PdfFormXObject(rect);
             n2.makeIndirect(document);
 
             canvas = new PdfCanvas(n2, document);
             int rotation = document.getPage(page).getRotation();
+            applyRotation(canvas, rotation, rect);
 
-            if (rotation == 90) {
-                canvas.concatMatrix(0, 1, -1, 0, rect.getWidth(), 0);
-            } else if (rotation == 180) {
-                canvas.concatMatrix(-1, 0, 0, -1, rect.getWidth(), rect.getHeight());
-            } else if (rotation == 270) {
-                canvas.concatMatrix(0, -1, 1, 0, 0, rect.getHeight());
-            }
-
-            Rectangle rotatedRect = rotateRectangle(this.rect, document.getPage(page).getRotation());
+            Rectangle rotatedRect = rotateRectangle(this.rect, rotation);
 
             String text = layer2Text;
             if (null == text) {
                 text = generateLayer2Text();
             }
 
-            if (image != null) {
-                if (imageScale == 0) {
-                    canvas = new PdfCanvas(n2, document);
-                    canvas.addImageWithTransformationMatrix(image, rotatedRect.getWidth(), 0, 0,
-                            rotatedRect.getHeight(), 0, 0);
-                } else {
-                    float usableScale = imageScale;
-
-                    if (imageScale < 0) {
-                        usableScale = Math.min(rotatedRect.getWidth() / image.getWidth(),
-                                rotatedRect.getHeight() / image.getHeight());
-                    }
-
-                    float w = image.getWidth() * usableScale;
-                    float h = image.getHeight() * usableScale;
-                    float x = (rotatedRect.getWidth() - w) / 2;
-                    float y = (rotatedRect.getHeight() - h) / 2;
-
-                    canvas = new PdfCanvas(n2, document);
-                    canvas.addImageWithTransformationMatrix(image, w, 0, 0, h, x, y);
-                }
-            }
+            drawImage(canvas, image, imageScale, rotatedRect);
 
             PdfFont font;
 
@@ -710,123 +716,15 @@ public class PdfSignatureAppearance {
                 font = layer2Font;
             }
 
-            Rectangle dataRect = null;
-            Rectangle signatureRect = null;
-
-            if (renderingMode == RenderingMode.NAME_AND_DESCRIPTION ||
-                renderingMode == RenderingMode.GRAPHIC_AND_DESCRIPTION && this.signatureGraphic != null) {
-                if (rotatedRect.getHeight() > rotatedRect.getWidth()) {
-                    signatureRect = new Rectangle(
-                            MARGIN,
-                            rotatedRect.getHeight() / 2,
-                            rotatedRect.getWidth() - 2 * MARGIN,
-                            rotatedRect.getHeight() / 2);
-                    dataRect = new Rectangle(
-                            MARGIN,
-                            MARGIN,
-                            rotatedRect.getWidth() - 2 * MARGIN,
-                            rotatedRect.getHeight() / 2 - 2 * MARGIN);
-                } else {
-                    // origin is the bottom-left
-                    signatureRect = new Rectangle(
-                            MARGIN,
-                            MARGIN,
-                            rotatedRect.getWidth() / 2 - 2 * MARGIN,
-                            rotatedRect.getHeight() - 2 * MARGIN);
-                    dataRect = new Rectangle(
-                            rotatedRect.getWidth() / 2 + MARGIN / 2,
-                            MARGIN,
-                            rotatedRect.getWidth() / 2 - MARGIN,
-                            rotatedRect.getHeight() - 2 * MARGIN);
-                }
-            } else if (renderingMode == RenderingMode.GRAPHIC) {
-                if (signatureGraphic == null) {
-                    throw new IllegalStateException("A signature image must be present when rendering mode is graphic. Use setSignatureGraphic()");
-                }
-
-                signatureRect = new Rectangle(
-                        MARGIN,
-                        MARGIN,
-                        rotatedRect.getWidth() - 2 * MARGIN, // take all space available
-                        rotatedRect.getHeight() - 2 * MARGIN);
-            } else {
-                dataRect = new Rectangle(
-                        MARGIN,
-                        MARGIN,
-                        rotatedRect.getWidth() - 2 * MARGIN,
-                        rotatedRect.getHeight() * (1 - TOP_SECTION) - 2 * MARGIN);
-            }
-
-            switch (renderingMode) {
-                case NAME_AND_DESCRIPTION:
-                    String signedBy =
-                            CertificateInfo.getSubjectFields((X509Certificate) signCertificate).getField("CN");
+            Rectangle[] layout = calculateLayout(renderingMode, signatureGraphic, rotatedRect);
+            Rectangle signatureRect = layout[0];
+            Rectangle dataRect = layout[1];
 
-                    if (signedBy == null) {
-                        signedBy = CertificateInfo.getSubjectFields((X509Certificate) signCertificate).getField("E");
-                    }
-
-                    if (signedBy == null) {
-                        signedBy = "";
-                    }
-
-                    addTextToCanvas(signedBy, font, signatureRect);
-                    break;
-                case GRAPHIC_AND_DESCRIPTION: {
-                    if (signatureGraphic == null) {
-                        throw new IllegalStateException("A signature image must be present when rendering mode is graphic and description. Use setSignatureGraphic()");
-                    }
-
-                    float imgWidth = signatureGraphic.getWidth();
-
-                    if (imgWidth == 0) {
-                        imgWidth = signatureRect.getWidth();
-                    }
-
-                    float imgHeight = signatureGraphic.getHeight();
-
-                    if (imgHeight == 0) {
-                        imgHeight = signatureRect.getHeight();
-                    }
-
-                    float multiplierH = signatureRect.getWidth() / signatureGraphic.getWidth();
-                    float multiplierW = signatureRect.getHeight() / signatureGraphic.getHeight();
-                    float multiplier = Math.min(multiplierH, multiplierW);
-                    imgWidth *= multiplier;
-                    imgHeight *= multiplier;
-
-                    float x = signatureRect.getRight() - imgWidth;
-                    float y = signatureRect.getBottom() + (signatureRect.getHeight() - imgHeight) / 2;
-
-                    canvas = new PdfCanvas(n2, document);
-                    canvas.addImageWithTransformationMatrix(signatureGraphic, imgWidth, 0, 0, imgHeight, x, y);
-                    break;
-                }
-                case GRAPHIC:
-                    float imgWidth = signatureGraphic.getWidth();
-
-                    if (imgWidth == 0) {
-                        imgWidth = signatureRect.getWidth();
-                    }
-
-                    float imgHeight = signatureGraphic.getHeight();
-
-                    if (imgHeight == 0) {
-                        imgHeight = signatureRect.getHeight();
-                    }
-
-                    float multiplierH = signatureRect.getWidth() / signatureGraphic.getWidth();
-                    float multiplierW = signatureRect.getHeight() / signatureGraphic.getHeight();
-                    float multiplier = Math.min(multiplierH, multiplierW);
-                    imgWidth *= multiplier;
-                    imgHeight *= multiplier;
-
-                    float x = signatureRect.getLeft() + (signatureRect.getWidth() - imgWidth) / 2;
-                    float y = signatureRect.getBottom() + (signatureRect.getHeight() - imgHeight) / 2;
-
-                    canvas = new PdfCanvas(n2, document);
-                    canvas.addImageWithTransformationMatrix(signatureGraphic, imgWidth, 0, 0, imgHeight, x, y);
-                    break;
+            if (renderingMode == RenderingMode.NAME_AND_DESCRIPTION) {
+                addTextToCanvas(getSignerName(signCertificate), font, signatureRect);
+            } else if (renderingMode == RenderingMode.GRAPHIC_AND_DESCRIPTION
+                    || renderingMode == RenderingMode.GRAPHIC) {
+                drawSignatureGraphic(canvas, signatureGraphic, renderingMode, signatureRect);
             }
 
             if (renderingMode != RenderingMode.GRAPHIC) {
@@ -915,7 +813,7 @@ public class PdfSignatureAppearance {
         return this;
     }
 
-    private static Rectangle rotateRectangle(Rectangle rect, int angle) {
+    static Rectangle rotateRectangle(Rectangle rect, int angle) {
         if (0 == (angle / 90) % 2) {
             return new Rectangle(rect.getWidth(), rect.getHeight());
         } else {
@@ -934,9 +832,8 @@ public class PdfSignatureAppearance {
     private void addTextToCanvas(String text, PdfFont font, Rectangle dataRect) {
         PdfCanvas canvas;
         canvas = new PdfCanvas(n2, document);
-        Paragraph paragraph = new Paragraph(text).setFont(font).setMargin(0).setMultipliedLeading(0.9f);
+        Paragraph paragraph = createTextParagraph(text, font, layer2FontColor);
         Canvas layoutCanvas = new Canvas(canvas, dataRect);
-        paragraph.setFontColor(layer2FontColor);
         if (layer2FontSize == 0) {
             applyCopyFittingFontSize(paragraph, dataRect, layoutCanvas.getRenderer());
         } else {
@@ -945,7 +842,7 @@ public class PdfSignatureAppearance {
         layoutCanvas.add(paragraph);
     }
 
-    private void applyCopyFittingFontSize(Paragraph paragraph, Rectangle rect, IRenderer parentRenderer) {
+    static void applyCopyFittingFontSize(Paragraph paragraph, Rectangle rect, IRenderer parentRenderer) {
         IRenderer renderer = paragraph.createRendererSubTree().setParent(parentRenderer);
         LayoutContext layoutContext = new LayoutContext(new LayoutArea(1, rect));
         float lFontSize = 0.1f, rFontSize = 100;
@@ -963,6 +860,176 @@ public class PdfSignatureAppearance {
         paragraph.setFontSize(lFontSize);
     }
 
+    /**
+     * Rotates the coordinate system of the layer 2 so that its content is upright on a rotated page.
+     *
+     * @param canvas   the canvas of the layer 2
+     * @param rotation the rotation of the page
+     * @param rect     the rectangle of the layer 2
+     */
+    static void applyRotation(PdfCanvas canvas, int rotation, Rectangle rect) {
+        if (rotation == 90) {
+            canvas.concatMatrix(0, 1, -1, 0, rect.getWidth(), 0);
+        } else if (rotation == 180) {
+            canvas.concatMatrix(-1, 0, 0, -1, rect.getWidth(), rect.getHeight());
+        } else if (rotation == 270) {
+            canvas.concatMatrix(0, -1, 1, 0, 0, rect.getHeight());
+        }
+    }
+
+    /**
+     * Draws the background image of the layer 2.
+     *
+     * @param canvas      the canvas of the layer 2
+     * @param image       the background image, may be null
+     * @param imageScale  the scaling of the image, see {@link #setImageScale(float)}
+     * @param rotatedRect the rectangle of the layer 2 in the rotated coordinate system
+     */
+    static void drawImage(PdfCanvas canvas, ImageData image, float imageScale, Rectangle rotatedRect) {
+        if (image == null) {
+            return;
+        }
+        if (imageScale == 0) {
+            canvas.addImageWithTransformationMatrix(image, rotatedRect.getWidth(), 0, 0,
+                    rotatedRect.getHeight(), 0, 0);
+        } else {
+            float usableScale = imageScale;
+
+            if (imageScale < 0) {
+                usableScale = Math.min(rotatedRect.getWidth() / image.getWidth(),
+                        rotatedRect.getHeight() / image.getHeight());
+            }
+
+            float w = image.getWidth() * usableScale;
+            float h = image.getHeight() * usableScale;
+            float x = (rotatedRect.getWidth() - w) / 2;
+            float y = (rotatedRect.getHeight() - h) / 2;
+
+            canvas.addImageWithTransformationMatrix(image, w, 0, 0, h, x, y);
+        }
+    }
+
+    /**
+     * Splits the layer 2 into the signature part and the description part according to the rendering mode.
+     *
+     * @param renderingMode    the rendering mode
+     * @param signatureGraphic the signature graphic, may be null
+     * @param rotatedRect      the rectangle of the layer 2 in the rotated coordinate system
+     * @return the signature rectangle and the description rectangle, either of them may be null
+     */
+    static Rectangle[] calculateLayout(RenderingMode renderingMode, ImageData signatureGraphic,
+            Rectangle rotatedRect) {
+        Rectangle dataRect = null;
+        Rectangle signatureRect = null;
+
+        if (renderingMode == RenderingMode.NAME_AND_DESCRIPTION ||
+            renderingMode == RenderingMode.GRAPHIC_AND_DESCRIPTION && signatureGraphic != null) {
+            if (rotatedRect.getHeight() > rotatedRect.getWidth()) {
+                signatureRect = new Rectangle(
+                        MARGIN,
+                        rotatedRect.getHeight() / 2,
+                        rotatedRect.getWidth() - 2 * MARGIN,
+                        rotatedRect.getHeight() / 2);
+                dataRect = new Rectangle(
+                        MARGIN,
+                        MARGIN,
+                        rotatedRect.getWidth() - 2 * MARGIN,
+                        rotatedRect.getHeight() / 2 - 2 * MARGIN);
+            } else {
+                // origin is the bottom-left
+                signatureRect = new Rectangle(
+                        MARGIN,
+                        MARGIN,
+                        rotatedRect.getWidth() / 2 - 2 * MARGIN,
+                        rotatedRect.getHeight() - 2 * MARGIN);
+                dataRect = new Rectangle(
+                        rotatedRect.getWidth() / 2 + MARGIN / 2,
+                        MARGIN,
+                        rotatedRect.getWidth() / 2 - MARGIN,
+                        rotatedRect.getHeight() - 2 * MARGIN);
+            }
+        } else if (renderingMode == RenderingMode.GRAPHIC) {
+            if (signatureGraphic == null) {
+                throw new IllegalStateException("A signature image must be present when rendering mode is graphic. Use setSignatureGraphic()");
+            }
+
+            signatureRect = new Rectangle(
+                    MARGIN,
+                    MARGIN,
+                    rotatedRect.getWidth() - 2 * MARGIN, // take all space available
+                    rotatedRect.getHeight() - 2 * MARGIN);
+        } else {
+            dataRect = new Rectangle(
+                    MARGIN,
+                    MARGIN,
+                    rotatedRect.getWidth() - 2 * MARGIN,
+                    rotatedRect.getHeight() * (1 - TOP_SECTION) - 2 * MARGIN);
+        }
+        return new Rectangle[] {signatureRect, dataRect};
+    }
+
+    /**
+     * Draws the signature graphic into the signature part of the layer 2.
+     *
+     * @param canvas           the canvas of the layer 2
+     * @param signatureGraphic the signature graphic
+     * @param renderingMode    {@link RenderingMode#GRAPHIC} or {@link RenderingMode#GRAPHIC_AND_DESCRIPTION}
+     * @param signatureRect    the signature part of the layer 2
+     */
+    static void drawSignatureGraphic(PdfCanvas canvas, ImageData signatureGraphic, RenderingMode renderingMode,
+            Rectangle signatureRect) {
+        if (signatureGraphic == null) {
+            throw new IllegalStateException("A signature image must be present when rendering mode is graphic and description. Use setSignatureGraphic()");
+        }
+
+        float imgWidth = signatureGraphic.getWidth();
+
+        if (imgWidth == 0) {
+            imgWidth = signatureRect.getWidth();
+        }
+
+        float imgHeight = signatureGraphic.getHeight();
+
+        if (imgHeight == 0) {
+            imgHeight = signatureRect.getHeight();
+        }
+
+        float multiplierH = signatureRect.getWidth() / signatureGraphic.getWidth();
+        float multiplierW = signatureRect.getHeight() / signatureGraphic.getHeight();
+        float multiplier = Math.min(multiplierH, multiplierW);
+        imgWidth *= multiplier;
+        imgHeight *= multiplier;
+
+        float x;
+        if (renderingMode == RenderingMode.GRAPHIC) {
+            x = signatureRect.getLeft() + (signatureRect.getWidth() - imgWidth) / 2;
+        } else {
+            x = signatureRect.getRight() - imgWidth;
+        }
+        float y = signatureRect.getBottom() + (signatureRect.getHeight() - imgHeight) / 2;
+
+        canvas.addImageWithTransformationMatrix(signatureGraphic, imgWidth, 0, 0, imgHeight, x, y);
+    }
+
+    static String getSignerName(Certificate signCertificate) {
+        String signedBy = CertificateInfo.getSubjectFields((X509Certificate) signCertificate).getField("CN");
+
+        if (signedBy == null) {
+            signedBy = CertificateInfo.getSubjectFields((X509Certificate) signCertificate).getField("E");
+        }
+
+        if (signedBy == null) {
+            signedBy = "";
+        }
+        return signedBy;
+    }
+
+    static Paragraph createTextParagraph(String text, PdfFont font, Color fontColor) {
+        Paragraph paragraph = new Paragraph(text).setFont(font).setMargin(0).setMultipliedLeading(0.9f);
+        paragraph.setFontColor(fontColor);
+        return paragraph;
+    }
+
     String generateLayer2Text() {
         StringBuilder buf = new StringBuilder();
         buf.append("Digitally signed by ");
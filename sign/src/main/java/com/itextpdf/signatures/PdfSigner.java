@@ -48,6 +48,7 @@ import com.itextpdf.forms.PdfSigFieldLock;
 import com.itextpdf.forms.fields.PdfFormField;
 import com.itextpdf.forms.fields.PdfSignatureFormField;
 import com.itextpdf.io.source.ByteBuffer;
+import com.itextpdf.io.source.GetBufferedRandomAccessSource;
 import com.itextpdf.io.source.IRandomAccessSource;
 import com.itextpdf.io.source.RASInputStream;
 import com.itextpdf.io.source.RandomAccessSourceFactory;
@@ -77,6 +78,9 @@ import com.itextpdf.kernel.pdf.annot.PdfAnnotation;
 import com.itextpdf.kernel.pdf.annot.PdfWidgetAnnotation;
 import com.itextpdf.pdfa.PdfAAgnosticPdfDocument;
 import com.itextpdf.signatures.exceptions.SignExceptionMessageConstant;
+import com.itextpdf.signatures.statistics.SigningInstrumentation;
+import com.itextpdf.signatures.statistics.SigningStage;
+import com.itextpdf.signatures.statistics.SigningStageStatisticsEvent;
 import org.bouncycastle.asn1.esf.SignaturePolicyIdentifier;
 
 import java.io.ByteArrayOutputStream;
@@ -86,6 +90,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.security.GeneralSecurityException;
 import java.security.MessageDigest;
 import java.security.PrivateKey;
@@ -98,6 +104,11 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
 /**
  * Takes care of the cryptographic options and appearances that form a signature.
@@ -179,6 +190,16 @@ public class PdfSigner {
      */
     protected ISignatureEvent signatureEvent;
 
+    /**
+     * Estimates the reserved size of the signature when none is requested.
+     */
+    protected SignatureSizeEstimator signatureSizeEstimator = SignatureSizeEstimator.getDefaultInstance();
+
+    /**
+     * Whether the signing stages are reported as {@link SigningStageStatisticsEvent}s.
+     */
+    protected boolean stageStatisticsEnabled;
+
     /**
      * OutputStream for the bytes of the document.
      */
@@ -194,6 +215,11 @@ public class PdfSigner {
      */
     protected File tempFile;
 
+    /**
+     * Seekable destination the output is written to directly, without a temporary copy (can be null).
+     */
+    protected FileChannel outputChannel;
+
     /**
      * Name and content of keys that can only be added in the close() method.
      */
@@ -259,12 +285,35 @@ public class PdfSigner {
         }
 
         originalOS = outputStream;
-        signDate = DateTimeUtil.getCurrentTimeCalendar();
-        fieldName = getNewSigFieldName();
-        appearance = new PdfSignatureAppearance(document, new Rectangle(0, 0), 1);
-        appearance.setSignDate(signDate);
+        initSignatureProperties();
+    }
 
-        closed = false;
+    /**
+     * Creates a PdfSigner instance which writes the signed PDF file straight to a seekable destination.
+     * The document is written to the channel in a single pass, after which only the reserved
+     * /ByteRange and /Contents placeholders are patched in place. Neither an in-memory nor a temporary file
+     * copy of the output is made.
+     * <p>
+     * The channel must be opened for both reading and writing. It is truncated before the document is written
+     * and it is closed when the signer is closed.
+     *
+     * @param reader        PdfReader that reads the PDF file
+     * @param outputChannel FileChannel to write the signed PDF file
+     * @param properties    {@link StampingProperties} for the signing document. Note that encryption will be
+     *                      preserved regardless of what is set in properties.
+     * @throws IOException if some I/O problem occurs
+     */
+    public PdfSigner(PdfReader reader, FileChannel outputChannel, StampingProperties properties) throws IOException {
+        StampingProperties localProps = new StampingProperties(properties).preserveEncryption();
+        outputChannel.truncate(0);
+        outputChannel.position(0);
+        this.outputChannel = outputChannel;
+        PdfWriter writer = new PdfWriter(Channels.newOutputStream(outputChannel));
+        // The channel is still needed to patch the signature after the document is closed
+        writer.setCloseStream(false);
+        document = initDocument(reader, writer, localProps);
+
+        initSignatureProperties();
     }
 
     protected PdfDocument initDocument(PdfReader reader, PdfWriter writer, StampingProperties properties) {
@@ -374,6 +423,45 @@ public class PdfSigner {
         this.signatureEvent = signatureEvent;
     }
 
+    /**
+     * Gets the estimator used to calculate the reserved size of the signature when none is requested.
+     *
+     * @return the {@link SignatureSizeEstimator} instance
+     */
+    public SignatureSizeEstimator getSignatureSizeEstimator() {
+        return this.signatureSizeEstimator;
+    }
+
+    /**
+     * Sets the estimator used to calculate the reserved size of the signature when none is requested.
+     * By default the estimator shared by all signers is used, see {@link SignatureSizeEstimator#getDefaultInstance()}.
+     *
+     * @param signatureSizeEstimator the {@link SignatureSizeEstimator} instance
+     */
+    public void setSignatureSizeEstimator(SignatureSizeEstimator signatureSizeEstimator) {
+        this.signatureSizeEstimator = signatureSizeEstimator;
+    }
+
+    /**
+     * Checks whether the signing stages of this signer are reported as {@link SigningStageStatisticsEvent}s.
+     *
+     * @return true if the stage statistics are enabled
+     */
+    public boolean isStageStatisticsEnabled() {
+        return this.stageStatisticsEnabled;
+    }
+
+    /**
+     * Enables or disables the reporting of the signing stages of this signer as
+     * {@link SigningStageStatisticsEvent}s. The reporting is disabled by default. The CRL, OCSP and TSA clients
+     * passed to the signer report their requests only if their own stage statistics are enabled.
+     *
+     * @param stageStatisticsEnabled true to send the {@link SigningStageStatisticsEvent}s
+     */
+    public void setStageStatisticsEnabled(boolean stageStatisticsEnabled) {
+        this.stageStatisticsEnabled = stageStatisticsEnabled;
+    }
+
     /**
      * Gets a new signature field name that doesn't clash with any existing name.
      *
@@ -563,78 +651,166 @@ public class PdfSigner {
             }
         }
 
-        Collection<byte[]> crlBytes = null;
-        int i = 0;
-        while (crlBytes == null && i < chain.length) {
-            crlBytes = processCrl(chain[i++], crlList);
-        }
+        Collection<byte[]> crlBytes = collectCrlBytes(chain, crlList);
+        List<byte[]> ocspList = collectOcspBytes(chain, ocspClient, stageStatisticsEnabled);
+        String hashAlgorithm = externalSignature.getHashAlgorithm();
         if (estimatedSize == 0) {
-            estimatedSize = 8192;
-            if (crlBytes != null) {
-                for (byte[] element : crlBytes) {
-                    estimatedSize += element.length + 10;
-                }
-            }
-            if (ocspClient != null) {
-                estimatedSize += 4192;
-            }
-            if (tsaClient != null) {
-                estimatedSize += 4192;
-            }
-        }
-        PdfSignatureAppearance appearance = getSignatureAppearance();
-        appearance.setCertificate(chain[0]);
-        if (sigtype == CryptoStandard.CADES && !isDocumentPdf2()) {
-            addDeveloperExtension(PdfDeveloperExtension.ESIC_1_7_EXTENSIONLEVEL2);
+            estimatedSize = signatureSizeEstimator.estimate(chain, hashAlgorithm,
+                    externalSignature.getEncryptionAlgorithm(), externalDigest, sigtype, signaturePolicy, crlBytes,
+                    ocspList, tsaClient);
         }
-        String hashAlgorithm = externalSignature.getHashAlgorithm();
-        PdfSignature dic = new PdfSignature(PdfName.Adobe_PPKLite, sigtype == CryptoStandard.CADES
-                ? PdfName.ETSI_CAdES_DETACHED
-                : PdfName.Adbe_pkcs7_detached);
-        dic.setReason(appearance.getReason());
-        dic.setLocation(appearance.getLocation());
-        dic.setSignatureCreator(appearance.getSignatureCreator());
-        dic.setContact(appearance.getContact());
-        dic.setDate(new PdfDate(getSignDate())); // time-stamp will over-rule this
-        cryptoDictionary = dic;
-
-        Map<PdfName, Integer> exc = new HashMap<>();
-        exc.put(PdfName.Contents, estimatedSize * 2 + 2);
-        preClose(exc);
+        prepareDetachedSignature(chain[0], sigtype, estimatedSize);
 
         PdfPKCS7 sgn = new PdfPKCS7((PrivateKey) null, chain, hashAlgorithm, null, externalDigest, false);
+        sgn.setStageStatisticsEnabled(stageStatisticsEnabled);
         if (signaturePolicy != null) {
             sgn.setSignaturePolicy(signaturePolicy);
         }
-        InputStream data = getRangeStream();
-        byte[] hash = DigestAlgorithms.digest(data, SignUtils.getMessageDigest(hashAlgorithm, externalDigest));
-        List<byte[]> ocspList = new ArrayList<>();
-        if (chain.length > 1 && ocspClient != null) {
-            for (int j = 0; j < chain.length - 1; ++j) {
-                byte[] ocsp = ocspClient.getEncoded((X509Certificate) chain[j], (X509Certificate) chain[j + 1], null);
-                if (ocsp != null) {
-                    ocspList.add(ocsp);
-                }
-            }
-        }
+        byte[] hash = digestRange(hashAlgorithm, externalDigest);
         byte[] sh = sgn.getAuthenticatedAttributeBytes(hash, sigtype, ocspList, crlBytes);
+        long signStart = SigningInstrumentation.start(stageStatisticsEnabled);
         byte[] extSignature = externalSignature.sign(sh);
+        SigningInstrumentation.stageCompleted(SigningStage.EXTERNAL_SIGNATURE, signStart,
+                extSignature == null ? 0 : extSignature.length, 0);
         sgn.setExternalDigest(extSignature, null, externalSignature.getEncryptionAlgorithm());
 
         byte[] encodedSig = sgn.getEncodedPKCS7(hash, sigtype, tsaClient, ocspList, crlBytes);
 
-        if (estimatedSize < encodedSig.length) {
-            throw new IOException("Not enough space");
+        closeWithSignature(encodedSig, estimatedSize);
+    }
+
+    /**
+     * Signs the document using the detached mode, CMS or CAdES equivalent, with an asynchronous signature.
+     * <p>
+     * The document is prepared and hashed on the calling thread. The method returns as soon as the
+     * authenticated attributes are handed to the external signature, without waiting for the signature.
+     * The CMS encoding, the optional time stamping and the writing of the signature are done on the
+     * callback executor once the signature is available.
+     * <br><br>
+     * NOTE: The underlying pdf document is closed when the returned future completes, either normally or
+     * exceptionally. This means, that current instance of PdfSigner cannot be used after this method call.
+     * The output stream is closed only if the document is signed.
+     *
+     * @param externalDigest    an implementation that provides the digest
+     * @param externalSignature the interface providing the actual signing asynchronously
+     * @param chain             the certificate chain
+     * @param crlList           the CRL list
+     * @param ocspClient        the OCSP client
+     * @param tsaClient         the Timestamp client
+     * @param estimatedSize     the reserved size for the signature. It will be estimated if 0
+     * @param sigtype           Either Signature.CMS or Signature.CADES
+     * @param callbackExecutor  the executor completing the signature, or null to complete it on
+     *                          the thread which provides the signature
+     * @return a future which is completed when the signed document has been written
+     * @throws IOException              if some I/O problem occurs while preparing the document
+     * @throws GeneralSecurityException if some problem during apply security algorithms occurs
+     */
+    public CompletableFuture<Void> signDetachedAsync(IExternalDigest externalDigest,
+            IAsyncExternalSignature externalSignature, Certificate[] chain, Collection<ICrlClient> crlList,
+            IOcspClient ocspClient, ITSAClient tsaClient, int estimatedSize, CryptoStandard sigtype,
+            Executor callbackExecutor) throws IOException, GeneralSecurityException {
+        return signDetachedAsync(externalDigest, externalSignature, chain, crlList, ocspClient, tsaClient,
+                estimatedSize, sigtype, (SignaturePolicyIdentifier) null, callbackExecutor);
+    }
+
+    /**
+     * Signs the document using the detached mode, CMS or CAdES equivalent, with an asynchronous signature.
+     * See {@link #signDetachedAsync(IExternalDigest, IAsyncExternalSignature, Certificate[], Collection,
+     * IOcspClient, ITSAClient, int, CryptoStandard, Executor)}.
+     *
+     * @param externalDigest    an implementation that provides the digest
+     * @param externalSignature the interface providing the actual signing asynchronously
+     * @param chain             the certificate chain
+     * @param crlList           the CRL list
+     * @param ocspClient        the OCSP client
+     * @param tsaClient         the Timestamp client
+     * @param estimatedSize     the reserved size for the signature. It will be estimated if 0
+     * @param sigtype           Either Signature.CMS or Signature.CADES
+     * @param signaturePolicy   the signature policy (for EPES signatures)
+     * @param callbackExecutor  the executor completing the signature, or null to complete it on
+     *                          the thread which provides the signature
+     * @return a future which is completed when the signed document has been written
+     * @throws IOException              if some I/O problem occurs while preparing the document
+     * @throws GeneralSecurityException if some problem during apply security algorithms occurs
+     */
+    public CompletableFuture<Void> signDetachedAsync(IExternalDigest externalDigest,
+            IAsyncExternalSignature externalSignature, Certificate[] chain, Collection<ICrlClient> crlList,
+            IOcspClient ocspClient, ITSAClient tsaClient, int estimatedSize, CryptoStandard sigtype,
+            SignaturePolicyIdentifier signaturePolicy, Executor callbackExecutor)
+            throws IOException, GeneralSecurityException {
+        if (closed) {
+            throw new PdfException(SignExceptionMessageConstant.THIS_INSTANCE_OF_PDF_SIGNER_ALREADY_CLOSED);
         }
 
-        byte[] paddedSig = new byte[estimatedSize];
-        System.arraycopy(encodedSig, 0, paddedSig, 0, encodedSig.length);
+        if (certificationLevel > 0 && isDocumentPdf2()) {
+            if (documentContainsCertificationOrApprovalSignatures()) {
+                throw new PdfException(
+                        SignExceptionMessageConstant.CERTIFICATION_SIGNATURE_CREATION_FAILED_DOC_SHALL_NOT_CONTAIN_SIGS);
+            }
+        }
 
-        PdfDictionary dic2 = new PdfDictionary();
-        dic2.put(PdfName.Contents, new PdfString(paddedSig).setHexWriting(true));
-        close(dic2);
+        Collection<byte[]> crlBytes = collectCrlBytes(chain, crlList);
+        List<byte[]> ocspList = collectOcspBytes(chain, ocspClient, stageStatisticsEnabled);
+        String hashAlgorithm = externalSignature.getHashAlgorithm();
+        if (estimatedSize == 0) {
+            estimatedSize = signatureSizeEstimator.estimate(chain, hashAlgorithm,
+                    externalSignature.getEncryptionAlgorithm(), externalDigest, sigtype, signaturePolicy, crlBytes,
+                    ocspList, tsaClient);
+        }
+        prepareDetachedSignature(chain[0], sigtype, estimatedSize);
+        final int reservedSize = estimatedSize;
 
-        closed = true;
+        byte[] hash;
+        byte[] sh;
+        PdfPKCS7 sgn;
+        try {
+            sgn = new PdfPKCS7((PrivateKey) null, chain, hashAlgorithm, null, externalDigest, false);
+            sgn.setStageStatisticsEnabled(stageStatisticsEnabled);
+            if (signaturePolicy != null) {
+                sgn.setSignaturePolicy(signaturePolicy);
+            }
+            hash = digestRange(hashAlgorithm, externalDigest);
+            sh = sgn.getAuthenticatedAttributeBytes(hash, sigtype, ocspList, crlBytes);
+        } catch (IOException | GeneralSecurityException | RuntimeException e) {
+            closeWithoutSignature();
+            throw e;
+        }
+
+        CompletableFuture<byte[]> signature;
+        long signStart = SigningInstrumentation.start(stageStatisticsEnabled);
+        try {
+            signature = externalSignature.sign(sh);
+            if (signature == null) {
+                throw new PdfException(SignExceptionMessageConstant.EXTERNAL_SIGNATURE_RETURNED_NO_FUTURE);
+            }
+        } catch (RuntimeException e) {
+            signature = new CompletableFuture<>();
+            signature.completeExceptionally(e);
+        }
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        BiConsumer<byte[], Throwable> completion = (extSignature, failure) -> {
+            try {
+                if (failure != null) {
+                    throw failure;
+                }
+                SigningInstrumentation.stageCompleted(SigningStage.EXTERNAL_SIGNATURE, signStart,
+                        extSignature == null ? 0 : extSignature.length, 0);
+                sgn.setExternalDigest(extSignature, null, externalSignature.getEncryptionAlgorithm());
+                byte[] encodedSig = sgn.getEncodedPKCS7(hash, sigtype, tsaClient, ocspList, crlBytes);
+                closeWithSignature(encodedSig, reservedSize);
+                result.complete(null);
+            } catch (Throwable e) {
+                closeWithoutSignature();
+                result.completeExceptionally(e instanceof CompletionException && e.getCause() != null
+                        ? e.getCause() : e);
+            }
+        };
+        if (callbackExecutor == null) {
+            signature.whenComplete(completion);
+        } else {
+            signature.whenCompleteAsync(completion, callbackExecutor);
+        }
+        return result;
     }
 
     /**
@@ -703,32 +879,16 @@ public class PdfSigner {
         }
 
         int contentEstimated = tsa.getTokenSizeEstimate();
-        if (!isDocumentPdf2()) {
-            addDeveloperExtension(PdfDeveloperExtension.ESIC_1_7_EXTENSIONLEVEL5);
-        }
-        setFieldName(signatureName);
-
-        PdfSignature dic = new PdfSignature(PdfName.Adobe_PPKLite, PdfName.ETSI_RFC3161);
-        dic.put(PdfName.Type, PdfName.DocTimeStamp);
-        cryptoDictionary = dic;
-
-        Map<PdfName, Integer> exc = new HashMap<>();
-        exc.put(PdfName.Contents, contentEstimated * 2 + 2);
-        preClose(exc);
-        InputStream data = getRangeStream();
-        MessageDigest messageDigest = tsa.getMessageDigest();
-        byte[] buf = new byte[4096];
-        int n;
-        while ((n = data.read(buf)) > 0) {
-            messageDigest.update(buf, 0, n);
-        }
-        byte[] tsImprint = messageDigest.digest();
+        prepareTimestamp(contentEstimated, signatureName);
+        byte[] tsImprint = digestRange(tsa.getMessageDigest());
         byte[] tsToken;
+        long timestampStart = SigningInstrumentation.start(stageStatisticsEnabled);
         try {
             tsToken = tsa.getTimeStampToken(tsImprint);
         } catch (Exception e) {
             throw new GeneralSecurityException(e.getMessage(), e);
         }
+        SigningInstrumentation.stageCompleted(SigningStage.TIMESTAMP, timestampStart, tsToken.length, 0);
 
         if (contentEstimated + 2 < tsToken.length)
             throw new IOException("Not enough space");
@@ -799,6 +959,180 @@ public class PdfSigner {
         StreamUtil.copyBytes(readerSource, gaps[2] - 1, gaps[3] + 1, outs);
     }
 
+    /**
+     * Collects the CRL bytes for the first certificate of the chain for which any of the clients returns CRLs.
+     *
+     * @param chain   the certificate chain
+     * @param crlList a list of CrlClient implementations
+     * @return a collection of CRL bytes that can be embedded in a PDF, or null if there are none
+     */
+    Collection<byte[]> collectCrlBytes(Certificate[] chain, final Collection<ICrlClient> crlList) {
+        return collectCrlBytes(chain, cert -> processCrl(cert, crlList), stageStatisticsEnabled);
+    }
+
+    /**
+     * Collects the CRL bytes for the first certificate of the chain for which the fetcher returns CRLs.
+     *
+     * @param chain      the certificate chain
+     * @param crlFetcher the function which requests the CRLs of a single certificate
+     * @param stageStatisticsEnabled true to report the retrieval as a signing stage
+     * @return a collection of CRL bytes that can be embedded in a PDF, or null if there are none
+     */
+    static Collection<byte[]> collectCrlBytes(Certificate[] chain,
+            Function<Certificate, Collection<byte[]>> crlFetcher, boolean stageStatisticsEnabled) {
+        long start = SigningInstrumentation.start(stageStatisticsEnabled);
+        Collection<byte[]> crlBytes = null;
+        int i = 0;
+        while (crlBytes == null && i < chain.length) {
+            crlBytes = crlFetcher.apply(chain[i++]);
+        }
+        SigningInstrumentation.stageCompleted(SigningStage.CRL_RETRIEVAL, start, getAmountOfBytes(crlBytes), 0);
+        return crlBytes;
+    }
+
+    /**
+     * Collects the OCSP responses for every certificate of the chain that has an issuer in the chain.
+     *
+     * @param chain      the certificate chain
+     * @param ocspClient the OCSP client, may be null
+     * @param stageStatisticsEnabled true to report the retrieval as a signing stage
+     * @return a list of DER-encoded BasicOCSPResponses
+     */
+    static List<byte[]> collectOcspBytes(Certificate[] chain, IOcspClient ocspClient,
+            boolean stageStatisticsEnabled) {
+        long start = SigningInstrumentation.start(stageStatisticsEnabled);
+        List<byte[]> ocspList = new ArrayList<>();
+        if (chain.length > 1 && ocspClient != null) {
+            for (int j = 0; j < chain.length - 1; ++j) {
+                byte[] ocsp = ocspClient.getEncoded((X509Certificate) chain[j], (X509Certificate) chain[j + 1], null);
+                if (ocsp != null) {
+                    ocspList.add(ocsp);
+                }
+            }
+        }
+        SigningInstrumentation.stageCompleted(SigningStage.OCSP_RETRIEVAL, start, getAmountOfBytes(ocspList), 0);
+        return ocspList;
+    }
+
+    /**
+     * Sums up the lengths of the encoded revocation data.
+     *
+     * @param encoded the encoded CRLs or OCSP responses, may be null
+     * @return the number of bytes
+     */
+    static long getAmountOfBytes(Collection<byte[]> encoded) {
+        long amountOfBytes = 0;
+        if (encoded != null) {
+            for (byte[] bytes : encoded) {
+                amountOfBytes += bytes.length;
+            }
+        }
+        return amountOfBytes;
+    }
+
+    /**
+     * Creates the crypto dictionary of a detached signature and pre-closes the document,
+     * reserving the requested space for the signature container.
+     *
+     * @param signingCertificate the certificate of the signer
+     * @param sigtype            Either Signature.CMS or Signature.CADES
+     * @param estimatedSize      the reserved size for the signature
+     * @throws IOException if some I/O problem occurs
+     */
+    void prepareDetachedSignature(Certificate signingCertificate, CryptoStandard sigtype, int estimatedSize)
+            throws IOException {
+        PdfSignatureAppearance appearance = getSignatureAppearance();
+        appearance.setCertificate(signingCertificate);
+        if (sigtype == CryptoStandard.CADES && !isDocumentPdf2()) {
+            addDeveloperExtension(PdfDeveloperExtension.ESIC_1_7_EXTENSIONLEVEL2);
+        }
+        PdfSignature dic = new PdfSignature(PdfName.Adobe_PPKLite, sigtype == CryptoStandard.CADES
+                ? PdfName.ETSI_CAdES_DETACHED
+                : PdfName.Adbe_pkcs7_detached);
+        dic.setReason(appearance.getReason());
+        dic.setLocation(appearance.getLocation());
+        dic.setSignatureCreator(appearance.getSignatureCreator());
+        dic.setContact(appearance.getContact());
+        dic.setDate(new PdfDate(getSignDate())); // time-stamp will over-rule this
+        cryptoDictionary = dic;
+
+        Map<PdfName, Integer> exc = new HashMap<>();
+        exc.put(PdfName.Contents, estimatedSize * 2 + 2);
+        preClose(exc);
+    }
+
+    /**
+     * Creates the crypto dictionary of a document timestamp and pre-closes the document,
+     * reserving the requested space for the time stamp token.
+     *
+     * @param contentEstimated the reserved size for the time stamp token
+     * @param signatureName    the signature name or null to have a name generated automatically
+     * @throws IOException if some I/O problem occurs
+     */
+    void prepareTimestamp(int contentEstimated, String signatureName) throws IOException {
+        if (!isDocumentPdf2()) {
+            addDeveloperExtension(PdfDeveloperExtension.ESIC_1_7_EXTENSIONLEVEL5);
+        }
+        setFieldName(signatureName);
+
+        PdfSignature dic = new PdfSignature(PdfName.Adobe_PPKLite, PdfName.ETSI_RFC3161);
+        dic.put(PdfName.Type, PdfName.DocTimeStamp);
+        cryptoDictionary = dic;
+
+        Map<PdfName, Integer> exc = new HashMap<>();
+        exc.put(PdfName.Contents, contentEstimated * 2 + 2);
+        preClose(exc);
+    }
+
+    /**
+     * Writes the encoded signature container into the reserved /Contents space and closes the signer.
+     *
+     * @param encodedSig    the encoded signature container
+     * @param estimatedSize the size which was reserved for the signature
+     * @throws IOException if some I/O problem occurs or the reserved space is not enough
+     */
+    void closeWithSignature(byte[] encodedSig, int estimatedSize) throws IOException {
+        if (estimatedSize < encodedSig.length) {
+            throw new IOException("Not enough space");
+        }
+
+        byte[] paddedSig = new byte[estimatedSize];
+        System.arraycopy(encodedSig, 0, paddedSig, 0, encodedSig.length);
+
+        PdfDictionary dic2 = new PdfDictionary();
+        dic2.put(PdfName.Contents, new PdfString(paddedSig).setHexWriting(true));
+        close(dic2);
+
+        closed = true;
+    }
+
+    /**
+     * Releases the resources of a signer which is abandoned without a signature,
+     * e.g. because signing failed. The signer cannot be used afterwards.
+     * The output stream or channel of the signed document belongs to the caller and is left open.
+     */
+    void closeWithoutSignature() {
+        closed = true;
+        if (!preClosed) {
+            try {
+                document.getReader().close();
+            } catch (Exception ignored) {
+            }
+        }
+        if (raf != null) {
+            try {
+                raf.close();
+            } catch (Exception ignored) {
+            }
+        }
+        if (tempFile != null) {
+            try {
+                tempFile.delete();
+            } catch (Exception ignored) {
+            }
+        }
+    }
+
     /**
      * Processes a CRL list.
      *
@@ -807,6 +1141,17 @@ public class PdfSigner {
      * @return a collection of CRL bytes that can be embedded in a PDF
      */
     protected Collection<byte[]> processCrl(Certificate cert, Collection<ICrlClient> crlList) {
+        return fetchCrlBytes(cert, crlList);
+    }
+
+    /**
+     * Requests the CRLs of a certificate from every client of the list.
+     *
+     * @param cert    a Certificate if one of the CrlList implementations needs to retrieve the CRL URL from it.
+     * @param crlList a list of CrlClient implementations
+     * @return a collection of CRL bytes that can be embedded in a PDF, or null if there are none
+     */
+    static Collection<byte[]> fetchCrlBytes(Certificate cert, Collection<ICrlClient> crlList) {
         if (crlList == null) {
             return null;
         }
@@ -853,6 +1198,7 @@ public class PdfSigner {
         if (preClosed) {
             throw new PdfException(SignExceptionMessageConstant.DOCUMENT_ALREADY_PRE_CLOSED);
         }
+        long start = SigningInstrumentation.start(stageStatisticsEnabled);
         preClosed = true;
         PdfAcroForm acroForm = PdfAcroForm.getAcroForm(document, true);
         SignatureUtil sgnUtil = new SignatureUtil(document);
@@ -918,7 +1264,25 @@ public class PdfSigner {
         for (int k = 3; k < range.length - 2; k += 2)
             range[k] -= range[k - 1];
 
-        if (tempFile == null) {
+        if (outputChannel != null) {
+            try {
+                range[range.length - 1] = outputChannel.size() - range[range.length - 2];
+                ByteArrayOutputStream bos = new ByteArrayOutputStream();
+                PdfOutputStream os = new PdfOutputStream(bos);
+                os.write('[');
+                for (int k = 0; k < range.length; ++k) {
+                    os.writeLong(range[k]).write(' ');
+                }
+                os.write(']');
+                writeToOutputChannel(bos.toByteArray(), byteRangePosition);
+            } catch (IOException e) {
+                try {
+                    outputChannel.close();
+                } catch (Exception ignored) {
+                }
+                throw e;
+            }
+        } else if (tempFile == null) {
             bout = temporaryOS.toByteArray();
             range[range.length - 1] = bout.length - range[range.length - 2];
             ByteArrayOutputStream bos = new ByteArrayOutputStream();
@@ -955,6 +1319,7 @@ public class PdfSigner {
                 throw e;
             }
         }
+        SigningInstrumentation.stageCompleted(SigningStage.PRE_CLOSE, start, getDocumentLength(), 0);
     }
 
     /**
@@ -1071,6 +1436,56 @@ public class PdfSigner {
         return new RASInputStream(randomAccessSource);
     }
 
+    /**
+     * Calculates the digest of the document bytes that are hashable when using external signatures.
+     * Unlike {@link #getRangeStream()}, the byte range is fed to the digest directly: in place from the
+     * in-memory output, or as memory mapped regions of the temporary file or output channel, without
+     * intermediate copies.
+     *
+     * @param messageDigest the digest to be updated with the byte range
+     * @return the digest of the byte range
+     * @throws IOException if some I/O problem occurs
+     */
+    protected byte[] digestRange(MessageDigest messageDigest) throws IOException {
+        long start = SigningInstrumentation.start(stageStatisticsEnabled);
+        byte[] hash;
+        if (outputChannel != null) {
+            hash = DigestAlgorithms.digest(outputChannel, range, messageDigest);
+        } else if (raf == null) {
+            hash = DigestAlgorithms.digest(bout, range, messageDigest);
+        } else {
+            hash = DigestAlgorithms.digest(raf.getChannel(), range, messageDigest);
+        }
+        if (start != SigningInstrumentation.NOT_STARTED) {
+            long amountOfBytes = 0;
+            for (int k = 1; k < range.length; k += 2) {
+                amountOfBytes += range[k];
+            }
+            SigningInstrumentation.stageCompleted(SigningStage.RANGE_DIGEST, start, amountOfBytes, 0);
+        }
+        return hash;
+    }
+
+    /**
+     * Calculates the digest of the byte range with a digest of the external digest implementation, which
+     * is released afterwards if the implementation is a {@link PooledDigest}.
+     *
+     * @param hashAlgorithm  the hash algorithm
+     * @param externalDigest the digest implementation
+     * @return the digest of the byte range
+     * @throws IOException              if some I/O problem occurs
+     * @throws GeneralSecurityException if the hash algorithm is not supported
+     */
+    byte[] digestRange(String hashAlgorithm, IExternalDigest externalDigest)
+            throws IOException, GeneralSecurityException {
+        MessageDigest messageDigest = SignUtils.getMessageDigest(hashAlgorithm, externalDigest);
+        try {
+            return digestRange(messageDigest);
+        } finally {
+            PooledDigest.release(externalDigest, messageDigest);
+        }
+    }
+
     /**
      * This is the last method to be called when using external signatures. The general sequence is:
      * preClose(), getDocumentBytes() and close().
@@ -1083,6 +1498,7 @@ public class PdfSigner {
      * @throws IOException on error
      */
     protected void close(PdfDictionary update) throws IOException {
+        long start = SigningInstrumentation.start(stageStatisticsEnabled);
         try {
             if (!preClosed)
                 throw new PdfException(SignExceptionMessageConstant.DOCUMENT_MUST_BE_PRE_CLOSED);
@@ -1099,7 +1515,9 @@ public class PdfSigner {
                 if (bous.size() > lit.getBytesCount()) {
                     throw new IllegalArgumentException(SignExceptionMessageConstant.TOO_BIG_KEY);
                 }
-                if (tempFile == null) {
+                if (outputChannel != null) {
+                    writeToOutputChannel(bous.toByteArray(), lit.getPosition());
+                } else if (tempFile == null) {
                     System.arraycopy(bous.toByteArray(), 0, bout, (int) lit.getPosition(), (int) bous.size());
                 } else {
                     raf.seek(lit.getPosition());
@@ -1109,7 +1527,10 @@ public class PdfSigner {
             if (update.size() != exclusionLocations.size())
                 throw new IllegalArgumentException("The update dictionary has less keys than required");
             if (tempFile == null) {
-                originalOS.write(bout, 0, bout.length);
+                // With an output channel the document is already in place, only the holes had to be patched
+                if (outputChannel == null) {
+                    originalOS.write(bout, 0, bout.length);
+                }
             } else {
                 if (originalOS != null) {
                     raf.seek(0);
@@ -1133,6 +1554,10 @@ public class PdfSigner {
                 }
             }
 
+            if (outputChannel != null) {
+                outputChannel.close();
+            }
+
             if (originalOS != null) {
                 try {
                     originalOS.close();
@@ -1140,16 +1565,30 @@ public class PdfSigner {
                 }
             }
         }
+        SigningInstrumentation.stageCompleted(SigningStage.CLOSE, start, getDocumentLength(), 0);
+    }
+
+    /**
+     * Gets the length of the pre-closed document, as covered by the byte range.
+     *
+     * @return the length of the document
+     */
+    private long getDocumentLength() {
+        return range[range.length - 2] + range[range.length - 1];
     }
 
     /**
      * Returns the underlying source.
+     * The source is a view of the output of the signer, closing it does not close the output channel.
      *
      * @return the underlying source
      * @throws IOException if some I/O problem occurs
      */
     protected IRandomAccessSource getUnderlyingSource() throws IOException {
         RandomAccessSourceFactory fac = new RandomAccessSourceFactory();
+        if (outputChannel != null) {
+            return new GetBufferedRandomAccessSource(new ChannelRandomAccessSource(outputChannel));
+        }
         return raf == null ? fac.createSource(bout) : fac.createSource(raf);
     }
 
@@ -1271,6 +1710,22 @@ public class PdfSigner {
         return document.getPdfVersion().compareTo(PdfVersion.PDF_2_0) >= 0;
     }
 
+    private void initSignatureProperties() {
+        signDate = DateTimeUtil.getCurrentTimeCalendar();
+        fieldName = getNewSigFieldName();
+        appearance = new PdfSignatureAppearance(document, new Rectangle(0, 0), 1);
+        appearance.setSignDate(signDate);
+
+        closed = false;
+    }
+
+    private void writeToOutputChannel(byte[] bytes, long position) throws IOException {
+        java.nio.ByteBuffer buffer = java.nio.ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            position += outputChannel.write(buffer, position);
+        }
+    }
+
     /**
      * An interface to retrieve the signature dictionary for modification.
      */
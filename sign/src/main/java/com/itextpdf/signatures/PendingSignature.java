@@ -0,0 +1,140 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.signatures;
+
+import java.io.Serializable;
+
+/**
+ * The state of a signature prepared by {@link DeferredPdfSigner} and waiting for its signature container.
+ * <p>
+ * It holds everything needed to sign the prepared document and to inject the container later on: the hash of
+ * the signed byte range, the byte range itself, the name of the signature field and the location of the prepared
+ * document. The state is serializable, so the second phase may run in another thread or process.
+ */
+public class PendingSignature implements Serializable {
+
+    private static final long serialVersionUID = -4712846531578254329L;
+
+    private final String fieldName;
+
+    private final String hashAlgorithm;
+
+    private final byte[] hash;
+
+    private final long[] byteRange;
+
+    private final String preparedDocumentPath;
+
+    /**
+     * Creates a {@link PendingSignature} instance.
+     *
+     * @param fieldName            the name of the signature field
+     * @param hashAlgorithm        the name of the algorithm the hash is calculated with
+     * @param hash                 the hash of the signed byte range
+     * @param byteRange            the signed byte range
+     * @param preparedDocumentPath the path of the prepared document
+     */
+    public PendingSignature(String fieldName, String hashAlgorithm, byte[] hash, long[] byteRange,
+            String preparedDocumentPath) {
+        if (byteRange.length != 4 || byteRange[0] != 0) {
+            throw new IllegalArgumentException("Single exclusion space supported");
+        }
+        this.fieldName = fieldName;
+        this.hashAlgorithm = hashAlgorithm;
+        this.hash = hash.clone();
+        this.byteRange = byteRange.clone();
+        this.preparedDocumentPath = preparedDocumentPath;
+    }
+
+    /**
+     * Gets the name of the signature field.
+     *
+     * @return the name of the signature field
+     */
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    /**
+     * Gets the name of the algorithm the hash is calculated with.
+     *
+     * @return the name of the hash algorithm
+     */
+    public String getHashAlgorithm() {
+        return hashAlgorithm;
+    }
+
+    /**
+     * Gets the hash of the signed byte range.
+     *
+     * @return the hash of the signed byte range
+     */
+    public byte[] getHash() {
+        return hash.clone();
+    }
+
+    /**
+     * Gets the signed byte range.
+     *
+     * @return the signed byte range, offset and length pairs
+     */
+    public long[] getByteRange() {
+        return byteRange.clone();
+    }
+
+    /**
+     * Gets the path of the prepared document.
+     *
+     * @return the path of the prepared document
+     */
+    public String getPreparedDocumentPath() {
+        return preparedDocumentPath;
+    }
+
+    /**
+     * Gets the length of the prepared document.
+     *
+     * @return the length of the prepared document in bytes
+     */
+    public long getDocumentLength() {
+        return byteRange[2] + byteRange[3];
+    }
+
+    /**
+     * Gets the offset of the first hexadecimal digit of the /Contents placeholder.
+     *
+     * @return the offset of the signature container in the prepared document
+     */
+    public long getContentsOffset() {
+        return byteRange[1] + 1;
+    }
+
+    /**
+     * Gets the maximal length of the signature container which fits into the /Contents placeholder.
+     *
+     * @return the available space in bytes
+     */
+    public int getAvailableSpace() {
+        return (int) ((byteRange[2] - byteRange[1] - 2) / 2);
+    }
+}
@@ -0,0 +1,204 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.signatures;
+
+import com.itextpdf.kernel.exceptions.PdfException;
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.Provider;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Implementation of {@link IExternalDigest} which keeps the message digests for reuse.
+ * <p>
+ * The first digest of each algorithm is obtained from the wrapped {@link IExternalDigest}, further
+ * instances are cloned from it, which spares the repeated construction and provider resolution.
+ * The digests given back with {@link #release(MessageDigest)} are reset and handed out again by
+ * {@link #getMessageDigest(String)}. The instance is thread-safe and meant to be shared, e.g. by all
+ * the signers of a batch.
+ */
+public class PooledDigest implements IExternalDigest {
+
+    /**
+     * The default maximum number of idle digests kept per algorithm.
+     */
+    public static final int DEFAULT_MAX_IDLE = 16;
+
+    private final IExternalDigest externalDigest;
+    private final int maxIdle;
+    private final Map<String, DigestPool> poolsByName = new ConcurrentHashMap<>();
+    private final Map<DigestKey, DigestPool> poolsByDigest = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a pool of the digests of {@link BouncyCastleDigest}.
+     */
+    public PooledDigest() {
+        this(new BouncyCastleDigest());
+    }
+
+    /**
+     * Creates a pool of the digests of the given {@link IExternalDigest}.
+     *
+     * @param externalDigest the digest implementation creating the first digest of each algorithm
+     */
+    public PooledDigest(IExternalDigest externalDigest) {
+        this(externalDigest, DEFAULT_MAX_IDLE);
+    }
+
+    /**
+     * Creates a pool of the digests of the given {@link IExternalDigest}.
+     *
+     * @param externalDigest the digest implementation creating the first digest of each algorithm
+     * @param maxIdle        the maximum number of idle digests kept per algorithm
+     */
+    public PooledDigest(IExternalDigest externalDigest, int maxIdle) {
+        this.externalDigest = externalDigest;
+        this.maxIdle = maxIdle;
+    }
+
+    /**
+     * Releases the message digest if it has been obtained from a {@link PooledDigest}.
+     *
+     * @param externalDigest the digest implementation the message digest has been obtained from
+     * @param messageDigest  the message digest which is not used anymore
+     */
+    public static void release(IExternalDigest externalDigest, MessageDigest messageDigest) {
+        if (externalDigest instanceof PooledDigest) {
+            ((PooledDigest) externalDigest).release(messageDigest);
+        }
+    }
+
+    /**
+     * Returns an idle MessageDigest of the provided hashing algorithm, or a new one if there is none.
+     *
+     * @param hashAlgorithm String value representing the hashing algorithm
+     * @return a MessageDigest in its initial state
+     * @throws GeneralSecurityException if the wrapped digest implementation doesn't support the algorithm
+     */
+    @Override
+    public MessageDigest getMessageDigest(String hashAlgorithm) throws GeneralSecurityException {
+        DigestPool pool = poolsByName.get(hashAlgorithm);
+        if (pool == null) {
+            MessageDigest digest = externalDigest.getMessageDigest(hashAlgorithm);
+            pool = poolsByDigest.computeIfAbsent(new DigestKey(digest), key -> new DigestPool(digest));
+            poolsByName.put(hashAlgorithm, pool);
+            return digest;
+        }
+        MessageDigest digest = pool.idle.poll();
+        if (digest != null) {
+            pool.idleCount.decrementAndGet();
+            return digest;
+        }
+        return pool.prototype != null ? pool.newDigest() : externalDigest.getMessageDigest(hashAlgorithm);
+    }
+
+    /**
+     * Gives back a message digest which is not used anymore. The digest is reset and kept for reuse,
+     * unless the maximum number of idle digests is already reached.
+     *
+     * @param messageDigest the message digest obtained from {@link #getMessageDigest(String)}
+     */
+    public void release(MessageDigest messageDigest) {
+        DigestPool pool = poolsByDigest.get(new DigestKey(messageDigest));
+        if (pool == null) {
+            return;
+        }
+        if (pool.idleCount.incrementAndGet() <= maxIdle) {
+            messageDigest.reset();
+            pool.idle.offer(messageDigest);
+        } else {
+            pool.idleCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * Gets the number of idle digests of the provided hashing algorithm.
+     *
+     * @param hashAlgorithm String value representing the hashing algorithm
+     * @return the number of digests available for reuse
+     */
+    public int getIdleCount(String hashAlgorithm) {
+        DigestPool pool = poolsByName.get(hashAlgorithm);
+        return pool == null ? 0 : pool.idleCount.get();
+    }
+
+    private static final class DigestKey {
+        private final Class<?> digestClass;
+        private final String algorithm;
+        private final Provider provider;
+
+        DigestKey(MessageDigest digest) {
+            this.digestClass = digest.getClass();
+            this.algorithm = digest.getAlgorithm();
+            this.provider = digest.getProvider();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            DigestKey that = (DigestKey) o;
+            return digestClass == that.digestClass && algorithm.equals(that.algorithm) && provider == that.provider;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * digestClass.hashCode() + algorithm.hashCode();
+        }
+    }
+
+    private static final class DigestPool {
+        private final MessageDigest prototype;
+        private final Queue<MessageDigest> idle = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger idleCount = new AtomicInteger();
+
+        DigestPool(MessageDigest digest) {
+            MessageDigest clone;
+            try {
+                clone = (MessageDigest) digest.clone();
+                clone.reset();
+            } catch (CloneNotSupportedException e) {
+                clone = null;
+            }
+            this.prototype = clone;
+        }
+
+        MessageDigest newDigest() {
+            try {
+                return (MessageDigest) prototype.clone();
+            } catch (CloneNotSupportedException e) {
+                // the prototype has already been cloned once
+                throw new PdfException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,453 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.signatures;
+
+import com.itextpdf.commons.utils.Base64;
+import com.itextpdf.commons.utils.MessageFormatUtil;
+import com.itextpdf.kernel.exceptions.PdfException;
+import com.itextpdf.signatures.exceptions.SignExceptionMessageConstant;
+import com.itextpdf.signatures.logs.SignLogMessageConstant;
+import com.itextpdf.signatures.statistics.SigningInstrumentation;
+import com.itextpdf.signatures.statistics.SigningStage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Time Stamp Authority client for high-volume time stamping.
+ * <p>
+ * Unlike {@link TSAClientBouncyCastle}, which leaves its connections to the defaults, this client fully reads
+ * and closes every response, so the HTTP keep-alive connections are reused by the following requests instead of
+ * opening new TCP and TLS sessions. The number of concurrent requests is limited, the requests have connect and
+ * read timeouts, and failed exchanges (I/O errors, 429 and 5xx responses) are retried with exponential backoff.
+ * Many message imprints can be time stamped at once with {@link #getTimeStampTokens(List, Executor)}.
+ * <p>
+ * The JDK keeps at most {@code http.maxConnections} (5 by default) idle connections per TSA, so this system
+ * property should not be lower than {@link #getMaxConcurrentRequests()}. {@link #getMetrics()} gives the
+ * latencies and errors to size the limits.
+ */
+public class PooledTSAClient extends TSAClientBouncyCastle {
+
+    /**
+     * The default maximum number of concurrent requests.
+     */
+    public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 5;
+
+    /**
+     * The default connect and read timeout in milliseconds.
+     */
+    public static final int DEFAULT_TIMEOUT = 30000;
+
+    /**
+     * The default number of retries of a failed exchange.
+     */
+    public static final int DEFAULT_MAX_RETRIES = 2;
+
+    /**
+     * The default delay before the first retry in milliseconds, doubled for every next retry.
+     */
+    public static final long DEFAULT_INITIAL_BACKOFF = 200;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PooledTSAClient.class);
+
+    private static final long MAX_BACKOFF = 10000;
+
+    private final int maxConcurrentRequests;
+    private final Semaphore permits;
+    private int connectTimeout = DEFAULT_TIMEOUT;
+    private int readTimeout = DEFAULT_TIMEOUT;
+    private long acquireTimeout = DEFAULT_TIMEOUT;
+    private int maxRetries = DEFAULT_MAX_RETRIES;
+    private long initialBackoff = DEFAULT_INITIAL_BACKOFF;
+
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong failureCount = new AtomicLong();
+    private final AtomicLong retryCount = new AtomicLong();
+    private final AtomicLong totalLatency = new AtomicLong();
+    private final AtomicLong maxLatency = new AtomicLong();
+    private final AtomicLong totalWait = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+
+    /**
+     * Creates a client with {@link #DEFAULT_MAX_CONCURRENT_REQUESTS} concurrent requests.
+     *
+     * @param url Time Stamp Authority URL
+     */
+    public PooledTSAClient(String url) {
+        this(url, null, null, DEFAULT_MAX_CONCURRENT_REQUESTS);
+    }
+
+    /**
+     * Creates a client.
+     *
+     * @param url                   Time Stamp Authority URL
+     * @param username              user(account) name, optional
+     * @param password              password, optional if used in combination with username, the credentials will be
+     *                              used in basic authentication
+     * @param maxConcurrentRequests the maximum number of requests sent to the TSA at the same time
+     */
+    public PooledTSAClient(String url, String username, String password, int maxConcurrentRequests) {
+        super(url, username, password, DEFAULTTOKENSIZE, DEFAULTHASHALGORITHM);
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.permits = new Semaphore(maxConcurrentRequests, true);
+    }
+
+    /**
+     * Gets the maximum number of requests sent to the TSA at the same time.
+     *
+     * @return the maximum number of concurrent requests
+     */
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    /**
+     * Sets the connect and read timeouts of an exchange with the TSA.
+     *
+     * @param connectTimeout the connect timeout in milliseconds, 0 for no timeout
+     * @param readTimeout    the read timeout in milliseconds, 0 for no timeout
+     */
+    public void setTimeouts(int connectTimeout, int readTimeout) {
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+    }
+
+    /**
+     * Sets the time a request waits until it may be sent when {@link #getMaxConcurrentRequests()} requests are
+     * already being sent.
+     *
+     * @param acquireTimeout the timeout in milliseconds
+     */
+    public void setAcquireTimeout(long acquireTimeout) {
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    /**
+     * Sets the retries of the exchanges which failed with an I/O error or a 429 or 5xx response.
+     *
+     * @param maxRetries     the number of retries, 0 to disable them
+     * @param initialBackoff the delay before the first retry in milliseconds, doubled for every next retry
+     */
+    public void setRetries(int maxRetries, long initialBackoff) {
+        this.maxRetries = maxRetries;
+        this.initialBackoff = initialBackoff;
+    }
+
+    /**
+     * Gets RFC 3161 timeStampTokens for many imprints. The requests are run by the executor, at most
+     * {@link #getMaxConcurrentRequests()} at the same time.
+     *
+     * @param imprints the data imprints to be time-stamped
+     * @param executor the executor sending the requests
+     * @return the encoded timeStampTokens in the order of the imprints
+     * @throws Exception the failure of the first imprint which couldn't be time-stamped
+     */
+    public List<byte[]> getTimeStampTokens(List<byte[]> imprints, Executor executor) throws Exception {
+        List<CompletableFuture<byte[]>> requests = new ArrayList<>(imprints.size());
+        for (byte[] imprint : imprints) {
+            requests.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return getTimeStampToken(imprint);
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            }, executor));
+        }
+        List<byte[]> tokens = new ArrayList<>(imprints.size());
+        for (CompletableFuture<byte[]> request : requests) {
+            try {
+                tokens.add(request.join());
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Gets the metrics of the exchanges with the TSA since the client was created.
+     *
+     * @return the snapshot of the metrics
+     */
+    public Metrics getMetrics() {
+        return new Metrics(requestCount.get(), failureCount.get(), retryCount.get(), totalLatency.get(),
+                maxLatency.get(), totalWait.get(), inFlight.get(), peakInFlight.get());
+    }
+
+    /**
+     * Get timestamp token - communications layer over a pooled keep-alive connection.
+     *
+     * @param requestBytes is a byte representation of TSA request
+     * @return - byte[] - TSA response, raw bytes (RFC 3161 encoded)
+     * @throws IOException if I/O issue occurs after all the retries
+     */
+    @Override
+    protected byte[] getTSAResponse(byte[] requestBytes) throws IOException {
+        long waitStart = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(acquireTimeout, TimeUnit.MILLISECONDS)) {
+                throw new PdfException(SignExceptionMessageConstant.TSA_CONNECTION_WAIT_TIMED_OUT)
+                        .setMessageParams(tsaURL, acquireTimeout);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PdfException(SignExceptionMessageConstant.FAILED_TO_GET_TSA_RESPONSE, e)
+                    .setMessageParams(tsaURL);
+        }
+        totalWait.addAndGet(System.nanoTime() - waitStart);
+        peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try {
+            return exchangeWithRetries(requestBytes);
+        } finally {
+            inFlight.decrementAndGet();
+            permits.release();
+        }
+    }
+
+    private byte[] exchangeWithRetries(byte[] requestBytes) throws IOException {
+        long backoff = initialBackoff;
+        long stageStart = SigningInstrumentation.start(stageStatisticsEnabled);
+        for (int attempt = 0; ; ++attempt) {
+            long start = System.nanoTime();
+            requestCount.incrementAndGet();
+            try {
+                byte[] response = exchange(requestBytes);
+                recordLatency(System.nanoTime() - start);
+                SigningInstrumentation.stageCompleted(SigningStage.TSA_REQUEST, stageStart, response.length, attempt);
+                return response;
+            } catch (RetryableException | IOException e) {
+                recordLatency(System.nanoTime() - start);
+                if (attempt >= maxRetries) {
+                    failureCount.incrementAndGet();
+                    if (e instanceof RetryableException) {
+                        throw ((RetryableException) e).failure;
+                    }
+                    throw (IOException) e;
+                }
+                LOGGER.info(MessageFormatUtil.format(SignLogMessageConstant.TSA_REQUEST_WILL_BE_RETRIED, tsaURL,
+                        backoff, e.getMessage()));
+                retryCount.incrementAndGet();
+                sleep(backoff);
+                backoff = Math.min(backoff * 2, MAX_BACKOFF);
+            } catch (RuntimeException e) {
+                recordLatency(System.nanoTime() - start);
+                failureCount.incrementAndGet();
+                throw e;
+            }
+        }
+    }
+
+    private byte[] exchange(byte[] requestBytes) throws IOException, RetryableException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(tsaURL).openConnection();
+        connection.setConnectTimeout(connectTimeout);
+        connection.setReadTimeout(readTimeout);
+        connection.setDoInput(true);
+        connection.setDoOutput(true);
+        connection.setUseCaches(false);
+        connection.setRequestMethod("POST");
+        connection.setRequestProperty("Content-Type", "application/timestamp-query");
+        connection.setRequestProperty("Content-Transfer-Encoding", "binary");
+        if (tsaUsername != null && !tsaUsername.isEmpty()) {
+            String userPassword = tsaUsername + ":" + tsaPassword;
+            connection.setRequestProperty("Authorization", "Basic " +
+                    Base64.encodeBytes(userPassword.getBytes(StandardCharsets.UTF_8), Base64.DONT_BREAK_LINES));
+        }
+        connection.setFixedLengthStreamingMode(requestBytes.length);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(requestBytes);
+        }
+
+        int responseCode = connection.getResponseCode();
+        if (responseCode / 100 != 2) {
+            // the error body has to be consumed for the connection to be kept alive
+            drain(connection.getErrorStream());
+            PdfException failure = new PdfException(SignExceptionMessageConstant.INVALID_HTTP_RESPONSE)
+                    .setMessageParams(responseCode);
+            if (responseCode == 429 || responseCode / 100 == 5) {
+                throw new RetryableException(failure);
+            }
+            throw failure;
+        }
+        byte[] respBytes = drain(connection.getInputStream());
+        String encoding = connection.getContentEncoding();
+        if (encoding != null && encoding.equalsIgnoreCase("base64")) {
+            respBytes = Base64.decode(new String(respBytes, StandardCharsets.US_ASCII));
+        }
+        return respBytes;
+    }
+
+    private void recordLatency(long latency) {
+        totalLatency.addAndGet(latency);
+        maxLatency.accumulateAndGet(latency, Math::max);
+    }
+
+    private static byte[] drain(InputStream inp) throws IOException {
+        if (inp == null) {
+            return new byte[0];
+        }
+        try (InputStream in = inp) {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int bytesRead;
+            while ((bytesRead = in.read(buffer, 0, buffer.length)) >= 0) {
+                baos.write(buffer, 0, bytesRead);
+            }
+            return baos.toByteArray();
+        }
+    }
+
+    private static void sleep(long millis) throws IOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(e.getMessage());
+        }
+    }
+
+    /**
+     * Snapshot of the metrics of the exchanges with the TSA.
+     */
+    public static final class Metrics {
+        private final long requestCount;
+        private final long failureCount;
+        private final long retryCount;
+        private final long totalLatency;
+        private final long maxLatency;
+        private final long totalWait;
+        private final int inFlight;
+        private final int peakInFlight;
+
+        Metrics(long requestCount, long failureCount, long retryCount, long totalLatency, long maxLatency,
+                long totalWait, int inFlight, int peakInFlight) {
+            this.requestCount = requestCount;
+            this.failureCount = failureCount;
+            this.retryCount = retryCount;
+            this.totalLatency = totalLatency;
+            this.maxLatency = maxLatency;
+            this.totalWait = totalWait;
+            this.inFlight = inFlight;
+            this.peakInFlight = peakInFlight;
+        }
+
+        /**
+         * Gets the number of HTTP exchanges, including the retries.
+         *
+         * @return the number of exchanges
+         */
+        public long getRequestCount() {
+            return requestCount;
+        }
+
+        /**
+         * Gets the number of time stamp requests which failed after all the retries.
+         *
+         * @return the number of failed requests
+         */
+        public long getFailureCount() {
+            return failureCount;
+        }
+
+        /**
+         * Gets the number of retried exchanges.
+         *
+         * @return the number of retries
+         */
+        public long getRetryCount() {
+            return retryCount;
+        }
+
+        /**
+         * Gets the average duration of an HTTP exchange.
+         *
+         * @return the average latency in milliseconds
+         */
+        public double getAverageLatency() {
+            return requestCount == 0 ? 0 : totalLatency / 1e6 / requestCount;
+        }
+
+        /**
+         * Gets the longest duration of an HTTP exchange.
+         *
+         * @return the maximum latency in milliseconds
+         */
+        public double getMaxLatency() {
+            return maxLatency / 1e6;
+        }
+
+        /**
+         * Gets the total time the requests have waited for the concurrency limit. A large value
+         * relative to the latencies means that more concurrent requests would help.
+         *
+         * @return the total waiting time in milliseconds
+         */
+        public double getTotalWaitTime() {
+            return totalWait / 1e6;
+        }
+
+        /**
+         * Gets the number of requests being sent at the time of the snapshot.
+         *
+         * @return the number of requests in flight
+         */
+        public int getInFlight() {
+            return inFlight;
+        }
+
+        /**
+         * Gets the largest number of requests which have been sent at the same time.
+         *
+         * @return the peak number of requests in flight
+         */
+        public int getPeakInFlight() {
+            return peakInFlight;
+        }
+    }
+
+    private static final class RetryableException extends Exception {
+        private final PdfException failure;
+
+        RetryableException(PdfException failure) {
+            super(failure.getMessage());
+            this.failure = failure;
+        }
+    }
+}
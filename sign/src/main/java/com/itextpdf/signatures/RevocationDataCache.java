@@ -0,0 +1,274 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.signatures;
+
+import com.itextpdf.commons.utils.DateTimeUtil;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.net.URL;
+import java.security.GeneralSecurityException;
+import java.security.cert.X509CRL;
+import java.security.cert.X509Certificate;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import org.bouncycastle.cert.ocsp.BasicOCSPResp;
+import org.bouncycastle.cert.ocsp.SingleResp;
+
+/**
+ * Cache of the revocation data fetched by {@link CrlClientOnline} and {@link OcspClientBouncyCastle}.
+ * <p>
+ * CRLs are keyed by their distribution point, OCSP responses by the issuer and the serial number of the
+ * checked certificate together with the responder URL. An entry is reused until its nextUpdate; entries
+ * without nextUpdate are only reused for {@link #getMaxAgeWithoutNextUpdate()} after their thisUpdate,
+ * which is 0 by default. Concurrent requests for the same missing entry are served by a single fetch.
+ * <p>
+ * One instance is meant to be shared by all the clients, e.g. for a batch of documents signed with the
+ * same certificate.
+ */
+public class RevocationDataCache {
+
+    private final IRevocationDataStore store;
+    private final Map<String, CompletableFuture<Entry>> inFlight = new ConcurrentHashMap<>();
+    private volatile long maxAgeWithoutNextUpdate;
+
+    /**
+     * Creates a cache keeping the revocation data in memory.
+     */
+    public RevocationDataCache() {
+        this(new InMemoryRevocationDataStore());
+    }
+
+    /**
+     * Creates a cache keeping the revocation data in the given store.
+     *
+     * @param store the store of the revocation data
+     */
+    public RevocationDataCache(IRevocationDataStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Gets the key of a CRL.
+     *
+     * @param distributionPoint the URL the CRL is fetched from
+     * @return the key of the CRL
+     */
+    public static String getCrlKey(URL distributionPoint) {
+        return "crl " + distributionPoint.toExternalForm();
+    }
+
+    /**
+     * Gets the key of an OCSP response.
+     *
+     * @param issuerCert   the certificate of the issuer of the checked certificate
+     * @param serialNumber the serial number of the checked certificate
+     * @param url          the URL of the OCSP responder
+     * @return the key of the OCSP response
+     */
+    public static String getOcspKey(X509Certificate issuerCert, BigInteger serialNumber, String url) {
+        return "ocsp " + issuerCert.getSubjectX500Principal().getName() + " " + serialNumber.toString(16) + " "
+                + url;
+    }
+
+    /**
+     * Gets the time during which an entry without nextUpdate is reused.
+     *
+     * @return the time in milliseconds after the thisUpdate of the entry
+     */
+    public long getMaxAgeWithoutNextUpdate() {
+        return maxAgeWithoutNextUpdate;
+    }
+
+    /**
+     * Sets the time during which an entry without nextUpdate is reused. An OCSP response without nextUpdate
+     * means that newer information is always available, so such responses are not reused by default.
+     *
+     * @param maxAgeWithoutNextUpdate the time in milliseconds after the thisUpdate of the entry
+     */
+    public void setMaxAgeWithoutNextUpdate(long maxAgeWithoutNextUpdate) {
+        this.maxAgeWithoutNextUpdate = maxAgeWithoutNextUpdate;
+    }
+
+    /**
+     * Gets the fresh revocation data with the given key, fetching it with the loader if there is none.
+     * If the data is already being fetched by another thread, the result of that fetch is awaited.
+     *
+     * @param key    the key of the revocation data
+     * @param loader fetches the revocation data, returns null if there is none
+     * @return the revocation data, or null if the loader hasn't found any
+     * @throws Exception if the loader fails
+     */
+    public Entry get(String key, Callable<Entry> loader) throws Exception {
+        Entry entry = getFresh(key);
+        if (entry != null) {
+            return entry;
+        }
+        CompletableFuture<Entry> loading = new CompletableFuture<>();
+        CompletableFuture<Entry> running = inFlight.putIfAbsent(key, loading);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+            }
+        }
+        try {
+            // the data could have been stored by a fetch which has just finished
+            entry = getFresh(key);
+            if (entry == null) {
+                entry = loader.call();
+                if (entry != null && isFresh(entry, DateTimeUtil.getCurrentTimeDate())) {
+                    store.put(key, entry);
+                }
+            }
+            loading.complete(entry);
+            return entry;
+        } catch (Throwable e) {
+            loading.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, loading);
+        }
+    }
+
+    /**
+     * Removes the revocation data with the given key.
+     *
+     * @param key the key of the revocation data
+     */
+    public void invalidate(String key) {
+        store.remove(key);
+    }
+
+    private Entry getFresh(String key) {
+        Entry entry = store.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (isFresh(entry, DateTimeUtil.getCurrentTimeDate())) {
+            return entry;
+        }
+        store.remove(key);
+        return null;
+    }
+
+    private boolean isFresh(Entry entry, Date now) {
+        if (entry.getNextUpdate() != null) {
+            return now.before(entry.getNextUpdate());
+        }
+        return entry.getThisUpdate() != null
+                && now.getTime() < entry.getThisUpdate().getTime() + maxAgeWithoutNextUpdate;
+    }
+
+    /**
+     * Cached revocation data: the encoded CRL or basic OCSP response with its validity period.
+     */
+    public static final class Entry {
+        private final byte[] encoded;
+        private final Date thisUpdate;
+        private final Date nextUpdate;
+
+        /**
+         * Creates an entry.
+         *
+         * @param encoded    the encoded CRL or basic OCSP response
+         * @param thisUpdate the time the data was issued, or null if unknown
+         * @param nextUpdate the time newer data will be available, or null if unknown
+         */
+        public Entry(byte[] encoded, Date thisUpdate, Date nextUpdate) {
+            this.encoded = encoded;
+            this.thisUpdate = thisUpdate;
+            this.nextUpdate = nextUpdate;
+        }
+
+        /**
+         * Creates an entry of a CRL.
+         *
+         * @param crl the encoded CRL
+         * @return the entry valid from thisUpdate to nextUpdate of the CRL
+         * @throws GeneralSecurityException if the CRL cannot be parsed
+         */
+        public static Entry fromCrl(byte[] crl) throws GeneralSecurityException {
+            X509CRL parsed = (X509CRL) SignUtils.parseCrlFromStream(new ByteArrayInputStream(crl));
+            return new Entry(crl, parsed.getThisUpdate(), parsed.getNextUpdate());
+        }
+
+        /**
+         * Creates an entry of a basic OCSP response. If the response has several single responses,
+         * the earliest nextUpdate is used.
+         *
+         * @param response the basic OCSP response
+         * @return the entry valid from thisUpdate to nextUpdate of the response
+         * @throws IOException if the response cannot be encoded
+         */
+        public static Entry fromOcsp(BasicOCSPResp response) throws IOException {
+            Date thisUpdate = null;
+            Date nextUpdate = null;
+            boolean missingNextUpdate = false;
+            for (SingleResp singleResp : response.getResponses()) {
+                if (thisUpdate == null || singleResp.getThisUpdate().before(thisUpdate)) {
+                    thisUpdate = singleResp.getThisUpdate();
+                }
+                if (singleResp.getNextUpdate() == null) {
+                    missingNextUpdate = true;
+                } else if (nextUpdate == null || singleResp.getNextUpdate().before(nextUpdate)) {
+                    nextUpdate = singleResp.getNextUpdate();
+                }
+            }
+            return new Entry(response.getEncoded(), thisUpdate, missingNextUpdate ? null : nextUpdate);
+        }
+
+        /**
+         * Gets the encoded revocation data.
+         *
+         * @return the encoded CRL or basic OCSP response
+         */
+        public byte[] getEncoded() {
+            return encoded;
+        }
+
+        /**
+         * Gets the time the data was issued.
+         *
+         * @return thisUpdate, or null if unknown
+         */
+        public Date getThisUpdate() {
+            return thisUpdate;
+        }
+
+        /**
+         * Gets the time newer data will be available.
+         *
+         * @return nextUpdate, or null if unknown
+         */
+        public Date getNextUpdate() {
+            return nextUpdate;
+        }
+    }
+}
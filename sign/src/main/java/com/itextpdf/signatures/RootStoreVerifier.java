@@ -96,7 +96,7 @@ public class RootStoreVerifier extends CertificateVerifier {
             // loop over the trusted anchors in the root store
             for (X509Certificate anchor : SignUtils.getCertificates(rootStore)) {
                 try {
-                    signCert.verify(anchor.getPublicKey());
+                    VerificationCache.verify(verificationCache, signCert, anchor.getPublicKey());
                     result.add(new VerificationOK(signCert, this.getClass(),
                             "Certificate verified against root store."));
                     result.addAll(super.verify(signCert, issuerCert, signDate));
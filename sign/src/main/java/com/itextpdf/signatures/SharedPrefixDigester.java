@@ -0,0 +1,165 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.signatures;
+
+import com.itextpdf.io.source.IRandomAccessSource;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Hashes the byte ranges of several signatures sharing the same digest algorithm in a single pass.
+ * <p>
+ * The signed data of a signature with the byte range {@code [0 a b c]} is the file prefix up to its
+ * /Contents placeholder followed by the tail of its revision. The prefixes of all signatures of a document
+ * are hashed once by a trunk digest, which is cloned at the start of each placeholder. Each clone then only
+ * needs the tail of its own revision, so the whole file is read once instead of once per signature.
+ */
+final class SharedPrefixDigester {
+
+    private static final int BUFFER_SIZE = 65536;
+
+    private final MessageDigest prototype;
+    private final List<PdfPKCS7> signatures = new ArrayList<>();
+    private final List<long[]> byteRanges = new ArrayList<>();
+
+    /**
+     * Creates a digester.
+     *
+     * @param prototype a fresh digest which supports {@link MessageDigest#clone()}
+     */
+    SharedPrefixDigester(MessageDigest prototype) {
+        this.prototype = prototype;
+    }
+
+    /**
+     * Checks whether the byte range has the {@code [0 a b c]} form this digester can handle.
+     *
+     * @param byteRange the /ByteRange of the signature
+     * @return true if the signed data is a prefix followed by a single tail
+     */
+    static boolean isSupported(long[] byteRange) {
+        return byteRange.length == 4 && byteRange[0] == 0 && byteRange[1] >= 0 && byteRange[2] >= byteRange[1]
+                && byteRange[3] >= 0;
+    }
+
+    /**
+     * Checks whether the digest state can be forked.
+     *
+     * @param digest the message digest
+     * @return true if the digest supports {@link MessageDigest#clone()}
+     */
+    static boolean isCloneable(MessageDigest digest) {
+        try {
+            digest.clone();
+            return true;
+        } catch (CloneNotSupportedException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Adds a signature whose signed data is to be hashed.
+     *
+     * @param pkcs7     the signature data, which gets the updated digest after {@link #digest(IRandomAccessSource)}
+     * @param byteRange the /ByteRange of the signature
+     */
+    void add(PdfPKCS7 pkcs7, long[] byteRange) {
+        signatures.add(pkcs7);
+        byteRanges.add(byteRange);
+    }
+
+    /**
+     * Hashes the signed data of all added signatures and hands each signature its digest.
+     *
+     * @param source the source of the signed document
+     * @throws IOException                 if the document cannot be read
+     * @throws CloneNotSupportedException if the digest cannot be cloned
+     */
+    void digest(IRandomAccessSource source) throws IOException, CloneNotSupportedException {
+        int count = signatures.size();
+        TreeSet<Long> boundaries = new TreeSet<>();
+        boundaries.add(0L);
+        long lastFork = 0;
+        for (long[] range : byteRanges) {
+            boundaries.add(range[1]);
+            boundaries.add(range[2]);
+            boundaries.add(range[2] + range[3]);
+            lastFork = Math.max(lastFork, range[1]);
+        }
+
+        MessageDigest trunk = (MessageDigest) prototype.clone();
+        MessageDigest[] branches = new MessageDigest[count];
+        List<MessageDigest> consumers = new ArrayList<>(count + 1);
+        byte[] buf = new byte[BUFFER_SIZE];
+        Long start = boundaries.first();
+        while (start != null) {
+            for (int i = 0; i < count; ++i) {
+                if (branches[i] == null && byteRanges.get(i)[1] == start) {
+                    branches[i] = (MessageDigest) trunk.clone();
+                }
+            }
+            Long end = boundaries.higher(start);
+            if (end == null) {
+                break;
+            }
+            consumers.clear();
+            if (end <= lastFork) {
+                consumers.add(trunk);
+            }
+            for (int i = 0; i < count; ++i) {
+                long[] range = byteRanges.get(i);
+                if (branches[i] != null && start >= range[2] && end <= range[2] + range[3]) {
+                    consumers.add(branches[i]);
+                }
+            }
+            if (!consumers.isEmpty()) {
+                update(source, start, end, buf, consumers);
+            }
+            start = end;
+        }
+        for (int i = 0; i < count; ++i) {
+            signatures.get(i).setUpdatableDigest(branches[i]);
+        }
+    }
+
+    private static void update(IRandomAccessSource source, long start, long end, byte[] buf,
+            List<MessageDigest> consumers) throws IOException {
+        long position = start;
+        while (position < end) {
+            int len = (int) Math.min(buf.length, end - position);
+            int read = source.get(position, buf, 0, len);
+            if (read <= 0) {
+                // a range beyond the end of file is hashed as far as it goes, as the sequential reading does
+                return;
+            }
+            for (MessageDigest consumer : consumers) {
+                consumer.update(buf, 0, read);
+            }
+            position += read;
+        }
+    }
+}
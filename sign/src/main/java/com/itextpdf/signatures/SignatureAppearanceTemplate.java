@@ -0,0 +1,360 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.signatures;
+
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.FontProgramFactory;
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.io.image.ImageData;
+import com.itextpdf.kernel.colors.Color;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfStream;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
+import com.itextpdf.layout.Canvas;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.signatures.PdfSignatureAppearance.RenderingMode;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A template of the layer 2 of visible signature appearances, shared by the documents signed with the same
+ * signer, images and layout, e.g. by a {@link BatchPdfSigner}.
+ * <p>
+ * The background image and the signature graphic are rendered once for every size of the signature field and
+ * rotation of its page into a small PDF kept in memory. Every document gets a copy of the already compressed
+ * image streams, so the images are neither processed nor compressed again. The font program is parsed once, while
+ * the font subset is still embedded into every document as it depends on the glyphs of its text. Only the text,
+ * i.e. the layer 2 text or the signer, reason, location and date, is laid out for each document. When no font size
+ * is set, it is fitted to the text of each document, so the text looks as without the template.
+ * <p>
+ * The template is used via {@link PdfSignatureAppearance#setTemplate(SignatureAppearanceTemplate)}.
+ * It is thread-safe, the documents may be signed concurrently.
+ */
+public class SignatureAppearanceTemplate {
+
+    private RenderingMode renderingMode = RenderingMode.DESCRIPTION;
+
+    private ImageData image;
+
+    private float imageScale;
+
+    private ImageData signatureGraphic;
+
+    private FontProgram fontProgram;
+
+    private String fontEncoding;
+
+    private float fontSize = 0;
+
+    private Color fontColor;
+
+    private final Map<String, CompiledLayer> staticLayers = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the rendering mode of the signatures.
+     *
+     * @return the rendering mode
+     */
+    public RenderingMode getRenderingMode() {
+        return renderingMode;
+    }
+
+    /**
+     * Sets the rendering mode of the signatures, see {@link PdfSignatureAppearance#setRenderingMode(RenderingMode)}.
+     *
+     * @param renderingMode the rendering mode
+     * @return this instance to support fluent interface
+     */
+    public SignatureAppearanceTemplate setRenderingMode(RenderingMode renderingMode) {
+        this.renderingMode = renderingMode;
+        clearCaches();
+        return this;
+    }
+
+    /**
+     * Gets the background image of the layer 2.
+     *
+     * @return the background image
+     */
+    public ImageData getImage() {
+        return image;
+    }
+
+    /**
+     * Sets the background image of the layer 2, see {@link PdfSignatureAppearance#setImage(ImageData)}.
+     *
+     * @param image the background image
+     * @return this instance to support fluent interface
+     */
+    public SignatureAppearanceTemplate setImage(ImageData image) {
+        this.image = image;
+        clearCaches();
+        return this;
+    }
+
+    /**
+     * Gets the scaling of the background image.
+     *
+     * @return the scaling of the background image
+     */
+    public float getImageScale() {
+        return imageScale;
+    }
+
+    /**
+     * Sets the scaling of the background image, see {@link PdfSignatureAppearance#setImageScale(float)}.
+     *
+     * @param imageScale the scaling of the background image
+     * @return this instance to support fluent interface
+     */
+    public SignatureAppearanceTemplate setImageScale(float imageScale) {
+        this.imageScale = imageScale;
+        clearCaches();
+        return this;
+    }
+
+    /**
+     * Gets the signature graphic.
+     *
+     * @return the signature graphic
+     */
+    public ImageData getSignatureGraphic() {
+        return signatureGraphic;
+    }
+
+    /**
+     * Sets the signature graphic rendered in the {@link RenderingMode#GRAPHIC} and
+     * {@link RenderingMode#GRAPHIC_AND_DESCRIPTION} modes.
+     *
+     * @param signatureGraphic the signature graphic
+     * @return this instance to support fluent interface
+     */
+    public SignatureAppearanceTemplate setSignatureGraphic(ImageData signatureGraphic) {
+        this.signatureGraphic = signatureGraphic;
+        clearCaches();
+        return this;
+    }
+
+    /**
+     * Gets the font program of the text.
+     *
+     * @return the font program, null if Helvetica is used
+     */
+    public FontProgram getFontProgram() {
+        return fontProgram;
+    }
+
+    /**
+     * Sets the font program of the text. Helvetica is used by default.
+     *
+     * @param fontProgram the font program
+     * @param encoding    the encoding of the font, null for the default one
+     * @return this instance to support fluent interface
+     */
+    public SignatureAppearanceTemplate setFont(FontProgram fontProgram, String encoding) {
+        this.fontProgram = fontProgram;
+        this.fontEncoding = encoding;
+        clearCaches();
+        return this;
+    }
+
+    /**
+     * Gets the font size of the text.
+     *
+     * @return the font size, 0 if the text is fitted to the available space
+     */
+    public float getFontSize() {
+        return fontSize;
+    }
+
+    /**
+     * Sets the font size of the text, 0 fits the text to the available space.
+     *
+     * @param fontSize the font size
+     * @return this instance to support fluent interface
+     */
+    public SignatureAppearanceTemplate setFontSize(float fontSize) {
+        this.fontSize = fontSize;
+        clearCaches();
+        return this;
+    }
+
+    /**
+     * Gets the color of the text.
+     *
+     * @return the color of the text
+     */
+    public Color getFontColor() {
+        return fontColor;
+    }
+
+    /**
+     * Sets the color of the text.
+     *
+     * @param fontColor the color of the text
+     * @return this instance to support fluent interface
+     */
+    public SignatureAppearanceTemplate setFontColor(Color fontColor) {
+        this.fontColor = fontColor;
+        return this;
+    }
+
+    /**
+     * Creates the layer 2 of a signature appearance.
+     *
+     * @param appearance the appearance providing the text, the field rectangle and page
+     * @param document   the document being signed
+     * @return the layer 2
+     * @throws IOException if the font or the static layer cannot be created
+     */
+    PdfFormXObject createLayer2(PdfSignatureAppearance appearance, PdfDocument document) throws IOException {
+        Rectangle rect = new Rectangle(appearance.getPageRect().getWidth(), appearance.getPageRect().getHeight());
+        int rotation = document.getPage(appearance.getPageNumber()).getRotation();
+        Rectangle rotatedRect = PdfSignatureAppearance.rotateRectangle(rect, rotation);
+        Rectangle[] layout = PdfSignatureAppearance.calculateLayout(renderingMode, signatureGraphic, rotatedRect);
+
+        PdfFormXObject n2 = new PdfFormXObject(rect);
+        n2.makeIndirect(document);
+        PdfCanvas canvas = new PdfCanvas(n2, document);
+        PdfFormXObject staticLayer = copyStaticLayer(rect, rotation, layout[0], document);
+        if (staticLayer != null) {
+            canvas.addXObjectAt(staticLayer, 0, 0);
+        }
+        PdfSignatureAppearance.applyRotation(canvas, rotation, rect);
+
+        PdfFont font = createFont();
+        if (renderingMode == RenderingMode.NAME_AND_DESCRIPTION) {
+            addText(canvas, PdfSignatureAppearance.getSignerName(appearance.getCertificate()), font, layout[0]);
+        }
+        if (renderingMode != RenderingMode.GRAPHIC) {
+            String text = appearance.getLayer2Text();
+            if (text == null) {
+                text = appearance.generateLayer2Text();
+            }
+            addText(canvas, text, font, layout[1]);
+        }
+        return n2;
+    }
+
+    /**
+     * Gets the number of the static layers rendered so far, one per size of the signature field and page rotation.
+     *
+     * @return the number of the rendered static layers
+     */
+    int getStaticLayerCount() {
+        return staticLayers.size();
+    }
+
+    private PdfFormXObject copyStaticLayer(Rectangle rect, int rotation, Rectangle signatureRect,
+            PdfDocument document) throws IOException {
+        boolean hasGraphic = renderingMode == RenderingMode.GRAPHIC
+                || renderingMode == RenderingMode.GRAPHIC_AND_DESCRIPTION;
+        if (image == null && !hasGraphic) {
+            return null;
+        }
+        String key = rect.getWidth() + " " + rect.getHeight() + " " + rotation;
+        CompiledLayer compiled = staticLayers.get(key);
+        if (compiled == null) {
+            compiled = compileStaticLayer(rect, rotation, signatureRect, hasGraphic);
+            CompiledLayer existing = staticLayers.putIfAbsent(key, compiled);
+            if (existing != null) {
+                compiled = existing;
+            }
+        }
+        return compiled.copyTo(document);
+    }
+
+    private CompiledLayer compileStaticLayer(Rectangle rect, int rotation, Rectangle signatureRect,
+            boolean hasGraphic) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        int objectNumber;
+        try (PdfDocument scratch = new PdfDocument(new PdfWriter(baos))) {
+            PdfPage page = scratch.addNewPage(new PageSize(rect));
+            PdfFormXObject layer = new PdfFormXObject(rect);
+            layer.makeIndirect(scratch);
+            PdfCanvas canvas = new PdfCanvas(layer, scratch);
+            PdfSignatureAppearance.applyRotation(canvas, rotation, rect);
+            PdfSignatureAppearance.drawImage(canvas, image, imageScale,
+                    PdfSignatureAppearance.rotateRectangle(rect, rotation));
+            if (hasGraphic) {
+                PdfSignatureAppearance.drawSignatureGraphic(canvas, signatureGraphic, renderingMode, signatureRect);
+            }
+            // the page keeps the layer referenced, it is never shown
+            new PdfCanvas(page).addXObjectAt(layer, 0, 0);
+            objectNumber = layer.getPdfObject().getIndirectReference().getObjNumber();
+        }
+        return new CompiledLayer(new PdfDocument(new PdfReader(new ByteArrayInputStream(baos.toByteArray()))),
+                objectNumber);
+    }
+
+    private PdfFont createFont() throws IOException {
+        FontProgram program = fontProgram;
+        if (program == null) {
+            program = FontProgramFactory.createFont(StandardFonts.HELVETICA);
+            fontProgram = program;
+        }
+        return fontEncoding == null
+                ? PdfFontFactory.createFont(program)
+                : PdfFontFactory.createFont(program, fontEncoding);
+    }
+
+    private void addText(PdfCanvas canvas, String text, PdfFont font, Rectangle rect) {
+        Paragraph paragraph = PdfSignatureAppearance.createTextParagraph(text, font, fontColor);
+        Canvas layoutCanvas = new Canvas(canvas, rect);
+        if (fontSize == 0) {
+            PdfSignatureAppearance.applyCopyFittingFontSize(paragraph, rect, layoutCanvas.getRenderer());
+        } else {
+            paragraph.setFontSize(fontSize);
+        }
+        layoutCanvas.add(paragraph);
+    }
+
+    private void clearCaches() {
+        staticLayers.clear();
+    }
+
+    private static final class CompiledLayer {
+        // the compiled layer is parsed once, the documents copy it one at a time as reading it isn't thread-safe
+        private final PdfStream layer;
+
+        CompiledLayer(PdfDocument source, int objectNumber) {
+            this.layer = (PdfStream) source.getPdfObject(objectNumber);
+        }
+
+        synchronized PdfFormXObject copyTo(PdfDocument document) {
+            return new PdfFormXObject((PdfStream) layer.copyTo(document));
+        }
+    }
+}
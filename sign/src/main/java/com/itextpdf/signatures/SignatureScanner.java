@@ -0,0 +1,571 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.signatures;
+
+import com.itextpdf.forms.PdfAcroForm;
+import com.itextpdf.forms.fields.PdfFormField;
+import com.itextpdf.io.source.IRandomAccessSource;
+import com.itextpdf.io.source.RASInputStream;
+import com.itextpdf.io.source.RandomAccessSourceFactory;
+import com.itextpdf.io.source.WindowRandomAccessSource;
+import com.itextpdf.kernel.exceptions.PdfException;
+import com.itextpdf.kernel.pdf.PdfArray;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfIndirectReference;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfObject;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfString;
+import com.itextpdf.kernel.pdf.ReaderProperties;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads the signatures of a PDF file without building its interactive form.
+ * <p>
+ * {@link SignatureUtil} works on the {@link PdfAcroForm} of a document, which wraps every form field and widget
+ * before the first signature is looked at. The scanner instead follows the cross-reference table of its
+ * {@link PdfReader} from the catalog to the /AcroForm dictionary, the form fields and their /V values, so only
+ * the objects on this path are read. The readers created by the scanner use the lazy object stream mode of
+ * {@link PdfReader#setLazyObjectStreamMode(boolean)}, so an object stream is decoded only when one of these
+ * objects is stored in it.
+ * <p>
+ * The results are the same as the ones of {@link SignatureUtil}. Damaged files are read with the recovery logic
+ * of {@link PdfReader}, which logs that the cross-reference table is rebuilt.
+ */
+public class SignatureScanner implements Closeable {
+
+    private final PdfDocument document;
+
+    private Map<String, SignatureEntry> signatures;
+    private List<String> orderedSignatureNames;
+    private int totalRevisions;
+
+    /**
+     * Creates a scanner for the file with the given name.
+     *
+     * @param filename the path to the PDF file
+     *
+     * @throws IOException if the file cannot be opened
+     */
+    public SignatureScanner(String filename) throws IOException {
+        this(new PdfReader(filename).setLazyObjectStreamMode(true));
+    }
+
+    /**
+     * Creates a scanner for a PDF file held in memory.
+     *
+     * @param bytes the bytes of the PDF file
+     *
+     * @throws IOException if the file cannot be read
+     */
+    public SignatureScanner(byte[] bytes) throws IOException {
+        this(new RandomAccessSourceFactory().createSource(bytes));
+    }
+
+    /**
+     * Creates a scanner for a PDF file available through the given source.
+     * The source is closed when the scanner is closed.
+     *
+     * @param source the source of the PDF file
+     *
+     * @throws IOException if the file cannot be read
+     */
+    public SignatureScanner(IRandomAccessSource source) throws IOException {
+        this(new PdfReader(source, new ReaderProperties()).setLazyObjectStreamMode(true));
+    }
+
+    /**
+     * Creates a scanner reading the file through the given reader, e.g. a reader with an executor
+     * set by {@link PdfReader#setXrefRebuildingExecutor(java.util.concurrent.Executor)}.
+     * The reader is closed when the scanner is closed.
+     *
+     * @param reader the reader of the PDF file, not used by any document yet
+     */
+    public SignatureScanner(PdfReader reader) {
+        this.document = new PdfDocument(reader);
+    }
+
+    /**
+     * Gets the field names that have signatures and are signed, ordered by the length of the signed revision.
+     *
+     * @return List containing the field names that have signatures and are signed
+     */
+    public List<String> getSignatureNames() {
+        scan();
+        return new ArrayList<>(orderedSignatureNames);
+    }
+
+    /**
+     * Gets the signature dictionary, the one keyed by /V.
+     *
+     * @param name the field name
+     *
+     * @return the signature dictionary keyed by /V or <CODE>null</CODE> if the field is not a signature
+     */
+    public PdfDictionary getSignatureDictionary(String name) {
+        scan();
+        SignatureEntry entry = signatures.get(name);
+        return entry == null ? null : entry.signature;
+    }
+
+    /**
+     * Gets the /ByteRange of the signature.
+     *
+     * @param name the field name
+     *
+     * @return the /ByteRange values or <CODE>null</CODE> if the field is not a signature
+     */
+    public long[] getByteRange(String name) {
+        scan();
+        SignatureEntry entry = signatures.get(name);
+        return entry == null ? null : entry.byteRange.clone();
+    }
+
+    /**
+     * Gets the number of revisions of the document, as far as they can be told from the signatures.
+     *
+     * @return the number of revisions
+     */
+    public int getTotalRevisions() {
+        scan();
+        return totalRevisions;
+    }
+
+    /**
+     * Gets the revision signed by the given signature.
+     *
+     * @param name the field name
+     *
+     * @return the revision number, starting at 1, or 0 if the field is not a signature
+     */
+    public int getRevision(String name) {
+        scan();
+        SignatureEntry entry = signatures.get(name);
+        return entry == null ? 0 : entry.revision;
+    }
+
+    /**
+     * Extracts a revision from the document.
+     *
+     * @param name the signature field name
+     *
+     * @return an InputStream covering the revision. Returns null if it's not a signature field
+     */
+    public InputStream extractRevision(String name) {
+        scan();
+        SignatureEntry entry = signatures.get(name);
+        if (entry == null) {
+            return null;
+        }
+        return new RASInputStream(new WindowRandomAccessSource(createSourceView(), 0, entry.signedLength));
+    }
+
+    /**
+     * Checks if the signature covers the entire document (except for signature's Contents) or just a part of it.
+     * The check is the same as the one of {@link SignatureUtil#signatureCoversWholeDocument(String)}.
+     *
+     * @param name the signature field name
+     *
+     * @return true if the signature covers the entire document, false if it doesn't
+     */
+    public boolean signatureCoversWholeDocument(String name) {
+        scan();
+        SignatureEntry entry = signatures.get(name);
+        if (entry == null) {
+            return false;
+        }
+        try {
+            SignatureUtil.ContentsChecker signatureReader = new SignatureUtil.ContentsChecker(createSourceView());
+            return signatureReader.checkWhetherSignatureCoversWholeDocument(
+                    PdfFormField.makeFormField(entry.field, document));
+        } catch (IOException e) {
+            throw new PdfException(e);
+        }
+    }
+
+    /**
+     * Prepares a {@link PdfPKCS7} instance for the given signature without reading the signed data.
+     * <p>
+     * The returned instance gives access to the signing certificate, the certificate chain, the time stamp and
+     * the other data of the signature container. As the signed bytes are not digested, it cannot be used to check
+     * the integrity of the document, use {@link #readSignatureData(String)} for that. The signature container is
+     * decoded in the lazy mode of {@link PdfPKCS7#PdfPKCS7(byte[], PdfName, String, boolean)}.
+     *
+     * @param name the signature field name
+     *
+     * @return a {@link PdfPKCS7} instance or <CODE>null</CODE> if the field is not a signature
+     */
+    public PdfPKCS7 readSignatureMetadata(String name) {
+        return readSignatureMetadata(name, null);
+    }
+
+    /**
+     * Prepares a {@link PdfPKCS7} instance for the given signature without reading the signed data.
+     *
+     * @param name the signature field name
+     * @param securityProvider the security provider or null for the default provider
+     *
+     * @return a {@link PdfPKCS7} instance or <CODE>null</CODE> if the field is not a signature
+     *
+     * @see #readSignatureMetadata(String)
+     */
+    public PdfPKCS7 readSignatureMetadata(String name, String securityProvider) {
+        PdfDictionary signature = getSignatureDictionary(name);
+        if (signature == null) {
+            return null;
+        }
+        return SignatureUtil.createPkcs7(new PdfSignature(signature), securityProvider, true);
+    }
+
+    /**
+     * Prepares a {@link PdfPKCS7} instance for the given signature and digests the bytes covered by
+     * its /ByteRange, as {@link SignatureUtil#readSignatureData(String)} does.
+     *
+     * @param name the signature field name
+     *
+     * @return a {@link PdfPKCS7} instance or <CODE>null</CODE> if the field is not a signature
+     */
+    public PdfPKCS7 readSignatureData(String name) {
+        return readSignatureData(name, null);
+    }
+
+    /**
+     * Prepares a {@link PdfPKCS7} instance for the given signature and digests the bytes covered by
+     * its /ByteRange, as {@link SignatureUtil#readSignatureData(String, String)} does.
+     *
+     * @param name the signature field name
+     * @param securityProvider the security provider or null for the default provider
+     *
+     * @return a {@link PdfPKCS7} instance or <CODE>null</CODE> if the field is not a signature
+     */
+    public PdfPKCS7 readSignatureData(String name, String securityProvider) {
+        PdfPKCS7 pkcs7 = readSignatureMetadata(name, securityProvider);
+        if (pkcs7 == null) {
+            return null;
+        }
+        SignatureUtil.updateByteRange(pkcs7, getByteRange(name), createSourceView());
+        return pkcs7;
+    }
+
+    /**
+     * Checks the integrity of all the signatures of the file, in the order of {@link #getSignatureNames()}.
+     * <p>
+     * This is the check of high-volume intake: for every signature the bytes covered by its /ByteRange are
+     * hashed and compared with the signature container, and the /ByteRange is compared with the position of
+     * /Contents and with the end of the file. Signatures whose /ByteRange is a prefix followed by a tail share
+     * the hashing of their common prefix, so the file is read once per digest algorithm.
+     * <p>
+     * The certificates are not validated, see {@link LtvVerifier} for that.
+     *
+     * @return the integrity of every signature
+     */
+    public List<IntegrityResult> verifyIntegrity() {
+        return verifyIntegrity(null);
+    }
+
+    /**
+     * Checks the integrity of all the signatures of the file. See {@link #verifyIntegrity()}.
+     *
+     * @param securityProvider the security provider or null for the default provider
+     *
+     * @return the integrity of every signature
+     */
+    public List<IntegrityResult> verifyIntegrity(String securityProvider) {
+        List<String> names = getSignatureNames();
+        int count = names.size();
+        PdfPKCS7[] signatureData = new PdfPKCS7[count];
+        Exception[] errors = new Exception[count];
+        SharedPrefixDigester[] assignedDigesters = new SharedPrefixDigester[count];
+        Map<String, SharedPrefixDigester> digesters = new LinkedHashMap<>();
+        for (int i = 0; i < count; ++i) {
+            try {
+                PdfPKCS7 pkcs7 = readSignatureMetadata(names.get(i), securityProvider);
+                long[] byteRange = signatures.get(names.get(i)).byteRange;
+                MessageDigest digest = pkcs7.getUpdatableDigest();
+                if (digest != null && SharedPrefixDigester.isSupported(byteRange)
+                        && SharedPrefixDigester.isCloneable(digest)) {
+                    String key = digest.getAlgorithm() + "/" + digest.getProvider().getName();
+                    SharedPrefixDigester digester = digesters.get(key);
+                    if (digester == null) {
+                        digester = new SharedPrefixDigester(digest);
+                        digesters.put(key, digester);
+                    }
+                    digester.add(pkcs7, byteRange);
+                    assignedDigesters[i] = digester;
+                } else {
+                    SignatureUtil.updateByteRange(pkcs7, byteRange, createSourceView());
+                }
+                signatureData[i] = pkcs7;
+            } catch (RuntimeException e) {
+                errors[i] = e;
+            }
+        }
+        Map<SharedPrefixDigester, Exception> digesterErrors = new HashMap<>();
+        for (SharedPrefixDigester digester : digesters.values()) {
+            try {
+                digester.digest(createSourceView());
+            } catch (IOException | CloneNotSupportedException e) {
+                digesterErrors.put(digester, e);
+            }
+        }
+
+        long fileLength = document.getReader().getFileLength();
+        List<IntegrityResult> results = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            String name = names.get(i);
+            Exception error = errors[i] != null ? errors[i] : digesterErrors.get(assignedDigesters[i]);
+            boolean integrityValid = false;
+            if (error == null) {
+                try {
+                    integrityValid = signatureData[i].verifySignatureIntegrityAndAuthenticity();
+                } catch (GeneralSecurityException | RuntimeException e) {
+                    error = e;
+                }
+            }
+            long[] byteRange = getByteRange(name);
+            boolean endsAtEndOfFile = byteRange[byteRange.length - 2] + byteRange[byteRange.length - 1] == fileLength;
+            results.add(new IntegrityResult(name, byteRange, integrityValid, endsAtEndOfFile,
+                    signatureCoversWholeDocument(name), error));
+        }
+        return results;
+    }
+
+    /**
+     * Closes the scanner and the underlying reader.
+     *
+     * @throws IOException if the reader cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        document.close();
+    }
+
+    private IRandomAccessSource createSourceView() {
+        return document.getReader().getSafeFile().createSourceView();
+    }
+
+    private void scan() {
+        if (signatures != null) {
+            return;
+        }
+        Map<String, SignatureEntry> found = new LinkedHashMap<>();
+        PdfDictionary acroForm = document.getCatalog().getPdfObject().getAsDictionary(PdfName.AcroForm);
+        if (acroForm != null) {
+            PdfArray fields = acroForm.getAsArray(PdfName.Fields);
+            if (fields != null) {
+                collectSignatures(fields, null, found, new HashSet<PdfIndirectReference>());
+            }
+        }
+        orderSignatures(found);
+        signatures = found;
+    }
+
+    /* Mirrors the naming rules of PdfAcroForm#getFormFields and the filter of SignatureUtil */
+    private void collectSignatures(PdfArray kids, String parentName, Map<String, SignatureEntry> found,
+            Set<PdfIndirectReference> visited) {
+        int index = 1;
+        for (int i = 0; i < kids.size(); ++i) {
+            PdfObject kid = kids.get(i, false);
+            if (kid instanceof PdfIndirectReference && !visited.add((PdfIndirectReference) kid)) {
+                continue;
+            }
+            PdfDictionary field = kids.getAsDictionary(i);
+            if (field == null) {
+                continue;
+            }
+            PdfString partialName = field.getAsString(PdfName.T);
+            String name;
+            if (partialName != null) {
+                name = parentName == null ? partialName.toUnicodeString()
+                        : parentName + "." + partialName.toUnicodeString();
+            } else if (parentName != null) {
+                name = parentName + "." + index++;
+            } else {
+                // a nameless top-level field, PdfAcroForm cannot name it either
+                continue;
+            }
+            SignatureEntry entry = createEntry(field);
+            if (entry != null) {
+                found.put(name, entry);
+            } else {
+                found.remove(name);
+            }
+            PdfArray grandKids = field.getAsArray(PdfName.Kids);
+            if (grandKids != null) {
+                collectSignatures(grandKids, partialName != null ? name : parentName, found, visited);
+            }
+        }
+    }
+
+    private static SignatureEntry createEntry(PdfDictionary field) {
+        if (!PdfName.Sig.equals(field.get(PdfName.FT))) {
+            return null;
+        }
+        PdfDictionary signature = field.getAsDictionary(PdfName.V);
+        if (signature == null) {
+            return null;
+        }
+        PdfString contents = signature.getAsString(PdfName.Contents);
+        if (contents == null) {
+            return null;
+        }
+        contents.markAsUnencryptedObject();
+        PdfArray range = signature.getAsArray(PdfName.ByteRange);
+        if (range == null || range.size() < 2) {
+            return null;
+        }
+        long[] byteRange = range.toLongArray();
+        long signedLength = byteRange[byteRange.length - 1] + byteRange[byteRange.length - 2];
+        return new SignatureEntry(field, signature, byteRange, signedLength);
+    }
+
+    private void orderSignatures(Map<String, SignatureEntry> found) {
+        orderedSignatureNames = new ArrayList<>(found.keySet());
+        final Map<String, SignatureEntry> entries = found;
+        Collections.sort(orderedSignatureNames, new Comparator<String>() {
+            @Override
+            public int compare(String o1, String o2) {
+                return Long.compare(entries.get(o1).signedLength, entries.get(o2).signedLength);
+            }
+        });
+        if (orderedSignatureNames.isEmpty()) {
+            totalRevisions = 0;
+        } else if (found.get(orderedSignatureNames.get(orderedSignatureNames.size() - 1)).signedLength
+                == document.getReader().getFileLength()) {
+            totalRevisions = orderedSignatureNames.size();
+        } else {
+            totalRevisions = orderedSignatureNames.size() + 1;
+        }
+        for (int k = 0; k < orderedSignatureNames.size(); ++k) {
+            found.get(orderedSignatureNames.get(k)).revision = k + 1;
+        }
+    }
+
+    /**
+     * The integrity of a signature as reported by {@link SignatureScanner#verifyIntegrity()}.
+     */
+    public static class IntegrityResult {
+        private final String name;
+        private final long[] byteRange;
+        private final boolean integrityValid;
+        private final boolean endsAtEndOfFile;
+        private final boolean coversWholeDocument;
+        private final Exception error;
+
+        IntegrityResult(String name, long[] byteRange, boolean integrityValid, boolean endsAtEndOfFile,
+                boolean coversWholeDocument, Exception error) {
+            this.name = name;
+            this.byteRange = byteRange;
+            this.integrityValid = integrityValid;
+            this.endsAtEndOfFile = endsAtEndOfFile;
+            this.coversWholeDocument = coversWholeDocument;
+            this.error = error;
+        }
+
+        /**
+         * Gets the signature field name.
+         *
+         * @return the field name
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Gets the /ByteRange of the signature.
+         *
+         * @return the /ByteRange values
+         */
+        public long[] getByteRange() {
+            return byteRange.clone();
+        }
+
+        /**
+         * Checks if the hash of the bytes covered by the /ByteRange matches the signature container and
+         * the signature value is correct, see {@link PdfPKCS7#verifySignatureIntegrityAndAuthenticity()}.
+         *
+         * @return true if the signed bytes are intact, false otherwise
+         */
+        public boolean isIntegrityValid() {
+            return integrityValid;
+        }
+
+        /**
+         * Checks if the /ByteRange ends at the end of the file, i.e. the signature signs the last revision.
+         *
+         * @return true if the signed revision ends at the end of the file, false otherwise
+         */
+        public boolean isEndingAtEndOfFile() {
+            return endsAtEndOfFile;
+        }
+
+        /**
+         * Checks if the signature covers the entire file except for its /Contents,
+         * see {@link SignatureScanner#signatureCoversWholeDocument(String)}.
+         *
+         * @return true if the signature covers the whole document, false otherwise
+         */
+        public boolean coversWholeDocument() {
+            return coversWholeDocument;
+        }
+
+        /**
+         * Gets the reason why the integrity could not be checked, e.g. an undecodable signature container.
+         *
+         * @return the error, or null if the check was performed
+         */
+        public Exception getError() {
+            return error;
+        }
+    }
+
+    private static final class SignatureEntry {
+        final PdfDictionary field;
+        final PdfDictionary signature;
+        final long[] byteRange;
+        final long signedLength;
+        int revision;
+
+        SignatureEntry(PdfDictionary field, PdfDictionary signature, long[] byteRange, long signedLength) {
+            this.field = field;
+            this.signature = signature;
+            this.byteRange = byteRange;
+            this.signedLength = signedLength;
+        }
+    }
+}
@@ -0,0 +1,266 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.signatures;
+
+import com.itextpdf.signatures.PdfSigner.CryptoStandard;
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.cert.Certificate;
+import java.security.interfaces.DSAPublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import org.bouncycastle.asn1.esf.SignaturePolicyIdentifier;
+
+/**
+ * Estimates the size of the signature container to be reserved in the /Contents of a signature dictionary.
+ * <p>
+ * The estimation is a dry run of the {@link PdfPKCS7} encoding: a container is built with the real certificate
+ * chain and revocation information, a placeholder signature value of the length the signing key produces
+ * and a placeholder hash. The length of its DER encoding, the timestamp token size announced by
+ * {@link ITSAClient#getTokenSizeEstimate()} and a small margin give the size to be reserved.
+ * <p>
+ * The results are cached per chain and signing configuration, so consecutive signatures with the same
+ * setup do not repeat the dry run.
+ */
+public class SignatureSizeEstimator {
+
+    /**
+     * The default number of bytes reserved in addition to the estimated container size.
+     */
+    public static final int DEFAULT_MARGIN = 64;
+
+    /**
+     * The maximal number of cached estimations.
+     */
+    static final int MAX_CACHE_SIZE = 256;
+
+    /**
+     * Signature length assumed when it cannot be derived from the public key. Covers RSA keys up to 8192 bits.
+     */
+    private static final int MAX_SIGNATURE_LENGTH = 1024;
+
+    /**
+     * Upper bound of the DER overhead of wrapping a timestamp token into the unsigned attributes.
+     */
+    private static final int TIMESTAMP_ATTRIBUTE_OVERHEAD = 32;
+
+    private static final SignatureSizeEstimator DEFAULT_INSTANCE = new SignatureSizeEstimator();
+
+    private final int margin;
+
+    private final Map<EstimationKey, Integer> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Creates an estimator with the {@link #DEFAULT_MARGIN}.
+     */
+    public SignatureSizeEstimator() {
+        this(DEFAULT_MARGIN);
+    }
+
+    /**
+     * Creates an estimator.
+     *
+     * @param margin the number of bytes reserved in addition to the estimated container size
+     */
+    public SignatureSizeEstimator(int margin) {
+        if (margin < 0) {
+            throw new IllegalArgumentException("The margin must not be negative");
+        }
+        this.margin = margin;
+    }
+
+    /**
+     * Gets the estimator shared by all {@link PdfSigner} instances by default.
+     *
+     * @return the shared estimator
+     */
+    public static SignatureSizeEstimator getDefaultInstance() {
+        return DEFAULT_INSTANCE;
+    }
+
+    /**
+     * Estimates the size of the signature container to be reserved.
+     *
+     * @param chain               the certificate chain
+     * @param hashAlgorithm       the hash algorithm of the signature
+     * @param encryptionAlgorithm the encryption algorithm of the signature, as returned by
+     *                            {@link IExternalSignature#getEncryptionAlgorithm()}
+     * @param externalDigest      an implementation that provides the digest
+     * @param sigtype             either the signature is CMS or CAdES
+     * @param signaturePolicy     the signature policy, may be null
+     * @param crlBytes            the CRL bytes to be embedded, may be null
+     * @param ocspBytes           the OCSP responses to be embedded, may be null
+     * @param tsaClient           the Timestamp client, may be null
+     * @return the number of bytes to reserve for the signature container
+     * @throws GeneralSecurityException if the dry run encoding cannot be built
+     */
+    public int estimate(Certificate[] chain, String hashAlgorithm, String encryptionAlgorithm,
+            IExternalDigest externalDigest, CryptoStandard sigtype, SignaturePolicyIdentifier signaturePolicy,
+            Collection<byte[]> crlBytes, Collection<byte[]> ocspBytes, ITSAClient tsaClient)
+            throws GeneralSecurityException {
+        int tokenSizeEstimate = tsaClient == null ? 0 : tsaClient.getTokenSizeEstimate();
+        EstimationKey key = new EstimationKey(chain, hashAlgorithm, encryptionAlgorithm, sigtype, signaturePolicy,
+                crlBytes, ocspBytes, tokenSizeEstimate);
+        Integer cached = cache.get(key);
+        if (cached != null) {
+            return (int) cached;
+        }
+
+        int containerSize = encodeDryRun(chain, hashAlgorithm, encryptionAlgorithm, externalDigest, sigtype,
+                signaturePolicy, crlBytes, ocspBytes).length;
+        int estimatedSize = containerSize + margin;
+        if (tsaClient != null) {
+            estimatedSize += tokenSizeEstimate + TIMESTAMP_ATTRIBUTE_OVERHEAD;
+        }
+
+        if (cache.size() >= MAX_CACHE_SIZE) {
+            cache.clear();
+        }
+        cache.put(key, estimatedSize);
+        return estimatedSize;
+    }
+
+    /**
+     * Drops all cached estimations.
+     */
+    public void clearCache() {
+        cache.clear();
+    }
+
+    /**
+     * Gets the length of the signature value produced by the key of the certificate, as placed in the
+     * signer info of the container.
+     *
+     * @param signingCertificate  the signing certificate
+     * @param encryptionAlgorithm the encryption algorithm of the signature
+     * @return the length of the signature value in bytes
+     */
+    static int getSignatureLength(Certificate signingCertificate, String encryptionAlgorithm) {
+        PublicKey publicKey = signingCertificate.getPublicKey();
+        if (publicKey instanceof RSAPublicKey) {
+            return (((RSAPublicKey) publicKey).getModulus().bitLength() + 7) / 8;
+        }
+        if (publicKey instanceof ECPublicKey) {
+            int fieldLength = (((ECPublicKey) publicKey).getParams().getCurve().getField().getFieldSize() + 7) / 8;
+            if (encryptionAlgorithm != null && encryptionAlgorithm.contains("GOST")) {
+                // GOST R 34.10 signatures are plain concatenations of r and s
+                return 2 * fieldLength;
+            }
+            return getDerIntegerPairLength(fieldLength);
+        }
+        if (publicKey instanceof DSAPublicKey) {
+            return getDerIntegerPairLength((((DSAPublicKey) publicKey).getParams().getQ().bitLength() + 7) / 8);
+        }
+        return MAX_SIGNATURE_LENGTH;
+    }
+
+    private static byte[] encodeDryRun(Certificate[] chain, String hashAlgorithm, String encryptionAlgorithm,
+            IExternalDigest externalDigest, CryptoStandard sigtype, SignaturePolicyIdentifier signaturePolicy,
+            Collection<byte[]> crlBytes, Collection<byte[]> ocspBytes) throws GeneralSecurityException {
+        PdfPKCS7 sgn = new PdfPKCS7((PrivateKey) null, chain, hashAlgorithm, null, externalDigest, false);
+        if (signaturePolicy != null) {
+            sgn.setSignaturePolicy(signaturePolicy);
+        }
+        MessageDigest messageDigest = SignUtils.getMessageDigest(hashAlgorithm, externalDigest);
+        byte[] hash = messageDigest.digest();
+        sgn.setExternalDigest(new byte[getSignatureLength(chain[0], encryptionAlgorithm)], null,
+                encryptionAlgorithm);
+        return sgn.getEncodedPKCS7(hash, sigtype, null, ocspBytes, crlBytes);
+    }
+
+    private static int getDerIntegerPairLength(int integerLength) {
+        // SEQUENCE { INTEGER r, INTEGER s } with the leading zero bytes the integers may need
+        return 2 * (integerLength + 3) + 4;
+    }
+
+    private static List<Integer> getLengths(Collection<byte[]> blobs) {
+        if (blobs == null) {
+            return Collections.<Integer>emptyList();
+        }
+        List<Integer> lengths = new ArrayList<>(blobs.size());
+        for (byte[] blob : blobs) {
+            lengths.add(blob == null ? -1 : blob.length);
+        }
+        return lengths;
+    }
+
+    private static final class EstimationKey {
+        private final List<Certificate> chain;
+        private final String hashAlgorithm;
+        private final String encryptionAlgorithm;
+        private final CryptoStandard sigtype;
+        private final SignaturePolicyIdentifier signaturePolicy;
+        private final List<Integer> crlLengths;
+        private final List<Integer> ocspLengths;
+        private final int tokenSizeEstimate;
+
+        EstimationKey(Certificate[] chain, String hashAlgorithm, String encryptionAlgorithm, CryptoStandard sigtype,
+                SignaturePolicyIdentifier signaturePolicy, Collection<byte[]> crlBytes,
+                Collection<byte[]> ocspBytes, int tokenSizeEstimate) {
+            this.chain = Arrays.asList(chain.clone());
+            this.hashAlgorithm = hashAlgorithm;
+            this.encryptionAlgorithm = encryptionAlgorithm;
+            this.sigtype = sigtype;
+            this.signaturePolicy = signaturePolicy;
+            this.crlLengths = getLengths(crlBytes);
+            this.ocspLengths = getLengths(ocspBytes);
+            this.tokenSizeEstimate = tokenSizeEstimate;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            EstimationKey that = (EstimationKey) o;
+            return tokenSizeEstimate == that.tokenSizeEstimate
+                    && chain.equals(that.chain)
+                    && Objects.equals(hashAlgorithm, that.hashAlgorithm)
+                    && Objects.equals(encryptionAlgorithm, that.encryptionAlgorithm)
+                    && sigtype == that.sigtype
+                    && Objects.equals(signaturePolicy, that.signaturePolicy)
+                    && crlLengths.equals(that.crlLengths)
+                    && ocspLengths.equals(that.ocspLengths);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(chain, hashAlgorithm, encryptionAlgorithm, sigtype, signaturePolicy, crlLengths,
+                    ocspLengths, tokenSizeEstimate);
+        }
+    }
+}
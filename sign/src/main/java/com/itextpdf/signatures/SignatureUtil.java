@@ -47,6 +47,7 @@ import com.itextpdf.forms.PdfAcroForm;
 import com.itextpdf.forms.fields.PdfFormField;
 import com.itextpdf.io.font.PdfEncodings;
 import com.itextpdf.io.source.IRandomAccessSource;
+import com.itextpdf.io.source.IndependentRandomAccessSource;
 import com.itextpdf.io.source.PdfTokenizer;
 import com.itextpdf.io.source.RASInputStream;
 import com.itextpdf.io.source.RandomAccessFileOrArray;
@@ -66,18 +67,27 @@ import com.itextpdf.signatures.exceptions.SignExceptionMessageConstant;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
 
 /**
  * Utility class that provides several convenience methods concerning digital signatures.
  */
 public class SignatureUtil {
 
+    // large reads keep the per-call overhead of the ranged source and the digest low for big documents
+    private static final int HASH_BUFFER_SIZE = 65536;
+
     private PdfDocument document;
     private PdfAcroForm acroForm;
     private Map<String, int[]> sigNames;
@@ -140,6 +150,16 @@ public class SignatureUtil {
         if (signature == null) {
             return null;
         }
+        PdfPKCS7 pk = createPkcs7(signature, securityProvider);
+        updateByteRange(pk, signature);
+        return pk;
+    }
+
+    static PdfPKCS7 createPkcs7(PdfSignature signature, String securityProvider) {
+        return createPkcs7(signature, securityProvider, false);
+    }
+
+    static PdfPKCS7 createPkcs7(PdfSignature signature, String securityProvider, boolean lazy) {
         try {
             PdfName sub = signature.getSubFilter();
             PdfString contents = signature.getContents();
@@ -152,9 +172,9 @@ public class SignatureUtil {
                 pk = new PdfPKCS7(PdfEncodings.convertToBytes(contents.getValue(), null), cert.getValueBytes(),
                         securityProvider);
             } else {
-                pk = new PdfPKCS7(PdfEncodings.convertToBytes(contents.getValue(), null), sub, securityProvider);
+                pk = new PdfPKCS7(PdfEncodings.convertToBytes(contents.getValue(), null), sub, securityProvider,
+                        lazy);
             }
-            updateByteRange(pk, signature);
             PdfString date = signature.getDate();
             if (date != null) {
                 pk.setSignDate(PdfDate.decode(date.toString()));
@@ -203,11 +223,14 @@ public class SignatureUtil {
     private void updateByteRange(PdfPKCS7 pkcs7, PdfSignature signature) {
         PdfArray b = signature.getByteRange();
         RandomAccessFileOrArray rf = document.getReader().getSafeFile();
+        updateByteRange(pkcs7, b.toLongArray(), rf.createSourceView());
+    }
+
+    static void updateByteRange(PdfPKCS7 pkcs7, long[] byteRange, IRandomAccessSource source) {
         InputStream rg = null;
         try {
-            rg = new RASInputStream(
-                    new RandomAccessSourceFactory().createRanged(rf.createSourceView(), b.toLongArray()));
-            byte[] buf = new byte[8192];
+            rg = new RASInputStream(new RandomAccessSourceFactory().createRanged(source, byteRange));
+            byte[] buf = new byte[HASH_BUFFER_SIZE];
             int rd;
             while ((rd = rg.read(buf, 0, buf.length)) > 0) {
                 pkcs7.update(buf, 0, rd);
@@ -224,6 +247,139 @@ public class SignatureUtil {
         }
     }
 
+    /**
+     * Verifies the integrity and authenticity of all signatures of the document in parallel.
+     * <p>
+     * The signed data of successive revisions share the document prefix, so the signatures using the same digest
+     * algorithm are hashed together in one pass over the document: the digest state is forked at the start of each
+     * signature's /Contents and each fork only hashes the tail of its own revision. The hashing of different
+     * digest algorithms and the verification of each signature run as separate tasks of the executor.
+     * <p>
+     * Each hashing task reads the document from a source of its own, see {@link PdfReader#createIndependentSource()}.
+     * If the reader cannot create such a source, e.g. it was created from a custom source, the document is hashed
+     * on the calling thread and only the verification runs on the executor.
+     * <p>
+     * As for {@link #readSignatureData(String)}, this method doesn't check that the signatures cover the whole
+     * document revision, please use {@link #signatureCoversWholeDocument(String)} method for that.
+     *
+     * @param executorService the executor to run the hashing and verification tasks
+     * @return the results of {@link PdfPKCS7#verifySignatureIntegrityAndAuthenticity()} keyed by the signature
+     * names, in the order of {@link #getSignatureNames()}
+     */
+    public Map<String, Boolean> verifyAllSignatures(ExecutorService executorService) {
+        return verifyAllSignatures(executorService, null);
+    }
+
+    /**
+     * Verifies the integrity and authenticity of all signatures of the document in parallel.
+     * See {@link #verifyAllSignatures(ExecutorService)}.
+     *
+     * @param executorService  the executor to run the hashing and verification tasks
+     * @param securityProvider the security provider or null for the default provider
+     * @return the results of {@link PdfPKCS7#verifySignatureIntegrityAndAuthenticity()} keyed by the signature
+     * names, in the order of {@link #getSignatureNames()}
+     */
+    public Map<String, Boolean> verifyAllSignatures(ExecutorService executorService, String securityProvider) {
+        Map<String, SharedPrefixDigester> algorithmDigesters = new HashMap<>();
+        Map<String, SharedPrefixDigester> signatureDigesters = new HashMap<>();
+        Map<String, PdfPKCS7> signatures = new LinkedHashMap<>();
+        Map<String, CompletableFuture<Void>> hashingTasks = new HashMap<>();
+        for (String name : getSignatureNames()) {
+            PdfSignature signature = getSignature(name);
+            // only the verification result leaves this method, the rest of the container is never looked at
+            PdfPKCS7 pk = createPkcs7(signature, securityProvider, true);
+            signatures.put(name, pk);
+            long[] byteRange = signature.getByteRange().toLongArray();
+            MessageDigest digest = pk.getUpdatableDigest();
+            if (digest != null && SharedPrefixDigester.isSupported(byteRange)
+                    && SharedPrefixDigester.isCloneable(digest)) {
+                String key = digest.getAlgorithm() + "/" + digest.getProvider().getName();
+                SharedPrefixDigester digester = algorithmDigesters.get(key);
+                if (digester == null) {
+                    digester = new SharedPrefixDigester(digest);
+                    algorithmDigesters.put(key, digester);
+                }
+                digester.add(pk, byteRange);
+                signatureDigesters.put(name, digester);
+            } else {
+                // the source is closed by the hashing task itself
+                hashingTasks.put(name, hash(source -> updateByteRange(pk, byteRange,
+                        new IndependentRandomAccessSource(source)), executorService));
+            }
+        }
+        Map<SharedPrefixDigester, CompletableFuture<Void>> digesterTasks = new HashMap<>();
+        for (SharedPrefixDigester digester : algorithmDigesters.values()) {
+            digesterTasks.put(digester, hash(source -> digester.digest(source), executorService));
+        }
+
+        Map<String, CompletableFuture<Boolean>> verificationTasks = new LinkedHashMap<>();
+        for (Map.Entry<String, PdfPKCS7> signature : signatures.entrySet()) {
+            PdfPKCS7 pk = signature.getValue();
+            CompletableFuture<Void> hashing = signatureDigesters.containsKey(signature.getKey())
+                    ? digesterTasks.get(signatureDigesters.get(signature.getKey()))
+                    : hashingTasks.get(signature.getKey());
+            verificationTasks.put(signature.getKey(), hashing.thenApplyAsync(v -> {
+                try {
+                    return pk.verifySignatureIntegrityAndAuthenticity();
+                } catch (GeneralSecurityException e) {
+                    throw new PdfException(e);
+                }
+            }, executorService));
+        }
+
+        Map<String, Boolean> results = new LinkedHashMap<>();
+        for (Map.Entry<String, CompletableFuture<Boolean>> task : verificationTasks.entrySet()) {
+            try {
+                results.put(task.getKey(), task.getValue().join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof PdfException) {
+                    throw (PdfException) e.getCause();
+                }
+                throw new PdfException(e.getCause());
+            }
+        }
+        return results;
+    }
+
+    /*
+     * Runs the hashing task on the executor with a source of its own, as the source of the reader may not be read
+     * from several threads at once. If the reader cannot provide such a source, the document is hashed on this thread.
+     */
+    private CompletableFuture<Void> hash(HashingTask task, ExecutorService executorService) {
+        PdfReader reader = document.getReader();
+        IRandomAccessSource independentSource;
+        try {
+            independentSource = reader.createIndependentSource();
+        } catch (IOException e) {
+            throw new PdfException(e);
+        }
+        if (independentSource == null) {
+            CompletableFuture<Void> hashing = new CompletableFuture<>();
+            try {
+                task.hash(reader.getSafeFile().createSourceView());
+                hashing.complete(null);
+            } catch (IOException | CloneNotSupportedException e) {
+                hashing.completeExceptionally(new PdfException(e));
+            } catch (RuntimeException e) {
+                hashing.completeExceptionally(e);
+            }
+            return hashing;
+        }
+        return CompletableFuture.runAsync(() -> {
+            try {
+                task.hash(independentSource);
+            } catch (IOException | CloneNotSupportedException e) {
+                throw new PdfException(e);
+            } finally {
+                try {
+                    independentSource.close();
+                } catch (IOException e) {
+                    throw new PdfException(e);
+                }
+            }
+        }, executorService);
+    }
+
     /**
      * Gets the field names that have signatures and are signed.
      *
@@ -337,6 +493,40 @@ public class SignatureUtil {
         return getBlankSignatureNames().contains(name) || getSignatureNames().contains(name);
     }
 
+    /**
+     * Gets the length of the revision signed by a signature, i.e. the end of its byte range.
+     *
+     * @param name the signature field name
+     * @return the length of the signed revision, or -1 if there is no such signature
+     */
+    int getSignedRevisionLength(String name) {
+        getSignatureNames();
+        int[] p = sigNames.get(name);
+        return p == null ? -1 : p[0];
+    }
+
+    /**
+     * Checks if the signature covers the entire revision it signs (except for signature's Contents),
+     * as {@link #signatureCoversWholeDocument(String)} would check for the document extracted with
+     * {@link #extractRevision(String)}.
+     *
+     * @param name the signature field name
+     * @return true if the signature covers the entire signed revision, false if it doesn't
+     */
+    boolean signatureCoversRevision(String name) {
+        int length = getSignedRevisionLength(name);
+        if (length < 0) {
+            return false;
+        }
+        try {
+            ContentsChecker signatureReader = new ContentsChecker(new WindowRandomAccessSource(
+                    document.getReader().getSafeFile().createSourceView(), 0, length));
+            return signatureReader.checkWhetherSignatureCoversWholeDocument(acroForm.getField(name));
+        } catch (IOException e) {
+            throw new PdfException(e);
+        }
+    }
+
     private void populateSignatureNames() {
         if (acroForm == null) {
             return;
@@ -386,6 +576,10 @@ public class SignatureUtil {
         }
     }
 
+    private interface HashingTask {
+        void hash(IRandomAccessSource source) throws IOException, CloneNotSupportedException;
+    }
+
     private static class SorterComparator implements Comparator<Object[]> {
         @Override
         public int compare(Object[] o1, Object[] o2) {
@@ -395,7 +589,7 @@ public class SignatureUtil {
         }
     }
 
-    private static class ContentsChecker extends PdfReader {
+    static class ContentsChecker extends PdfReader {
 
         private long contentsStart;
         private long contentsEnd;
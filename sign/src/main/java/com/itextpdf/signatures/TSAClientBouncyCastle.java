@@ -47,6 +47,9 @@ import com.itextpdf.commons.utils.Base64;
 import com.itextpdf.commons.utils.SystemUtil;
 import com.itextpdf.kernel.exceptions.PdfException;
 import com.itextpdf.signatures.exceptions.SignExceptionMessageConstant;
+import com.itextpdf.signatures.statistics.SigningInstrumentation;
+import com.itextpdf.signatures.statistics.SigningStage;
+import com.itextpdf.signatures.statistics.SigningStageStatisticsEvent;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
@@ -116,6 +119,11 @@ public class TSAClientBouncyCastle implements ITSAClient {
      */
     private String tsaReqPolicy;
 
+    /**
+     * Whether the time stamp requests are reported as {@link SigningStageStatisticsEvent}s.
+     */
+    protected boolean stageStatisticsEnabled;
+
     /**
      * Creates an instance of a TSAClient that will use BouncyCastle.
      *
@@ -193,6 +201,16 @@ public class TSAClientBouncyCastle implements ITSAClient {
         this.tsaReqPolicy = tsaReqPolicy;
     }
 
+    /**
+     * Enables or disables the reporting of the time stamp requests as {@link SigningStageStatisticsEvent}s.
+     * The reporting is disabled by default.
+     *
+     * @param stageStatisticsEnabled true to send the {@link SigningStageStatisticsEvent}s
+     */
+    public void setStageStatisticsEnabled(boolean stageStatisticsEnabled) {
+        this.stageStatisticsEnabled = stageStatisticsEnabled;
+    }
+
     /**
      * Gets the MessageDigest to digest the data imprint
      *
@@ -275,6 +293,7 @@ public class TSAClientBouncyCastle implements ITSAClient {
      * @throws IOException if I/O issue occurs
      */
     protected byte[] getTSAResponse(byte[] requestBytes) throws IOException {
+        long start = SigningInstrumentation.start(stageStatisticsEnabled);
         // Setup the TSA connection
         SignUtils.TsaResponse response = SignUtils.getTsaResponseForUserRequest(tsaURL, requestBytes, tsaUsername, tsaPassword);
         // Get TSA response as a byte array
@@ -290,6 +309,7 @@ public class TSAClientBouncyCastle implements ITSAClient {
         if (response.encoding != null && response.encoding.toLowerCase().equals("base64".toLowerCase())) {
             respBytes = Base64.decode(new String(respBytes, "US-ASCII"));
         }
+        SigningInstrumentation.stageCompleted(SigningStage.TSA_REQUEST, start, respBytes.length, 0);
         return respBytes;
     }
 }
@@ -0,0 +1,349 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.signatures;
+
+import com.itextpdf.commons.utils.DateTimeUtil;
+
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.PublicKey;
+import java.security.SignatureException;
+import java.security.cert.CRL;
+import java.security.cert.CertificateException;
+import java.security.cert.X509CRL;
+import java.security.cert.X509CRLEntry;
+import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import javax.security.auth.x500.X500Principal;
+
+/**
+ * Cache of the public-key signature checks of certificates and CRLs, and of the revocation indexes of CRLs.
+ * <p>
+ * Verifying the same intermediate and root certificates for every document costs an asymmetric signature
+ * check each time, which is expensive for elliptic-curve (e.g. GOST) chains. The cache remembers both valid and
+ * invalid results for a (certificate or CRL, public key) pair. It also indexes the revoked certificates of a CRL
+ * by serial number, so a revocation lookup doesn't scan the whole CRL.
+ * <p>
+ * The entries are keyed by a SHA-256 digest of the encoding of the certificate or CRL, so the results are reused
+ * for equal certificates and CRLs parsed again for another document, and the cache never holds on to a CRL itself.
+ * The cache keeps at most {@link #getMaxSize()} entries of each kind, evicting the least recently used ones.
+ * An entry expires after {@link #getTimeToLive()}; entries derived from a CRL also expire at its nextUpdate.
+ * All the methods are thread-safe. Caching is opt-in: a verifier only uses a cache it is given with
+ * {@link CertificateVerifier#setVerificationCache(VerificationCache)}, and the same cache may be shared by
+ * the verifiers of many documents.
+ */
+public class VerificationCache {
+
+    /**
+     * The default maximum number of entries of each kind.
+     */
+    public static final int DEFAULT_MAX_SIZE = 4096;
+
+    /**
+     * The default time to live of an entry in milliseconds.
+     */
+    public static final long DEFAULT_TIME_TO_LIVE = TimeUnit.HOURS.toMillis(1);
+
+    private final int maxSize;
+    private final long timeToLive;
+    private final Map<EncodingDigest, SignatureCheck> signatureChecks;
+    private final Map<EncodingDigest, RevocationIndex> revocationIndexes;
+
+    /**
+     * Creates a cache with {@link #DEFAULT_MAX_SIZE} and {@link #DEFAULT_TIME_TO_LIVE}.
+     */
+    public VerificationCache() {
+        this(DEFAULT_MAX_SIZE, DEFAULT_TIME_TO_LIVE);
+    }
+
+    /**
+     * Creates a cache.
+     *
+     * @param maxSize    the maximum number of entries of each kind, 0 disables caching
+     * @param timeToLive the time to live of an entry in milliseconds
+     */
+    public VerificationCache(int maxSize, long timeToLive) {
+        this.maxSize = maxSize;
+        this.timeToLive = timeToLive;
+        this.signatureChecks = createLruMap(maxSize);
+        this.revocationIndexes = createLruMap(maxSize);
+    }
+
+    /**
+     * Gets the maximum number of entries of each kind.
+     *
+     * @return the maximum number of entries
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Gets the time to live of an entry.
+     *
+     * @return the time to live in milliseconds
+     */
+    public long getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * Verifies that a certificate was signed by the private key corresponding to the given public key,
+     * as {@link X509Certificate#verify(PublicKey)} does.
+     *
+     * @param certificate the certificate to verify
+     * @param key         the public key of the supposed issuer
+     * @throws GeneralSecurityException if the signature is not valid or can't be checked
+     */
+    public void verify(X509Certificate certificate, PublicKey key) throws GeneralSecurityException {
+        EncodingDigest cacheKey = new EncodingDigest(certificate.getEncoded(), key);
+        SignatureCheck check = getSignatureCheck(cacheKey);
+        if (check == null) {
+            try {
+                certificate.verify(key);
+                check = new SignatureCheck(null, getExpiration(null));
+            } catch (InvalidKeyException | SignatureException | CertificateException e) {
+                check = new SignatureCheck(String.valueOf(e.getMessage()), getExpiration(null));
+            }
+            putSignatureCheck(cacheKey, check);
+        }
+        check.throwIfInvalid();
+    }
+
+    /**
+     * Verifies that a CRL was signed by the private key corresponding to the given public key,
+     * as {@link X509CRL#verify(PublicKey)} does.
+     *
+     * @param crl the CRL to verify
+     * @param key the public key of the supposed issuer
+     * @throws GeneralSecurityException if the signature is not valid or can't be checked
+     */
+    public void verify(X509CRL crl, PublicKey key) throws GeneralSecurityException {
+        EncodingDigest cacheKey = new EncodingDigest(crl.getEncoded(), key);
+        SignatureCheck check = getSignatureCheck(cacheKey);
+        if (check == null) {
+            try {
+                crl.verify(key);
+                check = new SignatureCheck(null, getExpiration(crl));
+            } catch (InvalidKeyException | SignatureException | java.security.cert.CRLException e) {
+                check = new SignatureCheck(String.valueOf(e.getMessage()), getExpiration(crl));
+            }
+            putSignatureCheck(cacheKey, check);
+        }
+        check.throwIfInvalid();
+    }
+
+    /**
+     * Checks whether a certificate is revoked by a CRL, as {@link CRL#isRevoked(java.security.cert.Certificate)}
+     * does, using an index of the revoked certificates built once per CRL.
+     *
+     * @param crl         the CRL
+     * @param certificate the certificate to check
+     * @return true if the certificate is listed in the CRL
+     */
+    public boolean isRevoked(CRL crl, X509Certificate certificate) {
+        if (!(crl instanceof X509CRL)) {
+            return crl.isRevoked(certificate);
+        }
+        X509CRL x509Crl = (X509CRL) crl;
+        EncodingDigest cacheKey;
+        try {
+            cacheKey = new EncodingDigest(x509Crl.getEncoded(), null);
+        } catch (GeneralSecurityException e) {
+            return crl.isRevoked(certificate);
+        }
+        long now = DateTimeUtil.getCurrentTimeDate().getTime();
+        RevocationIndex index;
+        synchronized (revocationIndexes) {
+            index = revocationIndexes.get(cacheKey);
+        }
+        if (index == null || index.expiresAt <= now) {
+            index = new RevocationIndex(x509Crl, getExpiration(x509Crl));
+            synchronized (revocationIndexes) {
+                revocationIndexes.put(cacheKey, index);
+            }
+        }
+        return index.isRevoked(certificate);
+    }
+
+    /**
+     * Gets the number of the cached entries of all kinds, including the expired ones not evicted yet.
+     *
+     * @return the number of the cached entries
+     */
+    public int size() {
+        synchronized (signatureChecks) {
+            synchronized (revocationIndexes) {
+                return signatureChecks.size() + revocationIndexes.size();
+            }
+        }
+    }
+
+    /**
+     * Removes all the entries.
+     */
+    public void clear() {
+        synchronized (signatureChecks) {
+            signatureChecks.clear();
+        }
+        synchronized (revocationIndexes) {
+            revocationIndexes.clear();
+        }
+    }
+
+    static void verify(VerificationCache cache, X509Certificate certificate, PublicKey key)
+            throws GeneralSecurityException {
+        if (cache == null) {
+            certificate.verify(key);
+        } else {
+            cache.verify(certificate, key);
+        }
+    }
+
+    static void verify(VerificationCache cache, X509CRL crl, PublicKey key) throws GeneralSecurityException {
+        if (cache == null) {
+            crl.verify(key);
+        } else {
+            cache.verify(crl, key);
+        }
+    }
+
+    static boolean isRevoked(VerificationCache cache, CRL crl, X509Certificate certificate) {
+        return cache == null ? crl.isRevoked(certificate) : cache.isRevoked(crl, certificate);
+    }
+
+    private SignatureCheck getSignatureCheck(EncodingDigest cacheKey) {
+        SignatureCheck check;
+        synchronized (signatureChecks) {
+            check = signatureChecks.get(cacheKey);
+        }
+        return check == null || check.expiresAt <= DateTimeUtil.getCurrentTimeDate().getTime() ? null : check;
+    }
+
+    private void putSignatureCheck(EncodingDigest cacheKey, SignatureCheck check) {
+        synchronized (signatureChecks) {
+            signatureChecks.put(cacheKey, check);
+        }
+    }
+
+    private long getExpiration(X509CRL crl) {
+        long expiration = DateTimeUtil.getCurrentTimeDate().getTime() + timeToLive;
+        if (crl != null && crl.getNextUpdate() != null) {
+            expiration = Math.min(expiration, crl.getNextUpdate().getTime());
+        }
+        return expiration;
+    }
+
+    private static <K, V> Map<K, V> createLruMap(final int maxSize) {
+        return new LinkedHashMap<K, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    private static final class EncodingDigest {
+        // the SHA-256 digest of the encoding and of the public key, if any
+        private final byte[] digest;
+        private final int hash;
+
+        EncodingDigest(byte[] encoding, PublicKey key) throws GeneralSecurityException {
+            MessageDigest messageDigest = SignUtils.getMessageDigest(DigestAlgorithms.SHA256);
+            messageDigest.update(encoding);
+            if (key != null) {
+                messageDigest.update(key.getEncoded());
+            }
+            this.digest = messageDigest.digest();
+            this.hash = Arrays.hashCode(digest);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof EncodingDigest && Arrays.equals(digest, ((EncodingDigest) o).digest);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class SignatureCheck {
+        // null for a valid signature
+        private final String failure;
+        private final long expiresAt;
+
+        SignatureCheck(String failure, long expiresAt) {
+            this.failure = failure;
+            this.expiresAt = expiresAt;
+        }
+
+        void throwIfInvalid() throws SignatureException {
+            if (failure != null) {
+                throw new SignatureException(failure);
+            }
+        }
+    }
+
+    private static final class RevocationIndex {
+        private final Map<BigInteger, Set<X500Principal>> issuersBySerial;
+        private final long expiresAt;
+
+        RevocationIndex(X509CRL crl, long expiresAt) {
+            this.expiresAt = expiresAt;
+            Set<? extends X509CRLEntry> entries = crl.getRevokedCertificates();
+            if (entries == null) {
+                issuersBySerial = Collections.<BigInteger, Set<X500Principal>>emptyMap();
+                return;
+            }
+            issuersBySerial = new HashMap<>(entries.size() * 2);
+            for (X509CRLEntry entry : entries) {
+                // entries of an indirect CRL name the issuer of the revoked certificate
+                X500Principal issuer = entry.getCertificateIssuer() != null
+                        ? entry.getCertificateIssuer()
+                        : crl.getIssuerX500Principal();
+                Set<X500Principal> issuers = issuersBySerial.get(entry.getSerialNumber());
+                if (issuers == null) {
+                    issuers = new HashSet<>(2);
+                    issuersBySerial.put(entry.getSerialNumber(), issuers);
+                }
+                issuers.add(issuer);
+            }
+        }
+
+        boolean isRevoked(X509Certificate certificate) {
+            Set<X500Principal> issuers = issuersBySerial.get(certificate.getSerialNumber());
+            return issuers != null && issuers.contains(certificate.getIssuerX500Principal());
+        }
+    }
+}
@@ -38,11 +38,15 @@ public final class SignExceptionMessageConstant {
     public static final String CERTIFICATION_SIGNATURE_CREATION_FAILED_DOC_SHALL_NOT_CONTAIN_SIGS = "Certification "
             + "signature creation failed. Document shall not contain any certification or approval signatures before "
             + "signing with certification signature.";
+    public static final String BATCH_SIGNATURE_COUNT_DOES_NOT_MATCH = "The batch signature returned {0} "
+            + "signatures for {1} documents.";
     public static final String CERTIFICATE_TEMPLATE_FOR_EXCEPTION_MESSAGE = "Certificate {0} failed: {1}";
     public static final String DICTIONARY_THIS_KEY_IS_NOT_A_NAME = "Dictionary key {0} is not a name.";
     public static final String DOCUMENT_ALREADY_PRE_CLOSED = "Document has been already pre closed.";
     public static final String DOCUMENT_MUST_BE_PRE_CLOSED = "Document must be preClosed.";
     public static final String DOCUMENT_MUST_HAVE_READER = "Document must have reader.";
+    public static final String EXTERNAL_SIGNATURE_RETURNED_NO_FUTURE = "The asynchronous external signature "
+            + "returned null instead of a future of the signature.";
     public static final String FAILED_TO_GET_TSA_RESPONSE = "Failed to get TSA response from {0}.";
     public static final String FIELD_ALREADY_SIGNED = "Field has been already signed.";
     public static final String FIELD_NAMES_CANNOT_CONTAIN_A_DOT = "Field names cannot contain a dot.";
@@ -56,6 +60,8 @@ public final class SignExceptionMessageConstant {
     public static final String NOT_A_VALID_PKCS7_OBJECT_NOT_SIGNED_DATA = "Not a valid PKCS#7 object - not signed "
             + "data.";
     public static final String NOT_ENOUGH_SPACE = "Not enough space.";
+    public static final String PREPARED_DOCUMENT_DOES_NOT_MATCH_PENDING_SIGNATURE = "Prepared document {0} does not "
+            + "match the pending signature.";
     public static final String SIGNATURE_WITH_THIS_NAME_IS_NOT_THE_LAST_IT_DOES_NOT_COVER_WHOLE_DOCUMENT = "Signature "
             + "with name {0} is not the last. It doesn't cover the whole document.";
     public static final String THE_NAME_OF_THE_DIGEST_ALGORITHM_IS_NULL = "The name of the digest algorithm is null.";
@@ -68,6 +74,8 @@ public final class SignExceptionMessageConstant {
     public static final String THIS_TSA_FAILED_TO_RETURN_TIME_STAMP_TOKEN = "TSA {0} failed to return time stamp "
             + "token: {1}.";
     public static final String TOO_BIG_KEY = "The key is too big.";
+    public static final String TSA_CONNECTION_WAIT_TIMED_OUT = "No connection to TSA {0} became available within {1} "
+            + "ms.";
     public static final String UNEXPECTED_CLOSE_BRACKET = "Unexpected close bracket.";
     public static final String UNEXPECTED_GT_GT = "unexpected >>.";
     public static final String UNKNOWN_HASH_ALGORITHM = "Unknown hash algorithm: {0}.";
@@ -30,6 +30,18 @@ public final class SignLogMessageConstant {
     public static final String EXCEPTION_WITHOUT_MESSAGE =
             "Unexpected exception without message was thrown during keystore processing";
 
+    public static final String REVOCATION_DATA_CANNOT_BE_REMOVED =
+            "Revocation data for {0} cannot be removed: {1}";
+
+    public static final String REVOCATION_DATA_CANNOT_BE_STORED =
+            "Revocation data for {0} cannot be stored: {1}";
+
+    public static final String TSA_REQUEST_WILL_BE_RETRIED =
+            "TSA request to {0} failed and will be retried in {1} ms: {2}";
+
+    public static final String UNREADABLE_REVOCATION_DATA_FILE =
+            "Skipped unreadable revocation data file for {0}: {1}";
+
     private SignLogMessageConstant() {
         // Private constructor will prevent the instantiation of this class directly
     }
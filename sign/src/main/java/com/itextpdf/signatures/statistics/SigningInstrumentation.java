@@ -0,0 +1,79 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.signatures.statistics;
+
+import com.itextpdf.commons.actions.EventManager;
+import com.itextpdf.kernel.actions.data.ITextCoreProductData;
+
+/**
+ * Reports the completion of the signing stages to the {@link EventManager} as
+ * {@link SigningStageStatisticsEvent}s.
+ * <p>
+ * The stages are reported by the signers and clients whose stage statistics are enabled, e.g. with
+ * {@link com.itextpdf.signatures.PdfSigner#setStageStatisticsEnabled(boolean)}. They are disabled by default.
+ * While they are disabled, {@link #start(boolean)} does not read the clock and
+ * {@link #stageCompleted(SigningStage, long, long, int)} returns immediately, so the signing pipeline does
+ * not pay for it. Custom clients and signatures may use the same methods to report their own stages.
+ * <p>
+ * Stages which fail are not reported.
+ */
+public final class SigningInstrumentation {
+
+    /**
+     * The value returned by {@link #start(boolean)} when the stage is not reported.
+     */
+    public static final long NOT_STARTED = Long.MIN_VALUE;
+
+    private SigningInstrumentation() {
+        // empty constructor
+    }
+
+    /**
+     * Marks the start of a stage.
+     *
+     * @param enabled true if the stage statistics of the caller are enabled
+     *
+     * @return the start time to pass to {@link #stageCompleted(SigningStage, long, long, int)}, or
+     * {@link #NOT_STARTED} if the stage is not reported
+     */
+    public static long start(boolean enabled) {
+        return enabled ? System.nanoTime() : NOT_STARTED;
+    }
+
+    /**
+     * Reports the completion of a stage. Nothing is reported if the stage was started with
+     * the stage statistics disabled.
+     *
+     * @param stage the completed stage
+     * @param start the value returned by {@link #start(boolean)} when the stage was started
+     * @param amountOfBytes the number of bytes processed or transferred by the stage
+     * @param retries the number of retries the stage needed
+     */
+    public static void stageCompleted(SigningStage stage, long start, long amountOfBytes, int retries) {
+        if (start == NOT_STARTED) {
+            return;
+        }
+        EventManager.getInstance().onEvent(new SigningStageStatisticsEvent(stage, System.nanoTime() - start,
+                amountOfBytes, retries, ITextCoreProductData.getInstance()));
+    }
+}
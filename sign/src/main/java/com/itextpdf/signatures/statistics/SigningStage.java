@@ -0,0 +1,73 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.signatures.statistics;
+
+/**
+ * The stages of the signing pipeline reported by {@link SigningStageStatisticsEvent}.
+ * <p>
+ * The first group of stages is reported by {@link com.itextpdf.signatures.PdfSigner} and covers the calls it
+ * makes, whatever the implementation of the clients is. The request stages are reported by the revocation and
+ * time stamp clients of iText for every network exchange, so that a slow stage can be told apart from a slow server.
+ */
+public enum SigningStage {
+    /**
+     * Preparing the document and reserving the space of the signature.
+     */
+    PRE_CLOSE,
+    /**
+     * Hashing the bytes of the signature's /ByteRange.
+     */
+    RANGE_DIGEST,
+    /**
+     * Collecting the CRLs of the certificate chain from the CRL clients.
+     */
+    CRL_RETRIEVAL,
+    /**
+     * Collecting the OCSP responses of the certificate chain from the OCSP client.
+     */
+    OCSP_RETRIEVAL,
+    /**
+     * Signing the authenticated attributes with the external signature.
+     */
+    EXTERNAL_SIGNATURE,
+    /**
+     * Getting a time stamp token from the TSA client.
+     */
+    TIMESTAMP,
+    /**
+     * Writing the signature and the signed document.
+     */
+    CLOSE,
+    /**
+     * Downloading a CRL from a distribution point.
+     */
+    CRL_REQUEST,
+    /**
+     * Requesting an OCSP response from a responder.
+     */
+    OCSP_REQUEST,
+    /**
+     * Requesting a time stamp response from a time stamp authority, including the retries.
+     */
+    TSA_REQUEST
+}
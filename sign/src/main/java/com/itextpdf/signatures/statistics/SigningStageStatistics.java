@@ -0,0 +1,103 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.signatures.statistics;
+
+/**
+ * Aggregated data of a signing stage, see {@link SigningStageStatisticsAggregator}.
+ */
+public final class SigningStageStatistics {
+
+    private final long count;
+    private final long totalDuration;
+    private final long maxDuration;
+    private final long amountOfBytes;
+    private final long retries;
+
+    SigningStageStatistics(long count, long totalDuration, long maxDuration, long amountOfBytes, long retries) {
+        this.count = count;
+        this.totalDuration = totalDuration;
+        this.maxDuration = maxDuration;
+        this.amountOfBytes = amountOfBytes;
+        this.retries = retries;
+    }
+
+    /**
+     * Gets the number of times the stage was completed.
+     *
+     * @return the number of completions
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the total duration of the stage.
+     *
+     * @return the total duration in nanoseconds
+     */
+    public long getTotalDuration() {
+        return totalDuration;
+    }
+
+    /**
+     * Gets the longest duration of the stage.
+     *
+     * @return the longest duration in nanoseconds
+     */
+    public long getMaxDuration() {
+        return maxDuration;
+    }
+
+    /**
+     * Gets the average duration of the stage.
+     *
+     * @return the average duration in nanoseconds
+     */
+    public double getAverageDuration() {
+        return count == 0 ? 0 : (double) totalDuration / count;
+    }
+
+    /**
+     * Gets the total number of bytes processed or transferred by the stage.
+     *
+     * @return the number of bytes
+     */
+    public long getAmountOfBytes() {
+        return amountOfBytes;
+    }
+
+    /**
+     * Gets the total number of retries of the stage.
+     *
+     * @return the number of retries
+     */
+    public long getRetries() {
+        return retries;
+    }
+
+    SigningStageStatistics add(SigningStageStatistics other) {
+        return new SigningStageStatistics(count + other.count, totalDuration + other.totalDuration,
+                Math.max(maxDuration, other.maxDuration), amountOfBytes + other.amountOfBytes,
+                retries + other.retries);
+    }
+}
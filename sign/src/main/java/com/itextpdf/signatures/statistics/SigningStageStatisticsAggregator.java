@@ -0,0 +1,98 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.signatures.statistics;
+
+import com.itextpdf.commons.actions.AbstractStatisticsAggregator;
+import com.itextpdf.commons.actions.AbstractStatisticsEvent;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Statistics aggregator which aggregates the durations, byte counts and retries of the signing stages.
+ */
+public class SigningStageStatisticsAggregator extends AbstractStatisticsAggregator {
+
+    private final Object lock = new Object();
+
+    private final Map<SigningStage, SigningStageStatistics> stages = new EnumMap<>(SigningStage.class);
+
+    /**
+     * Aggregates the stage data from the provided event.
+     *
+     * @param event {@link SigningStageStatisticsEvent} instance
+     */
+    @Override
+    public void aggregate(AbstractStatisticsEvent event) {
+        if (!(event instanceof SigningStageStatisticsEvent)) {
+            return;
+        }
+        SigningStageStatisticsEvent stageEvent = (SigningStageStatisticsEvent) event;
+        SigningStageStatistics statistics = new SigningStageStatistics(1, stageEvent.getDuration(),
+                stageEvent.getDuration(), stageEvent.getAmountOfBytes(), stageEvent.getRetries());
+        synchronized (lock) {
+            add(stageEvent.getStage(), statistics);
+        }
+    }
+
+    /**
+     * Retrieves Map where keys are the signing stages and values are their {@link SigningStageStatistics}.
+     * Only the stages which were reported at least once are present.
+     *
+     * @return aggregated {@link Map}
+     */
+    @Override
+    public Object retrieveAggregation() {
+        synchronized (lock) {
+            return Collections.unmodifiableMap(new EnumMap<>(stages));
+        }
+    }
+
+    /**
+     * Merges the stage data from the provided aggregator into this aggregator.
+     *
+     * @param aggregator {@link SigningStageStatisticsAggregator} from which data will be taken.
+     */
+    @Override
+    public void merge(AbstractStatisticsAggregator aggregator) {
+        if (!(aggregator instanceof SigningStageStatisticsAggregator)) {
+            return;
+        }
+        SigningStageStatisticsAggregator other = (SigningStageStatisticsAggregator) aggregator;
+        Map<SigningStage, SigningStageStatistics> otherStages;
+        synchronized (other.lock) {
+            otherStages = new EnumMap<>(other.stages);
+        }
+        synchronized (lock) {
+            for (Map.Entry<SigningStage, SigningStageStatistics> entry : otherStages.entrySet()) {
+                add(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private void add(SigningStage stage, SigningStageStatistics statistics) {
+        SigningStageStatistics current = stages.get(stage);
+        stages.put(stage, current == null ? statistics : current.add(statistics));
+    }
+}
@@ -0,0 +1,118 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.signatures.statistics;
+
+import com.itextpdf.commons.actions.AbstractStatisticsAggregator;
+import com.itextpdf.commons.actions.AbstractStatisticsEvent;
+import com.itextpdf.commons.actions.data.ProductData;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Class which represents the completion of a stage of the signing pipeline. The events are only sent
+ * by the signers and clients whose stage statistics are enabled, see {@link SigningInstrumentation}.
+ */
+public class SigningStageStatisticsEvent extends AbstractStatisticsEvent {
+
+    private static final String SIGNING_STAGES_STATISTICS = "signingStages";
+
+    private final SigningStage stage;
+    private final long duration;
+    private final long amountOfBytes;
+    private final int retries;
+
+    /**
+     * Creates an instance of this class.
+     *
+     * @param stage the completed stage
+     * @param duration the duration of the stage in nanoseconds
+     * @param amountOfBytes the number of bytes processed or transferred by the stage
+     * @param retries the number of retries the stage needed
+     * @param productData is a description of the product which has generated an event
+     */
+    public SigningStageStatisticsEvent(SigningStage stage, long duration, long amountOfBytes, int retries,
+            ProductData productData) {
+        super(productData);
+        this.stage = stage;
+        this.duration = duration;
+        this.amountOfBytes = amountOfBytes;
+        this.retries = retries;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public AbstractStatisticsAggregator createStatisticsAggregatorFromName(String statisticsName) {
+        if (SIGNING_STAGES_STATISTICS.equals(statisticsName)) {
+            return new SigningStageStatisticsAggregator();
+        }
+        return super.createStatisticsAggregatorFromName(statisticsName);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<String> getStatisticsNames() {
+        return Collections.singletonList(SIGNING_STAGES_STATISTICS);
+    }
+
+    /**
+     * Gets the completed stage.
+     *
+     * @return the stage
+     */
+    public SigningStage getStage() {
+        return stage;
+    }
+
+    /**
+     * Gets the duration of the stage.
+     *
+     * @return the duration in nanoseconds
+     */
+    public long getDuration() {
+        return duration;
+    }
+
+    /**
+     * Gets the number of bytes processed or transferred by the stage, e.g. the length of the hashed
+     * byte range or the size of a downloaded CRL.
+     *
+     * @return the number of bytes
+     */
+    public long getAmountOfBytes() {
+        return amountOfBytes;
+    }
+
+    /**
+     * Gets the number of retries the stage needed.
+     *
+     * @return the number of retries
+     */
+    public int getRetries() {
+        return retries;
+    }
+}
@@ -0,0 +1,257 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.signatures;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.StampingProperties;
+import com.itextpdf.signatures.ArchiveTimestamper.ArchiveDocument;
+import com.itextpdf.signatures.ArchiveTimestamper.ArchiveReport;
+import com.itextpdf.signatures.ArchiveTimestamper.ArchiveResult;
+import com.itextpdf.signatures.PdfSigner.CryptoStandard;
+import com.itextpdf.signatures.testutils.client.TestCrlClient;
+import com.itextpdf.signatures.testutils.client.TestTsaClient;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.UnitTest;
+import com.itextpdf.test.signutils.Pkcs12FileHelper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.PrivateKey;
+import java.security.Security;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(UnitTest.class)
+public class ArchiveTimestamperUnitTest extends ExtendedITextTest {
+
+    private static final String CERTS_SRC = "./src/test/resources/com/itextpdf/signatures/certs/";
+
+    private static final String DESTINATION_FOLDER =
+            "./target/test/com/itextpdf/signatures/ArchiveTimestamperUnitTest/";
+
+    private static final char[] PASSWORD = "testpass".toCharArray();
+
+    private ITSAClient tsaClient;
+    private ICrlClient crlClient;
+
+    @BeforeClass
+    public static void before() {
+        Security.addProvider(new BouncyCastleProvider());
+        createOrClearDestinationFolder(DESTINATION_FOLDER);
+    }
+
+    @Before
+    public void init() throws Exception {
+        PrivateKey tsaPk = Pkcs12FileHelper.readFirstKey(CERTS_SRC + "tsCertRsa.p12", PASSWORD, PASSWORD);
+        Certificate[] tsaChain = Pkcs12FileHelper.readFirstChain(CERTS_SRC + "tsCertRsa.p12", PASSWORD);
+        tsaClient = new TestTsaClient(Arrays.asList(tsaChain), tsaPk);
+        X509Certificate caCert = (X509Certificate) Pkcs12FileHelper.readFirstChain(CERTS_SRC + "rootRsa.p12",
+                PASSWORD)[0];
+        PrivateKey caPrivateKey = Pkcs12FileHelper.readFirstKey(CERTS_SRC + "rootRsa.p12", PASSWORD, PASSWORD);
+        crlClient = new TestCrlClient().addBuilderForCertIssuer(caCert, caPrivateKey);
+    }
+
+    @Test
+    public void timestampDirectoryInParallelTest() throws Exception {
+        String source = DESTINATION_FOLDER + "directorySource/";
+        String target = DESTINATION_FOLDER + "directoryTarget/";
+        new File(source).mkdirs();
+        for (int i = 0; i < 5; ++i) {
+            Files.write(Paths.get(source, "doc" + i + ".pdf"), createSignedDocument());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        ExecutorService tsaExecutor = Executors.newFixedThreadPool(2);
+        ArchiveReport report;
+        try {
+            report = new ArchiveTimestamper(tsaClient)
+                    .setCrlClient(crlClient)
+                    .setExecutorService(executor)
+                    .setTsaExecutorService(tsaExecutor)
+                    .setMaxDocumentsInFlight(3)
+                    .timestampDirectory(source, target);
+        } finally {
+            executor.shutdown();
+            tsaExecutor.shutdown();
+        }
+
+        Assert.assertEquals(5, report.getTimestampedCount());
+        Assert.assertEquals(0, report.getFailedCount());
+        Assert.assertTrue(report.getThroughput() > 0);
+        for (int i = 0; i < 5; ++i) {
+            Assert.assertEquals(i, report.getResults().get(i).getIndex());
+            assertArchived(Files.readAllBytes(Paths.get(target, report.getResults().get(i).getDocumentId())));
+        }
+        Assert.assertEquals(5, new File(target).list().length);
+    }
+
+    @Test
+    public void timestampInPlaceTest() throws Exception {
+        String directory = DESTINATION_FOLDER + "inPlace/";
+        new File(directory).mkdirs();
+        Files.write(Paths.get(directory, "doc.pdf"), createSignedDocument());
+
+        ArchiveReport report = new ArchiveTimestamper(tsaClient)
+                .setCrlClient(crlClient)
+                .timestampDirectory(directory, directory);
+
+        Assert.assertEquals(1, report.getTimestampedCount());
+        assertArchived(Files.readAllBytes(Paths.get(directory, "doc.pdf")));
+        Assert.assertEquals(1, new File(directory).list().length);
+    }
+
+    @Test
+    public void checkpointResumesInterruptedRunTest() throws Exception {
+        String journal = DESTINATION_FOLDER + "checkpoint.journal";
+        List<ByteArrayOutputStream> outputs = new ArrayList<>();
+        List<ArchiveDocument> documents = new ArrayList<>();
+        for (int i = 0; i < 4; ++i) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            outputs.add(output);
+            documents.add(new InMemoryDocument("doc" + i, i == 2 ? new byte[] {1, 2, 3} : createSignedDocument(),
+                    output));
+        }
+
+        ArchiveReport firstRun;
+        try (FileArchiveCheckpoint checkpoint = new FileArchiveCheckpoint(journal)) {
+            firstRun = new ArchiveTimestamper(tsaClient).setCheckpoint(checkpoint).timestampAll(documents);
+        }
+        Assert.assertEquals(3, firstRun.getTimestampedCount());
+        Assert.assertEquals(ArchiveResult.Status.FAILED, firstRun.getResults().get(2).getStatus());
+        Assert.assertNotNull(firstRun.getResults().get(2).getError());
+        assertTimestamped(outputs.get(0).toByteArray());
+
+        ArchiveReport secondRun;
+        try (FileArchiveCheckpoint checkpoint = new FileArchiveCheckpoint(journal)) {
+            Assert.assertEquals(3, checkpoint.getCompletedCount());
+            secondRun = new ArchiveTimestamper(tsaClient).setCheckpoint(checkpoint).timestampAll(documents);
+        }
+        Assert.assertEquals(3, secondRun.getSkippedCount());
+        Assert.assertEquals(ArchiveResult.Status.FAILED, secondRun.getResults().get(2).getStatus());
+    }
+
+    @Test
+    public void incompleteJournalLineIsIgnoredTest() throws IOException {
+        String journal = DESTINATION_FOLDER + "incomplete.journal";
+        Files.write(Paths.get(journal), "doc0\ndoc".getBytes(StandardCharsets.UTF_8));
+        try (FileArchiveCheckpoint checkpoint = new FileArchiveCheckpoint(journal)) {
+            Assert.assertTrue(checkpoint.isCompleted("doc0"));
+            Assert.assertFalse(checkpoint.isCompleted("doc"));
+            checkpoint.markCompleted("doc1");
+        }
+        try (FileArchiveCheckpoint checkpoint = new FileArchiveCheckpoint(journal)) {
+            Assert.assertEquals(2, checkpoint.getCompletedCount());
+            Assert.assertTrue(checkpoint.isCompleted("doc1"));
+            Assert.assertFalse(checkpoint.isCompleted("doc"));
+        }
+        Assert.assertEquals("doc0\ndoc1\n", new String(Files.readAllBytes(Paths.get(journal)),
+                StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void nonPositiveDocumentsInFlightTest() {
+        Assert.assertThrows(IllegalArgumentException.class,
+                () -> new ArchiveTimestamper(tsaClient).setMaxDocumentsInFlight(0));
+    }
+
+    private static byte[] createSignedDocument() throws Exception {
+        String p12 = CERTS_SRC + "signCertRsaWithChain.p12";
+        PrivateKey pk = Pkcs12FileHelper.readFirstKey(p12, PASSWORD, PASSWORD);
+        Certificate[] chain = Pkcs12FileHelper.readFirstChain(p12, PASSWORD);
+        ByteArrayOutputStream document = new ByteArrayOutputStream();
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(document));
+        pdfDocument.addNewPage();
+        pdfDocument.close();
+
+        ByteArrayOutputStream signed = new ByteArrayOutputStream();
+        PdfSigner signer = new PdfSigner(new PdfReader(new ByteArrayInputStream(document.toByteArray())), signed,
+                new StampingProperties());
+        signer.setFieldName("Signature1");
+        signer.signDetached(new BouncyCastleDigest(),
+                new PrivateKeySignature(pk, DigestAlgorithms.SHA256, BouncyCastleProvider.PROVIDER_NAME), chain,
+                null, null, null, 0, CryptoStandard.CADES);
+        return signed.toByteArray();
+    }
+
+    private static void assertArchived(byte[] archived) throws Exception {
+        assertTimestamped(archived);
+        try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(archived)))) {
+            Assert.assertNotNull(document.getCatalog().getPdfObject().getAsDictionary(PdfName.DSS));
+        }
+    }
+
+    private static void assertTimestamped(byte[] archived) throws Exception {
+        try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(archived)))) {
+            SignatureUtil signatureUtil = new SignatureUtil(document);
+            List<String> names = signatureUtil.getSignatureNames();
+            Assert.assertEquals(2, names.size());
+            String timestampName = names.get(1);
+            Assert.assertEquals(PdfName.DocTimeStamp, signatureUtil.getSignature(timestampName).getType());
+            Assert.assertTrue(signatureUtil.signatureCoversWholeDocument(timestampName));
+            Assert.assertTrue(signatureUtil.readSignatureData(timestampName).verifySignatureIntegrityAndAuthenticity());
+            Assert.assertTrue(signatureUtil.readSignatureData(names.get(0)).verifySignatureIntegrityAndAuthenticity());
+        }
+    }
+
+    private static class InMemoryDocument extends ArchiveDocument {
+        private final byte[] source;
+        private final ByteArrayOutputStream output;
+
+        InMemoryDocument(String id, byte[] source, ByteArrayOutputStream output) {
+            super(id);
+            this.source = source;
+            this.output = output;
+        }
+
+        @Override
+        protected PdfReader openReader() throws IOException {
+            return new PdfReader(new ByteArrayInputStream(source));
+        }
+
+        @Override
+        protected OutputStream openOutput() {
+            output.reset();
+            return output;
+        }
+    }
+}
@@ -0,0 +1,345 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.signatures;
+
+import com.itextpdf.commons.utils.MessageFormatUtil;
+import com.itextpdf.io.image.ImageDataFactory;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.signatures.BatchPdfSigner.BatchSigningReport;
+import com.itextpdf.signatures.BatchPdfSigner.DocumentResult;
+import com.itextpdf.signatures.BatchPdfSigner.SigningTask;
+import com.itextpdf.signatures.PdfSignatureAppearance.RenderingMode;
+import com.itextpdf.signatures.exceptions.SignExceptionMessageConstant;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.UnitTest;
+import com.itextpdf.test.signutils.Pkcs12FileHelper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.PrivateKey;
+import java.security.Security;
+import java.security.cert.Certificate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(UnitTest.class)
+public class BatchPdfSignerUnitTest extends ExtendedITextTest {
+
+    private static final String CERTS_SRC = "./src/test/resources/com/itextpdf/signatures/certs/";
+
+    private static final char[] PASSWORD = "testpass".toCharArray();
+
+    private Certificate[] chain;
+    private PrivateKey pk;
+
+    @BeforeClass
+    public static void before() {
+        Security.addProvider(new BouncyCastleProvider());
+    }
+
+    @Before
+    public void init() throws Exception {
+        pk = Pkcs12FileHelper.readFirstKey(CERTS_SRC + "signCertRsa01.p12", PASSWORD, PASSWORD);
+        chain = Pkcs12FileHelper.readFirstChain(CERTS_SRC + "signCertRsa01.p12", PASSWORD);
+    }
+
+    @Test
+    public void signSeveralDocumentsInParallelTest() throws Exception {
+        List<ByteArrayOutputStream> outputs = new ArrayList<>();
+        List<SigningTask> tasks = new ArrayList<>();
+        for (int i = 0; i < 5; ++i) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            outputs.add(output);
+            tasks.add(new SigningTask(new PdfReader(new ByteArrayInputStream(createSimpleDocument())), output));
+        }
+
+        ThreadRecordingSignature signature = new ThreadRecordingSignature(
+                new PrivateKeySignature(pk, DigestAlgorithms.SHA256, BouncyCastleProvider.PROVIDER_NAME));
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        BatchSigningReport report;
+        try {
+            report = new BatchPdfSigner(signature, chain)
+                    .setExecutorService(executor)
+                    .setBatchSize(2)
+                    .signAll(tasks);
+        } finally {
+            executor.shutdown();
+        }
+
+        Assert.assertEquals(5, report.getSignedCount());
+        Assert.assertEquals(0, report.getFailedCount());
+        Assert.assertTrue(report.getThroughput() > 0);
+        Assert.assertEquals(1, signature.threads.size());
+        for (int i = 0; i < 5; ++i) {
+            Assert.assertEquals(i, report.getResults().get(i).getIndex());
+            assertSignatureIsValid(outputs.get(i).toByteArray());
+        }
+    }
+
+    @Test
+    public void failedDocumentDoesNotStopBatchTest() throws Exception {
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        ByteArrayOutputStream last = new ByteArrayOutputStream();
+        List<SigningTask> tasks = new ArrayList<>();
+        tasks.add(new SigningTask(new PdfReader(new ByteArrayInputStream(createSimpleDocument())), first));
+        tasks.add(new SigningTask(new PdfReader(new ByteArrayInputStream(createSimpleDocument())),
+                new ByteArrayOutputStream()));
+        tasks.add(new SigningTask(new PdfReader(new ByteArrayInputStream(createSimpleDocument())), last));
+
+        IExternalSignature signature =
+                new PrivateKeySignature(pk, DigestAlgorithms.SHA256, BouncyCastleProvider.PROVIDER_NAME);
+        BatchSigningReport report = new BatchPdfSigner(signature, chain)
+                .setSignerConfigurator((signer, index) -> {
+                    if (index == 1) {
+                        throw new IOException("Broken document");
+                    }
+                })
+                .signAll(tasks);
+
+        Assert.assertEquals(2, report.getSignedCount());
+        DocumentResult failed = report.getResults().get(1);
+        Assert.assertFalse(failed.isSigned());
+        Assert.assertEquals("Broken document", failed.getError().getMessage());
+        assertSignatureIsValid(first.toByteArray());
+        assertSignatureIsValid(last.toByteArray());
+    }
+
+    @Test
+    public void signerConfiguratorIsAppliedTest() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        IExternalSignature signature =
+                new PrivateKeySignature(pk, DigestAlgorithms.SHA256, BouncyCastleProvider.PROVIDER_NAME);
+        new BatchPdfSigner(signature, chain)
+                .setSignerConfigurator((signer, index) -> signer.setFieldName("Batch" + index))
+                .signAll(Collections.singletonList(
+                        new SigningTask(new PdfReader(new ByteArrayInputStream(createSimpleDocument())), output)));
+
+        try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(output.toByteArray())))) {
+            Assert.assertEquals(Collections.singletonList("Batch0"), new SignatureUtil(document).getSignatureNames());
+        }
+    }
+
+    @Test
+    public void appearanceTemplateIsAppliedTest() throws Exception {
+        List<ByteArrayOutputStream> outputs = new ArrayList<>();
+        List<SigningTask> tasks = new ArrayList<>();
+        for (int i = 0; i < 3; ++i) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            outputs.add(output);
+            tasks.add(new SigningTask(new PdfReader(new ByteArrayInputStream(createSimpleDocument())), output));
+        }
+        SignatureAppearanceTemplate template = new SignatureAppearanceTemplate()
+                .setRenderingMode(RenderingMode.GRAPHIC_AND_DESCRIPTION)
+                .setSignatureGraphic(ImageDataFactory.create(
+                        "./src/test/resources/com/itextpdf/signatures/sign/PdfSignatureAppearanceTest/itext.png"));
+
+        IExternalSignature signature =
+                new PrivateKeySignature(pk, DigestAlgorithms.SHA256, BouncyCastleProvider.PROVIDER_NAME);
+        BatchSigningReport report = new BatchPdfSigner(signature, chain)
+                .setAppearanceTemplate(template)
+                .setSignerConfigurator((signer, index) ->
+                        signer.getSignatureAppearance().setPageRect(new Rectangle(36, 648, 200, 100)))
+                .signAll(tasks);
+
+        Assert.assertEquals(3, report.getSignedCount());
+        Assert.assertEquals(1, template.getStaticLayerCount());
+        for (ByteArrayOutputStream output : outputs) {
+            assertSignatureIsValid(output.toByteArray());
+        }
+    }
+
+    @Test
+    public void outputStreamOfFailedDocumentIsLeftOpenTest() throws Exception {
+        CloseRecordingOutputStream failedOutput = new CloseRecordingOutputStream();
+        CloseRecordingOutputStream signedOutput = new CloseRecordingOutputStream();
+        List<SigningTask> tasks = new ArrayList<>();
+        tasks.add(new SigningTask(new PdfReader(new ByteArrayInputStream(createSimpleDocument())), failedOutput));
+        tasks.add(new SigningTask(new PdfReader(new ByteArrayInputStream(createSimpleDocument())), signedOutput));
+
+        IExternalSignature signature =
+                new PrivateKeySignature(pk, DigestAlgorithms.SHA256, BouncyCastleProvider.PROVIDER_NAME);
+        BatchSigningReport report = new BatchPdfSigner(signature, chain)
+                .setSignerConfigurator((signer, index) -> {
+                    if (index == 0) {
+                        throw new IOException("Broken document");
+                    }
+                })
+                .signAll(tasks);
+
+        Assert.assertEquals(1, report.getSignedCount());
+        Assert.assertFalse(failedOutput.closed);
+        Assert.assertTrue(signedOutput.closed);
+    }
+
+    @Test
+    public void batchSignatureSignsBatchInOneCallTest() throws Exception {
+        List<ByteArrayOutputStream> outputs = new ArrayList<>();
+        List<SigningTask> tasks = new ArrayList<>();
+        for (int i = 0; i < 5; ++i) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            outputs.add(output);
+            tasks.add(new SigningTask(new PdfReader(new ByteArrayInputStream(createSimpleDocument())), output));
+        }
+
+        CountingBatchSignature signature = new CountingBatchSignature(
+                new PrivateKeySignature(pk, DigestAlgorithms.SHA256, BouncyCastleProvider.PROVIDER_NAME), false);
+        BatchSigningReport report = new BatchPdfSigner(signature, chain)
+                .setBatchSize(2)
+                .signAll(tasks);
+
+        Assert.assertEquals(5, report.getSignedCount());
+        Assert.assertEquals(3, signature.calls);
+        for (ByteArrayOutputStream output : outputs) {
+            assertSignatureIsValid(output.toByteArray());
+        }
+    }
+
+    @Test
+    public void batchSignatureWithMissingSignaturesTest() throws Exception {
+        List<SigningTask> tasks = new ArrayList<>();
+        for (int i = 0; i < 2; ++i) {
+            tasks.add(new SigningTask(new PdfReader(new ByteArrayInputStream(createSimpleDocument())),
+                    new ByteArrayOutputStream()));
+        }
+
+        CountingBatchSignature signature = new CountingBatchSignature(
+                new PrivateKeySignature(pk, DigestAlgorithms.SHA256, BouncyCastleProvider.PROVIDER_NAME), true);
+        BatchSigningReport report = new BatchPdfSigner(signature, chain).signAll(tasks);
+
+        Assert.assertEquals(2, report.getFailedCount());
+        Assert.assertEquals(MessageFormatUtil.format(
+                        SignExceptionMessageConstant.BATCH_SIGNATURE_COUNT_DOES_NOT_MATCH, 1, 2),
+                report.getResults().get(0).getError().getMessage());
+    }
+
+    @Test
+    public void nonPositiveBatchSizeTest() {
+        IExternalSignature signature =
+                new PrivateKeySignature(pk, DigestAlgorithms.SHA256, BouncyCastleProvider.PROVIDER_NAME);
+        Assert.assertThrows(IllegalArgumentException.class, () -> new BatchPdfSigner(signature, chain).setBatchSize(0));
+    }
+
+    private static void assertSignatureIsValid(byte[] signedPdf) throws Exception {
+        try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(signedPdf)))) {
+            SignatureUtil signatureUtil = new SignatureUtil(document);
+            String name = signatureUtil.getSignatureNames().get(0);
+            Assert.assertTrue(signatureUtil.signatureCoversWholeDocument(name));
+            Assert.assertTrue(signatureUtil.readSignatureData(name).verifySignatureIntegrityAndAuthenticity());
+        }
+    }
+
+    private static byte[] createSimpleDocument() {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        PdfDocument document = new PdfDocument(new PdfWriter(outputStream));
+        document.addNewPage();
+        document.close();
+        return outputStream.toByteArray();
+    }
+
+    private static class CloseRecordingOutputStream extends ByteArrayOutputStream {
+        private boolean closed;
+
+        @Override
+        public void close() throws IOException {
+            closed = true;
+            super.close();
+        }
+    }
+
+    private static class CountingBatchSignature implements IExternalBatchSignature {
+        private final IExternalSignature signature;
+        private final boolean dropLast;
+        private int calls;
+
+        CountingBatchSignature(IExternalSignature signature, boolean dropLast) {
+            this.signature = signature;
+            this.dropLast = dropLast;
+        }
+
+        @Override
+        public String getHashAlgorithm() {
+            return signature.getHashAlgorithm();
+        }
+
+        @Override
+        public String getEncryptionAlgorithm() {
+            return signature.getEncryptionAlgorithm();
+        }
+
+        @Override
+        public byte[] sign(byte[] message) throws GeneralSecurityException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public byte[][] sign(byte[][] messages) throws GeneralSecurityException {
+            ++calls;
+            byte[][] signatures = new byte[dropLast ? messages.length - 1 : messages.length][];
+            for (int i = 0; i < signatures.length; ++i) {
+                signatures[i] = signature.sign(messages[i]);
+            }
+            return signatures;
+        }
+    }
+
+    private static class ThreadRecordingSignature implements IExternalSignature {
+        private final IExternalSignature signature;
+        private final Set<Thread> threads = Collections.synchronizedSet(new HashSet<Thread>());
+
+        ThreadRecordingSignature(IExternalSignature signature) {
+            this.signature = signature;
+        }
+
+        @Override
+        public String getHashAlgorithm() {
+            return signature.getHashAlgorithm();
+        }
+
+        @Override
+        public String getEncryptionAlgorithm() {
+            return signature.getEncryptionAlgorithm();
+        }
+
+        @Override
+        public byte[] sign(byte[] message) throws GeneralSecurityException {
+            threads.add(Thread.currentThread());
+            return signature.sign(message);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.signatures;
+
+import com.itextpdf.commons.utils.FileUtil;
+import com.itextpdf.commons.utils.MessageFormatUtil;
+import com.itextpdf.kernel.exceptions.PdfException;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.StampingProperties;
+import com.itextpdf.signatures.PdfSigner.CryptoStandard;
+import com.itextpdf.signatures.exceptions.SignExceptionMessageConstant;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.UnitTest;
+import com.itextpdf.test.signutils.Pkcs12FileHelper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.security.GeneralSecurityException;
+import java.security.PrivateKey;
+import java.security.Security;
+import java.security.cert.Certificate;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(UnitTest.class)
+public class DeferredPdfSignerUnitTest extends ExtendedITextTest {
+
+    private static final String CERTS_SRC = "./src/test/resources/com/itextpdf/signatures/certs/";
+    private static final String DESTINATION_FOLDER = "./target/test/com/itextpdf/signatures/DeferredPdfSignerUnitTest/";
+
+    private static final char[] PASSWORD = "testpass".toCharArray();
+
+    private Certificate[] chain;
+    private PrivateKey pk;
+
+    @BeforeClass
+    public static void before() {
+        Security.addProvider(new BouncyCastleProvider());
+        createOrClearDestinationFolder(DESTINATION_FOLDER);
+    }
+
+    @Before
+    public void init() throws Exception {
+        pk = Pkcs12FileHelper.readFirstKey(CERTS_SRC + "signCertRsa01.p12", PASSWORD, PASSWORD);
+        chain = Pkcs12FileHelper.readFirstChain(CERTS_SRC + "signCertRsa01.p12", PASSWORD);
+    }
+
+    @Test
+    public void prepareAndCompleteInAnotherThreadTest() throws Exception {
+        String preparedFile = DESTINATION_FOLDER + "prepareAndCompleteInAnotherThread.pdf";
+        PendingSignature pendingSignature = new DeferredPdfSigner(DigestAlgorithms.SHA256, new BouncyCastleDigest())
+                .prepare(new PdfReader(new ByteArrayInputStream(createSimpleDocument())), preparedFile,
+                        new StampingProperties(), 8192);
+
+        // The pending signature travels to the remote signing service and back
+        byte[] serialized = serialize(pendingSignature);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> completion = executor.submit(() -> {
+                PendingSignature restored = deserialize(serialized);
+                DeferredPdfSigner.complete(restored, createContainer(restored));
+                return null;
+            });
+            completion.get();
+        } finally {
+            executor.shutdown();
+        }
+
+        try (PdfDocument document = new PdfDocument(new PdfReader(preparedFile))) {
+            SignatureUtil signatureUtil = new SignatureUtil(document);
+            Assert.assertTrue(signatureUtil.signatureCoversWholeDocument(pendingSignature.getFieldName()));
+            Assert.assertTrue(signatureUtil.readSignatureData(pendingSignature.getFieldName())
+                    .verifySignatureIntegrityAndAuthenticity());
+        }
+    }
+
+    @Test
+    public void pendingSignatureDescribesPlaceholderTest() throws Exception {
+        String preparedFile = DESTINATION_FOLDER + "pendingSignatureDescribesPlaceholder.pdf";
+        PdfSigner signer = new PdfSigner(new PdfReader(new ByteArrayInputStream(createSimpleDocument())),
+                FileUtil.getFileOutputStream(preparedFile), new StampingProperties());
+        signer.setFieldName("Deferred");
+        PendingSignature pendingSignature = new DeferredPdfSigner(DigestAlgorithms.SHA256, new BouncyCastleDigest())
+                .prepare(signer, preparedFile, 4096);
+
+        Assert.assertEquals("Deferred", pendingSignature.getFieldName());
+        Assert.assertEquals(DigestAlgorithms.SHA256, pendingSignature.getHashAlgorithm());
+        Assert.assertEquals(4096, pendingSignature.getAvailableSpace());
+        try (RandomAccessFile raf = FileUtil.getRandomAccessFile(new File(preparedFile))) {
+            Assert.assertEquals(raf.length(), pendingSignature.getDocumentLength());
+            raf.seek(pendingSignature.getContentsOffset() - 1);
+            Assert.assertEquals('<', raf.read());
+        }
+    }
+
+    @Test
+    public void containerDoesNotFitTest() throws Exception {
+        String preparedFile = DESTINATION_FOLDER + "containerDoesNotFit.pdf";
+        PendingSignature pendingSignature = new DeferredPdfSigner(DigestAlgorithms.SHA256, new BouncyCastleDigest())
+                .prepare(new PdfReader(new ByteArrayInputStream(createSimpleDocument())), preparedFile,
+                        new StampingProperties(), 100);
+
+        Exception e = Assert.assertThrows(PdfException.class,
+                () -> DeferredPdfSigner.complete(pendingSignature, createContainer(pendingSignature)));
+        Assert.assertEquals(SignExceptionMessageConstant.AVAILABLE_SPACE_IS_NOT_ENOUGH_FOR_SIGNATURE, e.getMessage());
+    }
+
+    @Test
+    public void modifiedPreparedDocumentTest() throws Exception {
+        String preparedFile = DESTINATION_FOLDER + "modifiedPreparedDocument.pdf";
+        PendingSignature pendingSignature = new DeferredPdfSigner(DigestAlgorithms.SHA256, new BouncyCastleDigest())
+                .prepare(new PdfReader(new ByteArrayInputStream(createSimpleDocument())), preparedFile,
+                        new StampingProperties(), 8192);
+        try (RandomAccessFile raf = FileUtil.getRandomAccessFile(new File(preparedFile))) {
+            raf.setLength(raf.length() + 1);
+        }
+
+        Exception e = Assert.assertThrows(PdfException.class,
+                () -> DeferredPdfSigner.complete(pendingSignature, createContainer(pendingSignature)));
+        Assert.assertEquals(MessageFormatUtil.format(
+                SignExceptionMessageConstant.PREPARED_DOCUMENT_DOES_NOT_MATCH_PENDING_SIGNATURE, preparedFile),
+                e.getMessage());
+    }
+
+    private byte[] createContainer(PendingSignature pendingSignature) throws GeneralSecurityException {
+        PdfPKCS7 sgn = new PdfPKCS7((PrivateKey) null, chain, pendingSignature.getHashAlgorithm(), null,
+                new BouncyCastleDigest(), false);
+        byte[] hash = pendingSignature.getHash();
+        byte[] sh = sgn.getAuthenticatedAttributeBytes(hash, CryptoStandard.CMS, null, null);
+        PrivateKeySignature signature = new PrivateKeySignature(pk, pendingSignature.getHashAlgorithm(),
+                BouncyCastleProvider.PROVIDER_NAME);
+        sgn.setExternalDigest(signature.sign(sh), null, signature.getEncryptionAlgorithm());
+        return sgn.getEncodedPKCS7(hash, CryptoStandard.CMS, null, null, null);
+    }
+
+    private static byte[] serialize(PendingSignature pendingSignature) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(pendingSignature);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static PendingSignature deserialize(byte[] serialized) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+            return (PendingSignature) in.readObject();
+        }
+    }
+
+    private static byte[] createSimpleDocument() {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        PdfDocument document = new PdfDocument(new PdfWriter(outputStream));
+        document.addNewPage();
+        document.close();
+        return outputStream.toByteArray();
+    }
+}
@@ -42,15 +42,33 @@
  */
 package com.itextpdf.signatures;
 
+import com.itextpdf.commons.utils.FileUtil;
 import com.itextpdf.test.ExtendedITextTest;
 import com.itextpdf.test.annotations.type.UnitTest;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Random;
 import org.junit.Assert;
+import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
 @Category(UnitTest.class)
 public class DigestAlgorithmsTest extends ExtendedITextTest {
+
+    private static final String DESTINATION_FOLDER = "./target/test/com/itextpdf/signatures/DigestAlgorithmsTest/";
+
+    @BeforeClass
+    public static void before() {
+        createOrClearDestinationFolder(DESTINATION_FOLDER);
+    }
+
     @Test
     public void emptyStringOidGetDigestTest() {
         String oid = "";
@@ -77,4 +95,36 @@ public class DigestAlgorithmsTest extends ExtendedITextTest {
     public void nullNameGetAllowedDigestTest() {
         Assert.assertThrows(IllegalArgumentException.class, () -> DigestAlgorithms.getAllowedDigest(null));
     }
+
+    @Test
+    public void digestByteRangeOfArrayTest() throws GeneralSecurityException {
+        byte[] data = "Hello, world!".getBytes(StandardCharsets.US_ASCII);
+        byte[] expected = MessageDigest.getInstance(DigestAlgorithms.SHA256)
+                .digest("Helloworld!".getBytes(StandardCharsets.US_ASCII));
+        Assert.assertArrayEquals(expected, DigestAlgorithms.digest(data, new long[] {0, 5, 7, 6},
+                MessageDigest.getInstance(DigestAlgorithms.SHA256)));
+    }
+
+    @Test
+    public void digestByteRangeOfArrayOddLengthTest() {
+        Assert.assertThrows(IllegalArgumentException.class, () -> DigestAlgorithms.digest(new byte[10],
+                new long[] {0, 5, 7}, MessageDigest.getInstance(DigestAlgorithms.SHA256)));
+    }
+
+    @Test
+    public void digestByteRangeOfChannelTest() throws GeneralSecurityException, IOException {
+        byte[] data = new byte[100000];
+        new Random(42).nextBytes(data);
+        File file = FileUtil.createTempFile(DESTINATION_FOLDER + "digestByteRangeOfChannel");
+        try (OutputStream os = FileUtil.getFileOutputStream(file)) {
+            os.write(data);
+        }
+        long[] byteRange = new long[] {0, 40000, 50000, 50000};
+        try (RandomAccessFile raf = FileUtil.getRandomAccessFile(file)) {
+            Assert.assertArrayEquals(
+                    DigestAlgorithms.digest(data, byteRange, MessageDigest.getInstance(DigestAlgorithms.SHA256)),
+                    DigestAlgorithms.digest(raf.getChannel(), byteRange,
+                            MessageDigest.getInstance(DigestAlgorithms.SHA256)));
+        }
+    }
 }
@@ -0,0 +1,97 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.signatures;
+
+import com.itextpdf.commons.utils.DateTimeUtil;
+import com.itextpdf.commons.utils.FileUtil;
+import com.itextpdf.signatures.RevocationDataCache.Entry;
+import com.itextpdf.signatures.logs.SignLogMessageConstant;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.LogLevelConstants;
+import com.itextpdf.test.annotations.LogMessage;
+import com.itextpdf.test.annotations.LogMessages;
+import com.itextpdf.test.annotations.type.UnitTest;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Date;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(UnitTest.class)
+public class FileRevocationDataStoreUnitTest extends ExtendedITextTest {
+
+    private static final String DESTINATION_FOLDER =
+            "./target/test/com/itextpdf/signatures/FileRevocationDataStoreUnitTest/";
+
+    @BeforeClass
+    public static void before() {
+        createOrClearDestinationFolder(DESTINATION_FOLDER);
+    }
+
+    @Test
+    public void entryIsStoredAcrossInstancesTest() throws IOException {
+        String directory = DESTINATION_FOLDER + "acrossInstances";
+        Date thisUpdate = DateTimeUtil.getCurrentTimeDate();
+        new FileRevocationDataStore(directory).put("crl http://localhost/ca.crl",
+                new Entry(new byte[] {1, 2, 3}, thisUpdate, null));
+
+        Entry entry = new FileRevocationDataStore(directory).get("crl http://localhost/ca.crl");
+        Assert.assertArrayEquals(new byte[] {1, 2, 3}, entry.getEncoded());
+        Assert.assertEquals(thisUpdate, entry.getThisUpdate());
+        Assert.assertNull(entry.getNextUpdate());
+        Assert.assertNull(new FileRevocationDataStore(directory).get("crl http://localhost/other.crl"));
+    }
+
+    @Test
+    public void entryIsReplacedAndRemovedTest() throws IOException {
+        FileRevocationDataStore store = new FileRevocationDataStore(DESTINATION_FOLDER + "replaced");
+        Date nextUpdate = DateTimeUtil.getCurrentTimeDate();
+        store.put("key", new Entry(new byte[] {1}, null, null));
+        store.put("key", new Entry(new byte[] {2}, null, nextUpdate));
+        Assert.assertArrayEquals(new byte[] {2}, store.get("key").getEncoded());
+        Assert.assertEquals(nextUpdate, store.get("key").getNextUpdate());
+        Assert.assertEquals(1, new File(DESTINATION_FOLDER + "replaced").list().length);
+
+        store.remove("key");
+        Assert.assertNull(store.get("key"));
+        Assert.assertEquals(0, new File(DESTINATION_FOLDER + "replaced").list().length);
+    }
+
+    @Test
+    @LogMessages(messages = @LogMessage(messageTemplate = SignLogMessageConstant.UNREADABLE_REVOCATION_DATA_FILE,
+            logLevel = LogLevelConstants.WARN))
+    public void corruptedFileIsSkippedTest() throws IOException {
+        String directory = DESTINATION_FOLDER + "corrupted";
+        FileRevocationDataStore store = new FileRevocationDataStore(directory);
+        store.put("key", new Entry(new byte[100], null, null));
+        File file = new File(directory).listFiles()[0];
+        try (OutputStream os = FileUtil.getFileOutputStream(file)) {
+            os.write(new byte[] {0, 3, 'k', 'e', 'y'});
+        }
+        Assert.assertNull(store.get("key"));
+    }
+}
@@ -43,12 +43,16 @@ import com.itextpdf.test.signutils.Pkcs12FileHelper;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.security.GeneralSecurityException;
 import java.security.PrivateKey;
 import java.security.Security;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import org.junit.Assert;
 import org.junit.BeforeClass;
@@ -62,6 +66,7 @@ public class LtvVerificationTest extends ExtendedITextTest {
     private static final String SOURCE_FOLDER = "./src/test/resources/com/itextpdf/signatures/LtvVerificationTest/";
     private static final String SRC_PDF = SOURCE_FOLDER + "pdfWithDssDictionary.pdf";
     private static final String SIG_FIELD_NAME = "Signature1";
+    private static final String SIGNATURE_HASH = "C5CC1458AAA9B8BAB0677F9EA409983B577178A3";
     private static final String CRL_DISTRIBUTION_POINT = "http://example.com";
     private static final String CERT_FOLDER_PATH = "./src/test/resources/com/itextpdf/signatures/certs/";
     private static final char[] PASSWORD = "testpass".toCharArray();
@@ -539,6 +544,77 @@ public class LtvVerificationTest extends ExtendedITextTest {
                 CertificateInclusion.NO, true);
     }
 
+    @Test
+    public void mergeStoresIdenticalBlobsOnceTest() throws IOException, GeneralSecurityException {
+        String input = SOURCE_FOLDER + "signingCertHasChainWithOcspOnlyForChildCert.pdf";
+        byte[] crl = new byte[] {1, 2, 3};
+        byte[] cert = new byte[] {4, 5, 6};
+
+        byte[] firstRevision = addVerificationInAppendMode(new FileInputStream(input), Arrays.asList(crl, crl), Arrays.asList(cert, cert));
+        int crlObjectNumber;
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(firstRevision)))) {
+            PdfDictionary dss = pdfDocument.getCatalog().getPdfObject().getAsDictionary(PdfName.DSS);
+            Assert.assertNull(dss.get(PdfName.OCSPs));
+            Assert.assertEquals(1, dss.getAsArray(PdfName.CRLs).size());
+            Assert.assertEquals(1, dss.getAsArray(PdfName.Certs).size());
+            crlObjectNumber = dss.getAsArray(PdfName.CRLs).get(0).getIndirectReference().getObjNumber();
+        }
+
+        // validating the signature again with the same data reuses the streams already in the document
+        byte[] secondRevision = addVerificationInAppendMode(new ByteArrayInputStream(firstRevision),
+                Collections.singletonList(crl), Collections.singletonList(cert));
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(secondRevision)))) {
+            PdfDictionary dss = pdfDocument.getCatalog().getPdfObject().getAsDictionary(PdfName.DSS);
+            PdfArray crls = dss.getAsArray(PdfName.CRLs);
+            Assert.assertEquals(1, crls.size());
+            Assert.assertEquals(crlObjectNumber, crls.get(0).getIndirectReference().getObjNumber());
+            Assert.assertArrayEquals(crl, crls.getAsStream(0).getBytes());
+            Assert.assertEquals(1, dss.getAsArray(PdfName.Certs).size());
+        }
+    }
+
+    @Test
+    public void mergeKeepsEntriesOfOtherSignaturesTest() throws IOException, GeneralSecurityException {
+        String input = SOURCE_FOLDER + "signingCertHasChainWithOcspOnlyForChildCert.pdf";
+        PdfName otherSignatureHash = new PdfName("0000000000000000000000000000000000000000");
+
+        // let another signature refer to the same OCSP response as the validated one
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfReader(input), new PdfWriter(baos),
+                new StampingProperties().useAppendMode())) {
+            PdfDictionary vrim = pdfDocument.getCatalog().getPdfObject().getAsDictionary(PdfName.DSS)
+                    .getAsDictionary(PdfName.VRI);
+            PdfDictionary otherVri = new PdfDictionary();
+            otherVri.put(PdfName.OCSP, vrim.getAsDictionary(new PdfName(SIGNATURE_HASH)).get(PdfName.OCSP));
+            vrim.put(otherSignatureHash, otherVri);
+            vrim.setModified();
+        }
+
+        byte[] output = addVerificationInAppendMode(new ByteArrayInputStream(baos.toByteArray()),
+                Collections.singletonList(new byte[] {1, 2, 3}), null);
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(output)))) {
+            PdfDictionary dss = pdfDocument.getCatalog().getPdfObject().getAsDictionary(PdfName.DSS);
+            PdfArray ocsps = dss.getAsArray(PdfName.OCSPs);
+            Assert.assertEquals(1, ocsps.size());
+            Assert.assertEquals(1, dss.getAsArray(PdfName.CRLs).size());
+            PdfDictionary otherVri = dss.getAsDictionary(PdfName.VRI).getAsDictionary(otherSignatureHash);
+            Assert.assertEquals(ocsps.get(0).getIndirectReference(),
+                    otherVri.getAsArray(PdfName.OCSP).get(0).getIndirectReference());
+        }
+    }
+
+    private static byte[] addVerificationInAppendMode(InputStream input, List<byte[]> crls, List<byte[]> certs)
+            throws IOException, GeneralSecurityException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfReader(input), new PdfWriter(baos),
+                new StampingProperties().useAppendMode())) {
+            LtvVerification verification = new LtvVerification(pdfDocument);
+            verification.addVerification("TestSignature", null, crls, certs);
+            verification.merge();
+        }
+        return baos.toByteArray();
+    }
+
     private static void validateOptionLevelInclusion(String crlUrl, CertificateOption certificateOption, Level level,
             CertificateInclusion inclusion, boolean expectedResult) throws IOException, GeneralSecurityException {
 
@@ -22,8 +22,10 @@
  */
 package com.itextpdf.signatures;
 
+import com.itextpdf.kernel.pdf.PdfArray;
 import com.itextpdf.kernel.pdf.PdfDictionary;
 import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
 import com.itextpdf.kernel.pdf.PdfReader;
 import com.itextpdf.test.ExtendedITextTest;
 import com.itextpdf.test.annotations.type.UnitTest;
@@ -31,10 +33,13 @@ import com.itextpdf.test.annotations.type.UnitTest;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.security.GeneralSecurityException;
+import java.security.Security;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.junit.Assert;
+import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
@@ -42,6 +47,11 @@ import org.junit.experimental.categories.Category;
 public class LtvVerifierUnitTest extends ExtendedITextTest {
     private static final String SOURCE_FOLDER = "./src/test/resources/com/itextpdf/signatures/LtvVerifierUnitTest/";
 
+    @BeforeClass
+    public static void before() {
+        Security.addProvider(new BouncyCastleProvider());
+    }
+
     @Test
     public void setVerifierTest() throws GeneralSecurityException, IOException {
         LtvVerifier verifier1 = new LtvVerifier(new PdfDocument(new PdfReader(new FileInputStream(SOURCE_FOLDER + "ltvDoc.pdf"))));
@@ -83,4 +93,23 @@ public class LtvVerifierUnitTest extends ExtendedITextTest {
         verifier.dss = new PdfDictionary();
         Assert.assertEquals(new ArrayList<>(), verifier.getOCSPResponsesFromDSS());
     }
+
+    @Test
+    public void switchToPreviousRevisionWithoutExtractionTest() throws GeneralSecurityException, IOException {
+        PdfDocument document = new PdfDocument(new PdfReader(new FileInputStream(SOURCE_FOLDER + "ltvDoc.pdf")));
+        LtvVerifier verifier = new LtvVerifier(document);
+        Assert.assertEquals("timestampSig1", verifier.signatureName);
+
+        verifier.switchToPreviousRevision();
+        Assert.assertEquals("Signature1", verifier.signatureName);
+        Assert.assertSame(document, verifier.document);
+        Assert.assertNotNull(verifier.pkcs7);
+        PdfArray crls = document.getCatalog().getPdfObject().getAsDictionary(PdfName.DSS).getAsArray(PdfName.CRLs);
+        Assert.assertEquals(crls.size(), verifier.getCRLsFromDSS().size());
+
+        verifier.switchToPreviousRevision();
+        // the original revision has no DSS
+        Assert.assertNull(verifier.dss);
+        Assert.assertNull(verifier.pkcs7);
+    }
 }
@@ -348,6 +348,56 @@ public class PdfPKCS7Test extends ExtendedITextTest {
         Assert.assertEquals(outStream, cmpStream);
     }
 
+    @Test
+    public void lazyOcspAndTimeStampTokenTest() throws IOException {
+        PdfPKCS7 eager = readSignatureData("ltvEnabledSingleSignatureTest01.pdf", "Signature1", false);
+        PdfPKCS7 lazy = readSignatureData("ltvEnabledSingleSignatureTest01.pdf", "Signature1", true);
+
+        Assert.assertNull(lazy.getCRLs());
+        Assert.assertArrayEquals(eager.getTimeStampToken().getEncoded(), lazy.getTimeStampToken().getEncoded());
+        Assert.assertEquals(eager.getTimeStampDate(), lazy.getTimeStampDate());
+        Assert.assertArrayEquals(eager.getOcsp().getEncoded(), lazy.getOcsp().getEncoded());
+    }
+
+    @Test
+    public void lazyCrlsTest() throws IOException, CRLException {
+        PdfPKCS7 lazy = readSignatureData("singleSignatureNotEmptyCRL.pdf", "Signature1", true);
+        List<X509CRL> crls = lazy.getCRLs().stream().map(crl -> (X509CRL)crl).collect(Collectors.toList());
+        Assert.assertEquals(2, crls.size());
+        Assert.assertArrayEquals(crls.get(0).getEncoded(), Files.readAllBytes(Paths.get(SOURCE_FOLDER, "firstCrl.bin")));
+        Assert.assertArrayEquals(crls.get(1).getEncoded(), Files.readAllBytes(Paths.get(SOURCE_FOLDER, "secondCrl.bin")));
+    }
+
+    @Test
+    public void lazyCertificatesTest() throws IOException, GeneralSecurityException {
+        PdfPKCS7 eager = readSignatureData("signatureWithValidOcspTest.pdf", "Signature1", false);
+        PdfPKCS7 lazy = readSignatureData("signatureWithValidOcspTest.pdf", "Signature1", true);
+
+        Assert.assertEquals(eager.getSigningCertificate(), lazy.getSigningCertificate());
+        Assert.assertTrue(lazy.verifySignatureIntegrityAndAuthenticity());
+        Assert.assertArrayEquals(eager.getSignCertificateChain(), lazy.getSignCertificateChain());
+        Assert.assertArrayEquals(eager.getCertificates(), lazy.getCertificates());
+        Assert.assertTrue(lazy.isRevocationValid());
+    }
+
+    @Test
+    public void lazyIsRevocationValidWithInvalidOcspTest() throws IOException {
+        PdfPKCS7 lazy = readSignatureData("signatureWithInvalidOcspTest.pdf", "Signature1", true);
+        Assert.assertFalse(lazy.isRevocationValid());
+    }
+
+    private static PdfPKCS7 readSignatureData(String fileName, String signatureName, boolean lazy)
+            throws IOException {
+        try (PdfDocument document = new PdfDocument(new PdfReader(SOURCE_FOLDER + fileName))) {
+            SignatureUtil sigUtil = new SignatureUtil(document);
+            PdfSignature signature = sigUtil.getSignature(signatureName);
+            PdfPKCS7 pkcs7 = SignatureUtil.createPkcs7(signature, null, lazy);
+            SignatureUtil.updateByteRange(pkcs7, signature.getByteRange().toLongArray(),
+                    document.getReader().getSafeFile().createSourceView());
+            return pkcs7;
+        }
+    }
+
     // PdfPKCS7 is created here the same way it's done in PdfSigner#signDetached
     private static PdfPKCS7 createSimplePdfPKCS7()
             throws NoSuchAlgorithmException, InvalidKeyException, NoSuchProviderException {
@@ -23,11 +23,13 @@
 package com.itextpdf.signatures;
 
 import com.itextpdf.commons.utils.DateTimeUtil;
+import com.itextpdf.commons.utils.FileUtil;
 import com.itextpdf.forms.PdfAcroForm;
 import com.itextpdf.forms.PdfSigFieldLock;
 import com.itextpdf.forms.fields.PdfFormField;
 import com.itextpdf.forms.fields.PdfSignatureFormField;
 import com.itextpdf.io.source.ByteArrayOutputStream;
+import com.itextpdf.io.source.IRandomAccessSource;
 import com.itextpdf.kernel.exceptions.PdfException;
 import com.itextpdf.kernel.geom.Rectangle;
 import com.itextpdf.kernel.pdf.EncryptionConstants;
@@ -46,6 +48,7 @@ import com.itextpdf.kernel.pdf.WriterProperties;
 import com.itextpdf.kernel.pdf.annot.PdfWidgetAnnotation;
 import com.itextpdf.pdfa.PdfADocument;
 import com.itextpdf.pdfa.PdfAAgnosticPdfDocument;
+import com.itextpdf.signatures.PdfSigner.CryptoStandard;
 import com.itextpdf.signatures.PdfSigner.ISignatureEvent;
 import com.itextpdf.signatures.exceptions.SignExceptionMessageConstant;
 import com.itextpdf.test.ExtendedITextTest;
@@ -56,6 +59,11 @@ import java.io.ByteArrayInputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.security.GeneralSecurityException;
 import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
@@ -65,6 +73,14 @@ import java.security.UnrecoverableKeyException;
 import java.security.cert.Certificate;
 import java.security.cert.CertificateException;
 import java.util.Calendar;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.junit.Assert;
 import org.junit.Before;
@@ -254,6 +270,227 @@ public class PdfSignerUnitTest extends ExtendedITextTest {
         Assert.assertNull(signer.temporaryOS);
     }
 
+    @Test
+    public void digestRangeOfInMemoryOutputTest() throws IOException, GeneralSecurityException {
+        PdfSigner signer = new PdfSigner(new PdfReader(new ByteArrayInputStream(createSimpleDocument())),
+                new ByteArrayOutputStream(), new StampingProperties());
+        assertDigestRangeMatchesRangeStream(signer, DigestAlgorithms.SHA256);
+    }
+
+    @Test
+    public void digestRangeOfTempFileOutputTest() throws IOException, GeneralSecurityException {
+        PdfSigner signer = new PdfSigner(new PdfReader(new ByteArrayInputStream(createSimpleDocument())),
+                new ByteArrayOutputStream(), DESTINATION_FOLDER + "digestRangeTempFile", new StampingProperties());
+        assertDigestRangeMatchesRangeStream(signer, "GOST3411-2012-512");
+    }
+
+    @Test
+    public void signDetachedToOutputChannelTest() throws IOException, GeneralSecurityException {
+        String outFileName = DESTINATION_FOLDER + "signDetachedToOutputChannel.pdf";
+        FileChannel channel = FileChannel.open(Paths.get(outFileName), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        PdfSigner signer = new PdfSigner(new PdfReader(new ByteArrayInputStream(createSimpleDocument())),
+                channel, new StampingProperties().useAppendMode());
+        Assert.assertNull(signer.temporaryOS);
+        Assert.assertNull(signer.tempFile);
+
+        IExternalSignature pks = new PrivateKeySignature(pk, DigestAlgorithms.SHA256,
+                BouncyCastleProvider.PROVIDER_NAME);
+        signer.signDetached(new BouncyCastleDigest(), pks, chain, null, null, null, 0, PdfSigner.CryptoStandard.CADES);
+        Assert.assertTrue(signer.closed);
+        Assert.assertFalse(channel.isOpen());
+
+        try (PdfDocument document = new PdfDocument(new PdfReader(outFileName))) {
+            SignatureUtil signatureUtil = new SignatureUtil(document);
+            String name = signatureUtil.getSignatureNames().get(0);
+            Assert.assertTrue(signatureUtil.signatureCoversWholeDocument(name));
+            Assert.assertTrue(signatureUtil.readSignatureData(name).verifySignatureIntegrityAndAuthenticity());
+        }
+    }
+
+    @Test
+    public void outputChannelIsTruncatedTest() throws IOException {
+        String outFileName = DESTINATION_FOLDER + "outputChannelIsTruncated.pdf";
+        try (OutputStream os = FileUtil.getFileOutputStream(outFileName)) {
+            os.write(new byte[100000]);
+        }
+        FileChannel channel = FileChannel.open(Paths.get(outFileName), StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        PdfSigner signer = new PdfSigner(new PdfReader(new ByteArrayInputStream(createSimpleDocument())),
+                channel, new StampingProperties());
+        Assert.assertEquals(0, channel.size());
+        signer.closeWithoutSignature();
+        // the channel belongs to the caller, it is closed only once the document is signed
+        Assert.assertTrue(channel.isOpen());
+        channel.close();
+    }
+
+    @Test
+    public void digestRangeOfOutputChannelTest() throws IOException, GeneralSecurityException {
+        FileChannel channel = FileChannel.open(Paths.get(DESTINATION_FOLDER + "digestRangeOfOutputChannel.pdf"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        PdfSigner signer = new PdfSigner(new PdfReader(new ByteArrayInputStream(createSimpleDocument())),
+                channel, new StampingProperties());
+        assertDigestRangeMatchesRangeStream(signer, "GOST3411-2012-256");
+    }
+
+    @Test
+    public void underlyingSourceOfOutputChannelTest() throws IOException, GeneralSecurityException {
+        String outFileName = DESTINATION_FOLDER + "underlyingSourceOfOutputChannel.pdf";
+        FileChannel channel = FileChannel.open(Paths.get(outFileName), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        PdfSigner signer = new PdfSigner(new PdfReader(new ByteArrayInputStream(createSimpleDocument())),
+                channel, new StampingProperties());
+        signer.prepareDetachedSignature(chain[0], CryptoStandard.CADES, 8192);
+        IRandomAccessSource source = signer.getUnderlyingSource();
+        byte[] bytes = new byte[(int) source.length()];
+        Assert.assertEquals(bytes.length, source.get(0, bytes, 0, bytes.length));
+        source.close();
+        // the source is only a view of the output, the channel stays open for the signer
+        Assert.assertTrue(channel.isOpen());
+        Assert.assertArrayEquals(Files.readAllBytes(Paths.get(outFileName)), bytes);
+        signer.closeWithoutSignature();
+        channel.close();
+    }
+
+    @Test
+    public void pooledDigestIsReleasedWhenDigestRangeFailsTest() throws IOException, GeneralSecurityException {
+        String outFileName = DESTINATION_FOLDER + "pooledDigestIsReleasedWhenDigestRangeFails.pdf";
+        FileChannel channel = FileChannel.open(Paths.get(outFileName), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        PdfSigner signer = new PdfSigner(new PdfReader(new ByteArrayInputStream(createSimpleDocument())),
+                channel, new StampingProperties());
+        signer.prepareDetachedSignature(chain[0], CryptoStandard.CADES, 8192);
+        // the byte range can no longer be read once the channel is closed
+        channel.close();
+        PooledDigest pooledDigest = new PooledDigest();
+        Assert.assertThrows(IOException.class, () -> signer.digestRange(DigestAlgorithms.SHA256, pooledDigest));
+        Assert.assertEquals(1, pooledDigest.getIdleCount(DigestAlgorithms.SHA256));
+        signer.closeWithoutSignature();
+    }
+
+    @Test
+    public void signDetachedAsyncTest() throws Exception {
+        String outFileName = DESTINATION_FOLDER + "signDetachedAsync.pdf";
+        PdfSigner signer = new PdfSigner(new PdfReader(new ByteArrayInputStream(createSimpleDocument())),
+                FileUtil.getFileOutputStream(outFileName), new StampingProperties());
+        PrivateKeySignature pks = new PrivateKeySignature(pk, DigestAlgorithms.SHA256,
+                BouncyCastleProvider.PROVIDER_NAME);
+        CompletableFuture<byte[]> signature = new CompletableFuture<>();
+        IAsyncExternalSignature asyncSignature = new IAsyncExternalSignature() {
+            @Override
+            public String getHashAlgorithm() {
+                return pks.getHashAlgorithm();
+            }
+
+            @Override
+            public String getEncryptionAlgorithm() {
+                return pks.getEncryptionAlgorithm();
+            }
+
+            @Override
+            public CompletableFuture<byte[]> sign(byte[] message) {
+                try {
+                    byte[] signed = pks.sign(message);
+                    ForkJoinPool.commonPool().execute(() -> signature.complete(signed));
+                } catch (GeneralSecurityException e) {
+                    signature.completeExceptionally(e);
+                }
+                return signature;
+            }
+        };
+
+        ExecutorService callbackExecutor = Executors.newSingleThreadExecutor();
+        try {
+            Thread callbackThread = callbackExecutor.submit(Thread::currentThread).get();
+            AtomicReference<Thread> completingThread = new AtomicReference<>();
+            Executor recordingExecutor = task -> callbackExecutor.execute(() -> {
+                completingThread.set(Thread.currentThread());
+                task.run();
+            });
+            CompletableFuture<Void> result = signer.signDetachedAsync(new BouncyCastleDigest(), asyncSignature,
+                    chain, null, null, null, 0, CryptoStandard.CADES, recordingExecutor);
+            result.get(30, TimeUnit.SECONDS);
+            Assert.assertTrue(signer.closed);
+            Assert.assertSame(callbackThread, completingThread.get());
+        } finally {
+            callbackExecutor.shutdown();
+        }
+
+        try (PdfDocument document = new PdfDocument(new PdfReader(outFileName))) {
+            SignatureUtil signatureUtil = new SignatureUtil(document);
+            String name = signatureUtil.getSignatureNames().get(0);
+            Assert.assertTrue(signatureUtil.signatureCoversWholeDocument(name));
+            Assert.assertTrue(signatureUtil.readSignatureData(name).verifySignatureIntegrityAndAuthenticity());
+        }
+    }
+
+    @Test
+    public void signDetachedAsyncFailedSignatureTest() throws IOException, GeneralSecurityException {
+        PdfSigner signer = new PdfSigner(new PdfReader(new ByteArrayInputStream(createSimpleDocument())),
+                new ByteArrayOutputStream(), new StampingProperties());
+        CompletableFuture<byte[]> signature = new CompletableFuture<>();
+        IAsyncExternalSignature asyncSignature = new IAsyncExternalSignature() {
+            @Override
+            public String getHashAlgorithm() {
+                return DigestAlgorithms.SHA256;
+            }
+
+            @Override
+            public String getEncryptionAlgorithm() {
+                return "RSA";
+            }
+
+            @Override
+            public CompletableFuture<byte[]> sign(byte[] message) {
+                return signature;
+            }
+        };
+
+        CompletableFuture<Void> result = signer.signDetachedAsync(new BouncyCastleDigest(), asyncSignature,
+                chain, null, null, null, 0, CryptoStandard.CMS, null);
+        Assert.assertFalse(result.isDone());
+        Assert.assertFalse(signer.closed);
+
+        GeneralSecurityException failure = new GeneralSecurityException("HSM is unavailable");
+        signature.completeExceptionally(failure);
+        Assert.assertTrue(result.isCompletedExceptionally());
+        Assert.assertTrue(signer.closed);
+        Exception e = Assert.assertThrows(ExecutionException.class, () -> result.get());
+        Assert.assertSame(failure, e.getCause());
+    }
+
+    @Test
+    public void signDetachedAsyncWithoutFutureTest() throws IOException, GeneralSecurityException {
+        PdfSigner signer = new PdfSigner(new PdfReader(new ByteArrayInputStream(createSimpleDocument())),
+                new ByteArrayOutputStream(), new StampingProperties());
+        IAsyncExternalSignature asyncSignature = new IAsyncExternalSignature() {
+            @Override
+            public String getHashAlgorithm() {
+                return DigestAlgorithms.SHA256;
+            }
+
+            @Override
+            public String getEncryptionAlgorithm() {
+                return "RSA";
+            }
+
+            @Override
+            public CompletableFuture<byte[]> sign(byte[] message) {
+                return null;
+            }
+        };
+
+        CompletableFuture<Void> result = signer.signDetachedAsync(new BouncyCastleDigest(), asyncSignature,
+                chain, null, null, null, 0, CryptoStandard.CMS, null);
+        Assert.assertTrue(result.isCompletedExceptionally());
+        Assert.assertTrue(signer.closed);
+        Exception e = Assert.assertThrows(ExecutionException.class, () -> result.get());
+        Assert.assertTrue(e.getCause() instanceof PdfException);
+        Assert.assertEquals(SignExceptionMessageConstant.EXTERNAL_SIGNATURE_RETURNED_NO_FUTURE,
+                e.getCause().getMessage());
+    }
+
     @Test
     public void initPdfaDocumentTest() throws IOException {
         PdfSigner signer = new PdfSigner(
@@ -431,6 +668,20 @@ public class PdfSignerUnitTest extends ExtendedITextTest {
         reader.close();
     }
 
+    private void assertDigestRangeMatchesRangeStream(PdfSigner signer, String hashAlgorithm)
+            throws IOException, GeneralSecurityException {
+        signer.prepareDetachedSignature(chain[0], CryptoStandard.CADES, 8192);
+        try {
+            byte[] expected = DigestAlgorithms.digest(signer.getRangeStream(),
+                    DigestAlgorithms.getMessageDigest(hashAlgorithm, BouncyCastleProvider.PROVIDER_NAME));
+            byte[] actual = signer.digestRange(
+                    DigestAlgorithms.getMessageDigest(hashAlgorithm, BouncyCastleProvider.PROVIDER_NAME));
+            Assert.assertArrayEquals(expected, actual);
+        } finally {
+            signer.closeWithoutSignature();
+        }
+    }
+
     private static byte[] createDocumentWithEmptyField() {
         ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
         PdfDocument pdfDocument = new PdfDocument(new PdfWriter(outputStream));
@@ -0,0 +1,102 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.signatures;
+
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.UnitTest;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(UnitTest.class)
+public class PooledDigestUnitTest extends ExtendedITextTest {
+
+    private static final byte[] DATA = "Hello, world!".getBytes(StandardCharsets.US_ASCII);
+
+    @Test
+    public void releasedDigestIsResetAndReusedTest() throws GeneralSecurityException {
+        PooledDigest pooledDigest = new PooledDigest();
+        MessageDigest digest = pooledDigest.getMessageDigest("GOST3411-2012-256");
+        digest.update(DATA);
+        pooledDigest.release(digest);
+        Assert.assertEquals(1, pooledDigest.getIdleCount("GOST3411-2012-256"));
+
+        MessageDigest reused = pooledDigest.getMessageDigest("GOST3411-2012-256");
+        Assert.assertSame(digest, reused);
+        Assert.assertEquals(0, pooledDigest.getIdleCount("GOST3411-2012-256"));
+        Assert.assertArrayEquals(new BouncyCastleDigest().getMessageDigest("GOST3411-2012-256").digest(DATA),
+                reused.digest(DATA));
+    }
+
+    @Test
+    public void clonedDigestsAreIndependentTest() throws GeneralSecurityException {
+        PooledDigest pooledDigest = new PooledDigest();
+        MessageDigest first = pooledDigest.getMessageDigest("GOST3411-2012-512");
+        first.update(DATA);
+        MessageDigest second = pooledDigest.getMessageDigest("GOST3411-2012-512");
+        Assert.assertNotSame(first, second);
+        Assert.assertEquals(first.getAlgorithm(), second.getAlgorithm());
+        Assert.assertArrayEquals(new BouncyCastleDigest().getMessageDigest("GOST3411-2012-512").digest(DATA),
+                second.digest(DATA));
+    }
+
+    @Test
+    public void algorithmAliasesShareThePoolTest() throws GeneralSecurityException {
+        PooledDigest pooledDigest = new PooledDigest();
+        pooledDigest.getMessageDigest("SHA-256");
+        pooledDigest.release(pooledDigest.getMessageDigest("SHA256"));
+        Assert.assertEquals(1, pooledDigest.getIdleCount("SHA-256"));
+        Assert.assertEquals(1, pooledDigest.getIdleCount("SHA256"));
+    }
+
+    @Test
+    public void maxIdleTest() throws GeneralSecurityException {
+        PooledDigest pooledDigest = new PooledDigest(new BouncyCastleDigest(), 2);
+        MessageDigest[] digests = new MessageDigest[3];
+        for (int i = 0; i < digests.length; i++) {
+            digests[i] = pooledDigest.getMessageDigest("SHA512");
+        }
+        for (MessageDigest digest : digests) {
+            pooledDigest.release(digest);
+        }
+        Assert.assertEquals(2, pooledDigest.getIdleCount("SHA512"));
+    }
+
+    @Test
+    public void foreignDigestIsNotPooledTest() throws GeneralSecurityException {
+        PooledDigest pooledDigest = new PooledDigest();
+        pooledDigest.release(new BouncyCastleDigest().getMessageDigest("SHA256"));
+        Assert.assertEquals(0, pooledDigest.getIdleCount("SHA256"));
+    }
+
+    @Test
+    public void unknownAlgorithmTest() {
+        Assert.assertThrows(NoSuchAlgorithmException.class,
+                () -> new PooledDigest().getMessageDigest("unknown"));
+    }
+}
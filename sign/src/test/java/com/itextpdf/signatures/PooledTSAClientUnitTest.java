@@ -0,0 +1,244 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.signatures;
+
+import com.itextpdf.kernel.exceptions.PdfException;
+import com.itextpdf.signatures.exceptions.SignExceptionMessageConstant;
+import com.itextpdf.signatures.testutils.builder.TestTimestampTokenBuilder;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.UnitTest;
+import com.itextpdf.test.signutils.Pkcs12FileHelper;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.Security;
+import java.security.cert.Certificate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.bouncycastle.cms.CMSSignedData;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.tsp.TimeStampToken;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(UnitTest.class)
+public class PooledTSAClientUnitTest extends ExtendedITextTest {
+
+    private static final String CERTS_SRC = "./src/test/resources/com/itextpdf/signatures/certs/";
+    private static final char[] PASSWORD = "testpass".toCharArray();
+
+    private static TestTimestampTokenBuilder tokenBuilder;
+
+    private HttpServer server;
+    private String url;
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final AtomicInteger concurrentRequests = new AtomicInteger();
+    private final AtomicInteger peakConcurrentRequests = new AtomicInteger();
+    private volatile int failuresLeft;
+    private volatile int failureCode;
+    private volatile long responseDelay;
+
+    @BeforeClass
+    public static void before() throws Exception {
+        Security.addProvider(new BouncyCastleProvider());
+        Certificate[] tsaChain = Pkcs12FileHelper.readFirstChain(CERTS_SRC + "tsCertRsa.p12", PASSWORD);
+        PrivateKey tsaKey = Pkcs12FileHelper.readFirstKey(CERTS_SRC + "tsCertRsa.p12", PASSWORD, PASSWORD);
+        tokenBuilder = new TestTimestampTokenBuilder(Arrays.asList(tsaChain), tsaKey);
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/tsa", this::handle);
+        server.start();
+        url = "http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":" + server.getAddress().getPort()
+                + "/tsa";
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void timeStampTokenTest() throws Exception {
+        PooledTSAClient client = new PooledTSAClient(url);
+        byte[] imprint = digest("data");
+        TimeStampToken token = parseToken(client.getTimeStampToken(imprint));
+        Assert.assertArrayEquals(imprint, token.getTimeStampInfo().getMessageImprintDigest());
+
+        PooledTSAClient.Metrics metrics = client.getMetrics();
+        Assert.assertEquals(1, metrics.getRequestCount());
+        Assert.assertEquals(0, metrics.getFailureCount());
+        Assert.assertEquals(0, metrics.getInFlight());
+        Assert.assertEquals(1, metrics.getPeakInFlight());
+    }
+
+    @Test
+    public void serverErrorIsRetriedTest() throws Exception {
+        failuresLeft = 2;
+        failureCode = 503;
+        PooledTSAClient client = new PooledTSAClient(url);
+        client.setRetries(2, 1);
+        Assert.assertNotNull(client.getTimeStampToken(digest("data")));
+        Assert.assertEquals(3, requestCount.get());
+
+        PooledTSAClient.Metrics metrics = client.getMetrics();
+        Assert.assertEquals(3, metrics.getRequestCount());
+        Assert.assertEquals(2, metrics.getRetryCount());
+        Assert.assertEquals(0, metrics.getFailureCount());
+    }
+
+    @Test
+    public void retriesExhaustedTest() {
+        failuresLeft = 3;
+        failureCode = 500;
+        PooledTSAClient client = new PooledTSAClient(url);
+        client.setRetries(1, 1);
+        Exception e = Assert.assertThrows(PdfException.class, () -> client.getTimeStampToken(digest("data")));
+        Assert.assertEquals(
+                new PdfException(SignExceptionMessageConstant.INVALID_HTTP_RESPONSE).setMessageParams(500).getMessage(),
+                e.getMessage());
+        Assert.assertEquals(2, requestCount.get());
+        Assert.assertEquals(1, client.getMetrics().getFailureCount());
+    }
+
+    @Test
+    public void clientErrorIsNotRetriedTest() {
+        failuresLeft = 1;
+        failureCode = 400;
+        PooledTSAClient client = new PooledTSAClient(url);
+        client.setRetries(3, 1);
+        Assert.assertThrows(PdfException.class, () -> client.getTimeStampToken(digest("data")));
+        Assert.assertEquals(1, requestCount.get());
+        Assert.assertEquals(0, client.getMetrics().getRetryCount());
+    }
+
+    @Test
+    public void batchTest() throws Exception {
+        responseDelay = 20;
+        PooledTSAClient client = new PooledTSAClient(url, null, null, 2);
+        List<byte[]> imprints = new ArrayList<>();
+        for (int i = 0; i < 8; ++i) {
+            imprints.add(digest("data" + i));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<byte[]> tokens = client.getTimeStampTokens(imprints, executor);
+            Assert.assertEquals(imprints.size(), tokens.size());
+            for (int i = 0; i < imprints.size(); ++i) {
+                Assert.assertArrayEquals(imprints.get(i),
+                        parseToken(tokens.get(i)).getTimeStampInfo().getMessageImprintDigest());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        Assert.assertTrue(peakConcurrentRequests.get() <= 2);
+        Assert.assertTrue(client.getMetrics().getPeakInFlight() <= 2);
+        Assert.assertEquals(8, client.getMetrics().getRequestCount());
+    }
+
+    @Test
+    public void acquireTimeoutTest() throws Exception {
+        responseDelay = 500;
+        PooledTSAClient client = new PooledTSAClient(url, null, null, 1);
+        client.setAcquireTimeout(10);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Exception e = Assert.assertThrows(PdfException.class,
+                    () -> client.getTimeStampTokens(Arrays.asList(digest("a"), digest("b")), executor));
+            Assert.assertEquals(new PdfException(SignExceptionMessageConstant.TSA_CONNECTION_WAIT_TIMED_OUT)
+                    .setMessageParams(url, 10L).getMessage(), e.getMessage());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        int current = concurrentRequests.incrementAndGet();
+        peakConcurrentRequests.accumulateAndGet(current, Math::max);
+        try {
+            byte[] request = readAll(exchange.getRequestBody());
+            if (responseDelay > 0) {
+                Thread.sleep(responseDelay);
+            }
+            byte[] response;
+            int code;
+            synchronized (this) {
+                if (failuresLeft > 0) {
+                    --failuresLeft;
+                    code = failureCode;
+                    response = new byte[0];
+                } else {
+                    code = 200;
+                    response = tokenBuilder.createTSAResponse(request, "SHA256withRSA", "SHA256");
+                }
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/timestamp-reply");
+            exchange.sendResponseHeaders(code, response.length == 0 ? -1 : response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            concurrentRequests.decrementAndGet();
+        }
+    }
+
+    private static byte[] digest(String data) throws Exception {
+        return MessageDigest.getInstance("SHA-256").digest(data.getBytes());
+    }
+
+    private static TimeStampToken parseToken(byte[] encoded) throws Exception {
+        return new TimeStampToken(new CMSSignedData(encoded));
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = in.read(buffer)) >= 0) {
+            baos.write(buffer, 0, read);
+        }
+        return baos.toByteArray();
+    }
+}
@@ -0,0 +1,249 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.signatures;
+
+import com.itextpdf.commons.utils.DateTimeUtil;
+import com.itextpdf.io.util.StreamUtil;
+import com.itextpdf.signatures.RevocationDataCache.Entry;
+import com.itextpdf.signatures.testutils.builder.TestCrlBuilder;
+import com.itextpdf.signatures.testutils.builder.TestOcspResponseBuilder;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.UnitTest;
+import com.itextpdf.test.signutils.Pkcs12FileHelper;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.security.PrivateKey;
+import java.security.Security;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.bouncycastle.cert.ocsp.OCSPRespBuilder;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(UnitTest.class)
+public class RevocationDataCacheUnitTest extends ExtendedITextTest {
+
+    private static final String OCSP_CERTS_SRC = "./src/test/resources/com/itextpdf/signatures/OcspClientBouncyCastleTest/";
+    private static final char[] PASSWORD = "testpass".toCharArray();
+
+    private HttpServer server;
+    private final AtomicInteger requestCount = new AtomicInteger();
+
+    @BeforeClass
+    public static void before() {
+        Security.addProvider(new BouncyCastleProvider());
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void freshEntryIsReusedTest() throws Exception {
+        RevocationDataCache cache = new RevocationDataCache();
+        Entry entry = createEntry(DateTimeUtil.addDaysToDate(DateTimeUtil.getCurrentTimeDate(), 1));
+        AtomicInteger loads = new AtomicInteger();
+        Callable<Entry> loader = () -> {
+            loads.incrementAndGet();
+            return entry;
+        };
+        Assert.assertSame(entry, cache.get("key", loader));
+        Assert.assertSame(entry, cache.get("key", loader));
+        Assert.assertEquals(1, loads.get());
+
+        cache.invalidate("key");
+        Assert.assertSame(entry, cache.get("key", loader));
+        Assert.assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void expiredEntryIsNotReusedTest() throws Exception {
+        InMemoryRevocationDataStore store = new InMemoryRevocationDataStore();
+        RevocationDataCache cache = new RevocationDataCache(store);
+        store.put("key", createEntry(DateTimeUtil.addDaysToDate(DateTimeUtil.getCurrentTimeDate(), -1)));
+        Entry entry = createEntry(DateTimeUtil.addDaysToDate(DateTimeUtil.getCurrentTimeDate(), 1));
+        Assert.assertSame(entry, cache.get("key", () -> entry));
+        Assert.assertSame(entry, store.get("key"));
+    }
+
+    @Test
+    public void entryWithoutNextUpdateTest() throws Exception {
+        RevocationDataCache cache = new RevocationDataCache();
+        Entry entry = new Entry(new byte[] {1}, DateTimeUtil.getCurrentTimeDate(), null);
+        AtomicInteger loads = new AtomicInteger();
+        Callable<Entry> loader = () -> {
+            loads.incrementAndGet();
+            return entry;
+        };
+        cache.get("key", loader);
+        cache.get("key", loader);
+        Assert.assertEquals(2, loads.get());
+
+        cache.setMaxAgeWithoutNextUpdate(TimeUnit.MINUTES.toMillis(5));
+        cache.get("key", loader);
+        cache.get("key", loader);
+        Assert.assertEquals(3, loads.get());
+    }
+
+    @Test
+    public void concurrentFetchesAreMergedTest() throws Exception {
+        RevocationDataCache cache = new RevocationDataCache();
+        Entry entry = createEntry(DateTimeUtil.addDaysToDate(DateTimeUtil.getCurrentTimeDate(), 1));
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        Callable<Entry> loader = () -> {
+            loads.incrementAndGet();
+            loaderStarted.countDown();
+            release.await();
+            return entry;
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Entry>> results = new ArrayList<>();
+            results.add(executor.submit(() -> cache.get("key", loader)));
+            Assert.assertTrue(loaderStarted.await(10, TimeUnit.SECONDS));
+            for (int i = 0; i < 3; i++) {
+                results.add(executor.submit(() -> cache.get("key", loader)));
+            }
+            release.countDown();
+            for (Future<Entry> result : results) {
+                Assert.assertSame(entry, result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdown();
+        }
+        Assert.assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void failedFetchIsNotCachedTest() throws Exception {
+        RevocationDataCache cache = new RevocationDataCache();
+        IOException failure = new IOException("Responder is unavailable");
+        Exception e = Assert.assertThrows(IOException.class, () -> cache.get("key", () -> {
+            throw failure;
+        }));
+        Assert.assertSame(failure, e);
+        Assert.assertNull(cache.get("key", () -> null));
+    }
+
+    @Test
+    public void crlClientOnlineDownloadsCrlOnceTest() throws Exception {
+        X509Certificate caCert = (X509Certificate) Pkcs12FileHelper.readFirstChain(
+                OCSP_CERTS_SRC + "ocspRootRsa.p12", PASSWORD)[0];
+        PrivateKey caKey = Pkcs12FileHelper.readFirstKey(OCSP_CERTS_SRC + "ocspRootRsa.p12", PASSWORD, PASSWORD);
+        byte[] crl = new TestCrlBuilder(caCert, caKey, DateTimeUtil.getCurrentTimeDate()).makeCrl();
+        server.createContext("/crl", exchange -> {
+            requestCount.incrementAndGet();
+            exchange.getResponseHeaders().add("Content-Type", "application/pkix-crl");
+            exchange.sendResponseHeaders(200, crl.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(crl);
+            }
+        });
+        String url = "http://localhost:" + server.getAddress().getPort() + "/crl";
+
+        RevocationDataCache cache = new RevocationDataCache();
+        for (int i = 0; i < 3; i++) {
+            CrlClientOnline client = new CrlClientOnline(url);
+            client.setRevocationDataCache(cache);
+            Collection<byte[]> encoded = client.getEncoded(caCert, null);
+            Assert.assertEquals(1, encoded.size());
+            Assert.assertArrayEquals(crl, encoded.iterator().next());
+        }
+        Assert.assertEquals(1, requestCount.get());
+
+        new CrlClientOnline(url).getEncoded(caCert, null);
+        Assert.assertEquals(2, requestCount.get());
+    }
+
+    @Test
+    public void ocspClientRequestsResponseOnceTest() throws Exception {
+        X509Certificate checkCert = (X509Certificate) Pkcs12FileHelper.readFirstChain(
+                OCSP_CERTS_SRC + "ocspSignRsa.p12", PASSWORD)[0];
+        X509Certificate caCert = (X509Certificate) Pkcs12FileHelper.readFirstChain(
+                OCSP_CERTS_SRC + "ocspRootRsa.p12", PASSWORD)[0];
+        PrivateKey caKey = Pkcs12FileHelper.readFirstKey(OCSP_CERTS_SRC + "ocspRootRsa.p12", PASSWORD, PASSWORD);
+        server.createContext("/ocsp", exchange -> {
+            requestCount.incrementAndGet();
+            byte[] response;
+            try {
+                byte[] request = StreamUtil.inputStreamToArray(exchange.getRequestBody());
+                TestOcspResponseBuilder builder = new TestOcspResponseBuilder(caCert, caKey);
+                response = new OCSPRespBuilder().build(OCSPRespBuilder.SUCCESSFUL,
+                        builder.makeOcspResponseObject(request)).getEncoded();
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/ocsp-response");
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(response);
+            }
+        });
+        String url = "http://localhost:" + server.getAddress().getPort() + "/ocsp";
+
+        OcspClientBouncyCastle client = new OcspClientBouncyCastle(null);
+        client.setRevocationDataCache(new RevocationDataCache());
+        byte[] first = client.getEncoded(checkCert, caCert, url);
+        byte[] second = client.getEncoded(checkCert, caCert, url);
+        Assert.assertNotNull(first);
+        Assert.assertArrayEquals(first, second);
+        Assert.assertEquals(1, requestCount.get());
+
+        client.setRevocationDataCache(null);
+        Assert.assertNotNull(client.getEncoded(checkCert, caCert, url));
+        Assert.assertEquals(2, requestCount.get());
+    }
+
+    private static Entry createEntry(Date nextUpdate) {
+        return new Entry(new byte[] {1, 2, 3}, DateTimeUtil.addDaysToDate(nextUpdate, -2), nextUpdate);
+    }
+}
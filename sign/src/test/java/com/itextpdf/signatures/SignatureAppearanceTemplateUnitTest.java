@@ -0,0 +1,184 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.signatures;
+
+import com.itextpdf.io.image.ImageData;
+import com.itextpdf.io.image.ImageDataFactory;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfStream;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
+import com.itextpdf.signatures.PdfSignatureAppearance.RenderingMode;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.UnitTest;
+import com.itextpdf.test.signutils.Pkcs12FileHelper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.security.Security;
+import java.security.cert.Certificate;
+import java.util.GregorianCalendar;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(UnitTest.class)
+public class SignatureAppearanceTemplateUnitTest extends ExtendedITextTest {
+
+    private static final String CERTS_SRC = "./src/test/resources/com/itextpdf/signatures/certs/";
+    private static final String IMAGE = "./src/test/resources/com/itextpdf/signatures/sign/PdfSignatureAppearanceTest/itext.png";
+    private static final char[] PASSWORD = "testpass".toCharArray();
+
+    private static Certificate signCert;
+
+    @BeforeClass
+    public static void before() throws Exception {
+        Security.addProvider(new BouncyCastleProvider());
+        signCert = Pkcs12FileHelper.readFirstChain(CERTS_SRC + "signCertRsa01.p12", PASSWORD)[0];
+    }
+
+    @Test
+    public void staticLayerIsRenderedOnceTest() throws IOException {
+        SignatureAppearanceTemplate template = new SignatureAppearanceTemplate()
+                .setRenderingMode(RenderingMode.GRAPHIC_AND_DESCRIPTION)
+                .setSignatureGraphic(loadImage());
+
+        byte[] firstLayer = renderLayer2(template, 0);
+        byte[] secondLayer = renderLayer2(template, 0);
+        Assert.assertEquals(1, template.getStaticLayerCount());
+        // the same text is laid out with the same font size
+        Assert.assertArrayEquals(firstLayer, secondLayer);
+
+        renderLayer2(template, 90);
+        Assert.assertEquals(2, template.getStaticLayerCount());
+    }
+
+    @Test
+    public void staticLayerContainsImagesTest() throws IOException {
+        SignatureAppearanceTemplate template = new SignatureAppearanceTemplate()
+                .setRenderingMode(RenderingMode.GRAPHIC)
+                .setSignatureGraphic(loadImage())
+                .setImage(loadImage())
+                .setImageScale(-1);
+
+        try (PdfDocument document = createDocument(0)) {
+            PdfFormXObject layer2 = createAppearance(document, template).getLayer2();
+            PdfDictionary xObjects = layer2.getResources().getResource(PdfName.XObject);
+            Assert.assertEquals(1, xObjects.size());
+            PdfStream staticLayer = xObjects.getAsStream(xObjects.keySet().iterator().next());
+            Assert.assertEquals(2, new PdfFormXObject(staticLayer).getResources().getResource(PdfName.XObject).size());
+            Assert.assertNull(layer2.getResources().getResource(PdfName.Font));
+        }
+    }
+
+    @Test
+    public void descriptionWithoutImagesTest() throws IOException {
+        SignatureAppearanceTemplate template = new SignatureAppearanceTemplate();
+
+        try (PdfDocument document = createDocument(0)) {
+            PdfFormXObject layer2 = createAppearance(document, template).getLayer2();
+            Assert.assertNull(layer2.getResources().getResource(PdfName.XObject));
+            Assert.assertNotNull(layer2.getResources().getResource(PdfName.Font));
+        }
+        Assert.assertEquals(0, template.getStaticLayerCount());
+    }
+
+    @Test
+    public void graphicModeWithoutGraphicTest() throws IOException {
+        SignatureAppearanceTemplate template = new SignatureAppearanceTemplate()
+                .setRenderingMode(RenderingMode.GRAPHIC);
+
+        try (PdfDocument document = createDocument(0)) {
+            PdfSignatureAppearance appearance = new PdfSignatureAppearance(document, new Rectangle(36, 36, 200, 100), 1)
+                    .setTemplate(template);
+            Assert.assertThrows(IllegalStateException.class, () -> appearance.getAppearance());
+        }
+    }
+
+    @Test
+    public void templateMatchesAppearanceWithoutTemplateTest() throws IOException {
+        SignatureAppearanceTemplate template = new SignatureAppearanceTemplate();
+        String longText = "Digitally signed by a signer with a rather long name, for a reason which needs several lines";
+        String shortText = "Signed";
+
+        // the font size fitted to the first text must not leak into the next document
+        Assert.assertArrayEquals(renderLayer2(null, longText), renderLayer2(template, longText));
+        Assert.assertArrayEquals(renderLayer2(null, shortText), renderLayer2(template, shortText));
+        Assert.assertArrayEquals(renderLayer2(null, longText), renderLayer2(template, longText));
+    }
+
+    @Test
+    public void changingTemplateClearsStaticLayersTest() throws IOException {
+        SignatureAppearanceTemplate template = new SignatureAppearanceTemplate()
+                .setRenderingMode(RenderingMode.GRAPHIC)
+                .setSignatureGraphic(loadImage());
+        renderLayer2(template, 0);
+        Assert.assertEquals(1, template.getStaticLayerCount());
+
+        template.setImageScale(2);
+        Assert.assertEquals(0, template.getStaticLayerCount());
+    }
+
+    private static byte[] renderLayer2(SignatureAppearanceTemplate template, int rotation) throws IOException {
+        try (PdfDocument document = createDocument(rotation)) {
+            return createAppearance(document, template).getLayer2().getPdfObject().getBytes();
+        }
+    }
+
+    private static byte[] renderLayer2(SignatureAppearanceTemplate template, String layer2Text) throws IOException {
+        try (PdfDocument document = createDocument(0)) {
+            PdfSignatureAppearance appearance = new PdfSignatureAppearance(document, new Rectangle(36, 36, 200, 100), 1)
+                    .setTemplate(template)
+                    .setLayer2Text(layer2Text);
+            appearance.getAppearance();
+            return appearance.getLayer2().getPdfObject().getBytes();
+        }
+    }
+
+    private static PdfSignatureAppearance createAppearance(PdfDocument document,
+            SignatureAppearanceTemplate template) throws IOException {
+        PdfSignatureAppearance appearance = new PdfSignatureAppearance(document, new Rectangle(36, 36, 200, 100), 1)
+                .setTemplate(template)
+                .setCertificate(signCert)
+                .setReason("Test")
+                .setLocation("Minsk");
+        appearance.setSignDate(new GregorianCalendar(2022, 1, 1));
+        appearance.getAppearance();
+        return appearance;
+    }
+
+    private static PdfDocument createDocument(int rotation) {
+        PdfDocument document = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        document.addNewPage().setRotation(rotation);
+        return document;
+    }
+
+    private static ImageData loadImage() throws MalformedURLException {
+        return ImageDataFactory.create(IMAGE);
+    }
+}
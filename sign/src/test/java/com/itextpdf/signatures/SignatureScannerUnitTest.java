@@ -0,0 +1,355 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.signatures;
+
+import com.itextpdf.forms.PdfAcroForm;
+import com.itextpdf.io.logs.IoLogMessageConstant;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfRevisionView;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.StampingProperties;
+import com.itextpdf.kernel.pdf.WriterProperties;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.LogMessage;
+import com.itextpdf.test.annotations.LogMessages;
+import com.itextpdf.test.annotations.type.UnitTest;
+import com.itextpdf.test.signutils.Pkcs12FileHelper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.PrivateKey;
+import java.security.Security;
+import java.security.cert.Certificate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(UnitTest.class)
+public class SignatureScannerUnitTest extends ExtendedITextTest {
+
+    private static final String RESOURCES = "./src/test/resources/com/itextpdf/signatures/";
+    private static final String CERTS_SRC = RESOURCES + "certs/";
+
+    private static final char[] PASSWORD = "testpass".toCharArray();
+
+    @BeforeClass
+    public static void before() {
+        Security.addProvider(new BouncyCastleProvider());
+    }
+
+    @Test
+    // the resources include a file with a broken cross-reference table, which PdfReader rebuilds
+    @LogMessages(messages = @LogMessage(messageTemplate =
+            IoLogMessageConstant.XREF_ERROR_WHILE_READING_TABLE_WILL_BE_REBUILT, count = 2))
+    public void scannerMatchesSignatureUtilTest() throws IOException {
+        List<File> files = new ArrayList<>();
+        collectPdfFiles(new File(RESOURCES), files);
+        int scanned = 0;
+        for (File file : files) {
+            byte[] pdf = Files.readAllBytes(file.toPath());
+            if (assertSameAsSignatureUtil(file.getName(), pdf)) {
+                scanned++;
+            }
+        }
+        Assert.assertTrue(scanned > 50);
+    }
+
+    @Test
+    public void simpleSignatureTest() throws IOException {
+        try (SignatureScanner scanner = new SignatureScanner(RESOURCES + "SignatureUtilTest/simpleSignature.pdf")) {
+            Assert.assertEquals(Arrays.asList("Signature1"), scanner.getSignatureNames());
+            Assert.assertEquals(1, scanner.getRevision("Signature1"));
+            Assert.assertEquals(1, scanner.getTotalRevisions());
+            Assert.assertTrue(scanner.signatureCoversWholeDocument("Signature1"));
+            Assert.assertEquals(4, scanner.getByteRange("Signature1").length);
+            Assert.assertEquals(PdfName.ETSI_CAdES_DETACHED,
+                    scanner.getSignatureDictionary("Signature1").getAsName(PdfName.SubFilter));
+        }
+    }
+
+    @Test
+    public void unknownFieldTest() throws IOException {
+        try (SignatureScanner scanner = new SignatureScanner(RESOURCES + "SignatureUtilTest/simpleSignature.pdf")) {
+            Assert.assertNull(scanner.getSignatureDictionary("Signature2"));
+            Assert.assertNull(scanner.getByteRange("Signature2"));
+            Assert.assertNull(scanner.readSignatureMetadata("Signature2"));
+            Assert.assertNull(scanner.extractRevision("Signature2"));
+            Assert.assertEquals(0, scanner.getRevision("Signature2"));
+            Assert.assertFalse(scanner.signatureCoversWholeDocument("Signature2"));
+        }
+    }
+
+    @Test
+    public void hybridXrefTest() throws Exception {
+        String file = RESOURCES + "sign/PdfSignatureAppearanceTest/hybrid.pdf";
+        byte[] hybrid = Files.readAllBytes(new File(file).toPath());
+        byte[] signed = signInAppendMode(hybrid);
+        try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(signed)))) {
+            PdfRevisionView revisions = new PdfRevisionView(document);
+            // the signature is appended to the hybrid-reference section of the original document
+            Assert.assertNotNull(revisions.getTrailer(revisions.getRevisionCount() - 2).get(PdfName.XRefStm));
+        }
+        Assert.assertTrue(assertSameAsSignatureUtil(file, signed));
+        try (SignatureScanner scanner = new SignatureScanner(signed)) {
+            Assert.assertEquals(Arrays.asList("Signature1"), scanner.getSignatureNames());
+            Assert.assertTrue(scanner.signatureCoversWholeDocument("Signature1"));
+            Assert.assertTrue(scanner.readSignatureData("Signature1").verifySignatureIntegrityAndAuthenticity());
+        }
+    }
+
+    @Test
+    public void incrementallyUpdatedXrefStreamTest() throws Exception {
+        byte[] signed = signInAppendMode(signInAppendMode(createCompressedDocument()));
+        try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(signed)))) {
+            PdfRevisionView revisions = new PdfRevisionView(document);
+            Assert.assertEquals(3, revisions.getRevisionCount());
+            for (int revision = 0; revision < revisions.getRevisionCount(); ++revision) {
+                Assert.assertEquals(PdfName.XRef, revisions.getTrailer(revision).getAsName(PdfName.Type));
+            }
+        }
+        Assert.assertTrue(assertSameAsSignatureUtil("xref streams", signed));
+        try (SignatureScanner scanner = new SignatureScanner(signed)) {
+            List<String> names = scanner.getSignatureNames();
+            Assert.assertEquals(2, names.size());
+            Assert.assertEquals(1, scanner.getRevision(names.get(0)));
+            Assert.assertEquals(2, scanner.getRevision(names.get(1)));
+            for (String name : names) {
+                Assert.assertTrue(scanner.readSignatureData(name).verifySignatureIntegrityAndAuthenticity());
+            }
+        }
+    }
+
+    @Test
+    public void compressedDocumentTest() throws Exception {
+        byte[] signed = signInAppendMode(createCompressedDocument());
+        Assert.assertTrue(assertSameAsSignatureUtil("compressed", signed));
+        try (SignatureScanner scanner = new SignatureScanner(signed)) {
+            Assert.assertEquals(Arrays.asList("Signature1"), scanner.getSignatureNames());
+            Assert.assertTrue(scanner.signatureCoversWholeDocument("Signature1"));
+            Assert.assertTrue(scanner.readSignatureData("Signature1").verifySignatureIntegrityAndAuthenticity());
+        }
+    }
+
+    @Test
+    public void readSignatureMetadataTest() throws Exception {
+        Certificate[] chain = Pkcs12FileHelper.readFirstChain(CERTS_SRC + "signCertRsa01.p12", PASSWORD);
+        byte[] signed = signInAppendMode(createCompressedDocument());
+        try (SignatureScanner scanner = new SignatureScanner(signed)) {
+            PdfPKCS7 pkcs7 = scanner.readSignatureMetadata("Signature1");
+            Assert.assertEquals(chain[0], pkcs7.getSigningCertificate());
+            Assert.assertEquals("Test reason", pkcs7.getReason());
+            Assert.assertEquals("Test location", pkcs7.getLocation());
+            Assert.assertNotNull(pkcs7.getSignDate());
+        }
+    }
+
+    @Test
+    public void extractRevisionTest() throws Exception {
+        byte[] signed = signInAppendMode(signInAppendMode(createCompressedDocument()));
+        try (SignatureScanner scanner = new SignatureScanner(signed)) {
+            List<String> names = scanner.getSignatureNames();
+            Assert.assertEquals(2, names.size());
+            Assert.assertEquals(2, scanner.getTotalRevisions());
+            Assert.assertFalse(scanner.signatureCoversWholeDocument(names.get(0)));
+            Assert.assertTrue(scanner.signatureCoversWholeDocument(names.get(1)));
+            ByteArrayOutputStream revision = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1024];
+            int read;
+            try (java.io.InputStream stream = scanner.extractRevision(names.get(0))) {
+                while ((read = stream.read(buffer)) > 0) {
+                    revision.write(buffer, 0, read);
+                }
+            }
+            long[] byteRange = scanner.getByteRange(names.get(0));
+            Assert.assertEquals(byteRange[2] + byteRange[3], revision.size());
+        }
+    }
+
+    @Test
+    public void verifyIntegrityTest() throws Exception {
+        byte[] signed = signInAppendMode(signInAppendMode(createCompressedDocument()));
+        try (SignatureScanner scanner = new SignatureScanner(signed)) {
+            List<SignatureScanner.IntegrityResult> results = scanner.verifyIntegrity();
+            Assert.assertEquals(scanner.getSignatureNames().size(), results.size());
+            SignatureScanner.IntegrityResult first = results.get(0);
+            Assert.assertNull(first.getError());
+            Assert.assertTrue(first.isIntegrityValid());
+            Assert.assertFalse(first.isEndingAtEndOfFile());
+            Assert.assertFalse(first.coversWholeDocument());
+            SignatureScanner.IntegrityResult last = results.get(1);
+            Assert.assertEquals(scanner.getSignatureNames().get(1), last.getName());
+            Assert.assertTrue(last.isIntegrityValid());
+            Assert.assertTrue(last.isEndingAtEndOfFile());
+            Assert.assertTrue(last.coversWholeDocument());
+            Assert.assertArrayEquals(scanner.getByteRange(last.getName()), last.getByteRange());
+        }
+    }
+
+    @Test
+    public void verifyIntegrityOfTamperedDocumentTest() throws Exception {
+        byte[] signed = signInAppendMode(signInAppendMode(createCompressedDocument()));
+        // the binary comment after the header is covered by every signature and is not parsed
+        signed[11] ^= 1;
+        try (SignatureScanner scanner = new SignatureScanner(signed)) {
+            for (SignatureScanner.IntegrityResult result : scanner.verifyIntegrity()) {
+                Assert.assertNull(result.getError());
+                Assert.assertFalse(result.isIntegrityValid());
+            }
+        }
+    }
+
+    @Test
+    public void headerOffsetTest() throws IOException {
+        byte[] original = Files.readAllBytes(new File(RESOURCES + "SignatureUtilTest/simpleSignature.pdf").toPath());
+        byte[] shifted = new byte[original.length + 4];
+        System.arraycopy("abc\n".getBytes(), 0, shifted, 0, 4);
+        System.arraycopy(original, 0, shifted, 4, original.length);
+        Assert.assertTrue(assertSameAsSignatureUtil("shifted", shifted));
+        try (SignatureScanner scanner = new SignatureScanner(shifted)) {
+            Assert.assertEquals(Arrays.asList("Signature1"), scanner.getSignatureNames());
+            Assert.assertTrue(scanner.signatureCoversWholeDocument("Signature1"));
+        }
+    }
+
+    @Test
+    @LogMessages(messages = @LogMessage(messageTemplate =
+            IoLogMessageConstant.XREF_ERROR_WHILE_READING_TABLE_WILL_BE_REBUILT))
+    public void brokenXrefIsRebuiltTest() throws IOException {
+        byte[] pdf = Files.readAllBytes(new File(RESOURCES + "SignatureUtilTest/simpleSignature.pdf").toPath());
+        String content = new String(pdf, StandardCharsets.ISO_8859_1);
+        int startxref = content.lastIndexOf("startxref");
+        // points the last cross-reference section to the header
+        int offset = startxref + "startxref".length() + 1;
+        while (Character.isDigit(content.charAt(offset))) {
+            pdf[offset++] = (byte) '0';
+        }
+        try (SignatureScanner scanner = new SignatureScanner(pdf)) {
+            Assert.assertEquals(Arrays.asList("Signature1"), scanner.getSignatureNames());
+            Assert.assertNotNull(scanner.readSignatureMetadata("Signature1").getSigningCertificate());
+        }
+    }
+
+    /* Returns false if the file cannot be opened by PdfDocument at all */
+    private static boolean assertSameAsSignatureUtil(String fileName, byte[] pdf) throws IOException {
+        PdfDocument document;
+        try {
+            document = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf)));
+        } catch (Exception e) {
+            return false;
+        }
+        try (SignatureScanner scanner = new SignatureScanner(pdf)) {
+            SignatureUtil util = new SignatureUtil(document);
+            List<String> names = util.getSignatureNames();
+            Assert.assertEquals(fileName, names, scanner.getSignatureNames());
+            Assert.assertEquals(fileName, util.getTotalRevisions(), scanner.getTotalRevisions());
+            for (String name : names) {
+                Assert.assertEquals(fileName, util.getRevision(name), scanner.getRevision(name));
+                Assert.assertEquals(fileName, util.signatureCoversWholeDocument(name),
+                        scanner.signatureCoversWholeDocument(name));
+                Assert.assertArrayEquals(fileName, util.getSignatureDictionary(name)
+                        .getAsArray(PdfName.ByteRange).toLongArray(), scanner.getByteRange(name));
+                Assert.assertEquals(fileName, describe(util, name), describe(scanner, name));
+            }
+        } finally {
+            document.close();
+        }
+        return true;
+    }
+
+    private static String describe(SignatureUtil util, String name) {
+        try {
+            return describe(util.readSignatureData(name));
+        } catch (RuntimeException e) {
+            return e.getClass().getName();
+        }
+    }
+
+    private static String describe(SignatureScanner scanner, String name) {
+        try {
+            return describe(scanner.readSignatureData(name));
+        } catch (RuntimeException e) {
+            return e.getClass().getName();
+        }
+    }
+
+    private static String describe(PdfPKCS7 pkcs7) {
+        return pkcs7.getSigningCertificate().getSerialNumber() + " " + pkcs7.getSignName() + " "
+                + pkcs7.getReason() + " " + pkcs7.getLocation() + " " + pkcs7.getSignDate().getTimeInMillis()
+                + " " + pkcs7.getDigestAlgorithm();
+    }
+
+    private static void collectPdfFiles(File directory, List<File> files) {
+        File[] children = directory.listFiles();
+        if (children == null) {
+            return;
+        }
+        for (File child : children) {
+            if (child.isDirectory()) {
+                collectPdfFiles(child, files);
+            } else if (child.getName().endsWith(".pdf")) {
+                files.add(child);
+            }
+        }
+    }
+
+    private static byte[] createCompressedDocument() {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        PdfDocument document = new PdfDocument(new PdfWriter(outputStream,
+                new WriterProperties().setFullCompressionMode(true)));
+        for (int i = 0; i < 3; ++i) {
+            document.addNewPage();
+        }
+        PdfAcroForm.getAcroForm(document, true);
+        document.close();
+        return outputStream.toByteArray();
+    }
+
+    private static byte[] signInAppendMode(byte[] pdf) throws Exception {
+        PrivateKey pk = Pkcs12FileHelper.readFirstKey(CERTS_SRC + "signCertRsa01.p12", PASSWORD, PASSWORD);
+        Certificate[] chain = Pkcs12FileHelper.readFirstChain(CERTS_SRC + "signCertRsa01.p12", PASSWORD);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        PdfSigner signer = new PdfSigner(new PdfReader(new ByteArrayInputStream(pdf)), outputStream,
+                new StampingProperties().useAppendMode());
+        signer.getSignatureAppearance()
+                .setReason("Test reason")
+                .setLocation("Test location")
+                .setPageRect(new Rectangle(36, 648, 200, 100))
+                .setPageNumber(1);
+        signer.signDetached(new BouncyCastleDigest(),
+                new PrivateKeySignature(pk, DigestAlgorithms.SHA256, BouncyCastleProvider.PROVIDER_NAME),
+                chain, null, null, null, 0, PdfSigner.CryptoStandard.CMS);
+        return outputStream.toByteArray();
+    }
+}
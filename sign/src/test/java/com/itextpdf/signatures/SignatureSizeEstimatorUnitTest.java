@@ -0,0 +1,242 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.signatures;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.StampingProperties;
+import com.itextpdf.signatures.PdfSigner.CryptoStandard;
+import com.itextpdf.signatures.testutils.builder.TestCrlBuilder;
+import com.itextpdf.signatures.testutils.client.TestTsaClient;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.UnitTest;
+import com.itextpdf.test.signutils.Pkcs12FileHelper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.Security;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.jce.spec.ECNamedCurveGenParameterSpec;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(UnitTest.class)
+public class SignatureSizeEstimatorUnitTest extends ExtendedITextTest {
+
+    private static final String CERTS_SRC = "./src/test/resources/com/itextpdf/signatures/certs/";
+
+    private static final char[] PASSWORD = "testpass".toCharArray();
+
+    @BeforeClass
+    public static void before() {
+        Security.addProvider(new BouncyCastleProvider());
+    }
+
+    @Test
+    public void rsaEstimationMatchesContainerTest() throws Exception {
+        PrivateKey pk = Pkcs12FileHelper.readFirstKey(CERTS_SRC + "signCertRsa01.p12", PASSWORD, PASSWORD);
+        Certificate[] chain = Pkcs12FileHelper.readFirstChain(CERTS_SRC + "signCertRsa01.p12", PASSWORD);
+        IExternalSignature signature = new PrivateKeySignature(pk, DigestAlgorithms.SHA256,
+                BouncyCastleProvider.PROVIDER_NAME);
+
+        int estimation = new SignatureSizeEstimator().estimate(chain, signature.getHashAlgorithm(),
+                signature.getEncryptionAlgorithm(), new BouncyCastleDigest(), CryptoStandard.CADES, null, null, null,
+                null);
+        Assert.assertEquals(encodeContainer(signature, chain).length + SignatureSizeEstimator.DEFAULT_MARGIN,
+                estimation);
+    }
+
+    @Test
+    public void ecdsaEstimationCoversContainerTest() throws Exception {
+        PrivateKey pk = Pkcs12FileHelper.readFirstKey(CERTS_SRC + "signCertEcc01.p12", PASSWORD, PASSWORD);
+        Certificate[] chain = Pkcs12FileHelper.readFirstChain(CERTS_SRC + "signCertEcc01.p12", PASSWORD);
+        IExternalSignature signature = new PrivateKeySignature(pk, DigestAlgorithms.SHA256,
+                BouncyCastleProvider.PROVIDER_NAME);
+
+        int estimation = new SignatureSizeEstimator(0).estimate(chain, signature.getHashAlgorithm(),
+                signature.getEncryptionAlgorithm(), new BouncyCastleDigest(), CryptoStandard.CADES, null, null, null,
+                null);
+        int containerLength = encodeContainer(signature, chain).length;
+        Assert.assertTrue(containerLength <= estimation);
+        Assert.assertTrue(estimation - containerLength < 16);
+    }
+
+    @Test
+    public void gostEstimationMatchesContainerTest() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("ECGOST3410-2012",
+                BouncyCastleProvider.PROVIDER_NAME);
+        generator.initialize(new ECNamedCurveGenParameterSpec("Tc26-Gost-3410-12-512-paramSetA"));
+        KeyPair keyPair = generator.generateKeyPair();
+        Certificate[] chain = new Certificate[] {createSelfSignedCertificate(keyPair,
+                "GOST3411-2012-512WITHECGOST3410-2012-512")};
+        PrivateKeySignature signature = new PrivateKeySignature(keyPair.getPrivate(), "GOST3411-2012-512",
+                BouncyCastleProvider.PROVIDER_NAME);
+        signature.setEncryptionAlgorithm("ECGOST3410-2012-512");
+
+        int estimation = new SignatureSizeEstimator().estimate(chain, signature.getHashAlgorithm(),
+                signature.getEncryptionAlgorithm(), new BouncyCastleDigest(), CryptoStandard.CADES, null, null, null,
+                null);
+        Assert.assertEquals(encodeContainer(signature, chain).length + SignatureSizeEstimator.DEFAULT_MARGIN,
+                estimation);
+    }
+
+    @Test
+    public void timestampTokenSizeIsReservedTest() throws Exception {
+        PrivateKey pk = Pkcs12FileHelper.readFirstKey(CERTS_SRC + "signCertRsa01.p12", PASSWORD, PASSWORD);
+        Certificate[] chain = Pkcs12FileHelper.readFirstChain(CERTS_SRC + "signCertRsa01.p12", PASSWORD);
+        PrivateKey tsaPk = Pkcs12FileHelper.readFirstKey(CERTS_SRC + "tsCertRsa.p12", PASSWORD, PASSWORD);
+        Certificate[] tsaChain = Pkcs12FileHelper.readFirstChain(CERTS_SRC + "tsCertRsa.p12", PASSWORD);
+        ITSAClient tsaClient = new TestTsaClient(Arrays.asList(tsaChain), tsaPk);
+        SignatureSizeEstimator estimator = new SignatureSizeEstimator();
+
+        int withoutTimestamp = estimator.estimate(chain, DigestAlgorithms.SHA256, "RSA", new BouncyCastleDigest(),
+                CryptoStandard.CADES, null, null, null, null);
+        int withTimestamp = estimator.estimate(chain, DigestAlgorithms.SHA256, "RSA", new BouncyCastleDigest(),
+                CryptoStandard.CADES, null, null, null, tsaClient);
+        Assert.assertTrue(withTimestamp - withoutTimestamp >= tsaClient.getTokenSizeEstimate());
+
+        PdfSigner signer = new PdfSigner(new PdfReader(new ByteArrayInputStream(createSimpleDocument())),
+                new ByteArrayOutputStream(), new StampingProperties());
+        signer.setSignatureSizeEstimator(estimator);
+        signer.signDetached(new BouncyCastleDigest(),
+                new PrivateKeySignature(pk, DigestAlgorithms.SHA256, BouncyCastleProvider.PROVIDER_NAME), chain,
+                null, null, tsaClient, 0, CryptoStandard.CADES);
+        Assert.assertTrue(signer.closed);
+    }
+
+    @Test
+    public void signedDocumentReservesEstimatedSizeTest() throws Exception {
+        PrivateKey pk = Pkcs12FileHelper.readFirstKey(CERTS_SRC + "signCertRsa01.p12", PASSWORD, PASSWORD);
+        Certificate[] chain = Pkcs12FileHelper.readFirstChain(CERTS_SRC + "signCertRsa01.p12", PASSWORD);
+        SignatureSizeEstimator estimator = new SignatureSizeEstimator();
+        int estimation = estimator.estimate(chain, DigestAlgorithms.SHA256, "RSA", new BouncyCastleDigest(),
+                CryptoStandard.CADES, null, null, null, null);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        PdfSigner signer = new PdfSigner(new PdfReader(new ByteArrayInputStream(createSimpleDocument())), output,
+                new StampingProperties());
+        signer.setSignatureSizeEstimator(estimator);
+        signer.signDetached(new BouncyCastleDigest(),
+                new PrivateKeySignature(pk, DigestAlgorithms.SHA256, BouncyCastleProvider.PROVIDER_NAME), chain,
+                null, null, null, 0, CryptoStandard.CADES);
+
+        try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(output.toByteArray())))) {
+            SignatureUtil signatureUtil = new SignatureUtil(document);
+            String name = signatureUtil.getSignatureNames().get(0);
+            Assert.assertEquals(estimation,
+                    signatureUtil.getSignature(name).getPdfObject().getAsString(PdfName.Contents).getValueBytes()
+                            .length);
+            Assert.assertTrue(signatureUtil.readSignatureData(name).verifySignatureIntegrityAndAuthenticity());
+        }
+    }
+
+    @Test
+    public void estimationIsCachedPerConfigurationTest() throws Exception {
+        Certificate[] chain = Pkcs12FileHelper.readFirstChain(CERTS_SRC + "signCertRsa01.p12", PASSWORD);
+        PrivateKey pk = Pkcs12FileHelper.readFirstKey(CERTS_SRC + "signCertRsa01.p12", PASSWORD, PASSWORD);
+        byte[] crl = new TestCrlBuilder((X509Certificate) chain[0], pk, new Date()).makeCrl();
+        CountingDigest digest = new CountingDigest();
+        SignatureSizeEstimator estimator = new SignatureSizeEstimator();
+
+        int first = estimator.estimate(chain, DigestAlgorithms.SHA256, "RSA", digest, CryptoStandard.CADES, null,
+                null, null, null);
+        int calls = digest.calls;
+        Assert.assertEquals(first, estimator.estimate(chain, DigestAlgorithms.SHA256, "RSA", digest,
+                CryptoStandard.CADES, null, null, null, null));
+        Assert.assertEquals(calls, digest.calls);
+
+        int withCrl = estimator.estimate(chain, DigestAlgorithms.SHA256, "RSA", digest, CryptoStandard.CADES, null,
+                Collections.singletonList(crl), null, null);
+        Assert.assertTrue(digest.calls > calls);
+        Assert.assertTrue(withCrl > first + crl.length);
+
+        estimator.clearCache();
+        calls = digest.calls;
+        estimator.estimate(chain, DigestAlgorithms.SHA256, "RSA", digest, CryptoStandard.CADES, null, null, null,
+                null);
+        Assert.assertTrue(digest.calls > calls);
+    }
+
+    @Test
+    public void negativeMarginTest() {
+        Assert.assertThrows(IllegalArgumentException.class, () -> new SignatureSizeEstimator(-1));
+    }
+
+    private static byte[] encodeContainer(IExternalSignature signature, Certificate[] chain)
+            throws GeneralSecurityException {
+        IExternalDigest digest = new BouncyCastleDigest();
+        PdfPKCS7 sgn = new PdfPKCS7((PrivateKey) null, chain, signature.getHashAlgorithm(), null, digest, false);
+        byte[] hash = digest.getMessageDigest(signature.getHashAlgorithm()).digest(new byte[] {1, 2, 3});
+        byte[] sh = sgn.getAuthenticatedAttributeBytes(hash, CryptoStandard.CADES, null, null);
+        sgn.setExternalDigest(signature.sign(sh), null, signature.getEncryptionAlgorithm());
+        return sgn.getEncodedPKCS7(hash, CryptoStandard.CADES, null, null, null);
+    }
+
+    private static X509Certificate createSelfSignedCertificate(KeyPair keyPair, String signatureAlgorithm)
+            throws Exception {
+        X500Name name = new X500Name("CN=Size estimation test");
+        Date notBefore = new Date();
+        JcaX509v3CertificateBuilder builder = new JcaX509v3CertificateBuilder(name, BigInteger.ONE, notBefore,
+                new Date(notBefore.getTime() + 24L * 60 * 60 * 1000), name, keyPair.getPublic());
+        return new JcaX509CertificateConverter().setProvider(BouncyCastleProvider.PROVIDER_NAME).getCertificate(
+                builder.build(new JcaContentSignerBuilder(signatureAlgorithm)
+                        .setProvider(BouncyCastleProvider.PROVIDER_NAME).build(keyPair.getPrivate())));
+    }
+
+    private static byte[] createSimpleDocument() {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        PdfDocument document = new PdfDocument(new PdfWriter(outputStream));
+        document.addNewPage();
+        document.close();
+        return outputStream.toByteArray();
+    }
+
+    private static class CountingDigest extends BouncyCastleDigest {
+        private int calls;
+
+        @Override
+        public MessageDigest getMessageDigest(String hashAlgorithm) throws GeneralSecurityException {
+            calls++;
+            return super.getMessageDigest(hashAlgorithm);
+        }
+    }
+}
@@ -22,19 +22,49 @@
  */
 package com.itextpdf.signatures;
 
+import com.itextpdf.io.source.RASInputStream;
+import com.itextpdf.io.source.RandomAccessSourceFactory;
 import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
 import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.StampingProperties;
+import com.itextpdf.signatures.testutils.client.TestTsaClient;
 import com.itextpdf.test.ExtendedITextTest;
 import com.itextpdf.test.annotations.type.UnitTest;
+import com.itextpdf.test.signutils.Pkcs12FileHelper;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.PrivateKey;
+import java.security.Security;
+import java.security.cert.Certificate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.junit.Assert;
+import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
 @Category(UnitTest.class)
 public class SignatureUtilUnitTest extends ExtendedITextTest {
 
+    private static final String CERTS_SRC = "./src/test/resources/com/itextpdf/signatures/certs/";
+    private static final String DESTINATION_FOLDER = "./target/test/com/itextpdf/signatures/SignatureUtilUnitTest/";
+    private static final char[] PASSWORD = "testpass".toCharArray();
+
+    @BeforeClass
+    public static void before() {
+        Security.addProvider(new BouncyCastleProvider());
+        createDestinationFolder(DESTINATION_FOLDER);
+    }
+
     @Test
     public void signatureCoversWholeDocumentBlankDocTest() {
         boolean covers;
@@ -44,4 +74,132 @@ public class SignatureUtilUnitTest extends ExtendedITextTest {
         }
         Assert.assertFalse(covers);
     }
+
+    @Test
+    public void verifyAllSignaturesTest() throws IOException, GeneralSecurityException {
+        Certificate[] rsaChain = Pkcs12FileHelper.readFirstChain(CERTS_SRC + "signCertRsa01.p12", PASSWORD);
+        PrivateKey rsaKey = Pkcs12FileHelper.readFirstKey(CERTS_SRC + "signCertRsa01.p12", PASSWORD, PASSWORD);
+        Certificate[] eccChain = Pkcs12FileHelper.readFirstChain(CERTS_SRC + "signCertEcc01.p12", PASSWORD);
+        PrivateKey eccKey = Pkcs12FileHelper.readFirstKey(CERTS_SRC + "signCertEcc01.p12", PASSWORD, PASSWORD);
+        Certificate[] tsaChain = Pkcs12FileHelper.readFirstChain(CERTS_SRC + "tsCertRsa.p12", PASSWORD);
+        PrivateKey tsaKey = Pkcs12FileHelper.readFirstKey(CERTS_SRC + "tsCertRsa.p12", PASSWORD, PASSWORD);
+
+        byte[] document = createSimpleDocument();
+        document = sign(document, rsaKey, rsaChain, DigestAlgorithms.SHA256);
+        document = sign(document, eccKey, eccChain, DigestAlgorithms.SHA256);
+        document = sign(document, rsaKey, rsaChain, DigestAlgorithms.SHA512);
+        document = sign(document, rsaKey, rsaChain, DigestAlgorithms.SHA256);
+        ByteArrayOutputStream timestamped = new ByteArrayOutputStream();
+        PdfSigner signer = new PdfSigner(new PdfReader(new ByteArrayInputStream(document)), timestamped,
+                new StampingProperties().useAppendMode());
+        signer.timestamp(new TestTsaClient(Arrays.asList(tsaChain), tsaKey), "timestamp");
+
+        Map<String, Boolean> results = verifyAllSignatures(timestamped.toByteArray());
+        Assert.assertEquals(5, results.size());
+        Assert.assertFalse(results.containsValue(false));
+        Assert.assertEquals(verifySequentially(timestamped.toByteArray()), results);
+    }
+
+    @Test
+    public void verifyAllSignaturesWithModifiedRevisionTest() throws IOException, GeneralSecurityException {
+        Certificate[] chain = Pkcs12FileHelper.readFirstChain(CERTS_SRC + "signCertRsa01.p12", PASSWORD);
+        PrivateKey key = Pkcs12FileHelper.readFirstKey(CERTS_SRC + "signCertRsa01.p12", PASSWORD, PASSWORD);
+        byte[] document = sign(createSimpleDocument(), key, chain, DigestAlgorithms.SHA256);
+        long[] firstRange;
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(document)))) {
+            SignatureUtil signatureUtil = new SignatureUtil(pdfDocument);
+            firstRange = signatureUtil.getSignature(signatureUtil.getSignatureNames().get(0)).getByteRange()
+                    .toLongArray();
+        }
+        document = sign(document, key, chain, DigestAlgorithms.SHA256);
+        document = sign(document, key, chain, DigestAlgorithms.SHA256);
+
+        // the padding at the end of the first /Contents is covered only by the later signatures
+        int padding = (int) firstRange[2] - 2;
+        Assert.assertEquals('0', document[padding]);
+        document[padding] = '1';
+
+        Map<String, Boolean> results = verifyAllSignatures(document);
+        Assert.assertEquals(Arrays.asList(true, false, false), Arrays.asList(results.values().toArray()));
+        Assert.assertEquals(verifySequentially(document), results);
+    }
+
+    @Test
+    public void verifyAllSignaturesFromFileTest() throws IOException, GeneralSecurityException {
+        byte[] document = signSeveralTimes();
+        String fileName = DESTINATION_FOLDER + "verifyAllSignaturesFromFile.pdf";
+        try (FileOutputStream outputStream = new FileOutputStream(fileName)) {
+            outputStream.write(document);
+        }
+
+        Map<String, Boolean> results = verifyAllSignatures(new PdfReader(fileName));
+        Assert.assertEquals(3, results.size());
+        Assert.assertFalse(results.containsValue(false));
+        Assert.assertEquals(verifySequentially(document), results);
+    }
+
+    @Test
+    public void verifyAllSignaturesFromCustomSourceTest() throws IOException, GeneralSecurityException {
+        byte[] document = signSeveralTimes();
+        // the reader cannot provide independent sources for such a source, so the document is hashed sequentially
+        PdfReader reader = new PdfReader(new RASInputStream(new RandomAccessSourceFactory().createSource(document)));
+
+        Map<String, Boolean> results = verifyAllSignatures(reader);
+        Assert.assertEquals(3, results.size());
+        Assert.assertFalse(results.containsValue(false));
+        Assert.assertEquals(verifySequentially(document), results);
+    }
+
+    private static Map<String, Boolean> verifyAllSignatures(byte[] document) throws IOException {
+        return verifyAllSignatures(new PdfReader(new ByteArrayInputStream(document)));
+    }
+
+    private static Map<String, Boolean> verifyAllSignatures(PdfReader reader) {
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try (PdfDocument pdfDocument = new PdfDocument(reader)) {
+            return new SignatureUtil(pdfDocument).verifyAllSignatures(executorService);
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    private static Map<String, Boolean> verifySequentially(byte[] document)
+            throws IOException, GeneralSecurityException {
+        Map<String, Boolean> results = new LinkedHashMap<>();
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(document)))) {
+            SignatureUtil signatureUtil = new SignatureUtil(pdfDocument);
+            for (String name : signatureUtil.getSignatureNames()) {
+                results.put(name, signatureUtil.readSignatureData(name).verifySignatureIntegrityAndAuthenticity());
+            }
+        }
+        return results;
+    }
+
+    private static byte[] signSeveralTimes() throws IOException, GeneralSecurityException {
+        Certificate[] rsaChain = Pkcs12FileHelper.readFirstChain(CERTS_SRC + "signCertRsa01.p12", PASSWORD);
+        PrivateKey rsaKey = Pkcs12FileHelper.readFirstKey(CERTS_SRC + "signCertRsa01.p12", PASSWORD, PASSWORD);
+        Certificate[] eccChain = Pkcs12FileHelper.readFirstChain(CERTS_SRC + "signCertEcc01.p12", PASSWORD);
+        PrivateKey eccKey = Pkcs12FileHelper.readFirstKey(CERTS_SRC + "signCertEcc01.p12", PASSWORD, PASSWORD);
+        byte[] document = sign(createSimpleDocument(), rsaKey, rsaChain, DigestAlgorithms.SHA256);
+        document = sign(document, eccKey, eccChain, DigestAlgorithms.SHA512);
+        return sign(document, rsaKey, rsaChain, DigestAlgorithms.SHA256);
+    }
+
+    private static byte[] sign(byte[] document, PrivateKey key, Certificate[] chain, String hashAlgorithm)
+            throws IOException, GeneralSecurityException {
+        ByteArrayOutputStream signed = new ByteArrayOutputStream();
+        PdfSigner signer = new PdfSigner(new PdfReader(new ByteArrayInputStream(document)), signed,
+                new StampingProperties().useAppendMode());
+        IExternalSignature pks = new PrivateKeySignature(key, hashAlgorithm, BouncyCastleProvider.PROVIDER_NAME);
+        signer.signDetached(new BouncyCastleDigest(), pks, chain, null, null, null, 0, PdfSigner.CryptoStandard.CADES);
+        return signed.toByteArray();
+    }
+
+    private static byte[] createSimpleDocument() {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        PdfDocument document = new PdfDocument(new PdfWriter(outputStream));
+        document.addNewPage();
+        document.close();
+        return outputStream.toByteArray();
+    }
 }
@@ -0,0 +1,173 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.signatures;
+
+import com.itextpdf.commons.utils.DateTimeUtil;
+import com.itextpdf.signatures.testutils.builder.TestCrlBuilder;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.UnitTest;
+import com.itextpdf.test.signutils.Pkcs12FileHelper;
+import java.io.ByteArrayInputStream;
+import java.security.PrivateKey;
+import java.security.Security;
+import java.security.SignatureException;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509CRL;
+import java.security.cert.X509Certificate;
+import java.util.Date;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(UnitTest.class)
+public class VerificationCacheUnitTest extends ExtendedITextTest {
+
+    private static final String CERTS_SRC = "./src/test/resources/com/itextpdf/signatures/OcspClientBouncyCastleTest/";
+    private static final char[] PASSWORD = "testpass".toCharArray();
+
+    private static X509Certificate signCert;
+    private static X509Certificate caCert;
+    private static PrivateKey caKey;
+
+    @BeforeClass
+    public static void before() throws Exception {
+        Security.addProvider(new BouncyCastleProvider());
+        signCert = (X509Certificate) Pkcs12FileHelper.readFirstChain(CERTS_SRC + "ocspSignRsa.p12", PASSWORD)[0];
+        caCert = (X509Certificate) Pkcs12FileHelper.readFirstChain(CERTS_SRC + "ocspRootRsa.p12", PASSWORD)[0];
+        caKey = Pkcs12FileHelper.readFirstKey(CERTS_SRC + "ocspRootRsa.p12", PASSWORD, PASSWORD);
+    }
+
+    @Test
+    public void verifyCertificateCachesResultTest() throws Exception {
+        VerificationCache cache = new VerificationCache();
+        cache.verify(signCert, caCert.getPublicKey());
+        Assert.assertEquals(1, cache.size());
+        cache.verify(signCert, caCert.getPublicKey());
+        Assert.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void verifyCertificateCachesFailureTest() throws Exception {
+        VerificationCache cache = new VerificationCache();
+        for (int i = 0; i < 2; i++) {
+            try {
+                cache.verify(signCert, signCert.getPublicKey());
+                Assert.fail("Signature exception expected");
+            } catch (SignatureException expected) {
+                // the certificate isn't self-signed
+            }
+        }
+        Assert.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void verifyCrlTest() throws Exception {
+        VerificationCache cache = new VerificationCache();
+        X509CRL crl = createCrl(DateTimeUtil.addDaysToDate(DateTimeUtil.getCurrentTimeDate(), 1));
+        cache.verify(crl, caCert.getPublicKey());
+        Assert.assertThrows(SignatureException.class, () -> cache.verify(crl, signCert.getPublicKey()));
+        Assert.assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void isRevokedTest() throws Exception {
+        VerificationCache cache = new VerificationCache();
+        X509CRL crl = createCrl(DateTimeUtil.addDaysToDate(DateTimeUtil.getCurrentTimeDate(), 1));
+        Assert.assertTrue(cache.isRevoked(crl, signCert));
+        Assert.assertFalse(cache.isRevoked(crl, caCert));
+        Assert.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void equalCrlsShareTheIndexTest() throws Exception {
+        VerificationCache cache = new VerificationCache();
+        X509CRL crl = createCrl(DateTimeUtil.addDaysToDate(DateTimeUtil.getCurrentTimeDate(), 1));
+        X509CRL parsedAgain = (X509CRL) SignUtils.parseCrlFromStream(new ByteArrayInputStream(crl.getEncoded()));
+        Assert.assertTrue(cache.isRevoked(crl, signCert));
+        Assert.assertTrue(cache.isRevoked(parsedAgain, signCert));
+        Assert.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void equalCertificatesShareTheCheckTest() throws Exception {
+        VerificationCache cache = new VerificationCache();
+        X509Certificate parsedAgain = (X509Certificate) CertificateFactory.getInstance("X.509")
+                .generateCertificate(new ByteArrayInputStream(signCert.getEncoded()));
+        cache.verify(signCert, caCert.getPublicKey());
+        cache.verify(parsedAgain, caCert.getPublicKey());
+        Assert.assertEquals(1, cache.size());
+        // the same certificate checked with another key is another entry
+        Assert.assertThrows(SignatureException.class, () -> cache.verify(parsedAgain, signCert.getPublicKey()));
+        Assert.assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void isRevokedWithOutdatedCrlTest() throws Exception {
+        VerificationCache cache = new VerificationCache();
+        X509CRL crl = createCrl(DateTimeUtil.addDaysToDate(DateTimeUtil.getCurrentTimeDate(), -1));
+        // the index expires immediately and is rebuilt on each lookup
+        Assert.assertTrue(cache.isRevoked(crl, signCert));
+        Assert.assertTrue(cache.isRevoked(crl, signCert));
+        Assert.assertFalse(cache.isRevoked(crl, caCert));
+    }
+
+    @Test
+    public void disabledCacheTest() throws Exception {
+        VerificationCache cache = new VerificationCache(0, VerificationCache.DEFAULT_TIME_TO_LIVE);
+        cache.verify(signCert, caCert.getPublicKey());
+        Assert.assertTrue(cache.isRevoked(createCrl(null), signCert));
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void clearTest() throws Exception {
+        VerificationCache cache = new VerificationCache();
+        cache.verify(signCert, caCert.getPublicKey());
+        cache.isRevoked(createCrl(null), signCert);
+        Assert.assertEquals(2, cache.size());
+        cache.clear();
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void certificateVerifierUsesCacheTest() throws Exception {
+        VerificationCache cache = new VerificationCache();
+        CertificateVerifier verifier = new CertificateVerifier(null);
+        Assert.assertNull(verifier.getVerificationCache());
+        verifier.setVerificationCache(cache);
+        verifier.verify(signCert, caCert, null);
+        Assert.assertEquals(1, cache.size());
+    }
+
+    private static X509CRL createCrl(Date nextUpdate) throws Exception {
+        Date thisUpdate = DateTimeUtil.addDaysToDate(DateTimeUtil.getCurrentTimeDate(), -2);
+        TestCrlBuilder builder = new TestCrlBuilder(caCert, caKey, thisUpdate);
+        if (nextUpdate != null) {
+            builder.setNextUpdate(nextUpdate);
+        }
+        builder.addCrlEntry(signCert, thisUpdate, 0);
+        return (X509CRL) SignUtils.parseCrlFromStream(new ByteArrayInputStream(builder.makeCrl()));
+    }
+}
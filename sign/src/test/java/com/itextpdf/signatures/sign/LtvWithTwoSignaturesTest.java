@@ -116,13 +116,14 @@ public class LtvWithTwoSignaturesTest extends ExtendedITextTest {
         Assert.assertNotNull(ocsps);
         Assert.assertEquals(5, ocsps.size());
 
+        // the intermediate certificate and the CRL are the same for both signatures and are stored once
         PdfArray certs = dssDictionary.getAsArray(PdfName.Certs);
         Assert.assertNotNull(certs);
-        Assert.assertEquals(5, certs.size());
+        Assert.assertEquals(4, certs.size());
 
         PdfArray crls = dssDictionary.getAsArray(PdfName.CRLs);
         Assert.assertNotNull(crls);
-        Assert.assertEquals(2, crls.size());
+        Assert.assertEquals(1, crls.size());
     }
 
     private void addLtvInfo(String src, String dest, String sigName, TestOcspClient testOcspClient, TestCrlClient testCrlClient ) throws java.io.IOException, GeneralSecurityException {
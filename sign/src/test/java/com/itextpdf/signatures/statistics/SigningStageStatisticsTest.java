@@ -0,0 +1,177 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.signatures.statistics;
+
+import com.itextpdf.commons.actions.EventManager;
+import com.itextpdf.commons.actions.IEvent;
+import com.itextpdf.commons.actions.IEventHandler;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.StampingProperties;
+import com.itextpdf.signatures.BouncyCastleDigest;
+import com.itextpdf.signatures.DigestAlgorithms;
+import com.itextpdf.signatures.ICrlClient;
+import com.itextpdf.signatures.PdfSigner;
+import com.itextpdf.signatures.PrivateKeySignature;
+import com.itextpdf.signatures.testutils.client.TestCrlClient;
+import com.itextpdf.signatures.testutils.client.TestOcspClient;
+import com.itextpdf.signatures.testutils.client.TestTsaClient;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.IntegrationTest;
+import com.itextpdf.test.signutils.Pkcs12FileHelper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.PrivateKey;
+import java.security.Security;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(IntegrationTest.class)
+public class SigningStageStatisticsTest extends ExtendedITextTest {
+
+    private static final String CERTS_SRC = "./src/test/resources/com/itextpdf/signatures/certs/";
+    private static final String SOURCE_FILE =
+            "./src/test/resources/com/itextpdf/signatures/sign/PadesSignatureLevelTest/helloWorldDoc.pdf";
+
+    private static final char[] PASSWORD = "testpass".toCharArray();
+
+    private static SigningStageStatisticsHandler handler = new SigningStageStatisticsHandler();
+
+    @BeforeClass
+    public static void before() {
+        Security.addProvider(new BouncyCastleProvider());
+    }
+
+    @Before
+    public void registerHandler() {
+        EventManager.getInstance().register(handler);
+    }
+
+    @After
+    public void unregisterHandler() {
+        EventManager.getInstance().unregister(handler);
+        handler.clearEvents();
+    }
+
+    @Test
+    public void signDetachedStagesTest() throws IOException, GeneralSecurityException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        signDetached(outputStream, true);
+
+        Map<SigningStage, SigningStageStatisticsEvent> events = new EnumMap<>(SigningStage.class);
+        for (SigningStageStatisticsEvent event : handler.getEvents()) {
+            Assert.assertNull(events.put(event.getStage(), event));
+            Assert.assertTrue(event.getDuration() >= 0);
+        }
+        Assert.assertEquals(Arrays.asList(SigningStage.PRE_CLOSE, SigningStage.RANGE_DIGEST,
+                SigningStage.CRL_RETRIEVAL, SigningStage.OCSP_RETRIEVAL, SigningStage.EXTERNAL_SIGNATURE,
+                SigningStage.TIMESTAMP, SigningStage.CLOSE), new ArrayList<>(events.keySet()));
+
+        long documentLength = outputStream.size();
+        Assert.assertEquals(documentLength, events.get(SigningStage.PRE_CLOSE).getAmountOfBytes());
+        Assert.assertEquals(documentLength, events.get(SigningStage.CLOSE).getAmountOfBytes());
+        Assert.assertTrue(events.get(SigningStage.RANGE_DIGEST).getAmountOfBytes() < documentLength);
+        Assert.assertTrue(events.get(SigningStage.CRL_RETRIEVAL).getAmountOfBytes() > 0);
+        Assert.assertTrue(events.get(SigningStage.OCSP_RETRIEVAL).getAmountOfBytes() > 0);
+        Assert.assertTrue(events.get(SigningStage.EXTERNAL_SIGNATURE).getAmountOfBytes() > 0);
+        Assert.assertTrue(events.get(SigningStage.TIMESTAMP).getAmountOfBytes() > 0);
+    }
+
+    @Test
+    public void disabledInstrumentationTest() throws IOException, GeneralSecurityException {
+        signDetached(new ByteArrayOutputStream(), false);
+        Assert.assertTrue(handler.getEvents().isEmpty());
+    }
+
+    @Test
+    public void onlyEnabledSignerReportsStagesTest() throws IOException, GeneralSecurityException {
+        signDetached(new ByteArrayOutputStream(), false);
+        signDetached(new ByteArrayOutputStream(), true);
+        signDetached(new ByteArrayOutputStream(), false);
+        int closeCount = 0;
+        for (SigningStageStatisticsEvent event : handler.getEvents()) {
+            if (event.getStage() == SigningStage.CLOSE) {
+                closeCount++;
+            }
+        }
+        Assert.assertEquals(1, closeCount);
+    }
+
+    private static void signDetached(ByteArrayOutputStream outputStream, boolean stageStatisticsEnabled)
+            throws IOException, GeneralSecurityException {
+        Certificate[] signChain = Pkcs12FileHelper.readFirstChain(CERTS_SRC + "signCertRsa01.p12", PASSWORD);
+        PrivateKey signPrivateKey = Pkcs12FileHelper.readFirstKey(CERTS_SRC + "signCertRsa01.p12", PASSWORD,
+                PASSWORD);
+        Certificate[] tsaChain = Pkcs12FileHelper.readFirstChain(CERTS_SRC + "tsCertRsa.p12", PASSWORD);
+        PrivateKey tsaPrivateKey = Pkcs12FileHelper.readFirstKey(CERTS_SRC + "tsCertRsa.p12", PASSWORD, PASSWORD);
+        X509Certificate caCert = (X509Certificate) Pkcs12FileHelper.readFirstChain(
+                CERTS_SRC + "rootRsa.p12", PASSWORD)[0];
+        PrivateKey caPrivateKey = Pkcs12FileHelper.readFirstKey(CERTS_SRC + "rootRsa.p12", PASSWORD, PASSWORD);
+
+        Certificate[] chain = new Certificate[] {signChain[0], caCert};
+        ICrlClient crlClient = new TestCrlClient().addBuilderForCertIssuer(caCert, caPrivateKey);
+        TestOcspClient ocspClient = new TestOcspClient().addBuilderForCertIssuer(caCert, caPrivateKey);
+
+        PdfSigner signer = new PdfSigner(new PdfReader(SOURCE_FILE), outputStream, new StampingProperties());
+        signer.setFieldName("Signature1");
+        signer.setStageStatisticsEnabled(stageStatisticsEnabled);
+        signer.signDetached(new BouncyCastleDigest(), new PrivateKeySignature(signPrivateKey,
+                        DigestAlgorithms.SHA256, BouncyCastleProvider.PROVIDER_NAME), chain,
+                Collections.singletonList(crlClient), ocspClient, new TestTsaClient(Arrays.asList(tsaChain),
+                        tsaPrivateKey), 0, PdfSigner.CryptoStandard.CADES);
+    }
+
+    private static class SigningStageStatisticsHandler implements IEventHandler {
+        private final List<SigningStageStatisticsEvent> events = new ArrayList<>();
+
+        @Override
+        public void onEvent(IEvent event) {
+            if (!(event instanceof SigningStageStatisticsEvent)) {
+                return;
+            }
+            events.add((SigningStageStatisticsEvent) event);
+        }
+
+        public List<SigningStageStatisticsEvent> getEvents() {
+            return events;
+        }
+
+        public void clearEvents() {
+            events.clear();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.signatures.statistics;
+
+import com.itextpdf.commons.actions.AbstractStatisticsAggregator;
+import com.itextpdf.commons.actions.AbstractStatisticsEvent;
+import com.itextpdf.commons.logs.CommonsLogMessageConstant;
+import com.itextpdf.kernel.actions.data.ITextCoreProductData;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.LogMessage;
+import com.itextpdf.test.annotations.LogMessages;
+import com.itextpdf.test.annotations.type.UnitTest;
+
+import java.util.Collections;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(UnitTest.class)
+public class SigningStageStatisticsUnitTest extends ExtendedITextTest {
+    @Test
+    public void defaultEventTest() {
+        SigningStageStatisticsEvent event = new SigningStageStatisticsEvent(SigningStage.RANGE_DIGEST, 10, 20, 1,
+                ITextCoreProductData.getInstance());
+
+        Assert.assertEquals(SigningStage.RANGE_DIGEST, event.getStage());
+        Assert.assertEquals(10, event.getDuration());
+        Assert.assertEquals(20, event.getAmountOfBytes());
+        Assert.assertEquals(1, event.getRetries());
+        Assert.assertEquals(Collections.singletonList("signingStages"), event.getStatisticsNames());
+        Assert.assertEquals(SigningStageStatisticsAggregator.class,
+                event.createStatisticsAggregatorFromName("signingStages").getClass());
+    }
+
+    @Test
+    @LogMessages(messages = @LogMessage(messageTemplate = CommonsLogMessageConstant.INVALID_STATISTICS_NAME))
+    public void invalidStatisticsNameEventTest() {
+        SigningStageStatisticsEvent event = new SigningStageStatisticsEvent(SigningStage.CLOSE, 0, 0, 0,
+                ITextCoreProductData.getInstance());
+        Assert.assertNull(event.createStatisticsAggregatorFromName("invalid name"));
+    }
+
+    @Test
+    public void aggregateEventTest() {
+        SigningStageStatisticsAggregator aggregator = new SigningStageStatisticsAggregator();
+        aggregator.aggregate(new SigningStageStatisticsEvent(SigningStage.TSA_REQUEST, 100, 4000, 0,
+                ITextCoreProductData.getInstance()));
+        aggregator.aggregate(new SigningStageStatisticsEvent(SigningStage.TSA_REQUEST, 300, 5000, 2,
+                ITextCoreProductData.getInstance()));
+        aggregator.aggregate(new SigningStageStatisticsEvent(SigningStage.PRE_CLOSE, 50, 10000, 0,
+                ITextCoreProductData.getInstance()));
+
+        Map<SigningStage, SigningStageStatistics> aggregation =
+                (Map<SigningStage, SigningStageStatistics>) aggregator.retrieveAggregation();
+        Assert.assertEquals(2, aggregation.size());
+
+        SigningStageStatistics tsa = aggregation.get(SigningStage.TSA_REQUEST);
+        Assert.assertEquals(2, tsa.getCount());
+        Assert.assertEquals(400, tsa.getTotalDuration());
+        Assert.assertEquals(300, tsa.getMaxDuration());
+        Assert.assertEquals(200, tsa.getAverageDuration(), 0.001);
+        Assert.assertEquals(9000, tsa.getAmountOfBytes());
+        Assert.assertEquals(2, tsa.getRetries());
+
+        SigningStageStatistics preClose = aggregation.get(SigningStage.PRE_CLOSE);
+        Assert.assertEquals(1, preClose.getCount());
+        Assert.assertEquals(10000, preClose.getAmountOfBytes());
+    }
+
+    @Test
+    public void aggregateAnotherEventTest() {
+        SigningStageStatisticsAggregator aggregator = new SigningStageStatisticsAggregator();
+        aggregator.aggregate(null);
+        Assert.assertTrue(((Map<?, ?>) aggregator.retrieveAggregation()).isEmpty());
+    }
+
+    @Test
+    public void mergeTest() {
+        SigningStageStatisticsAggregator aggregator1 = new SigningStageStatisticsAggregator();
+        SigningStageStatisticsAggregator aggregator2 = new SigningStageStatisticsAggregator();
+        aggregator1.aggregate(new SigningStageStatisticsEvent(SigningStage.CLOSE, 10, 100, 0,
+                ITextCoreProductData.getInstance()));
+        aggregator2.aggregate(new SigningStageStatisticsEvent(SigningStage.CLOSE, 30, 200, 0,
+                ITextCoreProductData.getInstance()));
+        aggregator2.aggregate(new SigningStageStatisticsEvent(SigningStage.OCSP_REQUEST, 5, 1500, 1,
+                ITextCoreProductData.getInstance()));
+
+        aggregator1.merge(aggregator2);
+
+        Map<SigningStage, SigningStageStatistics> aggregation =
+                (Map<SigningStage, SigningStageStatistics>) aggregator1.retrieveAggregation();
+        Assert.assertEquals(2, aggregation.size());
+        Assert.assertEquals(2, aggregation.get(SigningStage.CLOSE).getCount());
+        Assert.assertEquals(40, aggregation.get(SigningStage.CLOSE).getTotalDuration());
+        Assert.assertEquals(30, aggregation.get(SigningStage.CLOSE).getMaxDuration());
+        Assert.assertEquals(300, aggregation.get(SigningStage.CLOSE).getAmountOfBytes());
+        Assert.assertEquals(1, aggregation.get(SigningStage.OCSP_REQUEST).getRetries());
+    }
+
+    @Test
+    public void mergeAnotherAggregatorTest() {
+        SigningStageStatisticsAggregator aggregator = new SigningStageStatisticsAggregator();
+        aggregator.merge(new AbstractStatisticsAggregator() {
+            @Override
+            public void aggregate(AbstractStatisticsEvent event) {
+            }
+
+            @Override
+            public Object retrieveAggregation() {
+                return null;
+            }
+
+            @Override
+            public void merge(AbstractStatisticsAggregator aggregator) {
+            }
+        });
+        Assert.assertTrue(((Map<?, ?>) aggregator.retrieveAggregation()).isEmpty());
+    }
+
+    @Test
+    public void disabledInstrumentationTest() {
+        Assert.assertEquals(SigningInstrumentation.NOT_STARTED, SigningInstrumentation.start(false));
+        Assert.assertNotEquals(SigningInstrumentation.NOT_STARTED, SigningInstrumentation.start(true));
+    }
+}